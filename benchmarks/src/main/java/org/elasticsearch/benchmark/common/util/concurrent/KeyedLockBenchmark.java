@@ -0,0 +1,124 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.elasticsearch.benchmark.common.util.concurrent;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.KeyedLock;
+import org.elasticsearch.common.util.concurrent.StripedLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares the per-uid locking of the live version map, i.e. acquiring the lock of a document id, updating a map entry and
+ * releasing the lock, with a {@link KeyedLock} and a {@link StripedLock}.
+ */
+@Fork(3)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") //invoked by benchmarking framework
+public class KeyedLockBenchmark {
+
+    @Param({"keyed", "striped"})
+    private String lockType;
+
+    @Param({"1000", "1000000"})
+    private int numIds;
+
+    private BytesRef[] ids;
+
+    private Function<BytesRef, Releasable> lock;
+
+    private Map<BytesRef, Long> versions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ids = new BytesRef[numIds];
+        for (int i = 0; i < numIds; i++) {
+            ids[i] = new BytesRef(Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+        }
+        versions = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
+        switch (lockType) {
+            case "keyed":
+                KeyedLock<BytesRef> keyedLock = new KeyedLock<>();
+                lock = keyedLock::acquire;
+                break;
+            case "striped":
+                StripedLock<BytesRef> stripedLock = new StripedLock<>(256);
+                lock = stripedLock::acquire;
+                break;
+            default:
+                throw new IllegalArgumentException("unknown lock type [" + lockType + "]");
+        }
+    }
+
+    private Long update() {
+        final BytesRef id = ids[ThreadLocalRandom.current().nextInt(numIds)];
+        try (Releasable ignored = lock.apply(id)) {
+            final Long previous = versions.get(id);
+            versions.put(id, previous == null ? 1L : previous + 1);
+            return previous;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long update_01() {
+        return update();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Long update_04() {
+        return update();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public Long update_16() {
+        return update();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Long update_32() {
+        return update();
+    }
+}
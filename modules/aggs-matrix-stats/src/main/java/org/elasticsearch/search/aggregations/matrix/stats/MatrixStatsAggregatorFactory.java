@@ -57,4 +57,9 @@ final class MatrixStatsAggregatorFactory
                                           Map<String, Object> metaData) throws IOException {
         return new MatrixStatsAggregator(name, valuesSources, context, parent, multiValueMode, pipelineAggregators, metaData);
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
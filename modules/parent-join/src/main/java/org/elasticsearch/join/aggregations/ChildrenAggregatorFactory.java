@@ -80,4 +80,9 @@ public class ChildrenAggregatorFactory extends ValuesSourceAggregatorFactory<Wit
             return asMultiBucketAggregator(this, context, parent);
         }
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
@@ -80,4 +80,9 @@ public class ParentAggregatorFactory extends ValuesSourceAggregatorFactory<WithO
             return asMultiBucketAggregator(this, context, children);
         }
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
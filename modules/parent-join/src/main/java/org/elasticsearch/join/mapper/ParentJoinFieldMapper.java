@@ -224,7 +224,8 @@ public final class ParentJoinFieldMapper extends FieldMapper {
         @Override
         public IndexFieldData.Builder fielddataBuilder(String fullyQualifiedIndexName) {
             failIfNoDocValues();
-            return new DocValuesIndexFieldData.Builder();
+            // joins need the OrdinalMap of the global ordinals
+            return new DocValuesIndexFieldData.Builder().incrementalGlobalOrdinals(false);
         }
 
         @Override
@@ -0,0 +1,80 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpVersion;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.http.HttpRequest;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class Netty4HttpRequestTests extends ESTestCase {
+
+    public void testReleaseIsIdempotent() {
+        final FullHttpRequest nettyRequest = newRequest("{\"foo\":\"bar\"}");
+        final Netty4HttpRequest request = new Netty4HttpRequest(nettyRequest, 0);
+        assertThat(request.content(), equalTo(new BytesArray("{\"foo\":\"bar\"}")));
+        request.release();
+        assertThat(nettyRequest.refCnt(), equalTo(0));
+        request.release();
+        assertThat(nettyRequest.refCnt(), equalTo(0));
+    }
+
+    public void testReleaseAndCopy() {
+        final String content = randomAlphaOfLengthBetween(1, 1024);
+        final FullHttpRequest nettyRequest = newRequest(content);
+        final Netty4HttpRequest request = new Netty4HttpRequest(nettyRequest, 0);
+        final HttpRequest copy = request.releaseAndCopy();
+        assertThat(copy, not(sameInstance(request)));
+        assertThat(nettyRequest.refCnt(), equalTo(0));
+        assertThat(copy.content(), equalTo(new BytesArray(content)));
+        assertThat(copy.uri(), equalTo(request.uri()));
+        // the copy does not use pooled buffers
+        assertThat(copy.releaseAndCopy(), sameInstance(copy));
+        copy.release();
+        assertThat(copy.content(), equalTo(new BytesArray(content)));
+    }
+
+    public void testRemoveHeaderSharesRelease() {
+        final FullHttpRequest nettyRequest = newRequest("{}");
+        nettyRequest.headers().add("Content-Type", "text/plain");
+        final Netty4HttpRequest request = new Netty4HttpRequest(nettyRequest, 0);
+        final HttpRequest withoutHeader = request.removeHeader("Content-Type");
+        withoutHeader.release();
+        assertThat(nettyRequest.refCnt(), equalTo(0));
+        // releasing the original request again must not fail since both share the underlying buffer
+        request.release();
+    }
+
+    private static FullHttpRequest newRequest(String content) {
+        final ByteBuf buffer = Unpooled.copiedBuffer(content, StandardCharsets.UTF_8);
+        return new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/_bulk", buffer);
+    }
+}
@@ -19,10 +19,8 @@
 
 package org.elasticsearch.http.nio;
 
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandler;
 import io.netty.handler.codec.ByteToMessageDecoder;
-import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpContentCompressor;
 import io.netty.handler.codec.http.HttpContentDecompressor;
@@ -124,18 +122,11 @@ public class HttpReadWriteHandler implements ReadWriteHandler {
         final HttpPipelinedRequest<FullHttpRequest> pipelinedRequest = (HttpPipelinedRequest<FullHttpRequest>) msg;
         FullHttpRequest request = pipelinedRequest.getRequest();
 
+        // the request is released once the response is sent or it is copied into an unpooled buffer if the rest handler does not
+        // allow pooled buffers, see RestHandler#allowsUnsafeBuffers
+        final NioHttpRequest httpRequest = new NioHttpRequest(request, pipelinedRequest.getSequence());
+        boolean success = false;
         try {
-            final FullHttpRequest copiedRequest =
-                new DefaultFullHttpRequest(
-                    request.protocolVersion(),
-                    request.method(),
-                    request.uri(),
-                    Unpooled.copiedBuffer(request.content()),
-                    request.headers(),
-                    request.trailingHeaders());
-
-            NioHttpRequest httpRequest = new NioHttpRequest(copiedRequest, pipelinedRequest.getSequence());
-
             if (request.decoderResult().isFailure()) {
                 Throwable cause = request.decoderResult().cause();
                 if (cause instanceof Error) {
@@ -147,9 +138,11 @@ public class HttpReadWriteHandler implements ReadWriteHandler {
             } else {
                 transport.incomingRequest(httpRequest, nioHttpChannel);
             }
+            success = true;
         } finally {
-            // As we have copied the buffer, we can release the request
-            request.release();
+            if (success == false) {
+                httpRequest.release();
+            }
         }
     }
 }
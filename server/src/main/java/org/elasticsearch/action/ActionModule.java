@@ -185,13 +185,24 @@ import org.elasticsearch.action.ingest.SimulatePipelineTransportAction;
 import org.elasticsearch.action.main.MainAction;
 import org.elasticsearch.action.main.TransportMainAction;
 import org.elasticsearch.action.search.ClearScrollAction;
+import org.elasticsearch.action.search.ClosePointInTimeAction;
 import org.elasticsearch.action.search.MultiSearchAction;
+import org.elasticsearch.action.search.OpenPointInTimeAction;
 import org.elasticsearch.action.search.SearchAction;
 import org.elasticsearch.action.search.SearchScrollAction;
 import org.elasticsearch.action.search.TransportClearScrollAction;
+import org.elasticsearch.action.search.TransportClosePointInTimeAction;
 import org.elasticsearch.action.search.TransportMultiSearchAction;
+import org.elasticsearch.action.search.TransportOpenPointInTimeAction;
 import org.elasticsearch.action.search.TransportSearchAction;
 import org.elasticsearch.action.search.TransportSearchScrollAction;
+import org.elasticsearch.action.search.async.AsyncSearchSecurity;
+import org.elasticsearch.action.search.async.DeleteAsyncSearchAction;
+import org.elasticsearch.action.search.async.GetAsyncSearchAction;
+import org.elasticsearch.action.search.async.SubmitAsyncSearchAction;
+import org.elasticsearch.action.search.async.TransportDeleteAsyncSearchAction;
+import org.elasticsearch.action.search.async.TransportGetAsyncSearchAction;
+import org.elasticsearch.action.search.async.TransportSubmitAsyncSearchAction;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.AutoCreateIndex;
 import org.elasticsearch.action.support.DestructiveOperations;
@@ -320,11 +331,16 @@ import org.elasticsearch.rest.action.ingest.RestGetPipelineAction;
 import org.elasticsearch.rest.action.ingest.RestPutPipelineAction;
 import org.elasticsearch.rest.action.ingest.RestSimulatePipelineAction;
 import org.elasticsearch.rest.action.search.RestClearScrollAction;
+import org.elasticsearch.rest.action.search.RestClosePointInTimeAction;
 import org.elasticsearch.rest.action.search.RestCountAction;
+import org.elasticsearch.rest.action.search.RestDeleteAsyncSearchAction;
 import org.elasticsearch.rest.action.search.RestExplainAction;
+import org.elasticsearch.rest.action.search.RestGetAsyncSearchAction;
 import org.elasticsearch.rest.action.search.RestMultiSearchAction;
+import org.elasticsearch.rest.action.search.RestOpenPointInTimeAction;
 import org.elasticsearch.rest.action.search.RestSearchAction;
 import org.elasticsearch.rest.action.search.RestSearchScrollAction;
+import org.elasticsearch.rest.action.search.RestSubmitAsyncSearchAction;
 import org.elasticsearch.tasks.Task;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.usage.UsageService;
@@ -361,6 +377,7 @@ public class ActionModule extends AbstractModule {
     private final AutoCreateIndex autoCreateIndex;
     private final DestructiveOperations destructiveOperations;
     private final RestController restController;
+    private final AsyncSearchSecurity asyncSearchSecurity;
 
     public ActionModule(boolean transportClient, Settings settings, IndexNameExpressionResolver indexNameExpressionResolver,
                         IndexScopedSettings indexScopedSettings, ClusterSettings clusterSettings, SettingsFilter settingsFilter,
@@ -392,6 +409,17 @@ public class ActionModule extends AbstractModule {
                 restWrapper = newRestWrapper;
             }
         }
+        AsyncSearchSecurity asyncSearchSecurity = null;
+        for (ActionPlugin plugin : actionPlugins) {
+            AsyncSearchSecurity newAsyncSearchSecurity = plugin.getAsyncSearchSecurity();
+            if (newAsyncSearchSecurity != null) {
+                if (asyncSearchSecurity != null) {
+                    throw new IllegalArgumentException("Cannot have more than one plugin securing async searches");
+                }
+                asyncSearchSecurity = newAsyncSearchSecurity;
+            }
+        }
+        this.asyncSearchSecurity = asyncSearchSecurity == null ? AsyncSearchSecurity.NONE : asyncSearchSecurity;
         if (transportClient) {
             restController = null;
         } else {
@@ -504,6 +532,11 @@ public class ActionModule extends AbstractModule {
         actions.register(SearchAction.INSTANCE, TransportSearchAction.class);
         actions.register(SearchScrollAction.INSTANCE, TransportSearchScrollAction.class);
         actions.register(MultiSearchAction.INSTANCE, TransportMultiSearchAction.class);
+        actions.register(OpenPointInTimeAction.INSTANCE, TransportOpenPointInTimeAction.class);
+        actions.register(ClosePointInTimeAction.INSTANCE, TransportClosePointInTimeAction.class);
+        actions.register(SubmitAsyncSearchAction.INSTANCE, TransportSubmitAsyncSearchAction.class);
+        actions.register(GetAsyncSearchAction.INSTANCE, TransportGetAsyncSearchAction.class);
+        actions.register(DeleteAsyncSearchAction.INSTANCE, TransportDeleteAsyncSearchAction.class);
         actions.register(ExplainAction.INSTANCE, TransportExplainAction.class);
         actions.register(ClearScrollAction.INSTANCE, TransportClearScrollAction.class);
         actions.register(RecoveryAction.INSTANCE, TransportRecoveryAction.class);
@@ -622,6 +655,11 @@ public class ActionModule extends AbstractModule {
         registerHandler.accept(new RestSearchScrollAction(settings, restController));
         registerHandler.accept(new RestClearScrollAction(settings, restController));
         registerHandler.accept(new RestMultiSearchAction(settings, restController));
+        registerHandler.accept(new RestOpenPointInTimeAction(settings, restController));
+        registerHandler.accept(new RestClosePointInTimeAction(settings, restController));
+        registerHandler.accept(new RestSubmitAsyncSearchAction(settings, restController));
+        registerHandler.accept(new RestGetAsyncSearchAction(settings, restController));
+        registerHandler.accept(new RestDeleteAsyncSearchAction(settings, restController));
 
         registerHandler.accept(new RestValidateQueryAction(settings, restController));
 
@@ -688,6 +726,7 @@ public class ActionModule extends AbstractModule {
         if (false == transportClient) {
             // Supporting classes only used when not a transport client
             bind(AutoCreateIndex.class).toInstance(autoCreateIndex);
+            bind(AsyncSearchSecurity.class).toInstance(asyncSearchSecurity);
             bind(TransportLivenessAction.class).asEagerSingleton();
 
             // register Action -> transportAction Map used by NodeClient
@@ -166,6 +166,14 @@ class BulkPrimaryExecutionContext {
         return currentIndex < request.items().length;
     }
 
+    /**
+     * returns the number of leading items of the {@link BulkShardRequest#items()} array
+     * that have completed on the primary
+     */
+    public int getNumberOfCompletedItems() {
+        return Math.min(currentIndex, request.items().length);
+    }
+
 
     /** returns the name of the index the current request used */
     public String getConcreteIndex() {
@@ -184,7 +184,7 @@ public class BulkRequest extends ActionRequest implements CompositeIndicesReques
         requests.add(request);
         addPayload(payload);
         // lack of source is validated in validate() method
-        sizeInBytes += (request.source() != null ? request.source().length() : 0) + REQUEST_OVERHEAD;
+        sizeInBytes += estimateSizeInBytes(request);
         indices.add(request.index());
         return this;
     }
@@ -206,15 +206,7 @@ public class BulkRequest extends ActionRequest implements CompositeIndicesReques
 
         requests.add(request);
         addPayload(payload);
-        if (request.doc() != null) {
-            sizeInBytes += request.doc().source().length();
-        }
-        if (request.upsertRequest() != null) {
-            sizeInBytes += request.upsertRequest().source().length();
-        }
-        if (request.script() != null) {
-            sizeInBytes += request.script().getIdOrCode().length() * 2;
-        }
+        sizeInBytes += estimateSizeInBytes(request);
         indices.add(request.index());
         return this;
     }
@@ -232,11 +224,36 @@ public class BulkRequest extends ActionRequest implements CompositeIndicesReques
 
         requests.add(request);
         addPayload(payload);
-        sizeInBytes += REQUEST_OVERHEAD;
+        sizeInBytes += estimateSizeInBytes(request);
         indices.add(request.index());
         return this;
     }
 
+    /**
+     * Returns the estimated size in bytes the given request contributes to a bulk request
+     */
+    static long estimateSizeInBytes(DocWriteRequest<?> request) {
+        if (request instanceof IndexRequest) {
+            final IndexRequest indexRequest = (IndexRequest) request;
+            return (indexRequest.source() != null ? indexRequest.source().length() : 0) + REQUEST_OVERHEAD;
+        } else if (request instanceof UpdateRequest) {
+            final UpdateRequest updateRequest = (UpdateRequest) request;
+            long sizeInBytes = 0;
+            if (updateRequest.doc() != null) {
+                sizeInBytes += updateRequest.doc().source().length();
+            }
+            if (updateRequest.upsertRequest() != null) {
+                sizeInBytes += updateRequest.upsertRequest().source().length();
+            }
+            if (updateRequest.script() != null) {
+                sizeInBytes += updateRequest.script().getIdOrCode().length() * 2;
+            }
+            return sizeInBytes;
+        } else {
+            return REQUEST_OVERHEAD;
+        }
+    }
+
     private void addPayload(Object payload) {
         if (payloads == null) {
             if (payload == null) {
@@ -656,7 +673,9 @@ public class BulkRequest extends ActionRequest implements CompositeIndicesReques
         waitForActiveShards = ActiveShardCount.readFrom(in);
         int size = in.readVInt();
         for (int i = 0; i < size; i++) {
-            requests.add(DocWriteRequest.readDocumentRequest(in));
+            final DocWriteRequest<?> request = DocWriteRequest.readDocumentRequest(in);
+            requests.add(request);
+            sizeInBytes += estimateSizeInBytes(request);
         }
         refreshPolicy = RefreshPolicy.readFrom(in);
         timeout = in.readTimeValue();
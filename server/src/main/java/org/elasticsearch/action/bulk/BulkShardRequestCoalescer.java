@@ -0,0 +1,250 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.ContextPreservingActionListener;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Coalesces small {@link BulkShardRequest}s that target the same shard and arrive within a short time window into a single shard
+ * level request. Only requests that agree on refresh policy, wait for active shards and timeout and that are executed with the
+ * same thread context headers, so on behalf of the same user, are coalesced. The requests of a batch usually belong to different
+ * bulk requests; the {@link Task#X_OPAQUE_ID} header is ignored when grouping them. Once the window elapses or the pending batch
+ * reaches the configured maximum number of operations or bytes, the batch is sent as one {@link BulkShardRequest} and its
+ * response is split up again for the individual callers.
+ */
+final class BulkShardRequestCoalescer {
+
+    private final ThreadPool threadPool;
+    private final BiConsumer<BulkShardRequest, ActionListener<BulkShardResponse>> executor;
+    private final Map<Key, Batch> pending = new HashMap<>();
+
+    BulkShardRequestCoalescer(ThreadPool threadPool, BiConsumer<BulkShardRequest, ActionListener<BulkShardResponse>> executor) {
+        this.threadPool = threadPool;
+        this.executor = executor;
+    }
+
+    /**
+     * Adds the given request to the pending batch of its shard and notifies the listener once the batch was executed.
+     *
+     * @param window        the maximum time the request waits for other requests to join its batch
+     * @param maxOperations the maximum number of operations of a batch or <code>-1</code> if unbounded
+     * @param maxBytes      the maximum estimated size in bytes of a batch or <code>-1</code> if unbounded
+     */
+    void execute(BulkShardRequest request, long sizeInBytes, TimeValue window, int maxOperations, long maxBytes,
+                 ActionListener<BulkShardResponse> listener) {
+        final ThreadContext threadContext = threadPool.getThreadContext();
+        final Key key = new Key(request, threadContext.getHeaders());
+        final List<Batch> toFlush = new ArrayList<>(2);
+        final Batch batch;
+        boolean newBatch = false;
+        synchronized (pending) {
+            Batch current = pending.get(key);
+            if (current != null && current.fits(request, sizeInBytes, maxOperations, maxBytes) == false) {
+                pending.remove(key);
+                toFlush.add(current);
+                current = null;
+            }
+            if (current == null) {
+                current = new Batch(key);
+                pending.put(key, current);
+                newBatch = true;
+            }
+            current.add(request, sizeInBytes, ContextPreservingActionListener.wrapPreservingContext(listener, threadContext));
+            if (current.isFull(maxOperations, maxBytes)) {
+                pending.remove(key);
+                toFlush.add(current);
+            }
+            batch = current;
+        }
+        for (Batch full : toFlush) {
+            full.flush();
+        }
+        if (newBatch && toFlush.contains(batch) == false) {
+            // all requests of the batch have the same headers, the batch is sent with the context of the request that created it
+            threadPool.schedule(window, ThreadPool.Names.SAME, threadContext.preserveContext(() -> {
+                final boolean removed;
+                synchronized (pending) {
+                    removed = pending.remove(key, batch);
+                }
+                if (removed) {
+                    batch.flush();
+                }
+            }));
+        }
+    }
+
+    private static final class Key {
+        private final ShardId shardId;
+        private final RefreshPolicy refreshPolicy;
+        private final ActiveShardCount waitForActiveShards;
+        private final TimeValue timeout;
+        private final Map<String, String> headers;
+
+        Key(BulkShardRequest request, Map<String, String> headers) {
+            this.shardId = request.shardId();
+            this.refreshPolicy = request.getRefreshPolicy();
+            this.waitForActiveShards = request.waitForActiveShards();
+            this.timeout = request.timeout();
+            if (headers.containsKey(Task.X_OPAQUE_ID)) {
+                headers = new HashMap<>(headers);
+                headers.remove(Task.X_OPAQUE_ID);
+            }
+            this.headers = headers;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return shardId.equals(key.shardId) && refreshPolicy == key.refreshPolicy
+                && waitForActiveShards.equals(key.waitForActiveShards) && timeout.equals(key.timeout) && headers.equals(key.headers);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shardId, refreshPolicy, waitForActiveShards, timeout, headers);
+        }
+    }
+
+    private final class Batch {
+        private final Key key;
+        private final List<BulkShardRequest> requests = new ArrayList<>();
+        private final List<ActionListener<BulkShardResponse>> listeners = new ArrayList<>();
+        private int operations;
+        private long sizeInBytes;
+
+        Batch(Key key) {
+            this.key = key;
+        }
+
+        boolean fits(BulkShardRequest request, long requestSizeInBytes, int maxOperations, long maxBytes) {
+            return (maxOperations < 0 || operations + request.items().length <= maxOperations)
+                && (maxBytes < 0 || sizeInBytes + requestSizeInBytes <= maxBytes);
+        }
+
+        boolean isFull(int maxOperations, long maxBytes) {
+            return (maxOperations >= 0 && operations >= maxOperations) || (maxBytes >= 0 && sizeInBytes >= maxBytes);
+        }
+
+        void add(BulkShardRequest request, long requestSizeInBytes, ActionListener<BulkShardResponse> listener) {
+            requests.add(request);
+            listeners.add(listener);
+            operations += request.items().length;
+            sizeInBytes += requestSizeInBytes;
+        }
+
+        void flush() {
+            if (requests.size() == 1) {
+                // nothing to coalesce, send the request as is such that it keeps its parent task
+                executor.accept(requests.get(0), listeners.get(0));
+                return;
+            }
+            final BulkItemRequest[] items = new BulkItemRequest[operations];
+            TaskId parentTask = requests.get(0).getParentTask();
+            int offset = 0;
+            for (BulkShardRequest request : requests) {
+                if (parentTask.equals(request.getParentTask()) == false) {
+                    parentTask = TaskId.EMPTY_TASK_ID;
+                }
+                for (BulkItemRequest item : request.items()) {
+                    items[offset] = new BulkItemRequest(offset, item.request());
+                    offset++;
+                }
+            }
+            final BulkShardRequest first = requests.get(0);
+            final BulkShardRequest coalesced = new BulkShardRequest(key.shardId, key.refreshPolicy, items);
+            coalesced.waitForActiveShards(first.waitForActiveShards());
+            coalesced.timeout(first.timeout());
+            // a request that is shared by several bulk requests is not a child of any of them. Bulk requests cannot be cancelled,
+            // and each bulk task stays registered until the listener of its own shard request is notified.
+            coalesced.setParentTask(parentTask);
+            executor.accept(coalesced, new ActionListener<BulkShardResponse>() {
+                @Override
+                public void onResponse(BulkShardResponse response) {
+                    final BulkItemResponse[] coalescedResponses = new BulkItemResponse[operations];
+                    for (BulkItemResponse itemResponse : response.getResponses()) {
+                        coalescedResponses[itemResponse.getItemId()] = itemResponse;
+                    }
+                    int offset = 0;
+                    for (int i = 0; i < requests.size(); i++) {
+                        final BulkItemRequest[] requestItems = requests.get(i).items();
+                        final List<BulkItemResponse> itemResponses = new ArrayList<>(requestItems.length);
+                        for (BulkItemRequest item : requestItems) {
+                            final BulkItemResponse itemResponse = coalescedResponses[offset++];
+                            if (itemResponse == null) {
+                                continue;
+                            }
+                            if (itemResponse.isFailed()) {
+                                itemResponses.add(new BulkItemResponse(item.id(), itemResponse.getOpType(), itemResponse.getFailure()));
+                            } else {
+                                itemResponses.add(new BulkItemResponse(item.id(), itemResponse.getOpType(), itemResponse.getResponse()));
+                            }
+                        }
+                        final BulkShardResponse shardResponse = new BulkShardResponse(key.shardId,
+                            itemResponses.toArray(new BulkItemResponse[itemResponses.size()]));
+                        shardResponse.setShardInfo(response.getShardInfo());
+                        notifyListener(i, shardResponse, null);
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    for (int i = 0; i < listeners.size(); i++) {
+                        notifyListener(i, null, e);
+                    }
+                }
+            });
+        }
+
+        private void notifyListener(int i, BulkShardResponse response, Exception e) {
+            final ActionListener<BulkShardResponse> listener = listeners.get(i);
+            if (e != null) {
+                listener.onFailure(e);
+                return;
+            }
+            try {
+                listener.onResponse(response);
+            } catch (Exception inner) {
+                listener.onFailure(inner);
+            }
+        }
+    }
+}
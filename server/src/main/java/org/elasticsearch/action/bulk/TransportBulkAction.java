@@ -51,13 +51,21 @@ import org.elasticsearch.cluster.metadata.MappingMetaData;
 import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
+import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndexClosedException;
@@ -68,6 +76,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -89,6 +98,29 @@ import static java.util.Collections.emptyMap;
  */
 public class TransportBulkAction extends HandledTransportAction<BulkRequest, BulkResponse> {
 
+    /**
+     * The maximum number of operations of a single shard level bulk request. Larger groups of items are split into multiple shard
+     * level requests. <code>-1</code> means unbounded.
+     */
+    public static final Setting<Integer> SHARD_REQUEST_MAX_OPERATIONS_SETTING =
+        Setting.intSetting("action.bulk.shard_request.max_operations", -1, -1, Property.Dynamic, Property.NodeScope);
+
+    /**
+     * The maximum estimated size of a single shard level bulk request. Larger groups of items are split into multiple shard level
+     * requests. <code>-1</code> means unbounded.
+     */
+    public static final Setting<ByteSizeValue> SHARD_REQUEST_MAX_SIZE_SETTING =
+        Setting.byteSizeSetting("action.bulk.shard_request.max_size", new ByteSizeValue(-1), Property.Dynamic, Property.NodeScope);
+
+    /**
+     * The time window in which shard level bulk requests that target the same shard are coalesced into a single shard level request.
+     * Requests of different bulk requests are coalesced when they have the same thread context headers. <code>0</code> disables
+     * coalescing.
+     */
+    public static final Setting<TimeValue> SHARD_REQUEST_COALESCE_WINDOW_SETTING =
+        Setting.timeSetting("action.bulk.shard_request.coalesce_window", TimeValue.ZERO, TimeValue.ZERO,
+            Property.Dynamic, Property.NodeScope);
+
     private final ThreadPool threadPool;
     private final AutoCreateIndex autoCreateIndex;
     private final ClusterService clusterService;
@@ -98,22 +130,28 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
     private final IngestActionForwarder ingestForwarder;
     private final NodeClient client;
     private final IndexNameExpressionResolver indexNameExpressionResolver;
+    private final IndexingPressure indexingPressure;
+    private final BulkShardRequestCoalescer shardRequestCoalescer;
+    private volatile int shardRequestMaxOperations;
+    private volatile long shardRequestMaxBytes;
+    private volatile TimeValue shardRequestCoalesceWindow;
 
     @Inject
     public TransportBulkAction(ThreadPool threadPool, TransportService transportService,
                                ClusterService clusterService, IngestService ingestService,
                                TransportShardBulkAction shardBulkAction, NodeClient client,
                                ActionFilters actionFilters, IndexNameExpressionResolver indexNameExpressionResolver,
-                               AutoCreateIndex autoCreateIndex) {
+                               AutoCreateIndex autoCreateIndex, IndexingPressure indexingPressure) {
         this(threadPool, transportService, clusterService, ingestService, shardBulkAction, client, actionFilters,
-            indexNameExpressionResolver, autoCreateIndex, System::nanoTime);
+            indexNameExpressionResolver, autoCreateIndex, indexingPressure, System::nanoTime);
     }
 
     public TransportBulkAction(ThreadPool threadPool, TransportService transportService,
                                ClusterService clusterService, IngestService ingestService,
                                TransportShardBulkAction shardBulkAction, NodeClient client,
                                ActionFilters actionFilters, IndexNameExpressionResolver indexNameExpressionResolver,
-                               AutoCreateIndex autoCreateIndex, LongSupplier relativeTimeProvider) {
+                               AutoCreateIndex autoCreateIndex, IndexingPressure indexingPressure,
+                               LongSupplier relativeTimeProvider) {
         super(BulkAction.NAME, transportService, actionFilters, (Supplier<BulkRequest>) BulkRequest::new);
         Objects.requireNonNull(relativeTimeProvider);
         this.threadPool = threadPool;
@@ -125,6 +163,17 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
         this.ingestForwarder = new IngestActionForwarder(transportService);
         this.client = client;
         this.indexNameExpressionResolver = indexNameExpressionResolver;
+        this.indexingPressure = indexingPressure;
+        this.shardRequestCoalescer = new BulkShardRequestCoalescer(threadPool,
+            (request, listener) -> shardBulkAction.execute(request, listener));
+        final Settings settings = clusterService.getSettings();
+        this.shardRequestMaxOperations = SHARD_REQUEST_MAX_OPERATIONS_SETTING.get(settings);
+        this.shardRequestMaxBytes = SHARD_REQUEST_MAX_SIZE_SETTING.get(settings).getBytes();
+        this.shardRequestCoalesceWindow = SHARD_REQUEST_COALESCE_WINDOW_SETTING.get(settings);
+        final ClusterSettings clusterSettings = clusterService.getClusterSettings();
+        clusterSettings.addSettingsUpdateConsumer(SHARD_REQUEST_MAX_OPERATIONS_SETTING, v -> this.shardRequestMaxOperations = v);
+        clusterSettings.addSettingsUpdateConsumer(SHARD_REQUEST_MAX_SIZE_SETTING, v -> this.shardRequestMaxBytes = v.getBytes());
+        clusterSettings.addSettingsUpdateConsumer(SHARD_REQUEST_COALESCE_WINDOW_SETTING, v -> this.shardRequestCoalesceWindow = v);
         clusterService.addStateApplier(this.ingestForwarder);
     }
 
@@ -148,6 +197,16 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
 
     @Override
     protected void doExecute(Task task, BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
+        final Releasable releasable = indexingPressure.markCoordinatingOperationStarted(bulkRequest.estimatedSizeInBytes());
+        final ActionListener<BulkResponse> releasingListener = ActionListener.runAfter(listener, releasable::close);
+        try {
+            doInternalExecute(task, bulkRequest, releasingListener);
+        } catch (Exception e) {
+            releasingListener.onFailure(e);
+        }
+    }
+
+    private void doInternalExecute(Task task, BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
         final long startTime = relativeTime();
         final AtomicArray<BulkItemResponse> responses = new AtomicArray<>(bulkRequest.requests.size());
 
@@ -298,6 +357,50 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
         return TimeUnit.NANOSECONDS.toMillis(relativeTime() - startTimeNanos);
     }
 
+    /**
+     * Splits the items of a shard into consecutive chunks that hold at most the given number of operations and, unless a single item
+     * exceeds it, at most the given number of bytes. A negative limit is unbounded.
+     */
+    static List<List<BulkItemRequest>> splitShardRequests(List<BulkItemRequest> requests, int maxOperations, long maxBytes) {
+        if (maxOperations < 0 && maxBytes < 0) {
+            return Collections.singletonList(requests);
+        }
+        final List<List<BulkItemRequest>> chunks = new ArrayList<>();
+        List<BulkItemRequest> chunk = new ArrayList<>();
+        long chunkSizeInBytes = 0;
+        for (BulkItemRequest request : requests) {
+            final long sizeInBytes = maxBytes < 0 ? 0 : BulkRequest.estimateSizeInBytes(request.request());
+            final boolean chunkFull = (maxOperations >= 0 && chunk.size() >= maxOperations)
+                || (maxBytes >= 0 && chunkSizeInBytes + sizeInBytes > maxBytes);
+            if (chunk.isEmpty() == false && chunkFull) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                chunkSizeInBytes = 0;
+            }
+            chunk.add(request);
+            chunkSizeInBytes += sizeInBytes;
+        }
+        chunks.add(chunk);
+        return chunks;
+    }
+
+    /**
+     * Returns <code>true</code> if no two items of the given chunks operate on the same document, in which case the chunks can be
+     * executed concurrently. Items with auto-generated ids never conflict.
+     */
+    static boolean hasDistinctIds(List<List<BulkItemRequest>> chunks) {
+        final Set<Tuple<String, String>> ids = new HashSet<>();
+        for (List<BulkItemRequest> chunk : chunks) {
+            for (BulkItemRequest request : chunk) {
+                final DocWriteRequest<?> docWriteRequest = request.request();
+                if (docWriteRequest.id() != null && ids.add(new Tuple<>(request.index(), docWriteRequest.id())) == false) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     /**
      * retries on retryable cluster blocks, resolves item requests,
      * constructs shard bulk requests and delegates execution to shard bulk action
@@ -399,52 +502,98 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
                 return;
             }
 
-            final AtomicInteger counter = new AtomicInteger(requestsByShard.size());
-            String nodeId = clusterService.localNode().getId();
+            // split groups that exceed the configured limits into multiple shard level requests
+            final int maxOperations = shardRequestMaxOperations;
+            final long maxBytes = shardRequestMaxBytes;
+            final Map<ShardId, List<List<BulkItemRequest>>> chunksByShard = new HashMap<>(requestsByShard.size());
+            int numShardRequests = 0;
             for (Map.Entry<ShardId, List<BulkItemRequest>> entry : requestsByShard.entrySet()) {
+                final List<List<BulkItemRequest>> chunks = splitShardRequests(entry.getValue(), maxOperations, maxBytes);
+                chunksByShard.put(entry.getKey(), chunks);
+                numShardRequests += chunks.size();
+            }
+
+            final AtomicInteger counter = new AtomicInteger(numShardRequests);
+            for (Map.Entry<ShardId, List<List<BulkItemRequest>>> entry : chunksByShard.entrySet()) {
                 final ShardId shardId = entry.getKey();
-                final List<BulkItemRequest> requests = entry.getValue();
-                BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, bulkRequest.getRefreshPolicy(),
-                        requests.toArray(new BulkItemRequest[requests.size()]));
-                bulkShardRequest.waitForActiveShards(bulkRequest.waitForActiveShards());
-                bulkShardRequest.timeout(bulkRequest.timeout());
-                if (task != null) {
-                    bulkShardRequest.setParentTask(nodeId, task.getId());
+                final List<List<BulkItemRequest>> chunks = entry.getValue();
+                if (chunks.size() == 1 || hasDistinctIds(chunks)) {
+                    // chunks without items on the same document can be executed concurrently
+                    for (List<BulkItemRequest> chunk : chunks) {
+                        executeShardRequest(shardId, chunk, concreteIndices, counter, () -> {});
+                    }
+                } else {
+                    // preserve the order of operations on the same document by executing the chunks one after the other
+                    executeShardRequestsInOrder(shardId, chunks.iterator(), concreteIndices, counter);
                 }
-                shardBulkAction.execute(bulkShardRequest, new ActionListener<BulkShardResponse>() {
-                    @Override
-                    public void onResponse(BulkShardResponse bulkShardResponse) {
-                        for (BulkItemResponse bulkItemResponse : bulkShardResponse.getResponses()) {
-                            // we may have no response if item failed
-                            if (bulkItemResponse.getResponse() != null) {
-                                bulkItemResponse.getResponse().setShardInfo(bulkShardResponse.getShardInfo());
-                            }
-                            responses.set(bulkItemResponse.getItemId(), bulkItemResponse);
-                        }
-                        if (counter.decrementAndGet() == 0) {
-                            finishHim();
+            }
+        }
+
+        private void executeShardRequestsInOrder(ShardId shardId, Iterator<List<BulkItemRequest>> chunks,
+                                                 ConcreteIndices concreteIndices, AtomicInteger counter) {
+            if (chunks.hasNext()) {
+                executeShardRequest(shardId, chunks.next(), concreteIndices, counter,
+                    () -> executeShardRequestsInOrder(shardId, chunks, concreteIndices, counter));
+            }
+        }
+
+        private void executeShardRequest(ShardId shardId, List<BulkItemRequest> requests, ConcreteIndices concreteIndices,
+                                         AtomicInteger counter, Runnable onCompletion) {
+            BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, bulkRequest.getRefreshPolicy(),
+                    requests.toArray(new BulkItemRequest[requests.size()]));
+            bulkShardRequest.waitForActiveShards(bulkRequest.waitForActiveShards());
+            bulkShardRequest.timeout(bulkRequest.timeout());
+            if (task != null) {
+                bulkShardRequest.setParentTask(clusterService.localNode().getId(), task.getId());
+            }
+            final ActionListener<BulkShardResponse> shardListener = new ActionListener<BulkShardResponse>() {
+                @Override
+                public void onResponse(BulkShardResponse bulkShardResponse) {
+                    for (BulkItemResponse bulkItemResponse : bulkShardResponse.getResponses()) {
+                        // we may have no response if item failed
+                        if (bulkItemResponse.getResponse() != null) {
+                            bulkItemResponse.getResponse().setShardInfo(bulkShardResponse.getShardInfo());
                         }
+                        responses.set(bulkItemResponse.getItemId(), bulkItemResponse);
                     }
+                    onShardRequestCompleted();
+                }
 
-                    @Override
-                    public void onFailure(Exception e) {
-                        // create failures for all relevant requests
-                        for (BulkItemRequest request : requests) {
-                            final String indexName = concreteIndices.getConcreteIndex(request.index()).getName();
-                            DocWriteRequest<?> docWriteRequest = request.request();
-                            responses.set(request.id(), new BulkItemResponse(request.id(), docWriteRequest.opType(),
-                                    new BulkItemResponse.Failure(indexName, docWriteRequest.type(), docWriteRequest.id(), e)));
-                        }
-                        if (counter.decrementAndGet() == 0) {
-                            finishHim();
-                        }
+                @Override
+                public void onFailure(Exception e) {
+                    // create failures for all relevant requests
+                    for (BulkItemRequest request : requests) {
+                        final String indexName = concreteIndices.getConcreteIndex(request.index()).getName();
+                        DocWriteRequest<?> docWriteRequest = request.request();
+                        responses.set(request.id(), new BulkItemResponse(request.id(), docWriteRequest.opType(),
+                                new BulkItemResponse.Failure(indexName, docWriteRequest.type(), docWriteRequest.id(), e)));
                     }
+                    onShardRequestCompleted();
+                }
 
-                    private void finishHim() {
-                        listener.onResponse(new BulkResponse(responses.toArray(new BulkItemResponse[responses.length()]),
-                            buildTookInMillis(startTimeNanos)));
+                private void onShardRequestCompleted() {
+                    if (counter.decrementAndGet() == 0) {
+                        finishHim();
+                    } else {
+                        onCompletion.run();
                     }
-                });
+                }
+
+                private void finishHim() {
+                    listener.onResponse(new BulkResponse(responses.toArray(new BulkItemResponse[responses.length()]),
+                        buildTookInMillis(startTimeNanos)));
+                }
+            };
+            final TimeValue coalesceWindow = shardRequestCoalesceWindow;
+            if (coalesceWindow.nanos() > 0) {
+                long sizeInBytes = 0;
+                for (BulkItemRequest request : requests) {
+                    sizeInBytes += BulkRequest.estimateSizeInBytes(request.request());
+                }
+                shardRequestCoalescer.execute(bulkShardRequest, sizeInBytes, coalesceWindow, shardRequestMaxOperations,
+                    shardRequestMaxBytes, shardListener);
+            } else {
+                shardBulkAction.execute(bulkShardRequest, shardListener);
             }
         }
 
@@ -31,6 +31,7 @@ import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.support.ActionFilters;
 import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
 import org.elasticsearch.action.support.replication.TransportReplicationAction;
 import org.elasticsearch.action.support.replication.TransportWriteAction;
 import org.elasticsearch.action.update.UpdateHelper;
@@ -49,10 +50,15 @@ import org.elasticsearch.common.CheckedSupplier;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.engine.VersionConflictEngineException;
 import org.elasticsearch.index.get.GetResult;
@@ -70,6 +76,7 @@ import org.elasticsearch.transport.TransportRequestOptions;
 import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -80,22 +87,44 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
 
     public static final String ACTION_NAME = BulkAction.NAME + "[s]";
 
+    /**
+     * The number of operations after which the primary hands the operations it has completed so far to the replicas while it continues
+     * with the rest of the shard level bulk request. <code>0</code> disables pipelined replication.
+     */
+    public static final Setting<Integer> REPLICATION_PIPELINE_CHUNK_SIZE_SETTING =
+        Setting.intSetting("action.bulk.replication.pipeline_chunk_size", 0, 0, Property.Dynamic, Property.NodeScope);
+
+    /**
+     * The maximum number of pipelined chunks of a shard level bulk request that may be in flight to a single replica at a time.
+     */
+    public static final Setting<Integer> REPLICATION_MAX_IN_FLIGHT_CHUNKS_SETTING =
+        Setting.intSetting("action.bulk.replication.max_in_flight_chunks", 4, 1, Property.Dynamic, Property.NodeScope);
+
     private static final Logger logger = LogManager.getLogger(TransportShardBulkAction.class);
 
     private final ThreadPool threadPool;
     private final UpdateHelper updateHelper;
     private final MappingUpdatedAction mappingUpdatedAction;
+    private final IndexingPressure indexingPressure;
+    private volatile int replicationPipelineChunkSize;
+    private volatile int replicationMaxInFlightChunks;
 
     @Inject
     public TransportShardBulkAction(Settings settings, TransportService transportService, ClusterService clusterService,
                                     IndicesService indicesService, ThreadPool threadPool, ShardStateAction shardStateAction,
                                     MappingUpdatedAction mappingUpdatedAction, UpdateHelper updateHelper, ActionFilters actionFilters,
-                                    IndexNameExpressionResolver indexNameExpressionResolver) {
+                                    IndexNameExpressionResolver indexNameExpressionResolver, IndexingPressure indexingPressure) {
         super(settings, ACTION_NAME, transportService, clusterService, indicesService, threadPool, shardStateAction, actionFilters,
             indexNameExpressionResolver, BulkShardRequest::new, BulkShardRequest::new, ThreadPool.Names.WRITE);
         this.threadPool = threadPool;
         this.updateHelper = updateHelper;
         this.mappingUpdatedAction = mappingUpdatedAction;
+        this.indexingPressure = indexingPressure;
+        this.replicationPipelineChunkSize = REPLICATION_PIPELINE_CHUNK_SIZE_SETTING.get(settings);
+        this.replicationMaxInFlightChunks = REPLICATION_MAX_IN_FLIGHT_CHUNKS_SETTING.get(settings);
+        ClusterSettings clusterSettings = clusterService.getClusterSettings();
+        clusterSettings.addSettingsUpdateConsumer(REPLICATION_PIPELINE_CHUNK_SIZE_SETTING, v -> this.replicationPipelineChunkSize = v);
+        clusterSettings.addSettingsUpdateConsumer(REPLICATION_MAX_IN_FLIGHT_CHUNKS_SETTING, v -> this.replicationMaxInFlightChunks = v);
     }
 
     @Override
@@ -113,8 +142,55 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         return false;
     }
 
+    @Override
+    protected int maxInFlightReplicaChunks() {
+        return replicationPipelineChunkSize > 0 ? replicationMaxInFlightChunks : 0;
+    }
+
+    @Override
+    protected Releasable checkPrimaryLimits(BulkShardRequest request, boolean rerouteWasLocal) {
+        final long operationSizeInBytes = operationSizeInBytes(request);
+        if (rerouteWasLocal) {
+            return indexingPressure.markPrimaryOperationLocalToCoordinatingNodeStarted(operationSizeInBytes);
+        } else {
+            return indexingPressure.markPrimaryOperationStarted(operationSizeInBytes);
+        }
+    }
+
+    @Override
+    protected Releasable checkReplicaLimits(BulkShardRequest request) {
+        return indexingPressure.markReplicaOperationStarted(operationSizeInBytes(request));
+    }
+
+    /**
+     * Returns the estimated size in bytes of the operations of the given shard level bulk request.
+     */
+    static long operationSizeInBytes(BulkShardRequest request) {
+        long sizeInBytes = 0;
+        for (BulkItemRequest item : request.items()) {
+            if (item != null) {
+                sizeInBytes += BulkRequest.estimateSizeInBytes(item.request());
+            }
+        }
+        return sizeInBytes;
+    }
+
     @Override
     protected WritePrimaryResult<BulkShardRequest, BulkShardResponse> shardOperationOnPrimary(BulkShardRequest request, IndexShard primary)
+        throws Exception {
+        return shardOperationOnPrimary(request, primary, 0, chunk -> {
+            throw new AssertionError("pipelined replication is disabled");
+        });
+    }
+
+    @Override
+    protected WritePrimaryResult<BulkShardRequest, BulkShardResponse> shardOperationOnPrimary(
+        BulkShardRequest request, IndexShard primary, Consumer<BulkShardRequest> pipelinedReplicaRequests) throws Exception {
+        return shardOperationOnPrimary(request, primary, replicationPipelineChunkSize, pipelinedReplicaRequests);
+    }
+
+    private WritePrimaryResult<BulkShardRequest, BulkShardResponse> shardOperationOnPrimary(
+        BulkShardRequest request, IndexShard primary, int pipelineChunkSize, Consumer<BulkShardRequest> pipelinedReplicaRequests)
         throws Exception {
         ClusterStateObserver observer = new ClusterStateObserver(clusterService, request.timeout(), logger, threadPool.getThreadContext());
         CheckedRunnable<Exception> waitForMappingUpdate = () -> {
@@ -138,8 +214,8 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
             });
             waitingFuture.get();
         };
-        return performOnPrimary(request, primary, updateHelper, threadPool::absoluteTimeInMillis,
-            new ConcreteMappingUpdatePerformer(), waitForMappingUpdate);
+        return performOnPrimary(request, primary, updateHelper, threadPool::absoluteTimeInMillis, new ConcreteMappingUpdatePerformer(),
+            waitForMappingUpdate, pipelineChunkSize, pipelinedReplicaRequests);
     }
 
     public static WritePrimaryResult<BulkShardRequest, BulkShardResponse> performOnPrimary(
@@ -149,22 +225,57 @@ public class TransportShardBulkAction extends TransportWriteAction<BulkShardRequ
         LongSupplier nowInMillisSupplier,
         MappingUpdatePerformer mappingUpdater,
         CheckedRunnable<Exception> waitForMappingUpdate) throws Exception {
-        BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(request, primary);
-        return performOnPrimary(context, updateHelper, nowInMillisSupplier, mappingUpdater, waitForMappingUpdate);
+        return performOnPrimary(request, primary, updateHelper, nowInMillisSupplier, mappingUpdater, waitForMappingUpdate, 0, chunk -> {
+            throw new AssertionError("pipelined replication is disabled");
+        });
     }
 
-    private static WritePrimaryResult<BulkShardRequest, BulkShardResponse> performOnPrimary(
-        BulkPrimaryExecutionContext context, UpdateHelper updateHelper, LongSupplier nowInMillisSupplier,
-        MappingUpdatePerformer mappingUpdater, CheckedRunnable<Exception> waitForMappingUpdate) throws Exception {
-
+    /**
+     * Performs the given request on the primary. If {@code pipelineChunkSize} is positive, replica requests for every
+     * {@code pipelineChunkSize} completed items are handed to {@code pipelinedReplicaRequests} while the primary continues with the
+     * remaining items, and the replica request of the returned result only covers the items that were not handed out.
+     */
+    static WritePrimaryResult<BulkShardRequest, BulkShardResponse> performOnPrimary(
+        BulkShardRequest request,
+        IndexShard primary,
+        UpdateHelper updateHelper,
+        LongSupplier nowInMillisSupplier,
+        MappingUpdatePerformer mappingUpdater,
+        CheckedRunnable<Exception> waitForMappingUpdate,
+        int pipelineChunkSize,
+        Consumer<BulkShardRequest> pipelinedReplicaRequests) throws Exception {
+        BulkPrimaryExecutionContext context = new BulkPrimaryExecutionContext(request, primary);
+        int replicatedItems = 0;
         while (context.hasMoreOperationsToExecute()) {
             executeBulkItemRequest(context, updateHelper, nowInMillisSupplier, mappingUpdater, waitForMappingUpdate);
             assert context.isInitial(); // either completed and moved to next or reset
+            final int completedItems = context.getNumberOfCompletedItems();
+            if (pipelineChunkSize > 0 && completedItems - replicatedItems >= pipelineChunkSize && context.hasMoreOperationsToExecute()) {
+                // hand the completed operations to the replicas while we continue with the rest of the request
+                pipelinedReplicaRequests.accept(replicaRequestForItems(request, replicatedItems, completedItems, RefreshPolicy.NONE));
+                replicatedItems = completedItems;
+            }
         }
-        return new WritePrimaryResult<>(context.getBulkShardRequest(), context.buildShardResponse(), context.getLocationToSync(),
+        final BulkShardRequest replicaRequest = replicatedItems == 0 ? request
+            : replicaRequestForItems(request, replicatedItems, request.items().length, request.getRefreshPolicy());
+        return new WritePrimaryResult<>(replicaRequest, context.buildShardResponse(), context.getLocationToSync(),
             null, context.getPrimary(), logger);
     }
 
+    /**
+     * Creates a replica request for the items of the given shard level request in the range {@code [from, to)}. Pipelined chunks are
+     * created with {@link RefreshPolicy#NONE} so that only the final replica request refreshes, once all chunks before it are applied.
+     */
+    static BulkShardRequest replicaRequestForItems(BulkShardRequest request, int from, int to, RefreshPolicy refreshPolicy) {
+        final BulkShardRequest replicaRequest =
+            new BulkShardRequest(request.shardId(), refreshPolicy, Arrays.copyOfRange(request.items(), from, to));
+        replicaRequest.timeout(request.timeout());
+        replicaRequest.waitForActiveShards(request.waitForActiveShards());
+        replicaRequest.index(request.index());
+        replicaRequest.setParentTask(request.getParentTask());
+        return replicaRequest;
+    }
+
     /** Executes bulk item requests and handles request execution exceptions */
     static void executeBulkItemRequest(BulkPrimaryExecutionContext context, UpdateHelper updateHelper, LongSupplier nowInMillisSupplier,
                                        MappingUpdatePerformer mappingUpdater, CheckedRunnable<Exception> waitForMappingUpdate)
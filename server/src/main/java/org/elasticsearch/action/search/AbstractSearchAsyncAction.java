@@ -111,6 +111,9 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
      * This is the main entry point for a search. This method starts the search execution of the initial phase.
      */
     public final void start() {
+        if (task != null) {
+            task.getProgressListener().notifyListShards(getNumShards(), getNumSkippedShards());
+        }
         if (getNumShards() == 0) {
             //no search shards to search on, bail with empty response
             //(it happens with search across _all with no indices around and consistent with broadcast operations)
@@ -253,6 +256,17 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         }
     }
 
+    @Override
+    final void onHedgedShardResultDiscarded(Result result) {
+        try {
+            SearchShardTarget searchShardTarget = result.getSearchShardTarget();
+            Transport.Connection connection = getConnection(searchShardTarget.getClusterAlias(), searchShardTarget.getNodeId());
+            sendReleaseSearchContext(result.getRequestId(), connection, searchShardTarget.getOriginalIndices());
+        } catch (Exception e) {
+            logger.trace("failed to release context of hedged request", e);
+        }
+    }
+
     @Override
     public final void onPhaseDone() {
         executeNextPhase(this, getNextPhase(results, this));
@@ -331,7 +345,7 @@ abstract class AbstractSearchAsyncAction<Result extends SearchPhaseResult> exten
         final String[] routings = indexRoutings.getOrDefault(indexName, Collections.emptySet())
             .toArray(new String[0]);
         return new ShardSearchTransportRequest(shardIt.getOriginalIndices(), request, shardIt.shardId(), getNumShards(),
-            filter, indexBoost, timeProvider.getAbsoluteStartMillis(), shardIt.getClusterAlias(), routings);
+            filter, indexBoost, timeProvider.getAbsoluteStartMillis(), shardIt.getClusterAlias(), routings, shardIt.getReaderId());
     }
 
     /**
@@ -23,8 +23,10 @@ import org.apache.lucene.util.FixedBitSet;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ShardSearchTransportRequest;
 import org.elasticsearch.transport.Transport;
 
 import java.util.Map;
@@ -39,12 +41,16 @@ import java.util.stream.Stream;
  * The queries are rewritten against the shards and based on the rewrite result shards might be able to be excluded
  * from the search. The extra round trip to the search shards is very cheap and is not subject to rejections
  * which allows to fan out to more shards at the same time without running into rejections even if we are hitting a
- * large portion of the clusters indices.
+ * large portion of the clusters indices. Shards whose field ranges are cached on the coordinating node are checked locally
+ * without a round trip, see {@link ShardFieldRangesCache}. Searches that target too few shards to justify the round trip are
+ * only pre-filtered with the cached field ranges, the other shards are assumed to match.
  */
 final class CanMatchPreFilterSearchPhase extends AbstractSearchAsyncAction<SearchService.CanMatchResponse> {
 
     private final Function<GroupShardsIterator<SearchShardIterator>, SearchPhase> phaseFactory;
     private final GroupShardsIterator<SearchShardIterator> shardsIts;
+    private final ShardFieldRangesCache.Lookup fieldRanges;
+    private final boolean cachedRangesOnly;
 
     CanMatchPreFilterSearchPhase(Logger logger, SearchTransportService searchTransportService,
                                         BiFunction<String, String, Transport.Connection> nodeIdToConnection,
@@ -54,20 +60,35 @@ final class CanMatchPreFilterSearchPhase extends AbstractSearchAsyncAction<Searc
                                         ActionListener<SearchResponse> listener, GroupShardsIterator<SearchShardIterator> shardsIts,
                                         TransportSearchAction.SearchTimeProvider timeProvider, long clusterStateVersion,
                                         SearchTask task, Function<GroupShardsIterator<SearchShardIterator>, SearchPhase> phaseFactory,
-                                        SearchResponse.Clusters clusters) {
+                                        SearchResponse.Clusters clusters, @Nullable ShardFieldRangesCache.Lookup fieldRanges,
+                                        boolean cachedRangesOnly) {
         //We set max concurrent shard requests to the number of shards so no throttling happens for can_match requests
         super("can_match", logger, searchTransportService, nodeIdToConnection, aliasFilter, concreteIndexBoosts, indexRoutings,
                 executor, request, listener, shardsIts, timeProvider, clusterStateVersion, task,
                 new BitSetSearchPhaseResults(shardsIts.size()), shardsIts.size(), clusters);
         this.phaseFactory = phaseFactory;
         this.shardsIts = shardsIts;
+        this.fieldRanges = fieldRanges;
+        this.cachedRangesOnly = cachedRangesOnly;
+        assert cachedRangesOnly == false || fieldRanges != null : "cached field ranges are required";
     }
 
     @Override
     protected void executePhaseOnShard(SearchShardIterator shardIt, ShardRouting shard,
                                        SearchActionListener<SearchService.CanMatchResponse> listener) {
-        getSearchTransport().sendCanMatch(getConnection(shardIt.getClusterAlias(), shard.currentNodeId()),
-            buildShardSearchRequest(shardIt), getTask(), listener);
+        final ShardSearchTransportRequest request = buildShardSearchRequest(shardIt);
+        if (fieldRanges == null) {
+            getSearchTransport().sendCanMatch(getConnection(shardIt.getClusterAlias(), shard.currentNodeId()), request, getTask(),
+                listener);
+        } else if (fieldRanges.canMatch(shardIt.shardId(), request) == false) {
+            // the cached field ranges of the shard show that it cannot match
+            listener.onResponse(new SearchService.CanMatchResponse(false));
+        } else if (cachedRangesOnly) {
+            listener.onResponse(new SearchService.CanMatchResponse(true));
+        } else {
+            getSearchTransport().sendCanMatch(getConnection(shardIt.getClusterAlias(), shard.currentNodeId()), request, getTask(),
+                fieldRanges.wrap(shardIt.shardId(), listener));
+        }
     }
 
     @Override
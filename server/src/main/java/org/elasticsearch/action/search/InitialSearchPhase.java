@@ -25,10 +25,13 @@ import org.elasticsearch.action.support.TransportActions;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.common.util.concurrent.FutureUtils;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -36,6 +39,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
@@ -58,6 +62,8 @@ abstract class InitialSearchPhase<FirstResult extends SearchPhaseResult> extends
     private final Executor executor;
     private final Map<String, PendingExecutions> pendingExecutionsPerNode = new ConcurrentHashMap<>();
     private final boolean throttleConcurrentRequests;
+    private ThreadPool hedgingThreadPool;
+    private TimeValue hedgingDelay;
 
     InitialSearchPhase(String name, SearchRequest request, GroupShardsIterator<SearchShardIterator> shardsIts, Logger logger,
                        int maxConcurrentRequestsPerNode, Executor executor) {
@@ -86,6 +92,15 @@ abstract class InitialSearchPhase<FirstResult extends SearchPhaseResult> extends
         this.executor = executor;
     }
 
+    /**
+     * Enables hedging of shard requests: if a copy of a shard has not answered within the given delay, the same request is
+     * also sent to the next copy of the shard and whichever answers first is used. Must be called before the phase is run.
+     */
+    final void enableHedging(ThreadPool threadPool, TimeValue delay) {
+        this.hedgingThreadPool = threadPool;
+        this.hedgingDelay = delay;
+    }
+
     private void onShardFailure(final int shardIndex, @Nullable ShardRouting shard, @Nullable String nodeId,
                                 final SearchShardIterator shardIt, Exception e) {
         // we always add the shard failure for a specific shard instance
@@ -180,6 +195,78 @@ abstract class InitialSearchPhase<FirstResult extends SearchPhaseResult> extends
         });
     }
 
+    /**
+     * Tracks the requests that were sent to different copies of the same shard when hedging. The first successful response
+     * is used and accounts for all other requests, which are ignored when they complete later. The state is guarded by the
+     * instance's monitor, which also protects the shard iterator from being advanced concurrently.
+     */
+    private static final class HedgedExecution {
+
+        enum FailureOutcome {
+            /** the failed request was the last one in flight, the next copy should be tried */
+            FAIL_OVER,
+            /** another request is still in flight for the shard */
+            AWAIT_OTHER,
+            /** another copy answered already and accounted for the failed request */
+            IGNORE
+        }
+
+        private int inFlight = 1;
+        private boolean done = false;
+        private ScheduledFuture<?> scheduledHedge;
+
+        synchronized void setScheduledHedge(ScheduledFuture<?> scheduledHedge) {
+            if (done) {
+                FutureUtils.cancel(scheduledHedge);
+            } else {
+                this.scheduledHedge = scheduledHedge;
+            }
+        }
+
+        synchronized boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Returns the next copy of the shard to send a hedged request to, or {@code null} if the request should not be hedged.
+         */
+        synchronized ShardRouting nextCopy(SearchShardIterator shardIt) {
+            if (done || inFlight > 1) {
+                return null;
+            }
+            final ShardRouting copy = shardIt.nextOrNull();
+            if (copy != null) {
+                inFlight++;
+            }
+            return copy;
+        }
+
+        /**
+         * Returns the number of other requests that the successful response accounts for, or {@code -1} if another copy
+         * answered first.
+         */
+        synchronized int onSuccess() {
+            if (done) {
+                return -1;
+            }
+            done = true;
+            FutureUtils.cancel(scheduledHedge);
+            return inFlight - 1;
+        }
+
+        synchronized FailureOutcome onFailure() {
+            if (done) {
+                return FailureOutcome.IGNORE;
+            }
+            if (--inFlight > 0) {
+                return FailureOutcome.AWAIT_OTHER;
+            }
+            done = true;
+            FutureUtils.cancel(scheduledHedge);
+            return FailureOutcome.FAIL_OVER;
+        }
+    }
+
     private static final class PendingExecutions {
         private final int permits;
         private int permitsTaken = 0;
@@ -240,6 +327,12 @@ abstract class InitialSearchPhase<FirstResult extends SearchPhaseResult> extends
     }
 
     private void performPhaseOnShard(final int shardIndex, final SearchShardIterator shardIt, final ShardRouting shard) {
+        final HedgedExecution hedge = shard != null && hedgingDelay != null && shardIt.remaining() > 0 ? new HedgedExecution() : null;
+        performPhaseOnShard(shardIndex, shardIt, shard, hedge, false);
+    }
+
+    private void performPhaseOnShard(final int shardIndex, final SearchShardIterator shardIt, final ShardRouting shard,
+                                     @Nullable final HedgedExecution hedge, final boolean hedgedRequest) {
         /*
          * We capture the thread that this phase is starting on. When we are called back after executing the phase, we are either on the
          * same thread (because we never went async, or the same thread was selected from the thread pool) or a different thread. If we
@@ -255,13 +348,22 @@ abstract class InitialSearchPhase<FirstResult extends SearchPhaseResult> extends
                 : null;
             Runnable r = () -> {
                 final Thread thread = Thread.currentThread();
+                if (hedgedRequest && hedge.isDone()) {
+                    // the hedged request waited for a permit for so long that the shard was answered in the meantime
+                    executeNext(pendingExecutions, thread);
+                    return;
+                }
                 try {
                     executePhaseOnShard(shardIt, shard,
                         new SearchActionListener<FirstResult>(shardIt.newSearchShardTarget(shard.currentNodeId()), shardIndex) {
                             @Override
                             public void innerOnResponse(FirstResult result) {
                                 try {
-                                    onShardResult(result, shardIt);
+                                    if (hedge == null) {
+                                        onShardResult(result, shardIt, 0);
+                                    } else {
+                                        onHedgedShardResult(result, shardIt, hedge);
+                                    }
                                 } finally {
                                     executeNext(pendingExecutions, thread);
                                 }
@@ -270,19 +372,23 @@ abstract class InitialSearchPhase<FirstResult extends SearchPhaseResult> extends
                             @Override
                             public void onFailure(Exception t) {
                                 try {
-                                    onShardFailure(shardIndex, shard, shard.currentNodeId(), shardIt, t);
+                                    onShardRequestFailure(shardIndex, shard, shardIt, hedge, t);
                                 } finally {
                                     executeNext(pendingExecutions, thread);
                                 }
                             }
                         });
+                    if (hedge != null && hedgedRequest == false) {
+                        hedge.setScheduledHedge(hedgingThreadPool.schedule(hedgingDelay, ThreadPool.Names.SAME,
+                            () -> fork(() -> hedgeRequest(shardIndex, shardIt, hedge))));
+                    }
                 } catch (final Exception e) {
                     try {
                         /*
                          * It is possible to run into connection exceptions here because we are getting the connection early and might
                          * run into nodes that are not connected. In this case, on shard failure will move us to the next shard copy.
                          */
-                        fork(() -> onShardFailure(shardIndex, shard, shard.currentNodeId(), shardIt, e));
+                        fork(() -> onShardRequestFailure(shardIndex, shard, shardIt, hedge, e));
                     } finally {
                         executeNext(pendingExecutions, thread);
                     }
@@ -296,7 +402,48 @@ abstract class InitialSearchPhase<FirstResult extends SearchPhaseResult> extends
         }
     }
 
-    private void onShardResult(FirstResult result, SearchShardIterator shardIt) {
+    private void onShardRequestFailure(final int shardIndex, final ShardRouting shard, final SearchShardIterator shardIt,
+                                       @Nullable final HedgedExecution hedge, final Exception e) {
+        final HedgedExecution.FailureOutcome outcome = hedge == null ? HedgedExecution.FailureOutcome.FAIL_OVER : hedge.onFailure();
+        switch (outcome) {
+            case FAIL_OVER:
+                onShardFailure(shardIndex, shard, shard.currentNodeId(), shardIt, e);
+                break;
+            case AWAIT_OTHER:
+                // another copy is still working on the same request, we only account for this one and let the other decide
+                logger.trace(() -> new ParameterizedMessage("{}: Failed to execute [{}] while a hedged request is in flight",
+                    shard.shortSummary(), request), e);
+                final int xTotalOps = totalOps.incrementAndGet();
+                assert xTotalOps < expectedTotalOps : "the in flight request is not accounted for yet";
+                break;
+            case IGNORE:
+                logger.trace(() -> new ParameterizedMessage("{}: Failed to execute [{}] after another copy responded",
+                    shard.shortSummary(), request), e);
+                break;
+            default:
+                throw new AssertionError("unknown outcome [" + outcome + "]");
+        }
+    }
+
+    private void hedgeRequest(final int shardIndex, final SearchShardIterator shardIt, final HedgedExecution hedge) {
+        final ShardRouting copy = hedge.nextCopy(shardIt);
+        if (copy != null) {
+            logger.trace("{}: hedging request [{}] after [{}]", copy.shortSummary(), request, hedgingDelay);
+            performPhaseOnShard(shardIndex, shardIt, copy, hedge, true);
+        }
+    }
+
+    private void onHedgedShardResult(FirstResult result, SearchShardIterator shardIt, HedgedExecution hedge) {
+        final int otherRequests = hedge.onSuccess();
+        if (otherRequests < 0) {
+            // another copy answered first
+            onHedgedShardResultDiscarded(result);
+        } else {
+            onShardResult(result, shardIt, otherRequests);
+        }
+    }
+
+    private void onShardResult(FirstResult result, SearchShardIterator shardIt, int otherRequests) {
         assert result.getShardIndex() != -1 : "shard index is not set";
         assert result.getSearchShardTarget() != null : "search shard target must not be null";
         onShardSuccess(result);
@@ -305,15 +452,17 @@ abstract class InitialSearchPhase<FirstResult extends SearchPhaseResult> extends
         // cause the successor to read a wrong value from successfulOps if second phase is very fast ie. count etc.
         // increment all the "future" shards to update the total ops since we some may work and some may not...
         // and when that happens, we break on total ops, so we must maintain them
-        successfulShardExecution(shardIt);
+        // requests that were sent to other copies of the shard when hedging are accounted for here too, since
+        // the phase must not wait for them
+        successfulShardExecution(shardIt, otherRequests);
     }
 
-    private void successfulShardExecution(SearchShardIterator shardsIt) {
+    private void successfulShardExecution(SearchShardIterator shardsIt, int otherRequests) {
         final int remainingOpsOnIterator;
         if (shardsIt.skip()) {
             remainingOpsOnIterator = shardsIt.remaining();
         } else {
-            remainingOpsOnIterator = shardsIt.remaining() + 1;
+            remainingOpsOnIterator = shardsIt.remaining() + 1 + otherRequests;
         }
         final int xTotalOps = totalOps.addAndGet(remainingOpsOnIterator);
         if (xTotalOps == expectedTotalOps) {
@@ -348,6 +497,14 @@ abstract class InitialSearchPhase<FirstResult extends SearchPhaseResult> extends
      */
     abstract void onShardSuccess(FirstResult result);
 
+    /**
+     * Executed for every successful shard level request whose result is not used because another copy of the same shard
+     * answered first when hedging. Implementations should release the resources the result holds on the remote node.
+     * @param result the result returned from the shard
+     */
+    void onHedgedShardResultDiscarded(FirstResult result) {
+    }
+
     /**
      * Sends the request to the actual shard.
      * @param shardIt the shards iterator
@@ -433,8 +590,15 @@ abstract class InitialSearchPhase<FirstResult extends SearchPhaseResult> extends
         }
     }
 
+    /**
+     * Returns the number of shards that are skipped because they cannot match the request.
+     */
+    final int getNumSkippedShards() {
+        return toSkipShardsIts.size();
+    }
+
     protected void skipShard(SearchShardIterator iterator) {
         assert iterator.skip();
-        successfulShardExecution(iterator);
+        successfulShardExecution(iterator, 0);
     }
 }
@@ -0,0 +1,132 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.internal.AliasFilter;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The id of a point in time, which records for each shard of the point in time the node that holds the reader context
+ * of the shard, the id of the reader context and the alias filter that applied to the shard when the point in time
+ * was opened.
+ */
+final class PointInTimeId {
+
+    private PointInTimeId() {}
+
+    /**
+     * The reader context of a shard of a point in time.
+     */
+    static final class ShardReader implements Writeable {
+        private final String nodeId;
+        private final long readerId;
+        private final AliasFilter aliasFilter;
+
+        ShardReader(String nodeId, long readerId, AliasFilter aliasFilter) {
+            this.nodeId = nodeId;
+            this.readerId = readerId;
+            this.aliasFilter = aliasFilter;
+        }
+
+        ShardReader(StreamInput in) throws IOException {
+            nodeId = in.readString();
+            readerId = in.readLong();
+            aliasFilter = new AliasFilter(in);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            out.writeString(nodeId);
+            out.writeLong(readerId);
+            aliasFilter.writeTo(out);
+        }
+
+        String getNodeId() {
+            return nodeId;
+        }
+
+        long getReaderId() {
+            return readerId;
+        }
+
+        AliasFilter getAliasFilter() {
+            return aliasFilter;
+        }
+    }
+
+    static String encode(Map<ShardId, ShardReader> shards, Version version) {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(version);
+            Version.writeVersion(version, out);
+            out.writeVInt(shards.size());
+            for (Map.Entry<ShardId, ShardReader> entry : shards.entrySet()) {
+                entry.getKey().writeTo(out);
+                entry.getValue().writeTo(out);
+            }
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(BytesReference.toBytes(out.bytes()));
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * Decodes the provided id.
+     *
+     * @throws IllegalArgumentException if the id is malformed
+     */
+    static Map<ShardId, ShardReader> decode(String id, NamedWriteableRegistry namedWriteableRegistry) {
+        final byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid point in time id [" + id + "]", e);
+        }
+        try (StreamInput in = new NamedWriteableAwareStreamInput(StreamInput.wrap(bytes), namedWriteableRegistry)) {
+            in.setVersion(Version.readVersion(in));
+            final int size = in.readVInt();
+            final Map<ShardId, ShardReader> shards = new HashMap<>(size);
+            for (int i = 0; i < size; i++) {
+                shards.put(ShardId.readShardId(in), new ShardReader(in));
+            }
+            if (in.available() > 0) {
+                throw new IllegalArgumentException("invalid point in time id [" + id + "]");
+            }
+            return Collections.unmodifiableMap(shards);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("invalid point in time id [" + id + "]", e);
+        }
+    }
+}
@@ -30,8 +30,8 @@ import java.util.function.BiFunction;
 
 /**
  * A wrapper of search action listeners (search results) that unwraps the query
- * result to get the piggybacked queue size and service time EWMA, adding those
- * values to the coordinating nodes' {@code ResponseCollectorService}.
+ * result to get the piggybacked queue size, service time EWMA and node load, adding
+ * those values to the coordinating nodes' {@code ResponseCollectorService}.
  */
 public final class SearchExecutionStatsCollector implements ActionListener<SearchPhaseResult> {
 
@@ -62,7 +62,8 @@ public final class SearchExecutionStatsCollector implements ActionListener<Searc
             final long responseDuration = System.nanoTime() - startNanos;
             // EWMA/queue size may be -1 if the query node doesn't support capturing it
             if (serviceTimeEWMA > 0 && queueSize >= 0) {
-                collector.addNodeStatistics(nodeId, queueSize, responseDuration, serviceTimeEWMA);
+                collector.addNodeStatistics(nodeId, queueSize, responseDuration, serviceTimeEWMA,
+                    queryResult.nodeSearchUtilization(), queryResult.nodeBreakerHeadroom(), queryResult.nodeGcOverhead());
             }
         }
         listener.onResponse(response);
@@ -33,8 +33,11 @@ import org.apache.lucene.search.TopFieldDocs;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.TotalHits.Relation;
 import org.apache.lucene.search.grouping.CollapseTopFieldDocs;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.common.collect.HppcMaps;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
@@ -57,6 +60,7 @@ import org.elasticsearch.search.suggest.Suggest.Suggestion;
 import org.elasticsearch.search.suggest.Suggest.Suggestion.Entry;
 import org.elasticsearch.search.suggest.completion.CompletionSuggestion;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -64,6 +68,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 import java.util.stream.Collectors;
@@ -606,31 +611,46 @@ public final class SearchPhaseController {
 
     /**
      * A {@link InitialSearchPhase.ArraySearchPhaseResults} implementation
-     * that incrementally reduces aggregation results as shard results are consumed.
-     * This implementation can be configured to batch up a certain amount of results and only reduce them
-     * iff the buffer is exhausted.
+     * that incrementally reduces shard results as they are consumed. Top docs are merged into a single top docs instance bounded
+     * by {@code from + size} as soon as a shard result arrives. Aggregations are buffered and, once the buffer is exhausted,
+     * the buffered aggregations are handed off to be partially reduced on the given executor while new shard results keep being
+     * consumed. Partial reduces are executed one after the other, each of them reducing the result of the previous one together
+     * with its batch of buffered aggregations.
      */
     static final class QueryPhaseResultConsumer extends InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> {
-        private final InternalAggregations[] aggsBuffer;
-        private final TopDocs[] topDocsBuffer;
+        private final ArrayDeque<List<InternalAggregations>> pendingBatches = new ArrayDeque<>();
+        private List<InternalAggregations> aggsBuffer;
+        private TopDocs mergedTopDocs;
         private final boolean hasAggs;
         private final boolean hasTopDocs;
         private final int bufferSize;
         private int index;
         private final SearchPhaseController controller;
+        private final Executor executor;
         private int numReducePhases = 0;
         private final TopDocsStats topDocsStats;
         private final boolean performFinalReduce;
+        private final SearchProgressListener progressListener;
+
+        // guards the result of the partial reduces and ensures that only one partial reduce runs at a time
+        private final Object reduceMutex = new Object();
+        private InternalAggregations reducedAggs;
+        private Exception reduceFailure;
+        private int numReducedShards;
+        private int numPartialReduces;
 
         /**
          * Creates a new {@link QueryPhaseResultConsumer}
          * @param controller a controller instance to reduce the query response objects
+         * @param executor the executor to run partial reduces of aggregations on
          * @param expectedResultSize the expected number of query results. Corresponds to the number of shards queried
          * @param bufferSize the size of the reduce buffer. if the buffer size is smaller than the number of expected results
          *                   the buffer is used to incrementally reduce aggregation results before all shards responded.
+         * @param progressListener the listener to notify of the query results and of the partial reduces
          */
-        private QueryPhaseResultConsumer(SearchPhaseController controller, int expectedResultSize, int bufferSize,
-                                         boolean hasTopDocs, boolean hasAggs, int trackTotalHitsUpTo, boolean performFinalReduce) {
+        private QueryPhaseResultConsumer(SearchPhaseController controller, Executor executor, int expectedResultSize, int bufferSize,
+                                         boolean hasTopDocs, boolean hasAggs, int trackTotalHitsUpTo, boolean performFinalReduce,
+                                         SearchProgressListener progressListener) {
             super(expectedResultSize);
             if (expectedResultSize != 1 && bufferSize < 2) {
                 throw new IllegalArgumentException("buffer size must be >= 2 if there is more than one expected result");
@@ -642,80 +662,168 @@ public final class SearchPhaseController {
                 throw new IllegalArgumentException("either aggs or top docs must be present");
             }
             this.controller = controller;
-            // no need to buffer anything if we have less expected results. in this case we don't consume any results ahead of time.
-            this.aggsBuffer = new InternalAggregations[hasAggs ? bufferSize : 0];
-            this.topDocsBuffer = new TopDocs[hasTopDocs ? bufferSize : 0];
+            this.executor = executor;
+            this.aggsBuffer = hasAggs ? new ArrayList<>(bufferSize) : Collections.emptyList();
             this.hasTopDocs = hasTopDocs;
             this.hasAggs = hasAggs;
             this.bufferSize = bufferSize;
             this.topDocsStats = new TopDocsStats(trackTotalHitsUpTo);
             this.performFinalReduce = performFinalReduce;
+            this.progressListener = progressListener;
         }
 
         @Override
         public void consumeResult(SearchPhaseResult result) {
             super.consumeResult(result);
             QuerySearchResult queryResult = result.queryResult();
-            consumeInternal(queryResult);
+            final boolean pendingBatch = consumeInternal(queryResult);
+            progressListener.notifyQueryResult(queryResult.getShardIndex());
+            if (pendingBatch) {
+                try {
+                    executor.execute(this::reducePendingBatches);
+                } catch (EsRejectedExecutionException e) {
+                    // the batch is reduced by the next partial reduce or by the final reduce
+                }
+            }
         }
 
-        private synchronized void consumeInternal(QuerySearchResult querySearchResult) {
-            if (index == bufferSize) {
-                if (hasAggs) {
-                    InternalAggregations reducedAggs = controller.reduceAggsIncrementally(Arrays.asList(aggsBuffer));
-                    Arrays.fill(aggsBuffer, null);
-                    aggsBuffer[0] = reducedAggs;
-                }
-                if (hasTopDocs) {
-                    TopDocs reducedTopDocs = mergeTopDocs(Arrays.asList(topDocsBuffer),
+        /**
+         * Consumes the top docs and aggregations of the given shard result. Returns <code>true</code> if the aggregations buffer was
+         * exhausted and a batch of aggregations is pending to be partially reduced.
+         */
+        private synchronized boolean consumeInternal(QuerySearchResult querySearchResult) {
+            if (hasTopDocs) {
+                final TopDocsAndMaxScore topDocs = querySearchResult.consumeTopDocs(); // can't be null
+                topDocsStats.add(topDocs);
+                setShardIndex(topDocs.topDocs, querySearchResult.getShardIndex());
+                if (mergedTopDocs == null) {
+                    mergedTopDocs = topDocs.topDocs;
+                } else {
+                    mergedTopDocs = mergeTopDocs(Arrays.asList(mergedTopDocs, topDocs.topDocs),
                         // we have to merge here in the same way we collect on a shard
                         querySearchResult.from() + querySearchResult.size(), 0);
-                    Arrays.fill(topDocsBuffer, null);
-                    topDocsBuffer[0] = reducedTopDocs;
                 }
-                numReducePhases++;
-                index = 1;
             }
-            final int i = index++;
+            boolean pendingBatch = false;
             if (hasAggs) {
-                aggsBuffer[i] = (InternalAggregations) querySearchResult.consumeAggs();
+                if (index == bufferSize) {
+                    pendingBatches.add(aggsBuffer);
+                    aggsBuffer = new ArrayList<>(bufferSize);
+                    numReducePhases++;
+                    // the first slot of the buffer is taken by the result of the partial reduces
+                    index = 1;
+                    pendingBatch = true;
+                }
+                index++;
+                aggsBuffer.add((InternalAggregations) querySearchResult.consumeAggs());
             }
-            if (hasTopDocs) {
-                final TopDocsAndMaxScore topDocs = querySearchResult.consumeTopDocs(); // can't be null
-                topDocsStats.add(topDocs);
-                setShardIndex(topDocs.topDocs, querySearchResult.getShardIndex());
-                topDocsBuffer[i] = topDocs.topDocs;
+            return pendingBatch;
+        }
+
+        private synchronized List<InternalAggregations> pollPendingBatch() {
+            return pendingBatches.poll();
+        }
+
+        /**
+         * Partially reduces all pending batches of aggregations. If a partial reduce is already running on another thread this
+         * method waits for it to complete.
+         */
+        private void reducePendingBatches() {
+            synchronized (reduceMutex) {
+                List<InternalAggregations> batch;
+                while ((batch = pollPendingBatch()) != null) {
+                    if (reduceFailure != null) {
+                        continue;
+                    }
+                    final List<InternalAggregations> toReduce = new ArrayList<>(batch.size() + 1);
+                    if (reducedAggs != null) {
+                        toReduce.add(reducedAggs);
+                    }
+                    toReduce.addAll(batch);
+                    try {
+                        reducedAggs = controller.reduceAggsIncrementally(toReduce);
+                    } catch (Exception e) {
+                        reduceFailure = e;
+                        reducedAggs = null;
+                        continue;
+                    }
+                    numReducedShards += batch.size();
+                    progressListener.notifyPartialReduce(numReducedShards, reducedAggs, ++numPartialReduces);
+                }
             }
         }
 
-        private synchronized List<InternalAggregations> getRemainingAggs() {
-            return hasAggs ? Arrays.asList(aggsBuffer).subList(0, index) : null;
+        private List<InternalAggregations> getRemainingAggs() {
+            if (hasAggs == false) {
+                return null;
+            }
+            // batches that were not picked up by the executor yet are reduced on the current thread
+            reducePendingBatches();
+            final List<InternalAggregations> remainingAggs = new ArrayList<>();
+            synchronized (reduceMutex) {
+                if (reduceFailure != null) {
+                    throw ExceptionsHelper.convertToRuntime(reduceFailure);
+                }
+                if (reducedAggs != null) {
+                    remainingAggs.add(reducedAggs);
+                }
+            }
+            synchronized (this) {
+                remainingAggs.addAll(aggsBuffer);
+            }
+            return remainingAggs;
         }
 
         private synchronized List<TopDocs> getRemainingTopDocs() {
-            return hasTopDocs ? Arrays.asList(topDocsBuffer).subList(0, index) : null;
+            if (hasTopDocs == false) {
+                return null;
+            }
+            return mergedTopDocs == null ? Collections.emptyList() : Collections.singletonList(mergedTopDocs);
         }
 
         @Override
         public ReducedQueryPhase reduce() {
-            return controller.reducedQueryPhase(results.asList(), getRemainingAggs(), getRemainingTopDocs(), topDocsStats,
-                numReducePhases, false, performFinalReduce);
+            final List<InternalAggregations> remainingAggs = getRemainingAggs();
+            final List<TopDocs> remainingTopDocs = getRemainingTopDocs();
+            return controller.reducedQueryPhase(results.asList(), remainingAggs, remainingTopDocs, topDocsStats,
+                getNumReducePhases(), false, performFinalReduce);
         }
 
         /**
-         * Returns the number of buffered results
+         * Returns the number of buffered aggregation results, including the slot taken by the result of the partial reduces
          */
-        int getNumBuffered() {
+        synchronized int getNumBuffered() {
             return index;
         }
 
-        int getNumReducePhases() { return numReducePhases; }
+        synchronized int getNumReducePhases() { return numReducePhases; }
     }
 
     /**
      * Returns a new ArraySearchPhaseResults instance. This might return an instance that reduces search responses incrementally.
+     * Partial reduces of aggregations are executed on the calling thread.
      */
     InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> newSearchPhaseResults(SearchRequest request, int numShards) {
+        return newSearchPhaseResults(EsExecutors.newDirectExecutorService(), request, numShards);
+    }
+
+    /**
+     * Returns a new ArraySearchPhaseResults instance. This might return an instance that reduces search responses incrementally,
+     * in which case partial reduces of aggregations are executed on the given executor.
+     */
+    InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> newSearchPhaseResults(Executor executor, SearchRequest request,
+                                                                                       int numShards) {
+        return newSearchPhaseResults(executor, SearchProgressListener.NOOP, request, numShards);
+    }
+
+    /**
+     * Returns a new ArraySearchPhaseResults instance that notifies the given listener of the query results and of the partial
+     * reduces of aggregations. This might return an instance that reduces search responses incrementally, in which case partial
+     * reduces of aggregations are executed on the given executor.
+     */
+    InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> newSearchPhaseResults(Executor executor,
+                                                                                       SearchProgressListener progressListener,
+                                                                                       SearchRequest request, int numShards) {
         SearchSourceBuilder source = request.source();
         boolean isScrollRequest = request.scroll() != null;
         final boolean hasAggs = source != null && source.aggregations() != null;
@@ -727,11 +835,17 @@ public final class SearchPhaseController {
             // no incremental reduce if scroll is used - we only hit a single shard or sometimes more...
             if (request.getBatchedReduceSize() < numShards) {
                 // only use this if there are aggs and if there are more shards than we should reduce at once
-                return new QueryPhaseResultConsumer(this, numShards, request.getBatchedReduceSize(), hasTopDocs, hasAggs,
-                    trackTotalHitsUpTo, finalReduce);
+                return new QueryPhaseResultConsumer(this, executor, numShards, request.getBatchedReduceSize(), hasTopDocs, hasAggs,
+                    trackTotalHitsUpTo, finalReduce, progressListener);
             }
         }
         return new InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult>(numShards) {
+            @Override
+            void consumeResult(SearchPhaseResult result) {
+                super.consumeResult(result);
+                progressListener.notifyQueryResult(result.getShardIndex());
+            }
+
             @Override
             ReducedQueryPhase reduce() {
                 return reducedQueryPhase(results.asList(), isScrollRequest, trackTotalHitsUpTo, finalReduce);
@@ -0,0 +1,84 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+
+/**
+ * A listener that is notified of the progress of the query phase of a search request, see
+ * {@link SearchTask#setProgressListener(SearchProgressListener)}. Notifications are sent from the threads that handle the
+ * shard responses so implementations must be cheap and must not block.
+ */
+public abstract class SearchProgressListener {
+    private static final Logger logger = LogManager.getLogger(SearchProgressListener.class);
+
+    public static final SearchProgressListener NOOP = new SearchProgressListener() {};
+
+    /**
+     * Executed once the shards to search are known.
+     *
+     * @param totalShards the number of shards of the search request
+     * @param skippedShards the number of shards that are skipped because they cannot match the request
+     */
+    protected void onListShards(int totalShards, int skippedShards) {}
+
+    /**
+     * Executed when a shard returns its query result.
+     *
+     * @param shardIndex the index of the shard
+     */
+    protected void onQueryResult(int shardIndex) {}
+
+    /**
+     * Executed when the aggregations of a batch of shards have been partially reduced.
+     *
+     * @param numReducedShards the number of shards whose aggregations are reduced so far
+     * @param aggs the partially reduced aggregations, a final reduce is required before they can be exposed
+     * @param reducePhase the number of partial reduces so far
+     */
+    protected void onPartialReduce(int numReducedShards, InternalAggregations aggs, int reducePhase) {}
+
+    final void notifyListShards(int totalShards, int skippedShards) {
+        try {
+            onListShards(totalShards, skippedShards);
+        } catch (Exception e) {
+            logger.warn("failed to execute progress listener on list shards", e);
+        }
+    }
+
+    final void notifyQueryResult(int shardIndex) {
+        try {
+            onQueryResult(shardIndex);
+        } catch (Exception e) {
+            logger.warn(() -> new ParameterizedMessage("[{}] failed to execute progress listener on query result", shardIndex), e);
+        }
+    }
+
+    final void notifyPartialReduce(int numReducedShards, InternalAggregations aggs, int reducePhase) {
+        try {
+            onPartialReduce(numReducedShards, aggs, reducePhase);
+        } catch (Exception e) {
+            logger.warn("failed to execute progress listener on partial reduce", e);
+        }
+    }
+}
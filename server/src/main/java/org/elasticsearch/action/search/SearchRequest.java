@@ -241,6 +241,20 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
             validationException =
                 addValidationError("using [rescore] is not allowed in a scroll context", validationException);
         }
+        if (source != null && source.pointInTimeBuilder() != null) {
+            if (scroll != null) {
+                validationException = addValidationError("using [pit] is not allowed in a scroll context", validationException);
+            }
+            if (indices.length > 0) {
+                validationException = addValidationError("[indices] cannot be used with point in time", validationException);
+            }
+            if (routing != null) {
+                validationException = addValidationError("[routing] cannot be used with point in time", validationException);
+            }
+            if (preference != null) {
+                validationException = addValidationError("[preference] cannot be used with point in time", validationException);
+            }
+        }
         return validationException;
     }
 
@@ -532,25 +546,30 @@ public final class SearchRequest extends ActionRequest implements IndicesRequest
         return new SearchTask(id, type, action, null, parentTaskId, headers) {
             @Override
             public String getDescription() {
-                StringBuilder sb = new StringBuilder();
-                sb.append("indices[");
-                Strings.arrayToDelimitedString(indices, ",", sb);
-                sb.append("], ");
-                sb.append("types[");
-                Strings.arrayToDelimitedString(types, ",", sb);
-                sb.append("], ");
-                sb.append("search_type[").append(searchType).append("], ");
-                if (source != null) {
-
-                    sb.append("source[").append(source.toString(FORMAT_PARAMS)).append("]");
-                } else {
-                    sb.append("source[]");
-                }
-                return sb.toString();
+                return SearchRequest.this.getDescription();
             }
         };
     }
 
+    @Override
+    public String getDescription() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("indices[");
+        Strings.arrayToDelimitedString(indices, ",", sb);
+        sb.append("], ");
+        sb.append("types[");
+        Strings.arrayToDelimitedString(types, ",", sb);
+        sb.append("], ");
+        sb.append("search_type[").append(searchType).append("], ");
+        if (source != null) {
+
+            sb.append("source[").append(source.toString(FORMAT_PARAMS)).append("]");
+        } else {
+            sb.append("source[]");
+        }
+        return sb.toString();
+    }
+
     @Override
     public void readFrom(StreamInput in) {
         throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
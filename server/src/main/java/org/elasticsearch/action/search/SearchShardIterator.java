@@ -38,6 +38,7 @@ public final class SearchShardIterator extends PlainShardIterator {
 
     private final OriginalIndices originalIndices;
     private final String clusterAlias;
+    private final Long readerId;
     private boolean skip = false;
 
     /**
@@ -50,9 +51,21 @@ public final class SearchShardIterator extends PlainShardIterator {
      * @param originalIndices the indices that the search request originally related to (before any rewriting happened)
      */
     public SearchShardIterator(@Nullable String clusterAlias, ShardId shardId, List<ShardRouting> shards, OriginalIndices originalIndices) {
+        this(clusterAlias, shardId, shards, originalIndices, null);
+    }
+
+    /**
+     * Creates a {@link PlainShardIterator} instance that iterates over a subset of the given shards
+     * this the a given <code>shardId</code>, and that searches the reader context with the given id.
+     *
+     * @param readerId the id of the reader context of a point in time that the search runs against
+     */
+    public SearchShardIterator(@Nullable String clusterAlias, ShardId shardId, List<ShardRouting> shards, OriginalIndices originalIndices,
+                               @Nullable Long readerId) {
         super(shardId, shards);
         this.originalIndices = originalIndices;
         this.clusterAlias = clusterAlias;
+        this.readerId = readerId;
     }
 
     /**
@@ -70,6 +83,15 @@ public final class SearchShardIterator extends PlainShardIterator {
         return clusterAlias;
     }
 
+    /**
+     * Returns the id of the reader context that the search runs against, or <code>null</code> if the search runs against
+     * the latest searcher of the shard.
+     */
+    @Nullable
+    public Long getReaderId() {
+        return readerId;
+    }
+
     /**
      * Creates a new shard target from this iterator, pointing at the node identified by the provided identifier.
      * @see SearchShardTarget
@@ -29,10 +29,26 @@ import java.util.Map;
  */
 public class SearchTask extends CancellableTask {
 
+    private volatile SearchProgressListener progressListener = SearchProgressListener.NOOP;
+
     public SearchTask(long id, String type, String action, String description, TaskId parentTaskId, Map<String, String> headers) {
         super(id, type, action, description, parentTaskId, headers);
     }
 
+    /**
+     * Attaches a listener that is notified of the progress of the search, must be called before the search starts.
+     */
+    public void setProgressListener(SearchProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Returns the listener that is notified of the progress of the search.
+     */
+    public SearchProgressListener getProgressListener() {
+        return progressListener;
+    }
+
     @Override
     public boolean shouldCancelChildrenOnCancellation() {
         return true;
@@ -19,8 +19,10 @@
 
 package org.elasticsearch.action.search;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.action.CompositeIndicesRequest;
 import org.elasticsearch.action.IndicesRequest;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.action.support.HandledTransportAction.ChannelActionListener;
@@ -30,7 +32,11 @@ import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.dfs.DfsSearchResult;
@@ -45,6 +51,9 @@ import org.elasticsearch.search.internal.ShardSearchTransportRequest;
 import org.elasticsearch.search.query.QuerySearchRequest;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.query.ScrollQuerySearchResult;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.tasks.TaskManager;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.RemoteClusterService;
 import org.elasticsearch.transport.Transport;
@@ -57,9 +66,13 @@ import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 /**
  * An encapsulation of {@link org.elasticsearch.search.SearchService} operations exposed through
@@ -73,15 +86,19 @@ public class SearchTransportService {
     public static final String DFS_ACTION_NAME = "indices:data/read/search[phase/dfs]";
     public static final String QUERY_ACTION_NAME = "indices:data/read/search[phase/query]";
     public static final String QUERY_ID_ACTION_NAME = "indices:data/read/search[phase/query/id]";
+    public static final String QUERY_BATCH_ACTION_NAME = "indices:data/read/search[phase/query/batch]";
     public static final String QUERY_SCROLL_ACTION_NAME = "indices:data/read/search[phase/query/scroll]";
     public static final String QUERY_FETCH_SCROLL_ACTION_NAME = "indices:data/read/search[phase/query+fetch/scroll]";
     public static final String FETCH_ID_SCROLL_ACTION_NAME = "indices:data/read/search[phase/fetch/id/scroll]";
     public static final String FETCH_ID_ACTION_NAME = "indices:data/read/search[phase/fetch/id]";
     public static final String QUERY_CAN_MATCH_NAME = "indices:data/read/search[can_match]";
+    public static final String OPEN_READER_CONTEXT_ACTION_NAME = "indices:data/read/search[open_reader_context]";
+    public static final String FREE_READER_CONTEXT_ACTION_NAME = "indices:data/read/search[free_reader_context]";
 
     private final TransportService transportService;
     private final BiFunction<Transport.Connection, SearchActionListener, ActionListener> responseWrapper;
     private final Map<String, Long> clientConnections = ConcurrentCollections.newConcurrentMapWithAggressiveConcurrency();
+    private final Map<TaskId, ShardQueryBatcher> queryBatchers = ConcurrentCollections.newConcurrentMap();
 
     public SearchTransportService(TransportService transportService,
                                   BiFunction<Transport.Connection, SearchActionListener, ActionListener> responseWrapper) {
@@ -115,6 +132,18 @@ public class SearchTransportService {
             TransportRequestOptions.EMPTY, new ActionListenerResponseHandler<>(listener, SearchService.CanMatchResponse::new));
     }
 
+    public void sendOpenReaderContext(Transport.Connection connection, OpenReaderContextRequest request, Task task,
+                                      ActionListener<OpenReaderContextResponse> listener) {
+        transportService.sendChildRequest(connection, OPEN_READER_CONTEXT_ACTION_NAME, request, task,
+            TransportRequestOptions.EMPTY, new ActionListenerResponseHandler<>(listener, OpenReaderContextResponse::new));
+    }
+
+    public void sendFreeReaderContext(Transport.Connection connection, long readerId,
+                                      ActionListener<SearchFreeContextResponse> listener) {
+        transportService.sendRequest(connection, FREE_READER_CONTEXT_ACTION_NAME, new ScrollFreeContextRequest(readerId),
+            TransportRequestOptions.EMPTY, new ActionListenerResponseHandler<>(listener, SearchFreeContextResponse::new));
+    }
+
     public void sendClearAllScrollContexts(Transport.Connection connection, final ActionListener<TransportResponse> listener) {
         transportService.sendRequest(connection, CLEAR_SCROLL_CONTEXTS_ACTION_NAME, TransportRequest.Empty.INSTANCE,
             TransportRequestOptions.EMPTY, new ActionListenerResponseHandler<>(listener, (in) -> TransportResponse.Empty.INSTANCE));
@@ -128,14 +157,84 @@ public class SearchTransportService {
 
     public void sendExecuteQuery(Transport.Connection connection, final ShardSearchTransportRequest request, SearchTask task,
                                  final SearchActionListener<SearchPhaseResult> listener) {
+        @SuppressWarnings("unchecked")
+        final ActionListener<SearchPhaseResult> handler = responseWrapper.apply(connection, listener);
+        final ShardQueryBatcher batcher = task.getParentTaskId().isSet() ? queryBatchers.get(task.getParentTaskId()) : null;
+        if (batcher != null && request.getClusterAlias() == null && request.readerId() == null
+                && connection.getVersion().onOrAfter(Version.V_7_0_0)
+                && batcher.add(connection, request, task, handler)) {
+            return;
+        }
+        sendQuery(connection, request, task, handler);
+    }
+
+    private void sendQuery(Transport.Connection connection, final ShardSearchTransportRequest request, Task task,
+                           final ActionListener<SearchPhaseResult> handler) {
+        transportService.sendChildRequest(connection, QUERY_ACTION_NAME, request, task,
+                new ConnectionCountingHandler<>(handler, queryResultReader(request), clientConnections, connection.getNode().getId()));
+    }
+
+    /**
+     * Returns the reader of the result of the query phase of the provided request.
+     */
+    private static Writeable.Reader<SearchPhaseResult> queryResultReader(ShardSearchRequest request) {
         // we optimize this and expect a QueryFetchSearchResult if we only have a single shard in the search request
         // this used to be the QUERY_AND_FETCH which doesn't exist anymore.
         final boolean fetchDocuments = request.numberOfShards() == 1;
-        Writeable.Reader<SearchPhaseResult> reader = fetchDocuments ? QueryFetchSearchResult::new : QuerySearchResult::new;
+        return fetchDocuments ? QueryFetchSearchResult::new : QuerySearchResult::new;
+    }
 
-        final ActionListener handler = responseWrapper.apply(connection, listener);
-        transportService.sendChildRequest(connection, QUERY_ACTION_NAME, request, task,
-                new ConnectionCountingHandler<>(handler, reader, clientConnections, connection.getNode().getId()));
+    /**
+     * Starts batching the query phase requests of the searches that are executed as children of the provided task, typically
+     * a multi search request. Requests that target the same node while the searches are dispatched are sent in a single
+     * request and executed against a single searcher per shard. Must be followed by a call to
+     * {@link #stopBatchingQueries(ShardQueryBatcher)} once all searches completed.
+     */
+    ShardQueryBatcher startBatchingQueries(Task parentTask) {
+        final ShardQueryBatcher batcher = new ShardQueryBatcher(parentTask,
+            (connection, queries) -> sendQueryBatch(connection, queries, parentTask));
+        final ShardQueryBatcher previous =
+            queryBatchers.put(new TaskId(transportService.getLocalNode().getId(), parentTask.getId()), batcher);
+        assert previous == null : "queries of task [" + parentTask.getId() + "] are already batched";
+        return batcher;
+    }
+
+    void stopBatchingQueries(ShardQueryBatcher batcher) {
+        queryBatchers.remove(new TaskId(transportService.getLocalNode().getId(), batcher.getParentTask().getId()));
+    }
+
+    private void sendQueryBatch(Transport.Connection connection, List<ShardQueryBatcher.PendingQuery> queries, Task parentTask) {
+        if (queries.size() == 1) {
+            final ShardQueryBatcher.PendingQuery query = queries.get(0);
+            sendQuery(connection, query.request, query.task, query.listener);
+            return;
+        }
+        final List<ShardSearchTransportRequest> requests = new ArrayList<>(queries.size());
+        for (ShardQueryBatcher.PendingQuery query : queries) {
+            // the query of each search is executed under its own task on the data node, a child of the task of the search
+            query.request.setParentTask(transportService.getLocalNode().getId(), query.task.getId());
+            requests.add(query.request);
+        }
+        transportService.sendChildRequest(connection, QUERY_BATCH_ACTION_NAME, new BatchedQueryRequest(requests), parentTask,
+            new ConnectionCountingHandler<>(new ActionListener<BatchedQueryResponse>() {
+                @Override
+                public void onResponse(BatchedQueryResponse response) {
+                    for (int i = 0; i < queries.size(); i++) {
+                        if (response.results()[i] != null) {
+                            queries.get(i).listener.onResponse(response.results()[i]);
+                        } else {
+                            queries.get(i).listener.onFailure(response.failures()[i]);
+                        }
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    for (ShardQueryBatcher.PendingQuery query : queries) {
+                        query.listener.onFailure(e);
+                    }
+                }
+            }, in -> new BatchedQueryResponse(in, requests), clientConnections, connection.getNode().getId(), requests.size()));
     }
 
     public void sendExecuteQuery(Transport.Connection connection, final QuerySearchRequest request, SearchTask task,
@@ -270,6 +369,179 @@ public class SearchTransportService {
         }
     }
 
+    static class OpenReaderContextRequest extends TransportRequest implements IndicesRequest {
+        private final ShardId shardId;
+        private final TimeValue keepAlive;
+        private final OriginalIndices originalIndices;
+
+        OpenReaderContextRequest(ShardId shardId, TimeValue keepAlive, OriginalIndices originalIndices) {
+            this.shardId = shardId;
+            this.keepAlive = keepAlive;
+            this.originalIndices = originalIndices;
+        }
+
+        OpenReaderContextRequest(StreamInput in) throws IOException {
+            super(in);
+            shardId = ShardId.readShardId(in);
+            keepAlive = in.readTimeValue();
+            originalIndices = OriginalIndices.readOriginalIndices(in);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            shardId.writeTo(out);
+            out.writeTimeValue(keepAlive);
+            OriginalIndices.writeOriginalIndices(originalIndices, out);
+        }
+
+        public ShardId shardId() {
+            return shardId;
+        }
+
+        public TimeValue keepAlive() {
+            return keepAlive;
+        }
+
+        @Override
+        public String[] indices() {
+            return originalIndices.indices();
+        }
+
+        @Override
+        public IndicesOptions indicesOptions() {
+            return originalIndices.indicesOptions();
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+        }
+    }
+
+    static class BatchedQueryRequest extends TransportRequest implements CompositeIndicesRequest {
+        private final List<ShardSearchTransportRequest> requests;
+
+        BatchedQueryRequest(List<ShardSearchTransportRequest> requests) {
+            this.requests = requests;
+        }
+
+        BatchedQueryRequest(StreamInput in) throws IOException {
+            super(in);
+            requests = in.readList(ShardSearchTransportRequest::new);
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeList(requests);
+        }
+
+        public List<ShardSearchTransportRequest> requests() {
+            return requests;
+        }
+
+        @Override
+        public Task createTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers) {
+            return new SearchTask(id, type, action, getDescription(), parentTaskId, headers);
+        }
+
+        @Override
+        public String getDescription() {
+            // the shard ids are enough here, the requests can be found by looking at the parent task description
+            return "shardIds" + requests.stream().map(r -> r.shardId().toString()).distinct().collect(Collectors.toList());
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+        }
+    }
+
+    static class BatchedQueryResponse extends TransportResponse {
+        private final SearchPhaseResult[] results;
+        private final Exception[] failures;
+
+        BatchedQueryResponse(SearchPhaseResult[] results, Exception[] failures) {
+            assert results.length == failures.length;
+            this.results = results;
+            this.failures = failures;
+        }
+
+        BatchedQueryResponse(StreamInput in, List<ShardSearchTransportRequest> requests) throws IOException {
+            super(in);
+            final int size = in.readVInt();
+            if (size != requests.size()) {
+                throw new IllegalStateException("expected [" + requests.size() + "] results but got [" + size + "]");
+            }
+            results = new SearchPhaseResult[size];
+            failures = new Exception[size];
+            for (int i = 0; i < size; i++) {
+                if (in.readBoolean()) {
+                    results[i] = queryResultReader(requests.get(i)).read(in);
+                } else {
+                    failures[i] = in.readException();
+                }
+            }
+        }
+
+        SearchPhaseResult[] results() {
+            return results;
+        }
+
+        Exception[] failures() {
+            return failures;
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeVInt(results.length);
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null) {
+                    out.writeBoolean(true);
+                    results[i].writeTo(out);
+                } else {
+                    out.writeBoolean(false);
+                    out.writeException(failures[i]);
+                }
+            }
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+        }
+    }
+
+    public static class OpenReaderContextResponse extends TransportResponse {
+        private final long readerId;
+
+        OpenReaderContextResponse(long readerId) {
+            this.readerId = readerId;
+        }
+
+        OpenReaderContextResponse(StreamInput in) throws IOException {
+            super(in);
+            readerId = in.readLong();
+        }
+
+        @Override
+        public void writeTo(StreamOutput out) throws IOException {
+            super.writeTo(out);
+            out.writeLong(readerId);
+        }
+
+        public long getReaderId() {
+            return readerId;
+        }
+
+        @Override
+        public void readFrom(StreamInput in) throws IOException {
+            throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+        }
+    }
+
     public static class SearchFreeContextResponse extends TransportResponse {
 
         private boolean freed;
@@ -353,7 +625,15 @@ public class SearchTransportService {
                     channel, QUERY_ACTION_NAME, request));
             });
         TransportActionProxy.registerProxyActionWithDynamicResponseType(transportService, QUERY_ACTION_NAME,
-            (request) -> ((ShardSearchRequest)request).numberOfShards() == 1 ? QueryFetchSearchResult::new : QuerySearchResult::new);
+            (request) -> queryResultReader((ShardSearchRequest) request));
+
+        transportService.registerRequestHandler(QUERY_BATCH_ACTION_NAME, ThreadPool.Names.SAME, BatchedQueryRequest::new,
+            (request, channel, task) -> {
+                executeQueryBatch(searchService, transportService.getTaskManager(), request, new ChannelActionListener<>(
+                    channel, QUERY_BATCH_ACTION_NAME, request));
+            });
+        TransportActionProxy.registerProxyActionWithDynamicResponseType(transportService, QUERY_BATCH_ACTION_NAME,
+            (request) -> in -> new BatchedQueryResponse(in, ((BatchedQueryRequest) request).requests()));
 
         transportService.registerRequestHandler(QUERY_ID_ACTION_NAME, ThreadPool.Names.SAME, QuerySearchRequest::new,
             (request, channel, task) -> {
@@ -396,8 +676,81 @@ public class SearchTransportService {
                 searchService.canMatch(request, new ChannelActionListener<>(channel, QUERY_CAN_MATCH_NAME, request));
             });
         TransportActionProxy.registerProxyAction(transportService, QUERY_CAN_MATCH_NAME, SearchService.CanMatchResponse::new);
+
+        transportService.registerRequestHandler(OPEN_READER_CONTEXT_ACTION_NAME, ThreadPool.Names.SAME, OpenReaderContextRequest::new,
+            (request, channel, task) -> {
+                ChannelActionListener<OpenReaderContextResponse, OpenReaderContextRequest> listener =
+                    new ChannelActionListener<>(channel, OPEN_READER_CONTEXT_ACTION_NAME, request);
+                searchService.openReaderContext(request.shardId(), request.keepAlive(), ActionListener.wrap(
+                    readerId -> listener.onResponse(new OpenReaderContextResponse(readerId)), listener::onFailure));
+            });
+        TransportActionProxy.registerProxyAction(transportService, OPEN_READER_CONTEXT_ACTION_NAME, OpenReaderContextResponse::new);
+        transportService.registerRequestHandler(FREE_READER_CONTEXT_ACTION_NAME, ThreadPool.Names.SAME, ScrollFreeContextRequest::new,
+            (request, channel, task) -> {
+                boolean freed = searchService.freeReaderContext(request.id());
+                channel.sendResponse(new SearchFreeContextResponse(freed));
+            });
+        TransportActionProxy.registerProxyAction(transportService, FREE_READER_CONTEXT_ACTION_NAME, SearchFreeContextResponse::new);
     }
 
+    /**
+     * Executes the query phase of the requests of a batch, grouped by shard so that all requests of a shard run against the
+     * same searcher, and responds once all requests completed. Each request is registered as its own task, a child of the
+     * task of its search, so that cancelling a search cancels its query like for a request that isn't batched.
+     */
+    private static void executeQueryBatch(SearchService searchService, TaskManager taskManager, BatchedQueryRequest request,
+                                          ActionListener<BatchedQueryResponse> listener) {
+        final List<ShardSearchTransportRequest> requests = request.requests();
+        final AtomicArray<SearchPhaseResult> results = new AtomicArray<>(requests.size());
+        final AtomicArray<Exception> failures = new AtomicArray<>(requests.size());
+        final CountDown countDown = new CountDown(requests.size());
+        final Map<ShardId, List<Integer>> slotsByShard = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            slotsByShard.computeIfAbsent(requests.get(i).shardId(), k -> new ArrayList<>()).add(i);
+        }
+        for (List<Integer> slots : slotsByShard.values()) {
+            final List<ShardSearchTransportRequest> shardRequests = new ArrayList<>(slots.size());
+            final List<SearchTask> shardTasks = new ArrayList<>(slots.size());
+            final List<ActionListener<SearchPhaseResult>> shardListeners = new ArrayList<>(slots.size());
+            for (int slot : slots) {
+                final ShardSearchTransportRequest shardRequest = requests.get(slot);
+                final ActionListener<SearchPhaseResult> slotListener = new ActionListener<SearchPhaseResult>() {
+                    @Override
+                    public void onResponse(SearchPhaseResult result) {
+                        results.set(slot, result);
+                        onItemResponse();
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        failures.set(slot, e);
+                        onItemResponse();
+                    }
+
+                    private void onItemResponse() {
+                        if (countDown.countDown()) {
+                            listener.onResponse(new BatchedQueryResponse(results.toArray(new SearchPhaseResult[requests.size()]),
+                                failures.toArray(new Exception[requests.size()])));
+                        }
+                    }
+                };
+                final SearchTask shardTask;
+                try {
+                    // fails if the search was cancelled in the meantime
+                    shardTask = (SearchTask) taskManager.register("transport", QUERY_ACTION_NAME, shardRequest);
+                } catch (Exception e) {
+                    slotListener.onFailure(e);
+                    continue;
+                }
+                shardRequests.add(shardRequest);
+                shardTasks.add(shardTask);
+                shardListeners.add(ActionListener.runAfter(slotListener, () -> taskManager.unregister(shardTask)));
+            }
+            if (shardRequests.isEmpty() == false) {
+                searchService.executeQueryPhase(shardRequests, shardTasks, shardListeners);
+            }
+        }
+    }
 
     /**
      * Returns a connection to the given node on the provided cluster. If the cluster alias is <code>null</code> the node will be resolved
@@ -418,13 +771,25 @@ public class SearchTransportService {
         private final Map<String, Long> clientConnections;
         private final String nodeId;
 
+        private final long numRequests;
+
         ConnectionCountingHandler(final ActionListener<? super Response> listener, final Writeable.Reader<Response> responseReader,
                                   final Map<String, Long> clientConnections, final String nodeId) {
+            this(listener, responseReader, clientConnections, nodeId, 1);
+        }
+
+        /**
+         * Counts a request that carries <code>numRequests</code> shard requests, like a batch of queries, as that many connections
+         * so that adaptive replica selection sees the same number of outstanding requests as if they were sent one by one.
+         */
+        ConnectionCountingHandler(final ActionListener<? super Response> listener, final Writeable.Reader<Response> responseReader,
+                                  final Map<String, Long> clientConnections, final String nodeId, final long numRequests) {
             super(listener, responseReader);
             this.clientConnections = clientConnections;
             this.nodeId = nodeId;
-            // Increment the number of connections for this node by one
-            clientConnections.compute(nodeId, (id, conns) -> conns == null ? 1 : conns + 1);
+            this.numRequests = numRequests;
+            // Increment the number of connections for this node by the number of requests
+            clientConnections.compute(nodeId, (id, conns) -> conns == null ? numRequests : conns + numRequests);
         }
 
         @Override
@@ -433,7 +798,7 @@ public class SearchTransportService {
             // Decrement the number of connections or remove it entirely if there are no more connections
             // We need to remove the entry here so we don't leak when nodes go away forever
             assert assertNodePresent();
-            clientConnections.computeIfPresent(nodeId, (id, conns) -> conns.longValue() == 1 ? null : conns - 1);
+            clientConnections.computeIfPresent(nodeId, (id, conns) -> conns.longValue() == numRequests ? null : conns - numRequests);
         }
 
         @Override
@@ -442,13 +807,13 @@ public class SearchTransportService {
             // Decrement the number of connections or remove it entirely if there are no more connections
             // We need to remove the entry here so we don't leak when nodes go away forever
             assert assertNodePresent();
-            clientConnections.computeIfPresent(nodeId, (id, conns) -> conns.longValue() == 1 ? null : conns - 1);
+            clientConnections.computeIfPresent(nodeId, (id, conns) -> conns.longValue() == numRequests ? null : conns - numRequests);
         }
 
         private boolean assertNodePresent() {
             clientConnections.compute(nodeId, (id, conns) -> {
                 assert conns != null : "number of connections for " + id + " is null, but should be an integer";
-                assert conns >= 1 : "number of connections for " + id + " should be >= 1 but was " + conns;
+                assert conns >= numRequests : "number of connections for " + id + " should be >= " + numRequests + " but was " + conns;
                 return conns;
             });
             // Always return true, there is additional asserting here, the boolean is just so this
@@ -0,0 +1,170 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.index.query.CoordinatorRewriteContext;
+import org.elasticsearch.index.query.MatchNoneQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.Rewriteable;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.internal.ShardFieldRanges;
+import org.elasticsearch.search.internal.ShardSearchRequest;
+
+/**
+ * Caches the {@link ShardFieldRanges} that shards return with their can_match responses, so that the coordinating node
+ * can skip the shards that cannot match a query without sending them a can_match request. Cached ranges are only used
+ * while the settings version of their index is the one that the shard saw when it read the ranges, and while the index
+ * has a write block.
+ */
+public final class ShardFieldRangesCache {
+
+    /**
+     * The maximum number of shards whose ranges are cached, <code>0</code> disables the cache.
+     */
+    public static final Setting<Integer> CACHE_SIZE_SETTING =
+        Setting.intSetting("search.can_match.field_ranges_cache.size", 10_000, 0, Property.NodeScope);
+
+    private final Cache<ShardId, ShardFieldRanges> cache;
+
+    public ShardFieldRangesCache(Settings settings) {
+        final int size = CACHE_SIZE_SETTING.get(settings);
+        this.cache = size == 0 ? null : CacheBuilder.<ShardId, ShardFieldRanges>builder().setMaximumWeight(size).build();
+    }
+
+    /**
+     * Returns a lookup of the cached ranges that is valid for the provided cluster state.
+     */
+    Lookup lookup(ClusterState clusterState, NamedXContentRegistry xContentRegistry, NamedWriteableRegistry writeableRegistry) {
+        return new Lookup(clusterState, xContentRegistry, writeableRegistry);
+    }
+
+    /**
+     * Returns the number of shards whose ranges are cached.
+     */
+    int count() {
+        return cache == null ? 0 : cache.count();
+    }
+
+    private static boolean isValid(ShardId shardId, ShardFieldRanges fieldRanges, ClusterState clusterState) {
+        final IndexMetaData indexMetaData = clusterState.metaData().index(shardId.getIndex());
+        return indexMetaData != null
+            && indexMetaData.getIndexUUID().equals(shardId.getIndex().getUUID())
+            && indexMetaData.getSettingsVersion() == fieldRanges.getSettingsVersion()
+            && ShardFieldRanges.isWriteBlocked(indexMetaData);
+    }
+
+    /**
+     * Resolves the cached ranges of the shards of a search request.
+     */
+    final class Lookup {
+        private final ClusterState clusterState;
+        private final NamedXContentRegistry xContentRegistry;
+        private final NamedWriteableRegistry writeableRegistry;
+
+        private Lookup(ClusterState clusterState, NamedXContentRegistry xContentRegistry, NamedWriteableRegistry writeableRegistry) {
+            this.clusterState = clusterState;
+            this.xContentRegistry = xContentRegistry;
+            this.writeableRegistry = writeableRegistry;
+        }
+
+        @Nullable
+        private ShardFieldRanges get(ShardId shardId) {
+            if (cache == null) {
+                return null;
+            }
+            final ShardFieldRanges fieldRanges = cache.get(shardId);
+            return fieldRanges != null && isValid(shardId, fieldRanges, clusterState) ? fieldRanges : null;
+        }
+
+        /**
+         * Returns whether the ranges of the provided shard are cached.
+         */
+        boolean hasFieldRanges(ShardId shardId) {
+            return get(shardId) != null;
+        }
+
+        /**
+         * Returns <code>false</code> if the cached ranges of the shard show that the request cannot match any document
+         * of the shard, and <code>true</code> if the request may match or if the ranges of the shard are unknown.
+         */
+        boolean canMatch(ShardId shardId, ShardSearchRequest request) {
+            final ShardFieldRanges fieldRanges = get(shardId);
+            final SearchSourceBuilder source = request.source();
+            if (fieldRanges == null || SearchService.canRewriteToMatchNone(source) == false) {
+                return true;
+            }
+            final CoordinatorRewriteContext context =
+                new CoordinatorRewriteContext(xContentRegistry, writeableRegistry, request::nowInMillis, fieldRanges);
+            try {
+                final QueryBuilder queryBuilder = Rewriteable.rewrite(source.query(), context);
+                return context.hasAsyncActions() || queryBuilder instanceof MatchNoneQueryBuilder == false;
+            } catch (Exception e) {
+                // let the shard report the failure
+                return true;
+            }
+        }
+
+        /**
+         * Caches the ranges that a shard returned with its can_match response.
+         */
+        void onResponse(ShardId shardId, @Nullable ShardFieldRanges fieldRanges) {
+            if (cache == null) {
+                return;
+            }
+            if (fieldRanges != null && isValid(shardId, fieldRanges, clusterState)) {
+                cache.put(shardId, fieldRanges);
+            } else if (fieldRanges == null) {
+                // the ranges of the shard may have changed
+                cache.invalidate(shardId);
+            }
+        }
+
+        /**
+         * Wraps the listener of a can_match request so that the ranges of the response are cached.
+         */
+        ActionListener<SearchService.CanMatchResponse> wrap(ShardId shardId, ActionListener<SearchService.CanMatchResponse> listener) {
+            return new ActionListener<SearchService.CanMatchResponse>() {
+                @Override
+                public void onResponse(SearchService.CanMatchResponse response) {
+                    Lookup.this.onResponse(shardId, response.getFieldRanges());
+                    listener.onResponse(response);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    listener.onFailure(e);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.internal.ShardSearchTransportRequest;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.transport.Transport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Collects the query phase requests of the searches of a multi search request while the searches are dispatched, and
+ * sends them grouped by node once no search is being dispatched anymore. Requests that are sent while no search is being
+ * dispatched, for instance after an asynchronous step of a search, are not batched.
+ */
+final class ShardQueryBatcher {
+
+    private final Task parentTask;
+    private final BiConsumer<Transport.Connection, List<PendingQuery>> sender;
+    private int dispatching;
+    private Map<String, List<PendingQuery>> pendingQueries = new HashMap<>();
+
+    /**
+     * @param parentTask the task of the multi search request
+     * @param sender sends the pending queries of a node, all of them use the provided connection
+     */
+    ShardQueryBatcher(Task parentTask, BiConsumer<Transport.Connection, List<PendingQuery>> sender) {
+        this.parentTask = parentTask;
+        this.sender = sender;
+    }
+
+    Task getParentTask() {
+        return parentTask;
+    }
+
+    /**
+     * Marks the start of the dispatching of one or more searches. Must be followed by a call to {@link #stopDispatching()}.
+     */
+    synchronized void startDispatching() {
+        dispatching++;
+    }
+
+    /**
+     * Marks the end of the dispatching of searches and sends the pending queries if no other search is being dispatched.
+     */
+    void stopDispatching() {
+        final Map<String, List<PendingQuery>> toSend;
+        synchronized (this) {
+            assert dispatching > 0 : "not dispatching";
+            if (--dispatching > 0 || pendingQueries.isEmpty()) {
+                return;
+            }
+            toSend = pendingQueries;
+            pendingQueries = new HashMap<>();
+        }
+        for (List<PendingQuery> queries : toSend.values()) {
+            sender.accept(queries.get(0).connection, queries);
+        }
+    }
+
+    /**
+     * Adds a query phase request to the current batch of its node.
+     *
+     * @return <code>false</code> if no search is being dispatched, in which case the request must be sent on its own
+     */
+    synchronized boolean add(Transport.Connection connection, ShardSearchTransportRequest request, SearchTask task,
+                             ActionListener<SearchPhaseResult> listener) {
+        if (dispatching == 0) {
+            return false;
+        }
+        pendingQueries.computeIfAbsent(connection.getNode().getId(), k -> new ArrayList<>())
+            .add(new PendingQuery(connection, request, task, listener));
+        return true;
+    }
+
+    static final class PendingQuery {
+        final Transport.Connection connection;
+        final ShardSearchTransportRequest request;
+        final SearchTask task;
+        final ActionListener<SearchPhaseResult> listener;
+
+        PendingQuery(Transport.Connection connection, ShardSearchTransportRequest request, SearchTask task,
+                     ActionListener<SearchPhaseResult> listener) {
+            this.connection = connection;
+            this.request = request;
+            this.task = task;
+            this.listener = listener;
+        }
+    }
+}
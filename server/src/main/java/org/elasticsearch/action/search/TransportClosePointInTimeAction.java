@@ -0,0 +1,109 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closes a point in time by releasing the reader contexts of its shards, like {@link ClearScrollController} releases the
+ * contexts of a scroll.
+ */
+public class TransportClosePointInTimeAction extends HandledTransportAction<ClosePointInTimeRequest, ClosePointInTimeResponse> {
+
+    private final ClusterService clusterService;
+    private final SearchTransportService searchTransportService;
+    private final NamedWriteableRegistry namedWriteableRegistry;
+
+    @Inject
+    public TransportClosePointInTimeAction(TransportService transportService, ActionFilters actionFilters, ClusterService clusterService,
+                                           SearchTransportService searchTransportService, NamedWriteableRegistry namedWriteableRegistry) {
+        super(ClosePointInTimeAction.NAME, transportService, actionFilters, ClosePointInTimeRequest::new);
+        this.clusterService = clusterService;
+        this.searchTransportService = searchTransportService;
+        this.namedWriteableRegistry = namedWriteableRegistry;
+    }
+
+    @Override
+    protected void doExecute(Task task, ClosePointInTimeRequest request, ActionListener<ClosePointInTimeResponse> listener) {
+        final Map<ShardId, PointInTimeId.ShardReader> shardReaders;
+        try {
+            shardReaders = PointInTimeId.decode(request.getId(), namedWriteableRegistry);
+        } catch (IllegalArgumentException e) {
+            listener.onFailure(e);
+            return;
+        }
+        if (shardReaders.isEmpty()) {
+            listener.onResponse(new ClosePointInTimeResponse(true, 0));
+            return;
+        }
+        final DiscoveryNodes nodes = clusterService.state().nodes();
+        final CountDown countDown = new CountDown(shardReaders.size());
+        final AtomicInteger numFreed = new AtomicInteger();
+        final AtomicBoolean succeeded = new AtomicBoolean(true);
+        final Runnable onShardDone = () -> {
+            if (countDown.countDown()) {
+                listener.onResponse(new ClosePointInTimeResponse(succeeded.get(), numFreed.get()));
+            }
+        };
+        for (PointInTimeId.ShardReader shardReader : shardReaders.values()) {
+            final DiscoveryNode node = nodes.get(shardReader.getNodeId());
+            if (node == null) {
+                // the node left the cluster, its reader contexts are gone
+                onShardDone.run();
+                continue;
+            }
+            try {
+                searchTransportService.sendFreeReaderContext(searchTransportService.getConnection(null, node),
+                    shardReader.getReaderId(), ActionListener.wrap(response -> {
+                        if (response.isFreed()) {
+                            numFreed.incrementAndGet();
+                        }
+                        onShardDone.run();
+                    }, e -> {
+                        logger.warn(() -> new ParameterizedMessage("failed to free reader context [{}] on [{}]",
+                            shardReader.getReaderId(), shardReader.getNodeId()), e);
+                        succeeded.set(false);
+                        onShardDone.run();
+                    }));
+            } catch (Exception e) {
+                logger.warn(() -> new ParameterizedMessage("failed to free reader context [{}] on [{}]",
+                    shardReader.getReaderId(), shardReader.getNodeId()), e);
+                succeeded.set(false);
+                onShardDone.run();
+            }
+        }
+    }
+}
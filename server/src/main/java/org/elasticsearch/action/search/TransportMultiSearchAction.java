@@ -26,7 +26,10 @@ import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.block.ClusterBlockLevel;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
@@ -42,21 +45,34 @@ import java.util.function.LongSupplier;
 
 public class TransportMultiSearchAction extends HandledTransportAction<MultiSearchRequest, MultiSearchResponse> {
 
+    /**
+     * Whether the query phase requests of the searches of a multi search request that target the same node are sent in a single
+     * request, and executed against a single searcher per shard.
+     */
+    public static final Setting<Boolean> BATCHED_SHARD_QUERIES_SETTING =
+        Setting.boolSetting("search.msearch.batched_shard_queries", false, Property.Dynamic, Property.NodeScope);
+
     private final int availableProcessors;
     private final ThreadPool threadPool;
     private final ClusterService clusterService;
     private final LongSupplier relativeTimeProvider;
     private final NodeClient client;
+    private final SearchTransportService searchTransportService;
+    private volatile boolean batchedShardQueries;
 
     @Inject
     public TransportMultiSearchAction(Settings settings, ThreadPool threadPool, TransportService transportService,
-                                      ClusterService clusterService, ActionFilters actionFilters, NodeClient client) {
+                                      ClusterService clusterService, ActionFilters actionFilters, NodeClient client,
+                                      SearchTransportService searchTransportService) {
         super(MultiSearchAction.NAME, transportService, actionFilters, MultiSearchRequest::new);
         this.threadPool = threadPool;
         this.clusterService = clusterService;
         this.availableProcessors = EsExecutors.numberOfProcessors(settings);
         this.relativeTimeProvider = System::nanoTime;
         this.client = client;
+        this.searchTransportService = searchTransportService;
+        this.batchedShardQueries = BATCHED_SHARD_QUERIES_SETTING.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(BATCHED_SHARD_QUERIES_SETTING, this::setBatchedShardQueries);
     }
 
     TransportMultiSearchAction(ThreadPool threadPool, ActionFilters actionFilters, TransportService transportService,
@@ -68,6 +84,12 @@ public class TransportMultiSearchAction extends HandledTransportAction<MultiSear
         this.availableProcessors = availableProcessors;
         this.relativeTimeProvider = relativeTimeProvider;
         this.client = client;
+        this.searchTransportService = null;
+        this.batchedShardQueries = false;
+    }
+
+    private void setBatchedShardQueries(boolean batchedShardQueries) {
+        this.batchedShardQueries = batchedShardQueries;
     }
 
     @Override
@@ -82,18 +104,33 @@ public class TransportMultiSearchAction extends HandledTransportAction<MultiSear
             maxConcurrentSearches = defaultMaxConcurrentSearches(availableProcessors, clusterState);
         }
 
+        int numRequests = request.requests().size();
+        final ShardQueryBatcher batcher = batchedShardQueries && numRequests > 1 ? searchTransportService.startBatchingQueries(task) : null;
         Queue<SearchRequestSlot> searchRequestSlots = new ConcurrentLinkedQueue<>();
-        for (int i = 0; i < request.requests().size(); i++) {
+        for (int i = 0; i < numRequests; i++) {
             SearchRequest searchRequest = request.requests().get(i);
+            if (batcher != null) {
+                // the batcher finds the queries of the searches by their parent task
+                searchRequest.setParentTask(clusterService.localNode().getId(), task.getId());
+            }
             searchRequestSlots.add(new SearchRequestSlot(searchRequest, i));
         }
 
-        int numRequests = request.requests().size();
         final AtomicArray<MultiSearchResponse.Item> responses = new AtomicArray<>(numRequests);
         final AtomicInteger responseCounter = new AtomicInteger(numRequests);
         int numConcurrentSearches = Math.min(numRequests, maxConcurrentSearches);
-        for (int i = 0; i < numConcurrentSearches; i++) {
-            executeSearch(searchRequestSlots, responses, responseCounter, listener, relativeStartTime);
+        if (batcher != null) {
+            // dispatch all concurrent searches before the first batch is sent
+            batcher.startDispatching();
+        }
+        try {
+            for (int i = 0; i < numConcurrentSearches; i++) {
+                executeSearch(searchRequestSlots, responses, responseCounter, listener, relativeStartTime, batcher);
+            }
+        } finally {
+            if (batcher != null) {
+                batcher.stopDispatching();
+            }
         }
     }
 
@@ -118,13 +155,15 @@ public class TransportMultiSearchAction extends HandledTransportAction<MultiSear
      * @param responses atomic array to hold the responses corresponding to each search request slot
      * @param responseCounter incremented on each response
      * @param listener the listener attached to the multi-search request
+     * @param batcher batches the query phase requests of the searches, or <code>null</code> if they are not batched
      */
     void executeSearch(
             final Queue<SearchRequestSlot> requests,
             final AtomicArray<MultiSearchResponse.Item> responses,
             final AtomicInteger responseCounter,
             final ActionListener<MultiSearchResponse> listener,
-            final long relativeStartTime) {
+            final long relativeStartTime,
+            @Nullable final ShardQueryBatcher batcher) {
         SearchRequestSlot request = requests.poll();
         if (request == null) {
             /*
@@ -145,6 +184,27 @@ public class TransportMultiSearchAction extends HandledTransportAction<MultiSear
          * when we handle the response rather than going recursive, we fork to another thread, otherwise we recurse.
          */
         final Thread thread = Thread.currentThread();
+        if (batcher != null) {
+            batcher.startDispatching();
+        }
+        try {
+            doExecuteSearch(request, requests, responses, responseCounter, listener, relativeStartTime, batcher, thread);
+        } finally {
+            if (batcher != null) {
+                batcher.stopDispatching();
+            }
+        }
+    }
+
+    private void doExecuteSearch(
+            final SearchRequestSlot request,
+            final Queue<SearchRequestSlot> requests,
+            final AtomicArray<MultiSearchResponse.Item> responses,
+            final AtomicInteger responseCounter,
+            final ActionListener<MultiSearchResponse> listener,
+            final long relativeStartTime,
+            @Nullable final ShardQueryBatcher batcher,
+            final Thread thread) {
         client.search(request.request, new ActionListener<SearchResponse>() {
             @Override
             public void onResponse(final SearchResponse searchResponse) {
@@ -165,15 +225,18 @@ public class TransportMultiSearchAction extends HandledTransportAction<MultiSear
                     if (thread == Thread.currentThread()) {
                         // we are on the same thread, we need to fork to another thread to avoid recursive stack overflow on a single thread
                         threadPool.generic()
-                                .execute(() -> executeSearch(requests, responses, responseCounter, listener, relativeStartTime));
+                                .execute(() -> executeSearch(requests, responses, responseCounter, listener, relativeStartTime, batcher));
                     } else {
                         // we are on a different thread (we went asynchronous), it's safe to recurse
-                        executeSearch(requests, responses, responseCounter, listener, relativeStartTime);
+                        executeSearch(requests, responses, responseCounter, listener, relativeStartTime, batcher);
                     }
                 }
             }
 
             private void finish() {
+                if (batcher != null) {
+                    searchTransportService.stopBatchingQueries(batcher);
+                }
                 listener.onResponse(new MultiSearchResponse(responses.toArray(new MultiSearchResponse.Item[responses.length()]),
                         buildTookInMillis()));
             }
@@ -0,0 +1,183 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.NoShardAvailableActionException;
+import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.block.ClusterBlockLevel;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.routing.GroupShardsIterator;
+import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.CountDown;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opens a point in time: pins the current reader of one copy of each shard that the request targets and returns an id that
+ * records where the reader contexts live. If a copy of a shard fails to open its reader context the next copy is tried, and
+ * if no copy of a shard can open one the contexts that were already opened are released and the request fails.
+ */
+public class TransportOpenPointInTimeAction extends HandledTransportAction<OpenPointInTimeRequest, OpenPointInTimeResponse> {
+
+    private final ClusterService clusterService;
+    private final IndexNameExpressionResolver indexNameExpressionResolver;
+    private final SearchService searchService;
+    private final SearchTransportService searchTransportService;
+
+    @Inject
+    public TransportOpenPointInTimeAction(TransportService transportService, ActionFilters actionFilters, ClusterService clusterService,
+                                          IndexNameExpressionResolver indexNameExpressionResolver, SearchService searchService,
+                                          SearchTransportService searchTransportService) {
+        super(OpenPointInTimeAction.NAME, transportService, actionFilters, OpenPointInTimeRequest::new);
+        this.clusterService = clusterService;
+        this.indexNameExpressionResolver = indexNameExpressionResolver;
+        this.searchService = searchService;
+        this.searchTransportService = searchTransportService;
+    }
+
+    @Override
+    protected void doExecute(Task task, OpenPointInTimeRequest request, ActionListener<OpenPointInTimeResponse> listener) {
+        final ClusterState clusterState = clusterService.state();
+        final GroupShardsIterator<ShardIterator> shardIterators;
+        final Map<String, AliasFilter> aliasFilters = new HashMap<>();
+        try {
+            clusterState.blocks().globalBlockedRaiseException(ClusterBlockLevel.READ);
+            final Index[] indices = indexNameExpressionResolver.concreteIndices(clusterState, request.indicesOptions(),
+                request.indices());
+            final String[] concreteIndices = new String[indices.length];
+            for (int i = 0; i < indices.length; i++) {
+                concreteIndices[i] = indices[i].getName();
+                aliasFilters.put(indices[i].getUUID(),
+                    searchService.buildAliasFilter(clusterState, indices[i].getName(), request.indices()));
+            }
+            final Map<String, Set<String>> routingMap = indexNameExpressionResolver.resolveSearchRouting(clusterState,
+                request.routing(), request.indices());
+            shardIterators = clusterService.operationRouting().searchShards(clusterState, concreteIndices, routingMap,
+                request.preference());
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
+        final OriginalIndices originalIndices = new OriginalIndices(request.indices(), request.indicesOptions());
+        final Map<ShardId, PointInTimeId.ShardReader> shardReaders = ConcurrentCollections.newConcurrentMap();
+        final AtomicArray<Exception> failures = new AtomicArray<>(shardIterators.size());
+        if (shardIterators.size() == 0) {
+            onOpened(clusterState, shardReaders, failures, listener);
+            return;
+        }
+        final CountDown countDown = new CountDown(shardIterators.size());
+        final Runnable onShardDone = () -> {
+            if (countDown.countDown()) {
+                onOpened(clusterState, shardReaders, failures, listener);
+            }
+        };
+        int shardIndex = 0;
+        for (ShardIterator shardIterator : shardIterators) {
+            openOnShard(task, clusterState, shardIterator, shardIndex++, request, originalIndices, aliasFilters, shardReaders, failures,
+                null, onShardDone);
+        }
+    }
+
+    private void openOnShard(Task task, ClusterState clusterState, ShardIterator shardIterator, int shardIndex,
+                             OpenPointInTimeRequest request, OriginalIndices originalIndices, Map<String, AliasFilter> aliasFilters,
+                             Map<ShardId, PointInTimeId.ShardReader> shardReaders, AtomicArray<Exception> failures,
+                             Exception lastFailure, Runnable onShardDone) {
+        final ShardId shardId = shardIterator.shardId();
+        final ShardRouting shardRouting = shardIterator.nextOrNull();
+        if (shardRouting == null) {
+            failures.set(shardIndex, lastFailure != null ? lastFailure : new NoShardAvailableActionException(shardId));
+            onShardDone.run();
+            return;
+        }
+        final DiscoveryNode node = clusterState.nodes().get(shardRouting.currentNodeId());
+        final ActionListener<SearchTransportService.OpenReaderContextResponse> shardListener = ActionListener.wrap(
+            response -> {
+                final AliasFilter aliasFilter = aliasFilters.get(shardId.getIndex().getUUID());
+                shardReaders.put(shardId, new PointInTimeId.ShardReader(node.getId(), response.getReaderId(), aliasFilter));
+                onShardDone.run();
+            },
+            e -> {
+                logger.debug(() -> new ParameterizedMessage("{}: failed to open reader context on [{}]", shardId,
+                    shardRouting.currentNodeId()), e);
+                openOnShard(task, clusterState, shardIterator, shardIndex, request, originalIndices, aliasFilters, shardReaders,
+                    failures, e, onShardDone);
+            });
+        if (node == null) {
+            shardListener.onFailure(new NoShardAvailableActionException(shardId));
+            return;
+        }
+        try {
+            searchTransportService.sendOpenReaderContext(searchTransportService.getConnection(null, node),
+                new SearchTransportService.OpenReaderContextRequest(shardId, request.keepAlive(), originalIndices), task,
+                shardListener);
+        } catch (Exception e) {
+            shardListener.onFailure(e);
+        }
+    }
+
+    private void onOpened(ClusterState clusterState, Map<ShardId, PointInTimeId.ShardReader> shardReaders,
+                          AtomicArray<Exception> failures, ActionListener<OpenPointInTimeResponse> listener) {
+        final List<Exception> shardFailures = failures.asList();
+        if (shardFailures.isEmpty() == false) {
+            // a point in time must cover all shards, release the reader contexts that were opened
+            for (PointInTimeId.ShardReader shardReader : shardReaders.values()) {
+                freeReaderContext(clusterState, shardReader);
+            }
+            listener.onFailure(shardFailures.get(0));
+            return;
+        }
+        listener.onResponse(new OpenPointInTimeResponse(PointInTimeId.encode(shardReaders, clusterState.nodes().getMinNodeVersion())));
+    }
+
+    private void freeReaderContext(ClusterState clusterState, PointInTimeId.ShardReader shardReader) {
+        final DiscoveryNode node = clusterState.nodes().get(shardReader.getNodeId());
+        if (node == null) {
+            return;
+        }
+        try {
+            searchTransportService.sendFreeReaderContext(searchTransportService.getConnection(null, node), shardReader.getReaderId(),
+                ActionListener.wrap(r -> {}, e -> logger.debug(() -> new ParameterizedMessage(
+                    "failed to free reader context [{}] on [{}]", shardReader.getReaderId(), shardReader.getNodeId()), e)));
+        } catch (Exception e) {
+            logger.debug(() -> new ParameterizedMessage("failed to free reader context [{}] on [{}]", shardReader.getReaderId(),
+                shardReader.getNodeId()), e);
+        }
+    }
+}
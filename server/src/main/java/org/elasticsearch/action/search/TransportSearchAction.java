@@ -32,16 +32,23 @@ import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodes;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
+import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
 import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.query.QueryRewriteContext;
 import org.elasticsearch.index.query.Rewriteable;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
@@ -56,6 +63,7 @@ import org.elasticsearch.transport.TransportService;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +81,14 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
     public static final Setting<Long> SHARD_COUNT_LIMIT_SETTING = Setting.longSetting(
             "action.search.shard_count.limit", Long.MAX_VALUE, 1L, Property.Dynamic, Property.NodeScope);
 
+    /** Whether a shard request that is slower than most is also sent to another copy of the shard. */
+    public static final Setting<Boolean> HEDGING_ENABLED_SETTING = Setting.boolSetting(
+            "search.hedging.enabled", false, Property.Dynamic, Property.NodeScope);
+
+    /** The percentile of recent shard response times after which a shard request is also sent to another copy of the shard. */
+    public static final Setting<Double> HEDGING_PERCENTILE_SETTING = Setting.doubleSetting(
+            "search.hedging.percentile", 95.0, 50.0, 100.0, Property.Dynamic, Property.NodeScope);
+
     private final ThreadPool threadPool;
     private final ClusterService clusterService;
     private final SearchTransportService searchTransportService;
@@ -80,12 +96,13 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
     private final SearchPhaseController searchPhaseController;
     private final SearchService searchService;
     private final IndexNameExpressionResolver indexNameExpressionResolver;
+    private final ShardFieldRangesCache fieldRangesCache;
 
     @Inject
     public TransportSearchAction(ThreadPool threadPool, TransportService transportService, SearchService searchService,
                                  SearchTransportService searchTransportService, SearchPhaseController searchPhaseController,
                                  ClusterService clusterService, ActionFilters actionFilters,
-                                 IndexNameExpressionResolver indexNameExpressionResolver) {
+                                 IndexNameExpressionResolver indexNameExpressionResolver, ShardFieldRangesCache fieldRangesCache) {
         super(SearchAction.NAME, transportService, actionFilters, (Writeable.Reader<SearchRequest>) SearchRequest::new);
         this.threadPool = threadPool;
         this.searchPhaseController = searchPhaseController;
@@ -95,6 +112,7 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         this.clusterService = clusterService;
         this.searchService = searchService;
         this.indexNameExpressionResolver = indexNameExpressionResolver;
+        this.fieldRangesCache = fieldRangesCache;
     }
 
     private Map<String, AliasFilter> buildPerIndexAliasFilter(SearchRequest request, ClusterState clusterState,
@@ -190,6 +208,10 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 // situations when it possible due to a bug changes to null
                 searchRequest.source(source);
             }
+            if (source != null && source.pointInTimeBuilder() != null) {
+                executePointInTimeSearch((SearchTask) task, timeProvider, searchRequest, listener);
+                return;
+            }
             final ClusterState clusterState = clusterService.state();
             final Map<String, OriginalIndices> remoteClusterIndices = remoteClusterService.groupIndices(searchRequest.indicesOptions(),
                 searchRequest.indices(), idx -> indexNameExpressionResolver.hasIndexOrAlias(idx, clusterState));
@@ -314,7 +336,62 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 concreteIndices, routingMap, searchRequest.preference(), searchService.getResponseCollectorService(), nodeSearchCounts);
         GroupShardsIterator<SearchShardIterator> shardIterators = mergeShardsIterators(localShardsIterator, localIndices,
             searchRequest.getLocalClusterAlias(), remoteShardIterators);
+        executeSearch(task, timeProvider, searchRequest, shardIterators, remoteConnections, clusterState, aliasFilter, routingMap,
+            listener, clusters, false);
+    }
+
+    /**
+     * Executes a search against the reader contexts of a point in time. The shards of the search, the nodes that hold their
+     * reader contexts and their alias filters are all taken from the id of the point in time rather than from the request.
+     */
+    private void executePointInTimeSearch(SearchTask task, SearchTimeProvider timeProvider, SearchRequest searchRequest,
+                                          ActionListener<SearchResponse> listener) {
+        final ClusterState clusterState = clusterService.state();
+        clusterState.blocks().globalBlockedRaiseException(ClusterBlockLevel.READ);
+        final NamedWriteableRegistry namedWriteableRegistry =
+            searchService.getRewriteContext(timeProvider::getAbsoluteStartMillis).getWriteableRegistry();
+        final Map<ShardId, PointInTimeId.ShardReader> shardReaders =
+            PointInTimeId.decode(searchRequest.source().pointInTimeBuilder().getId(), namedWriteableRegistry);
+        final Map<String, AliasFilter> aliasFilter = new HashMap<>();
+        final List<SearchShardIterator> shardIterators = new ArrayList<>();
+        for (Map.Entry<ShardId, PointInTimeId.ShardReader> entry : shardReaders.entrySet()) {
+            final ShardId shardId = entry.getKey();
+            final PointInTimeId.ShardReader shardReader = entry.getValue();
+            aliasFilter.put(shardId.getIndex().getUUID(), shardReader.getAliasFilter());
+            final String[] aliases = shardReader.getAliasFilter().getAliases();
+            final String[] indices = aliases.length == 0 ? new String[] {shardId.getIndexName()} : aliases;
+            shardIterators.add(new SearchShardIterator(null, shardId, pointInTimeShardRouting(clusterState, shardId, shardReader),
+                new OriginalIndices(indices, searchRequest.indicesOptions()), shardReader.getReaderId()));
+        }
+        // the shards are sorted so that they get the same shard index in every search against the point in time
+        shardIterators.sort(Comparator.comparing(SearchShardIterator::shardId));
+        executeSearch(task, timeProvider, searchRequest, new GroupShardsIterator<>(shardIterators), (clusterName, nodeId) -> null,
+            clusterState, aliasFilter, Collections.emptyMap(), listener, SearchResponse.Clusters.EMPTY, true);
+    }
+
+    /**
+     * Returns the copy of the shard that holds the reader context of a point in time, or an empty list if the copy is gone, in
+     * which case the search fails on the shard.
+     */
+    private static List<ShardRouting> pointInTimeShardRouting(ClusterState clusterState, ShardId shardId,
+                                                              PointInTimeId.ShardReader shardReader) {
+        final IndexShardRoutingTable shardRoutingTable = clusterState.routingTable().shardRoutingTableOrNull(shardId);
+        if (shardRoutingTable == null || shardRoutingTable.shardId().getIndex().equals(shardId.getIndex()) == false) {
+            return Collections.emptyList();
+        }
+        for (ShardRouting shardRouting : shardRoutingTable) {
+            if (shardRouting.active() && shardReader.getNodeId().equals(shardRouting.currentNodeId())) {
+                return Collections.singletonList(shardRouting);
+            }
+        }
+        return Collections.emptyList();
+    }
 
+    private void executeSearch(SearchTask task, SearchTimeProvider timeProvider, SearchRequest searchRequest,
+                               GroupShardsIterator<SearchShardIterator> shardIterators,
+                               BiFunction<String, String, DiscoveryNode> remoteConnections, ClusterState clusterState,
+                               Map<String, AliasFilter> aliasFilter, Map<String, Set<String>> routingMap,
+                               ActionListener<SearchResponse> listener, SearchResponse.Clusters clusters, boolean pointInTime) {
         failIfOverShardCountLimit(clusterService, shardIterators.size());
 
         Map<String, Float> concreteIndexBoosts = resolveIndexBoosts(searchRequest, clusterState);
@@ -342,9 +419,17 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
         final DiscoveryNodes nodes = clusterState.nodes();
         BiFunction<String, String, Transport.Connection> connectionLookup = buildConnectionLookup(searchRequest.getLocalClusterAlias(),
             nodes::get, remoteConnections, searchTransportService::getConnection);
+        final QueryRewriteContext rewriteContext = searchService.getRewriteContext(timeProvider::getAbsoluteStartMillis);
+        // the cached ranges describe the latest reader of the shards, which may not be the reader of a point in time
+        final ShardFieldRangesCache.Lookup fieldRanges = pointInTime ? null : fieldRangesCache.lookup(clusterState,
+            rewriteContext.getXContentRegistry(), rewriteContext.getWriteableRegistry());
         boolean preFilterSearchShards = shouldPreFilterSearchShards(searchRequest, shardIterators);
+        // too few shards to justify a can_match round trip, but the shards whose field ranges are cached can be skipped locally
+        boolean preFilterWithCachedRanges = preFilterSearchShards == false
+            && shouldPreFilterWithCachedRanges(searchRequest, shardIterators, fieldRanges);
         searchAsyncAction(task, searchRequest, shardIterators, timeProvider, connectionLookup, clusterState.version(),
-            Collections.unmodifiableMap(aliasFilter), concreteIndexBoosts, routingMap, listener, preFilterSearchShards, clusters).start();
+            Collections.unmodifiableMap(aliasFilter), concreteIndexBoosts, routingMap, listener,
+            preFilterSearchShards || preFilterWithCachedRanges, preFilterWithCachedRanges, clusters, fieldRanges).start();
     }
 
     static BiFunction<String, String, Transport.Connection> buildConnectionLookup(String requestClusterAlias,
@@ -377,6 +462,21 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 searchRequest.getPreFilterShardSize() < shardIterators.size();
     }
 
+    private static boolean shouldPreFilterWithCachedRanges(SearchRequest searchRequest,
+                                                           GroupShardsIterator<SearchShardIterator> shardIterators,
+                                                           @Nullable ShardFieldRangesCache.Lookup fieldRanges) {
+        if (fieldRanges == null || searchRequest.searchType() != QUERY_THEN_FETCH
+                || SearchService.canRewriteToMatchNone(searchRequest.source()) == false) {
+            return false;
+        }
+        for (SearchShardIterator shardIterator : shardIterators) {
+            if (fieldRanges.hasFieldRanges(shardIterator.shardId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     static GroupShardsIterator<SearchShardIterator> mergeShardsIterators(GroupShardsIterator<ShardIterator> localShardsIterator,
                                                              OriginalIndices localIndices,
                                                              @Nullable String localClusterAlias,
@@ -398,21 +498,24 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                                                         Map<String, Set<String>> indexRoutings,
                                                         ActionListener<SearchResponse> listener,
                                                         boolean preFilter,
-                                                        SearchResponse.Clusters clusters) {
+                                                        boolean cachedRangesOnly,
+                                                        SearchResponse.Clusters clusters,
+                                                        ShardFieldRangesCache.Lookup fieldRanges) {
         Executor executor = threadPool.executor(ThreadPool.Names.SEARCH);
         if (preFilter) {
             return new CanMatchPreFilterSearchPhase(logger, searchTransportService, connectionLookup,
                 aliasFilter, concreteIndexBoosts, indexRoutings, executor, searchRequest, listener, shardIterators,
                 timeProvider, clusterStateVersion, task, (iter) -> {
                 AbstractSearchAsyncAction action = searchAsyncAction(task, searchRequest, iter, timeProvider, connectionLookup,
-                    clusterStateVersion, aliasFilter, concreteIndexBoosts, indexRoutings, listener, false, clusters);
+                    clusterStateVersion, aliasFilter, concreteIndexBoosts, indexRoutings, listener, false, false, clusters,
+                    fieldRanges);
                 return new SearchPhase(action.getName()) {
                     @Override
                     public void run() {
                         action.start();
                     }
                 };
-            }, clusters);
+            }, clusters, fieldRanges, cachedRangesOnly);
         } else {
             AbstractSearchAsyncAction<? extends SearchPhaseResult> searchAsyncAction;
             switch (searchRequest.searchType()) {
@@ -429,10 +532,28 @@ public class TransportSearchAction extends HandledTransportAction<SearchRequest,
                 default:
                     throw new IllegalStateException("Unknown search type: [" + searchRequest.searchType() + "]");
             }
+            final TimeValue hedgingDelay = hedgingDelay();
+            if (hedgingDelay != null) {
+                searchAsyncAction.enableHedging(threadPool, hedgingDelay);
+            }
             return searchAsyncAction;
         }
     }
 
+    /**
+     * Returns the delay after which shard requests are hedged, or {@code null} if hedging is disabled or too few shard
+     * responses have been seen yet to tell slow requests apart.
+     */
+    private TimeValue hedgingDelay() {
+        final ClusterSettings clusterSettings = clusterService.getClusterSettings();
+        final ResponseCollectorService responseCollectorService = searchService.getResponseCollectorService();
+        if (clusterSettings.get(HEDGING_ENABLED_SETTING) == false || responseCollectorService == null) {
+            return null;
+        }
+        final long percentileNanos = responseCollectorService.responseTimePercentile(clusterSettings.get(HEDGING_PERCENTILE_SETTING));
+        return percentileNanos < 0 ? null : TimeValue.timeValueNanos(percentileNanos);
+    }
+
     private static void failIfOverShardCountLimit(ClusterService clusterService, int shardCount) {
         final long shardCountLimit = clusterService.getClusterSettings().get(SHARD_COUNT_LIMIT_SETTING);
         if (shardCount > shardCountLimit) {
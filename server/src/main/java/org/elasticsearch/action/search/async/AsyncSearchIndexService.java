@@ -0,0 +1,254 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.ResourceAlreadyExistsException;
+import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.OriginSettingClient;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.NamedWriteableAwareStreamInput;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.core.internal.io.Streams;
+import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.index.engine.VersionConflictEngineException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.elasticsearch.action.admin.cluster.node.tasks.get.GetTaskAction.TASKS_ORIGIN;
+
+/**
+ * Stores the responses of async searches in the {@link #INDEX} system index so that they can be retrieved from any node once
+ * the search is completed. Responses are stored in their binary form along with their expiration time and the headers of
+ * the user that submitted the search, so that they can only be retrieved or deleted by this user.
+ */
+public class AsyncSearchIndexService {
+
+    private static final Logger logger = LogManager.getLogger(AsyncSearchIndexService.class);
+
+    public static final String INDEX = ".async-search";
+
+    public static final String TYPE = "_doc";
+
+    public static final String INDEX_MAPPING_FILE = "async-search-index-mapping.json";
+
+    static final String EXPIRATION_TIME_FIELD = "expiration_time";
+
+    static final String RESULT_FIELD = "result";
+
+    static final String HEADERS_FIELD = "headers";
+
+    private final Client client;
+
+    private final ClusterService clusterService;
+
+    private final NamedWriteableRegistry namedWriteableRegistry;
+
+    private final AsyncSearchSecurity security;
+
+    private final ThreadContext threadContext;
+
+    public AsyncSearchIndexService(Client client, ClusterService clusterService, NamedWriteableRegistry namedWriteableRegistry,
+                                   AsyncSearchSecurity security) {
+        // async searches are stored along with the results of the other tasks
+        this.client = new OriginSettingClient(client, TASKS_ORIGIN);
+        this.clusterService = clusterService;
+        this.namedWriteableRegistry = namedWriteableRegistry;
+        this.security = security;
+        this.threadContext = client.threadPool().getThreadContext();
+    }
+
+    /**
+     * Stores the provided response. If <code>create</code> is true the response is only stored if no response is stored
+     * for the search yet, so that an initial response never overrides the final response of the search.
+     */
+    public void storeResponse(AsyncSearchResponse response, Map<String, String> userHeaders, long expirationTimeMillis,
+                              boolean create, ActionListener<Void> listener) {
+        if (clusterService.state().routingTable().hasIndex(INDEX)) {
+            doStoreResponse(response, userHeaders, expirationTimeMillis, create, listener);
+            return;
+        }
+        CreateIndexRequest createIndexRequest = new CreateIndexRequest();
+        createIndexRequest.settings(indexSettings());
+        createIndexRequest.index(INDEX);
+        createIndexRequest.mapping(TYPE, indexMapping(), XContentType.JSON);
+        createIndexRequest.cause("auto(async search api)");
+        client.admin().indices().create(createIndexRequest, ActionListener.wrap(
+            r -> doStoreResponse(response, userHeaders, expirationTimeMillis, create, listener),
+            e -> {
+                if (ExceptionsHelper.unwrapCause(e) instanceof ResourceAlreadyExistsException) {
+                    doStoreResponse(response, userHeaders, expirationTimeMillis, create, listener);
+                } else {
+                    listener.onFailure(e);
+                }
+            }));
+    }
+
+    private void doStoreResponse(AsyncSearchResponse response, Map<String, String> userHeaders, long expirationTimeMillis,
+                                 boolean create, ActionListener<Void> listener) {
+        final Map<String, Object> source = new HashMap<>();
+        source.put(EXPIRATION_TIME_FIELD, expirationTimeMillis);
+        source.put(HEADERS_FIELD, userHeaders);
+        try {
+            source.put(RESULT_FIELD, encodeResponse(response));
+        } catch (IOException e) {
+            listener.onFailure(e);
+            return;
+        }
+        IndexRequest indexRequest = new IndexRequest(INDEX, TYPE, response.getId())
+            .opType(create ? DocWriteRequest.OpType.CREATE : DocWriteRequest.OpType.INDEX)
+            .source(source);
+        client.index(indexRequest, ActionListener.wrap(r -> listener.onResponse(null), e -> {
+            if (create && ExceptionsHelper.unwrapCause(e) instanceof VersionConflictEngineException) {
+                // the final response of the search is already stored
+                listener.onResponse(null);
+            } else {
+                listener.onFailure(e);
+            }
+        }));
+    }
+
+    /**
+     * Retrieves the stored response of the provided async search, fails with a {@link ResourceNotFoundException} if there is
+     * no stored response, if the response expired or if the search was submitted by another user.
+     */
+    public void getResponse(String id, ActionListener<AsyncSearchResponse> listener) {
+        getSource(id, ActionListener.wrap(source -> listener.onResponse(decodeResponse((String) source.get(RESULT_FIELD))),
+            listener::onFailure));
+    }
+
+    /**
+     * Deletes the stored response of the provided async search if it was submitted by the current user. The listener is
+     * notified with whether a response was found.
+     */
+    public void deleteResponse(String id, ActionListener<Boolean> listener) {
+        getSource(id, ActionListener.wrap(source -> doDeleteResponse(id, listener), e -> {
+            if (e instanceof ResourceNotFoundException) {
+                listener.onResponse(false);
+            } else {
+                listener.onFailure(e);
+            }
+        }));
+    }
+
+    private void getSource(String id, ActionListener<Map<String, Object>> listener) {
+        client.get(new GetRequest(INDEX, TYPE, id), ActionListener.wrap(getResponse -> {
+            if (getResponse.isExists() == false) {
+                listener.onFailure(new ResourceNotFoundException("async search [{}] not found", id));
+                return;
+            }
+            final Map<String, Object> source = getResponse.getSource();
+            final long expirationTimeMillis = ((Number) source.get(EXPIRATION_TIME_FIELD)).longValue();
+            if (expirationTimeMillis < System.currentTimeMillis()) {
+                // expired responses are removed lazily
+                doDeleteResponse(id, ActionListener.wrap(r -> {},
+                    e -> logger.debug(() -> new ParameterizedMessage("failed to delete expired async search [{}]", id), e)));
+                listener.onFailure(new ResourceNotFoundException("async search [{}] not found", id));
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            final Map<String, String> userHeaders = (Map<String, String>) source.get(HEADERS_FIELD);
+            if (security.isSameUser(userHeaders, threadContext) == false) {
+                // hides the existence of the searches of other users
+                listener.onFailure(new ResourceNotFoundException("async search [{}] not found", id));
+                return;
+            }
+            listener.onResponse(source);
+        }, e -> {
+            if (ExceptionsHelper.unwrap(e, IndexNotFoundException.class) != null) {
+                listener.onFailure(new ResourceNotFoundException("async search [{}] not found", e, id));
+            } else {
+                listener.onFailure(e);
+            }
+        }));
+    }
+
+    private void doDeleteResponse(String id, ActionListener<Boolean> listener) {
+        client.delete(new DeleteRequest(INDEX, TYPE, id), ActionListener.wrap(
+            r -> listener.onResponse(r.getResult() == DocWriteResponse.Result.DELETED),
+            e -> {
+                if (ExceptionsHelper.unwrap(e, IndexNotFoundException.class) != null) {
+                    listener.onResponse(false);
+                } else {
+                    listener.onFailure(e);
+                }
+            }));
+    }
+
+    private static String encodeResponse(AsyncSearchResponse response) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            Version.writeVersion(Version.CURRENT, out);
+            response.writeTo(out);
+            return Base64.getEncoder().encodeToString(BytesReference.toBytes(out.bytes()));
+        }
+    }
+
+    private AsyncSearchResponse decodeResponse(String value) throws IOException {
+        final byte[] bytes = Base64.getDecoder().decode(value);
+        try (StreamInput in = new NamedWriteableAwareStreamInput(StreamInput.wrap(bytes), namedWriteableRegistry)) {
+            in.setVersion(Version.readVersion(in));
+            AsyncSearchResponse response = new AsyncSearchResponse();
+            response.readFrom(in);
+            return response;
+        }
+    }
+
+    private static Settings indexSettings() {
+        return Settings.builder()
+            .put(IndexMetaData.INDEX_NUMBER_OF_SHARDS_SETTING.getKey(), 1)
+            .put(IndexMetaData.INDEX_AUTO_EXPAND_REPLICAS_SETTING.getKey(), "0-1")
+            .build();
+    }
+
+    private String indexMapping() {
+        try (InputStream is = getClass().getResourceAsStream(INDEX_MAPPING_FILE)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Streams.copy(is, out);
+            return out.toString(StandardCharsets.UTF_8.name());
+        } catch (Exception e) {
+            throw new IllegalStateException("failed to load the async search index mapping [" + INDEX_MAPPING_FILE + "]", e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.xcontent.StatusToXContentObject;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.rest.RestStatus;
+
+import java.io.IOException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The response of an async search: the search response once the search is completed, or a partial search response that
+ * reflects the progress of the search while it is running.
+ */
+public class AsyncSearchResponse extends ActionResponse implements StatusToXContentObject {
+    private String id;
+    private SearchResponse searchResponse;
+    private Exception failure;
+    private boolean isPartial;
+    private boolean isRunning;
+    private long startTimeMillis;
+    private long expirationTimeMillis;
+
+    public AsyncSearchResponse() {
+    }
+
+    public AsyncSearchResponse(String id, @Nullable SearchResponse searchResponse, @Nullable Exception failure, boolean isPartial,
+                               boolean isRunning, long startTimeMillis, long expirationTimeMillis) {
+        this.id = requireNonNull(id, "id is required");
+        this.searchResponse = searchResponse;
+        this.failure = failure;
+        this.isPartial = isPartial;
+        this.isRunning = isRunning;
+        this.startTimeMillis = startTimeMillis;
+        this.expirationTimeMillis = expirationTimeMillis;
+    }
+
+    @Override
+    public void readFrom(StreamInput in) throws IOException {
+        super.readFrom(in);
+        id = in.readString();
+        searchResponse = in.readOptionalStreamable(SearchResponse::new);
+        failure = in.readBoolean() ? in.readException() : null;
+        isPartial = in.readBoolean();
+        isRunning = in.readBoolean();
+        startTimeMillis = in.readLong();
+        expirationTimeMillis = in.readLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(id);
+        out.writeOptionalStreamable(searchResponse);
+        if (failure != null) {
+            out.writeBoolean(true);
+            out.writeException(failure);
+        } else {
+            out.writeBoolean(false);
+        }
+        out.writeBoolean(isPartial);
+        out.writeBoolean(isRunning);
+        out.writeLong(startTimeMillis);
+        out.writeLong(expirationTimeMillis);
+    }
+
+    /**
+     * The id of the async search, used to retrieve or delete the search.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * The search response, or <code>null</code> if no shard returned yet or if the search failed.
+     */
+    @Nullable
+    public SearchResponse getSearchResponse() {
+        return searchResponse;
+    }
+
+    /**
+     * The failure of the search, or <code>null</code> if the search did not fail.
+     */
+    @Nullable
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * Returns <code>true</code> if the search response only reflects the shards that returned so far.
+     */
+    public boolean isPartial() {
+        return isPartial;
+    }
+
+    /**
+     * Returns <code>true</code> if the search is still running.
+     */
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * The time the search started, in milliseconds since the epoch.
+     */
+    public long getStartTime() {
+        return startTimeMillis;
+    }
+
+    /**
+     * The time after which the response is no longer retrievable, in milliseconds since the epoch.
+     */
+    public long getExpirationTime() {
+        return expirationTimeMillis;
+    }
+
+    @Override
+    public RestStatus status() {
+        if (failure != null) {
+            return ExceptionsHelper.status(failure);
+        }
+        return searchResponse == null ? RestStatus.OK : searchResponse.status();
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject();
+        builder.field("id", id);
+        builder.field("is_partial", isPartial);
+        builder.field("is_running", isRunning);
+        builder.field("start_time_in_millis", startTimeMillis);
+        builder.field("expiration_time_in_millis", expirationTimeMillis);
+        if (searchResponse != null) {
+            builder.field("response");
+            searchResponse.toXContent(builder, params);
+        }
+        if (failure != null) {
+            builder.startObject("error");
+            ElasticsearchException.generateThrowableXContent(builder, params, failure);
+            builder.endObject();
+        }
+        builder.endObject();
+        return builder;
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toString(this);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Restricts the access to async searches to the user that submitted them. The headers that identify the user are stored
+ * with the search task and its stored response, and are compared to the headers of the get and delete requests.
+ */
+public interface AsyncSearchSecurity {
+
+    /**
+     * Grants access to every async search, used when no plugin secures the cluster.
+     */
+    AsyncSearchSecurity NONE = new AsyncSearchSecurity() {
+        @Override
+        public Map<String, String> getUserHeaders(ThreadContext threadContext) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public boolean isSameUser(Map<String, String> userHeaders, ThreadContext threadContext) {
+            return true;
+        }
+    };
+
+    /**
+     * Returns the headers that identify the user of the current request.
+     */
+    Map<String, String> getUserHeaders(ThreadContext threadContext);
+
+    /**
+     * Returns whether the user of the current request is the user identified by the provided headers.
+     */
+    boolean isSameUser(Map<String, String> userHeaders, ThreadContext threadContext);
+}
@@ -0,0 +1,282 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.NotifyOnceListener;
+import org.elasticsearch.action.search.SearchProgressListener;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchTask;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Task that tracks the progress of an async search. The task stays registered until the search is completed and its
+ * response is stored, even if the submit request returned earlier, and builds partial responses from the notifications
+ * of its {@link SearchProgressListener}.
+ */
+public class AsyncSearchTask extends SearchTask {
+    private final String searchId;
+    private final Map<String, String> userHeaders;
+    private final Supplier<String> descriptionSupplier;
+    private final long startTimeMillis;
+    private final long expirationTimeMillis;
+    private final ThreadPool threadPool;
+    private final Function<Boolean, ReduceContext> reduceContextFunction;
+
+    // all fields below are guarded by this
+    private final List<ActionListener<AsyncSearchResponse>> completionListeners = new ArrayList<>();
+    private boolean storeOnCompletion;
+    private int totalShards = -1;
+    private int skippedShards;
+    private int successfulShards;
+    private InternalAggregations partialAggs;
+    private int reducePhase;
+    private boolean isCompleted;
+    private SearchResponse finalResponse;
+    private Exception failure;
+
+    /**
+     * Creates a new task.
+     *
+     * @param searchId the id of the async search, see {@link #buildSearchId(String, TaskId)}
+     * @param userHeaders the headers that identify the user that submitted the search, see {@link AsyncSearchSecurity}
+     * @param descriptionSupplier supplies the description of the search request
+     * @param keepAlive how long the response of the search can be retrieved after the search started
+     * @param keepOnCompletion whether the response must be stored even if it is returned by the submit request
+     * @param reduceContextFunction builds the contexts to reduce the partial aggregations
+     */
+    AsyncSearchTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers, String searchId,
+                    Map<String, String> userHeaders, Supplier<String> descriptionSupplier, TimeValue keepAlive,
+                    boolean keepOnCompletion, ThreadPool threadPool, Function<Boolean, ReduceContext> reduceContextFunction) {
+        super(id, type, action, null, parentTaskId, headers);
+        this.searchId = searchId;
+        this.userHeaders = userHeaders;
+        this.descriptionSupplier = descriptionSupplier;
+        this.startTimeMillis = threadPool.absoluteTimeInMillis();
+        this.expirationTimeMillis = startTimeMillis + keepAlive.millis();
+        this.storeOnCompletion = keepOnCompletion;
+        this.threadPool = threadPool;
+        this.reduceContextFunction = reduceContextFunction;
+        setProgressListener(new Listener());
+    }
+
+    @Override
+    public String getDescription() {
+        return descriptionSupplier.get();
+    }
+
+    /**
+     * The id of the async search.
+     */
+    public String getSearchId() {
+        return searchId;
+    }
+
+    /**
+     * The headers that identify the user that submitted the search.
+     */
+    public Map<String, String> getUserHeaders() {
+        return userHeaders;
+    }
+
+    /**
+     * Builds the id of an async search from the id of the task that runs the search. The id also contains a random part
+     * since task ids are reused when a node restarts.
+     */
+    static String buildSearchId(String randomId, TaskId taskId) {
+        return randomId + ":" + taskId;
+    }
+
+    /**
+     * Returns the id of the task that runs the provided async search.
+     *
+     * @throws IllegalArgumentException if the id is malformed
+     */
+    static TaskId parseTaskId(String searchId) {
+        final int index = searchId.indexOf(':');
+        if (index == -1) {
+            throw new IllegalArgumentException("malformed async search id [" + searchId + "]");
+        }
+        return new TaskId(searchId.substring(index + 1));
+    }
+
+    /**
+     * The time after which the response of the search can no longer be retrieved, in milliseconds since the epoch.
+     */
+    public long getExpirationTime() {
+        return expirationTimeMillis;
+    }
+
+    /**
+     * Returns the current response of the search. If the search is still running, its response is stored once it
+     * completes since the caller may come back for it.
+     */
+    public AsyncSearchResponse getAsyncResponse() {
+        final boolean isRunning;
+        final SearchResponse response;
+        final Exception failure;
+        final int totalShards;
+        final int skippedShards;
+        final int successfulShards;
+        final InternalAggregations partialAggs;
+        final int reducePhase;
+        synchronized (this) {
+            isRunning = isCompleted == false;
+            if (isRunning) {
+                storeOnCompletion = true;
+            }
+            response = finalResponse;
+            failure = this.failure;
+            totalShards = this.totalShards;
+            skippedShards = this.skippedShards;
+            successfulShards = this.successfulShards;
+            partialAggs = this.partialAggs;
+            reducePhase = this.reducePhase;
+        }
+        if (response != null) {
+            return new AsyncSearchResponse(searchId, response, null, false, false, startTimeMillis, expirationTimeMillis);
+        }
+        final SearchResponse partialResponse = totalShards == -1 ? null :
+            buildPartialResponse(totalShards, skippedShards, successfulShards, partialAggs, reducePhase);
+        return new AsyncSearchResponse(searchId, partialResponse, failure, true, isRunning, startTimeMillis, expirationTimeMillis);
+    }
+
+    private SearchResponse buildPartialResponse(int totalShards, int skippedShards, int successfulShards,
+                                                @Nullable InternalAggregations partialAggs, int reducePhase) {
+        // the partial aggregations are the result of a non-final reduce so they need a final reduce before being exposed,
+        // this is done outside of the lock to not block the threads that report the progress of the search
+        final InternalAggregations aggs = partialAggs == null ? null :
+            InternalAggregations.reduce(Collections.singletonList(partialAggs), reduceContextFunction.apply(true));
+        final InternalSearchResponse internalResponse =
+            new InternalSearchResponse(SearchHits.empty(false), aggs, null, null, false, null, reducePhase);
+        return new SearchResponse(internalResponse, null, totalShards, successfulShards, skippedShards,
+            threadPool.absoluteTimeInMillis() - startTimeMillis, ShardSearchFailure.EMPTY_ARRAY, SearchResponse.Clusters.EMPTY);
+    }
+
+    /**
+     * Notifies the listener with the response of the search once it is completed, or with its current response if the search
+     * does not complete within the provided timeout.
+     */
+    public void addCompletionListener(ActionListener<AsyncSearchResponse> listener, TimeValue waitForCompletion) {
+        final ActionListener<AsyncSearchResponse> completionListener = new NotifyOnceListener<AsyncSearchResponse>() {
+            @Override
+            protected void innerOnResponse(AsyncSearchResponse response) {
+                listener.onResponse(response);
+            }
+
+            @Override
+            protected void innerOnFailure(Exception e) {
+                listener.onFailure(e);
+            }
+        };
+        synchronized (this) {
+            if (isCompleted == false && waitForCompletion.millis() > 0) {
+                completionListeners.add(completionListener);
+                threadPool.schedule(waitForCompletion, ThreadPool.Names.GENERIC, () -> {
+                    synchronized (AsyncSearchTask.this) {
+                        completionListeners.remove(completionListener);
+                    }
+                    notifyResponse(completionListener);
+                });
+                return;
+            }
+        }
+        notifyResponse(completionListener);
+    }
+
+    /**
+     * Marks the search as completed and notifies the listeners that wait for its completion.
+     *
+     * @return whether the response of the search must be stored
+     */
+    boolean onCompletion(@Nullable SearchResponse response, @Nullable Exception failure) {
+        assert response != null ^ failure != null;
+        final List<ActionListener<AsyncSearchResponse>> listeners;
+        final boolean store;
+        synchronized (this) {
+            assert isCompleted == false;
+            isCompleted = true;
+            finalResponse = response;
+            this.failure = failure;
+            if (response != null) {
+                partialAggs = null;
+            }
+            listeners = new ArrayList<>(completionListeners);
+            completionListeners.clear();
+            store = storeOnCompletion;
+        }
+        for (ActionListener<AsyncSearchResponse> listener : listeners) {
+            notifyResponse(listener);
+        }
+        return store;
+    }
+
+    private void notifyResponse(ActionListener<AsyncSearchResponse> listener) {
+        final AsyncSearchResponse response;
+        try {
+            response = getAsyncResponse();
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
+        listener.onResponse(response);
+    }
+
+    class Listener extends SearchProgressListener {
+        @Override
+        protected void onListShards(int totalShards, int skippedShards) {
+            synchronized (AsyncSearchTask.this) {
+                AsyncSearchTask.this.totalShards = totalShards;
+                AsyncSearchTask.this.skippedShards = skippedShards;
+                AsyncSearchTask.this.successfulShards = skippedShards;
+            }
+        }
+
+        @Override
+        protected void onQueryResult(int shardIndex) {
+            synchronized (AsyncSearchTask.this) {
+                successfulShards++;
+            }
+        }
+
+        @Override
+        protected void onPartialReduce(int numReducedShards, InternalAggregations aggs, int reducePhase) {
+            synchronized (AsyncSearchTask.this) {
+                partialAggs = aggs;
+                AsyncSearchTask.this.reducePhase = reducePhase;
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import static org.elasticsearch.action.ValidateActions.addValidationError;
+
+/**
+ * A request to retrieve the current response of an async search.
+ */
+public class GetAsyncSearchRequest extends ActionRequest {
+    private final String id;
+    private TimeValue waitForCompletion = TimeValue.ZERO;
+
+    public GetAsyncSearchRequest(String id) {
+        this.id = id;
+    }
+
+    public GetAsyncSearchRequest(StreamInput in) throws IOException {
+        super(in);
+        id = in.readString();
+        waitForCompletion = in.readTimeValue();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeString(id);
+        out.writeTimeValue(waitForCompletion);
+    }
+
+    @Override
+    public void readFrom(StreamInput in) {
+        throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+    }
+
+    /**
+     * The id of the async search.
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * How long the request waits for the completion of the search before returning its current response, defaults to
+     * not waiting.
+     */
+    public TimeValue getWaitForCompletion() {
+        return waitForCompletion;
+    }
+
+    public GetAsyncSearchRequest setWaitForCompletion(TimeValue waitForCompletion) {
+        this.waitForCompletion = Objects.requireNonNull(waitForCompletion);
+        return this;
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        ActionRequestValidationException validationException = null;
+        if (id == null || id.isEmpty()) {
+            validationException = addValidationError("id is missing", validationException);
+        }
+        if (waitForCompletion.getMillis() < 0) {
+            validationException = addValidationError("[wait_for_completion_timeout] must be positive", validationException);
+        }
+        return validationException;
+    }
+}
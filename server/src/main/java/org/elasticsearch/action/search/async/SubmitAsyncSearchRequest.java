@@ -0,0 +1,161 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.action.IndicesRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.TimeValue;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import static org.elasticsearch.action.ValidateActions.addValidationError;
+
+/**
+ * A request to submit a search that runs in the background. The request waits for the completion of the search up to
+ * {@link #getWaitForCompletion()} and then returns the current response of the search along with the id that can be used
+ * to retrieve its progress and final response.
+ */
+public class SubmitAsyncSearchRequest extends ActionRequest implements IndicesRequest.Replaceable {
+    public static final TimeValue DEFAULT_WAIT_FOR_COMPLETION = TimeValue.timeValueSeconds(1);
+    public static final TimeValue DEFAULT_KEEP_ALIVE = TimeValue.timeValueDays(5);
+    public static final TimeValue MIN_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    private final SearchRequest searchRequest;
+    private TimeValue waitForCompletion = DEFAULT_WAIT_FOR_COMPLETION;
+    private TimeValue keepAlive = DEFAULT_KEEP_ALIVE;
+    private boolean keepOnCompletion = false;
+
+    public SubmitAsyncSearchRequest() {
+        this(new SearchRequest());
+    }
+
+    public SubmitAsyncSearchRequest(SearchRequest searchRequest) {
+        this.searchRequest = Objects.requireNonNull(searchRequest, "search request is required");
+    }
+
+    public SubmitAsyncSearchRequest(StreamInput in) throws IOException {
+        super(in);
+        searchRequest = new SearchRequest(in);
+        waitForCompletion = in.readTimeValue();
+        keepAlive = in.readTimeValue();
+        keepOnCompletion = in.readBoolean();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        searchRequest.writeTo(out);
+        out.writeTimeValue(waitForCompletion);
+        out.writeTimeValue(keepAlive);
+        out.writeBoolean(keepOnCompletion);
+    }
+
+    @Override
+    public void readFrom(StreamInput in) {
+        throw new UnsupportedOperationException("usage of Streamable is to be replaced by Writeable");
+    }
+
+    /**
+     * The search request to run in the background.
+     */
+    public SearchRequest getSearchRequest() {
+        return searchRequest;
+    }
+
+    @Override
+    public SubmitAsyncSearchRequest indices(String... indices) {
+        searchRequest.indices(indices);
+        return this;
+    }
+
+    @Override
+    public String[] indices() {
+        return searchRequest.indices();
+    }
+
+    @Override
+    public IndicesOptions indicesOptions() {
+        return searchRequest.indicesOptions();
+    }
+
+    /**
+     * How long the request waits for the completion of the search before returning its current response.
+     */
+    public TimeValue getWaitForCompletion() {
+        return waitForCompletion;
+    }
+
+    public SubmitAsyncSearchRequest setWaitForCompletion(TimeValue waitForCompletion) {
+        this.waitForCompletion = Objects.requireNonNull(waitForCompletion);
+        return this;
+    }
+
+    /**
+     * How long the response of the search can be retrieved after the search started. The search is cancelled if it is
+     * still running after this time.
+     */
+    public TimeValue getKeepAlive() {
+        return keepAlive;
+    }
+
+    public SubmitAsyncSearchRequest setKeepAlive(TimeValue keepAlive) {
+        this.keepAlive = Objects.requireNonNull(keepAlive);
+        return this;
+    }
+
+    /**
+     * Whether the response of the search is stored even if the search completes before {@link #getWaitForCompletion()}.
+     */
+    public boolean isKeepOnCompletion() {
+        return keepOnCompletion;
+    }
+
+    public SubmitAsyncSearchRequest setKeepOnCompletion(boolean keepOnCompletion) {
+        this.keepOnCompletion = keepOnCompletion;
+        return this;
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        ActionRequestValidationException validationException = searchRequest.validate();
+        if (searchRequest.scroll() != null) {
+            validationException = addValidationError("[scroll] is not supported for async search", validationException);
+        }
+        if (keepAlive.getMillis() < MIN_KEEP_ALIVE.getMillis()) {
+            validationException = addValidationError("[keep_alive] must be greater than or equal to " + MIN_KEEP_ALIVE,
+                validationException);
+        }
+        if (waitForCompletion.getMillis() < 0) {
+            validationException = addValidationError("[wait_for_completion_timeout] must be positive", validationException);
+        }
+        return validationException;
+    }
+
+    @Override
+    public String getDescription() {
+        return "async_search{" + searchRequest.getDescription() + "}";
+    }
+}
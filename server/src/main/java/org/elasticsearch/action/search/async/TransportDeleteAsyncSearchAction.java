@@ -0,0 +1,145 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.admin.cluster.node.tasks.cancel.CancelTasksRequest;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.action.support.master.AcknowledgedResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.OriginSettingClient;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportException;
+import org.elasticsearch.transport.TransportResponseHandler;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.IOException;
+
+import static org.elasticsearch.action.admin.cluster.node.tasks.get.GetTaskAction.TASKS_ORIGIN;
+
+/**
+ * Cancels an async search if it is still running and deletes its stored response. The request is executed on the node that
+ * runs the search so that the search task can be checked before it is cancelled. Cancelled searches do not store their
+ * response on completion. Only the user that submitted the search can delete it.
+ */
+public class TransportDeleteAsyncSearchAction extends HandledTransportAction<DeleteAsyncSearchRequest, AcknowledgedResponse> {
+    private final ClusterService clusterService;
+    private final TransportService transportService;
+    private final Client client;
+    private final AsyncSearchSecurity security;
+    private final AsyncSearchIndexService store;
+
+    @Inject
+    public TransportDeleteAsyncSearchAction(TransportService transportService, ActionFilters actionFilters,
+                                            ClusterService clusterService, Client client,
+                                            NamedWriteableRegistry namedWriteableRegistry, AsyncSearchSecurity security) {
+        super(DeleteAsyncSearchAction.NAME, transportService, actionFilters, DeleteAsyncSearchRequest::new);
+        this.clusterService = clusterService;
+        this.transportService = transportService;
+        this.client = new OriginSettingClient(client, TASKS_ORIGIN);
+        this.security = security;
+        this.store = new AsyncSearchIndexService(client, clusterService, namedWriteableRegistry, security);
+    }
+
+    @Override
+    protected void doExecute(Task task, DeleteAsyncSearchRequest request, ActionListener<AcknowledgedResponse> listener) {
+        final TaskId searchTaskId;
+        try {
+            searchTaskId = AsyncSearchTask.parseTaskId(request.getId());
+        } catch (IllegalArgumentException e) {
+            listener.onFailure(new ResourceNotFoundException("async search [{}] not found", e, request.getId()));
+            return;
+        }
+        if (clusterService.localNode().getId().equals(searchTaskId.getNodeId())) {
+            deleteOnLocalNode(searchTaskId, request, listener);
+            return;
+        }
+        DiscoveryNode node = clusterService.state().nodes().get(searchTaskId.getNodeId());
+        if (node == null) {
+            // the node that ran the search left the cluster, only its stored response is left
+            deleteResponse(request, false, listener);
+            return;
+        }
+        transportService.sendRequest(node, DeleteAsyncSearchAction.NAME, request,
+            new TransportResponseHandler<AcknowledgedResponse>() {
+                @Override
+                public AcknowledgedResponse read(StreamInput in) throws IOException {
+                    AcknowledgedResponse response = new AcknowledgedResponse();
+                    response.readFrom(in);
+                    return response;
+                }
+
+                @Override
+                public void handleResponse(AcknowledgedResponse response) {
+                    listener.onResponse(response);
+                }
+
+                @Override
+                public void handleException(TransportException exp) {
+                    listener.onFailure(exp);
+                }
+
+                @Override
+                public String executor() {
+                    return ThreadPool.Names.SAME;
+                }
+            });
+    }
+
+    private void deleteOnLocalNode(TaskId searchTaskId, DeleteAsyncSearchRequest request,
+                                   ActionListener<AcknowledgedResponse> listener) {
+        final Task runningTask = taskManager.getTask(searchTaskId.getId());
+        if (runningTask instanceof AsyncSearchTask && ((AsyncSearchTask) runningTask).getSearchId().equals(request.getId())) {
+            AsyncSearchTask searchTask = (AsyncSearchTask) runningTask;
+            if (security.isSameUser(searchTask.getUserHeaders(), transportService.getThreadPool().getThreadContext()) == false) {
+                listener.onFailure(new ResourceNotFoundException("async search [{}] not found", request.getId()));
+                return;
+            }
+            // cancels the child tasks of the search too
+            CancelTasksRequest cancelRequest = new CancelTasksRequest()
+                .setTaskId(searchTaskId)
+                .setReason("async search was deleted");
+            client.admin().cluster().cancelTasks(cancelRequest, ActionListener.wrap(
+                r -> deleteResponse(request, true, listener),
+                listener::onFailure));
+        } else {
+            deleteResponse(request, false, listener);
+        }
+    }
+
+    private void deleteResponse(DeleteAsyncSearchRequest request, boolean cancelled, ActionListener<AcknowledgedResponse> listener) {
+        store.deleteResponse(request.getId(), ActionListener.wrap(found -> {
+            if (cancelled || found) {
+                listener.onResponse(new AcknowledgedResponse(true));
+            } else {
+                listener.onFailure(new ResourceNotFoundException("async search [{}] not found", request.getId()));
+            }
+        }, listener::onFailure));
+    }
+}
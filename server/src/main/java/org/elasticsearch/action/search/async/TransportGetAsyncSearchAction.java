@@ -0,0 +1,127 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.ResourceNotFoundException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportException;
+import org.elasticsearch.transport.TransportResponseHandler;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.IOException;
+
+/**
+ * Retrieves the current response of an async search.
+ *
+ * The general flow is:
+ * <ul>
+ * <li>If this isn't being executed on the node that runs the search then move to that node
+ * <li>Look up the search task and return its current response, optionally after waiting for its completion
+ * <li>If the search is not running anymore then look up its response in the async search index
+ * </ul>
+ * Searches that were submitted by another user are reported as missing.
+ */
+public class TransportGetAsyncSearchAction extends HandledTransportAction<GetAsyncSearchRequest, AsyncSearchResponse> {
+    private final ClusterService clusterService;
+    private final TransportService transportService;
+    private final AsyncSearchSecurity security;
+    private final AsyncSearchIndexService store;
+
+    @Inject
+    public TransportGetAsyncSearchAction(TransportService transportService, ActionFilters actionFilters, ClusterService clusterService,
+                                         Client client, NamedWriteableRegistry namedWriteableRegistry, AsyncSearchSecurity security) {
+        super(GetAsyncSearchAction.NAME, transportService, actionFilters, GetAsyncSearchRequest::new);
+        this.clusterService = clusterService;
+        this.transportService = transportService;
+        this.security = security;
+        this.store = new AsyncSearchIndexService(client, clusterService, namedWriteableRegistry, security);
+    }
+
+    @Override
+    protected void doExecute(Task task, GetAsyncSearchRequest request, ActionListener<AsyncSearchResponse> listener) {
+        final TaskId searchTaskId;
+        try {
+            searchTaskId = AsyncSearchTask.parseTaskId(request.getId());
+        } catch (IllegalArgumentException e) {
+            listener.onFailure(new ResourceNotFoundException("async search [{}] not found", e, request.getId()));
+            return;
+        }
+        if (clusterService.localNode().getId().equals(searchTaskId.getNodeId())) {
+            getFromLocalNode(searchTaskId, request, listener);
+            return;
+        }
+        DiscoveryNode node = clusterService.state().nodes().get(searchTaskId.getNodeId());
+        if (node == null) {
+            // the node that ran the search left the cluster, its response can only be found in the index
+            store.getResponse(request.getId(), listener);
+            return;
+        }
+        transportService.sendRequest(node, GetAsyncSearchAction.NAME, request,
+            new TransportResponseHandler<AsyncSearchResponse>() {
+                @Override
+                public AsyncSearchResponse read(StreamInput in) throws IOException {
+                    AsyncSearchResponse response = new AsyncSearchResponse();
+                    response.readFrom(in);
+                    return response;
+                }
+
+                @Override
+                public void handleResponse(AsyncSearchResponse response) {
+                    listener.onResponse(response);
+                }
+
+                @Override
+                public void handleException(TransportException exp) {
+                    listener.onFailure(exp);
+                }
+
+                @Override
+                public String executor() {
+                    return ThreadPool.Names.SAME;
+                }
+            });
+    }
+
+    private void getFromLocalNode(TaskId searchTaskId, GetAsyncSearchRequest request, ActionListener<AsyncSearchResponse> listener) {
+        final Task runningTask = taskManager.getTask(searchTaskId.getId());
+        if (runningTask instanceof AsyncSearchTask && ((AsyncSearchTask) runningTask).getSearchId().equals(request.getId())) {
+            AsyncSearchTask searchTask = (AsyncSearchTask) runningTask;
+            if (security.isSameUser(searchTask.getUserHeaders(), transportService.getThreadPool().getThreadContext()) == false) {
+                listener.onFailure(new ResourceNotFoundException("async search [{}] not found", request.getId()));
+                return;
+            }
+            searchTask.addCompletionListener(listener, request.getWaitForCompletion());
+        } else {
+            // the search is completed, the task is only unregistered once the response is stored
+            store.getResponse(request.getId(), listener);
+        }
+    }
+}
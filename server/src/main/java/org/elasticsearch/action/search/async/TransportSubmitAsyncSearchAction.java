@@ -0,0 +1,166 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.admin.cluster.node.tasks.cancel.CancelTasksRequest;
+import org.elasticsearch.action.search.SearchAction;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.TransportSearchAction;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.OriginSettingClient;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.util.concurrent.FutureUtils;
+import org.elasticsearch.search.SearchService;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.elasticsearch.action.admin.cluster.node.tasks.get.GetTaskAction.TASKS_ORIGIN;
+
+/**
+ * Submits a search that runs in the background as an {@link AsyncSearchTask}.
+ *
+ * The general flow is:
+ * <ul>
+ * <li>Register the search task on the local node, independently of the submit task so that it outlives the submit request
+ * <li>Wait for the completion of the search up to the requested timeout and return its current response
+ * <li>If the search is still running, store its current response so that the search can be retrieved from any node
+ * <li>Once the search completes, store its final response if it may be retrieved later and unregister the task
+ * </ul>
+ */
+public class TransportSubmitAsyncSearchAction extends HandledTransportAction<SubmitAsyncSearchRequest, AsyncSearchResponse> {
+    private static final Logger logger = LogManager.getLogger(TransportSubmitAsyncSearchAction.class);
+
+    private final ClusterService clusterService;
+    private final ThreadPool threadPool;
+    private final Client client;
+    private final SearchService searchService;
+    private final TransportSearchAction searchAction;
+    private final AsyncSearchSecurity security;
+    private final AsyncSearchIndexService store;
+
+    @Inject
+    public TransportSubmitAsyncSearchAction(TransportService transportService, ActionFilters actionFilters, ClusterService clusterService,
+                                            ThreadPool threadPool, Client client, NamedWriteableRegistry namedWriteableRegistry,
+                                            SearchService searchService, TransportSearchAction searchAction,
+                                            AsyncSearchSecurity security) {
+        super(SubmitAsyncSearchAction.NAME, transportService, actionFilters, SubmitAsyncSearchRequest::new);
+        this.clusterService = clusterService;
+        this.threadPool = threadPool;
+        this.client = new OriginSettingClient(client, TASKS_ORIGIN);
+        this.searchService = searchService;
+        this.searchAction = searchAction;
+        this.security = security;
+        this.store = new AsyncSearchIndexService(client, clusterService, namedWriteableRegistry, security);
+    }
+
+    @Override
+    protected void doExecute(Task submitTask, SubmitAsyncSearchRequest request, ActionListener<AsyncSearchResponse> listener) {
+        final String nodeId = clusterService.localNode().getId();
+        // only the user that submits the search can retrieve or delete it
+        final Map<String, String> userHeaders = security.getUserHeaders(threadPool.getThreadContext());
+        final SearchRequest searchRequest = new SearchRequest(request.getSearchRequest()) {
+            @Override
+            public Task createTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers) {
+                final String searchId = AsyncSearchTask.buildSearchId(UUIDs.randomBase64UUID(), new TaskId(nodeId, id));
+                return new AsyncSearchTask(id, type, action, parentTaskId, headers, searchId, userHeaders,
+                    this::getDescription, request.getKeepAlive(), request.isKeepOnCompletion(), threadPool,
+                    searchService::createReduceContext);
+            }
+        };
+        final AsyncSearchTask searchTask = (AsyncSearchTask) taskManager.register("transport", SearchAction.NAME, searchRequest);
+        final ScheduledFuture<?> expiration = threadPool.schedule(request.getKeepAlive(), ThreadPool.Names.GENERIC,
+            () -> cancelSearch(searchTask, "async search has expired"));
+        searchAction.execute(searchTask, searchRequest, new ActionListener<SearchResponse>() {
+            @Override
+            public void onResponse(SearchResponse response) {
+                FutureUtils.cancel(expiration);
+                onSearchCompletion(searchTask, response, null);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                FutureUtils.cancel(expiration);
+                onSearchCompletion(searchTask, null, e);
+            }
+        });
+        searchTask.addCompletionListener(ActionListener.wrap(response -> {
+            if (response.isRunning() == false) {
+                listener.onResponse(response);
+                return;
+            }
+            // the search outlived the submit request, store its current response so that it can be retrieved from any node
+            store.storeResponse(response, searchTask.getUserHeaders(), searchTask.getExpirationTime(), true, ActionListener.wrap(
+                r -> listener.onResponse(response),
+                e -> {
+                    cancelSearch(searchTask, "failed to store the async search response");
+                    listener.onFailure(e);
+                }));
+        }, listener::onFailure), request.getWaitForCompletion());
+    }
+
+    private void onSearchCompletion(AsyncSearchTask searchTask, SearchResponse response, Exception failure) {
+        final boolean storeResponse = searchTask.onCompletion(response, failure);
+        if (storeResponse == false || searchTask.isCancelled()) {
+            // the search is deleted or its response was returned by the submit request
+            taskManager.unregister(searchTask);
+            return;
+        }
+        final AsyncSearchResponse asyncResponse;
+        try {
+            asyncResponse = searchTask.getAsyncResponse();
+        } catch (Exception e) {
+            logger.error(() -> new ParameterizedMessage("failed to build the response of async search [{}]",
+                searchTask.getSearchId()), e);
+            taskManager.unregister(searchTask);
+            return;
+        }
+        // the task is unregistered once the response is stored so that the search can be retrieved at any time
+        store.storeResponse(asyncResponse, searchTask.getUserHeaders(), searchTask.getExpirationTime(), false, ActionListener.wrap(
+            r -> taskManager.unregister(searchTask),
+            e -> {
+                logger.error(() -> new ParameterizedMessage("failed to store the response of async search [{}]",
+                    searchTask.getSearchId()), e);
+                taskManager.unregister(searchTask);
+            }));
+    }
+
+    private void cancelSearch(AsyncSearchTask searchTask, String reason) {
+        CancelTasksRequest cancelRequest = new CancelTasksRequest()
+            .setTaskId(new TaskId(clusterService.localNode().getId(), searchTask.getId()))
+            .setReason(reason);
+        client.admin().cluster().cancelTasks(cancelRequest, ActionListener.wrap(r -> {},
+            e -> logger.debug(() -> new ParameterizedMessage("failed to cancel async search [{}]", searchTask.getSearchId()), e)));
+    }
+}
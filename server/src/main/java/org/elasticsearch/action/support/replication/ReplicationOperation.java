@@ -37,10 +37,16 @@ import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.rest.RestStatus;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
@@ -75,16 +81,37 @@ public class ReplicationOperation<
 
     private final List<ReplicationResponse.ShardInfo.Failure> shardReplicaFailures = Collections.synchronizedList(new ArrayList<>());
 
+    /**
+     * The maximum number of pipelined replica requests that may be in flight to a single replica at a time, or {@code 0} if the primary
+     * should not pipeline replica requests at all.
+     */
+    private final int maxInFlightReplicaChunks;
+    /**
+     * The per-replica pipelines, keyed by allocation id. Only accessed from the thread that performs the operation on the primary.
+     */
+    private final Map<String, ReplicaPipeline> replicaPipelines = new HashMap<>();
+
     public ReplicationOperation(Request request, Primary<Request, ReplicaRequest, PrimaryResultT> primary,
                                 ActionListener<PrimaryResultT> listener,
                                 Replicas<ReplicaRequest> replicas,
                                 Logger logger, String opType) {
+        this(request, primary, listener, replicas, logger, opType, 0);
+    }
+
+    public ReplicationOperation(Request request, Primary<Request, ReplicaRequest, PrimaryResultT> primary,
+                                ActionListener<PrimaryResultT> listener,
+                                Replicas<ReplicaRequest> replicas,
+                                Logger logger, String opType, int maxInFlightReplicaChunks) {
+        if (maxInFlightReplicaChunks < 0) {
+            throw new IllegalArgumentException("maxInFlightReplicaChunks must be >= 0 but was [" + maxInFlightReplicaChunks + "]");
+        }
         this.replicasProxy = replicas;
         this.primary = primary;
         this.resultListener = listener;
         this.logger = logger;
         this.request = request;
         this.opType = opType;
+        this.maxInFlightReplicaChunks = maxInFlightReplicaChunks;
     }
 
     public void execute() throws Exception {
@@ -99,7 +126,11 @@ public class ReplicationOperation<
 
         totalShards.incrementAndGet();
         pendingActions.incrementAndGet(); // increase by 1 until we finish all primary coordination
-        primaryResult = primary.perform(request);
+        if (maxInFlightReplicaChunks > 0) {
+            primaryResult = primary.perform(request, this::performPipelinedChunkOnReplicas);
+        } else {
+            primaryResult = primary.perform(request);
+        }
         primary.updateLocalCheckpointForShard(primaryRouting.allocationId().getId(), primary.localCheckpoint());
         final ReplicaRequest replicaRequest = primaryResult.replicaRequest();
         if (replicaRequest != null) {
@@ -122,6 +153,8 @@ public class ReplicationOperation<
             final ReplicationGroup replicationGroup = primary.getReplicationGroup();
             markUnavailableShardsAsStale(replicaRequest, replicationGroup);
             performOnReplicas(replicaRequest, globalCheckpoint, maxSeqNoOfUpdatesOrDeletes, replicationGroup);
+        } else {
+            closeReplicaPipelines(Collections.emptySet());
         }
 
         successfulShards.incrementAndGet();  // mark primary as successful
@@ -148,9 +181,55 @@ public class ReplicationOperation<
 
         final ShardRouting primaryRouting = primary.routingEntry();
 
+        final Set<String> pipelinedAllocationIds = new HashSet<>();
+        for (final ShardRouting shard : replicationGroup.getReplicationTargets()) {
+            if (shard.isSameAllocation(primaryRouting) == false) {
+                final ReplicaPipeline pipeline = replicaPipelines.get(shard.allocationId().getId());
+                if (pipeline != null) {
+                    // the final request must only be applied once all the chunks that were streamed before it have been acknowledged
+                    pipelinedAllocationIds.add(shard.allocationId().getId());
+                    pipeline.close(new ReplicaChunk<>(replicaRequest, globalCheckpoint, maxSeqNoOfUpdatesOrDeletes, true));
+                } else {
+                    performOnReplica(shard, replicaRequest, globalCheckpoint, maxSeqNoOfUpdatesOrDeletes);
+                }
+            }
+        }
+        closeReplicaPipelines(pipelinedAllocationIds);
+    }
+
+    /**
+     * Replicates a chunk of operations that has completed on the primary while the primary is still working on the rest of the request.
+     * The same rules as for the final replica request apply: the global checkpoint, the max_seq_no_of_updates and the replication group
+     * are sampled after the operations in the chunk have been indexed into the primary.
+     */
+    private void performPipelinedChunkOnReplicas(final ReplicaRequest chunk) {
+        final long globalCheckpoint = primary.globalCheckpoint();
+        final long maxSeqNoOfUpdatesOrDeletes = primary.maxSeqNoOfUpdatesOrDeletes();
+        assert maxSeqNoOfUpdatesOrDeletes != SequenceNumbers.UNASSIGNED_SEQ_NO : "seqno_of_updates still uninitialized";
+        final ReplicationGroup replicationGroup = primary.getReplicationGroup();
+        final ShardRouting primaryRouting = primary.routingEntry();
         for (final ShardRouting shard : replicationGroup.getReplicationTargets()) {
             if (shard.isSameAllocation(primaryRouting) == false) {
-                performOnReplica(shard, replicaRequest, globalCheckpoint, maxSeqNoOfUpdatesOrDeletes);
+                ReplicaPipeline pipeline = replicaPipelines.get(shard.allocationId().getId());
+                if (pipeline == null) {
+                    totalShards.incrementAndGet();
+                    pendingActions.incrementAndGet();
+                    pipeline = new ReplicaPipeline(shard);
+                    replicaPipelines.put(shard.allocationId().getId(), pipeline);
+                }
+                pipeline.add(new ReplicaChunk<>(chunk, globalCheckpoint, maxSeqNoOfUpdatesOrDeletes, false));
+            }
+        }
+    }
+
+    /**
+     * Closes the pipelines of the replicas that did not receive the final replica request, i.e. copies that left the replication group
+     * while the operation was in flight on the primary.
+     */
+    private void closeReplicaPipelines(final Set<String> closedAllocationIds) {
+        for (Map.Entry<String, ReplicaPipeline> entry : replicaPipelines.entrySet()) {
+            if (closedAllocationIds.contains(entry.getKey()) == false) {
+                entry.getValue().close(null);
             }
         }
     }
@@ -167,38 +246,190 @@ public class ReplicationOperation<
             @Override
             public void onResponse(ReplicaResponse response) {
                 successfulShards.incrementAndGet();
-                try {
-                    primary.updateLocalCheckpointForShard(shard.allocationId().getId(), response.localCheckpoint());
-                    primary.updateGlobalCheckpointForShard(shard.allocationId().getId(), response.globalCheckpoint());
-                } catch (final AlreadyClosedException e) {
-                    // okay, the index was deleted or this shard was never activated after a relocation; fall through and finish normally
-                } catch (final Exception e) {
-                    // fail the primary but fall through and let the rest of operation processing complete
-                    final String message = String.format(Locale.ROOT, "primary failed updating local checkpoint for replica %s", shard);
-                    primary.failShard(message, e);
-                }
+                updateCheckpointsForShard(shard, response);
                 decPendingAndFinishIfNeeded();
             }
 
             @Override
             public void onFailure(Exception replicaException) {
-                logger.trace(() -> new ParameterizedMessage(
-                    "[{}] failure while performing [{}] on replica {}, request [{}]",
-                    shard.shardId(), opType, shard, replicaRequest), replicaException);
-                // Only report "critical" exceptions - TODO: Reach out to the master node to get the latest shard state then report.
-                if (TransportActions.isShardNotAvailableException(replicaException) == false) {
-                    RestStatus restStatus = ExceptionsHelper.status(replicaException);
-                    shardReplicaFailures.add(new ReplicationResponse.ShardInfo.Failure(
-                        shard.shardId(), shard.currentNodeId(), replicaException, restStatus, false));
-                }
-                String message = String.format(Locale.ROOT, "failed to perform %s on replica %s", opType, shard);
-                replicasProxy.failShardIfNeeded(shard, message,
-                    replicaException, ReplicationOperation.this::decPendingAndFinishIfNeeded,
-                    ReplicationOperation.this::onPrimaryDemoted, throwable -> decPendingAndFinishIfNeeded());
+                onReplicaFailure(shard, replicaRequest, replicaException);
             }
         });
     }
 
+    private void updateCheckpointsForShard(final ShardRouting shard, final ReplicaResponse response) {
+        try {
+            primary.updateLocalCheckpointForShard(shard.allocationId().getId(), response.localCheckpoint());
+            primary.updateGlobalCheckpointForShard(shard.allocationId().getId(), response.globalCheckpoint());
+        } catch (final AlreadyClosedException e) {
+            // okay, the index was deleted or this shard was never activated after a relocation; fall through and finish normally
+        } catch (final Exception e) {
+            // fail the primary but fall through and let the rest of operation processing complete
+            final String message = String.format(Locale.ROOT, "primary failed updating local checkpoint for replica %s", shard);
+            primary.failShard(message, e);
+        }
+    }
+
+    private void onReplicaFailure(final ShardRouting shard, final ReplicaRequest replicaRequest, final Exception replicaException) {
+        logger.trace(() -> new ParameterizedMessage(
+            "[{}] failure while performing [{}] on replica {}, request [{}]",
+            shard.shardId(), opType, shard, replicaRequest), replicaException);
+        // Only report "critical" exceptions - TODO: Reach out to the master node to get the latest shard state then report.
+        if (TransportActions.isShardNotAvailableException(replicaException) == false) {
+            RestStatus restStatus = ExceptionsHelper.status(replicaException);
+            shardReplicaFailures.add(new ReplicationResponse.ShardInfo.Failure(
+                shard.shardId(), shard.currentNodeId(), replicaException, restStatus, false));
+        }
+        String message = String.format(Locale.ROOT, "failed to perform %s on replica %s", opType, shard);
+        replicasProxy.failShardIfNeeded(shard, message,
+            replicaException, ReplicationOperation.this::decPendingAndFinishIfNeeded,
+            ReplicationOperation.this::onPrimaryDemoted, throwable -> decPendingAndFinishIfNeeded());
+    }
+
+    /**
+     * A replica request together with the global checkpoint and max_seq_no_of_updates that were sampled on the primary after the
+     * operations of the request had completed there.
+     */
+    private static final class ReplicaChunk<R extends ReplicationRequest<R>> {
+        final R request;
+        final long globalCheckpoint;
+        final long maxSeqNoOfUpdatesOrDeletes;
+        final boolean last;
+
+        ReplicaChunk(R request, long globalCheckpoint, long maxSeqNoOfUpdatesOrDeletes, boolean last) {
+            this.request = request;
+            this.globalCheckpoint = globalCheckpoint;
+            this.maxSeqNoOfUpdatesOrDeletes = maxSeqNoOfUpdatesOrDeletes;
+            this.last = last;
+        }
+    }
+
+    /**
+     * Streams the chunks of a pipelined operation to a single replica, keeping at most {@link #maxInFlightReplicaChunks} of them in
+     * flight. Chunks may be applied on the replica in any order as every operation carries its own sequence number, and acknowledgements
+     * are folded into the replica's local checkpoint on the primary as they arrive. The final chunk is only sent once all the chunks
+     * before it have been acknowledged so that refreshes and fsyncs triggered by it cover the whole request. The pipeline holds a single
+     * pending action that is released once the pipeline has been closed and drained, or when the replica fails.
+     */
+    private final class ReplicaPipeline {
+        private final ShardRouting shard;
+        private final Deque<ReplicaChunk<ReplicaRequest>> queue = new ArrayDeque<>();
+        private int inFlight = 0;
+        private boolean closed = false;
+        private boolean failed = false;
+        private boolean done = false;
+        private boolean lastChunkQueued = false;
+
+        ReplicaPipeline(ShardRouting shard) {
+            this.shard = shard;
+        }
+
+        void add(ReplicaChunk<ReplicaRequest> chunk) {
+            final List<ReplicaChunk<ReplicaRequest>> toSend;
+            synchronized (this) {
+                assert closed == false : "pipeline to " + shard + " is already closed";
+                if (failed) {
+                    return;
+                }
+                queue.add(chunk);
+                toSend = pollSendableChunks();
+            }
+            send(toSend);
+        }
+
+        /**
+         * Closes the pipeline, optionally queueing the final chunk of the operation.
+         */
+        void close(@Nullable ReplicaChunk<ReplicaRequest> lastChunk) {
+            final List<ReplicaChunk<ReplicaRequest>> toSend;
+            final boolean completed;
+            synchronized (this) {
+                assert closed == false : "pipeline to " + shard + " is already closed";
+                closed = true;
+                if (lastChunk != null && failed == false) {
+                    queue.add(lastChunk);
+                    lastChunkQueued = true;
+                }
+                toSend = pollSendableChunks();
+                completed = markDoneIfDrained();
+            }
+            send(toSend);
+            if (completed) {
+                onDrained();
+            }
+        }
+
+        private List<ReplicaChunk<ReplicaRequest>> pollSendableChunks() {
+            assert Thread.holdsLock(this);
+            final List<ReplicaChunk<ReplicaRequest>> toSend = new ArrayList<>();
+            while (failed == false && queue.isEmpty() == false && inFlight < maxInFlightReplicaChunks
+                && (queue.peekFirst().last == false || inFlight == 0)) {
+                toSend.add(queue.pollFirst());
+                inFlight++;
+            }
+            return toSend;
+        }
+
+        private boolean markDoneIfDrained() {
+            assert Thread.holdsLock(this);
+            if (closed && failed == false && done == false && inFlight == 0 && queue.isEmpty()) {
+                done = true;
+                return true;
+            }
+            return false;
+        }
+
+        private void onDrained() {
+            // a copy that left the replication group before the final chunk was sent is neither successful nor failed
+            if (lastChunkQueued) {
+                successfulShards.incrementAndGet();
+            }
+            decPendingAndFinishIfNeeded();
+        }
+
+        private void send(List<ReplicaChunk<ReplicaRequest>> chunks) {
+            for (ReplicaChunk<ReplicaRequest> chunk : chunks) {
+                if (logger.isTraceEnabled()) {
+                    logger.trace("[{}] sending pipelined op [{}] to replica {} for request [{}]",
+                        shard.shardId(), opType, shard, chunk.request);
+                }
+                replicasProxy.performOn(shard, chunk.request, chunk.globalCheckpoint, chunk.maxSeqNoOfUpdatesOrDeletes,
+                    new ActionListener<ReplicaResponse>() {
+                        @Override
+                        public void onResponse(ReplicaResponse response) {
+                            updateCheckpointsForShard(shard, response);
+                            final List<ReplicaChunk<ReplicaRequest>> toSend;
+                            final boolean completed;
+                            synchronized (ReplicaPipeline.this) {
+                                inFlight--;
+                                toSend = pollSendableChunks();
+                                completed = markDoneIfDrained();
+                            }
+                            send(toSend);
+                            if (completed) {
+                                onDrained();
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            final boolean firstFailure;
+                            synchronized (ReplicaPipeline.this) {
+                                inFlight--;
+                                firstFailure = failed == false;
+                                failed = true;
+                                queue.clear();
+                            }
+                            if (firstFailure) {
+                                // releases the pending action held by this pipeline once the replica has been failed
+                                onReplicaFailure(shard, chunk.request, e);
+                            }
+                        }
+                    });
+            }
+        }
+    }
+
     private void onPrimaryDemoted(Exception demotionFailure) {
         String primaryFail = String.format(Locale.ROOT,
             "primary shard [%s] was demoted while failing replica shard",
@@ -296,6 +527,20 @@ public class ReplicationOperation<
          */
         PrimaryResultT perform(RequestT request) throws Exception;
 
+        /**
+         * Performs the given request on this primary, handing replica requests for chunks of operations that have already completed on
+         * the primary to the given consumer so that they can be replicated while the primary is still working on the rest of the request.
+         * The replica request of the returned result must then only cover the operations that were not handed to the consumer. The
+         * consumer must be called from the thread that calls this method. Primaries that do not support pipelining ignore the consumer.
+         *
+         * @param request                  the request to perform
+         * @param pipelinedReplicaRequests the consumer of replica requests for chunks that completed on the primary
+         * @return the request to send to the replicas
+         */
+        default PrimaryResultT perform(RequestT request, Consumer<ReplicaRequestT> pipelinedReplicaRequests) throws Exception {
+            return perform(request);
+        }
+
         /**
          * Notifies the primary of a local checkpoint for the given allocation.
          *
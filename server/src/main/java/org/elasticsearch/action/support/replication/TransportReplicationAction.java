@@ -201,6 +201,50 @@ public abstract class TransportReplicationAction<
     protected abstract PrimaryResult<ReplicaRequest, Response> shardOperationOnPrimary(
             Request shardRequest, IndexShard primary) throws Exception;
 
+    /**
+     * Primary operation on node with primary copy that may replicate chunks of completed operations while the rest of the request is
+     * still being executed on the primary. Only called if {@link #maxInFlightReplicaChunks()} is positive. The replica request of the
+     * returned result must only cover the operations that were not handed to {@code pipelinedReplicaRequests}. Defaults to
+     * {@link #shardOperationOnPrimary(ReplicationRequest, IndexShard)}.
+     *
+     * @param shardRequest             the request to the primary shard
+     * @param primary                  the primary shard to perform the operation on
+     * @param pipelinedReplicaRequests the consumer of replica requests for chunks of operations that completed on the primary
+     */
+    protected PrimaryResult<ReplicaRequest, Response> shardOperationOnPrimary(
+            Request shardRequest, IndexShard primary, Consumer<ReplicaRequest> pipelinedReplicaRequests) throws Exception {
+        return shardOperationOnPrimary(shardRequest, primary);
+    }
+
+    /**
+     * The maximum number of pipelined replica requests that may be in flight to a single replica, or {@code 0} to replicate each
+     * request only once it has completed on the primary.
+     */
+    protected int maxInFlightReplicaChunks() {
+        return 0;
+    }
+
+    /**
+     * Accounts for the given request before it is executed on the primary. The returned {@link Releasable} is released once a response
+     * for the request has been sent. Implementations may reject the request by throwing an exception, which is then sent back to the
+     * sender of the request. This is called once the request was deserialized, before it is executed. Until then the bytes of the
+     * transport message are accounted by the {@code in_flight_requests} circuit breaker.
+     *
+     * @param rerouteWasLocal whether the request was rerouted to the primary from this node, in which case it has already been
+     *                        accounted for while it was coordinated
+     */
+    protected Releasable checkPrimaryLimits(final Request request, boolean rerouteWasLocal) {
+        return () -> {};
+    }
+
+    /**
+     * Accounts for the given request before it is executed on a replica. The returned {@link Releasable} is released once a response
+     * for the request has been sent. Implementations must not reject the request: the primary fails replicas that fail an operation.
+     */
+    protected Releasable checkReplicaLimits(final ReplicaRequest request) {
+        return () -> {};
+    }
+
     /**
      * Synchronously execute the specified replica operation. This is done under a permit from
      * {@link IndexShard#acquireReplicaOperationPermit(long, long, long, ActionListener, String, Object)}.
@@ -311,7 +355,10 @@ public abstract class TransportReplicationAction<
 
         @Override
         public void messageReceived(ConcreteShardRequest<Request> request, TransportChannel channel, Task task) {
-            new AsyncPrimaryAction(request.request, request.targetAllocationID, request.primaryTerm, channel, (ReplicationTask) task).run();
+            final boolean rerouteWasLocal = TransportService.DIRECT_RESPONSE_PROFILE.equals(channel.getProfileName());
+            final Releasable releasable = checkPrimaryLimits(request.request, rerouteWasLocal);
+            new AsyncPrimaryAction(request.request, request.targetAllocationID, request.primaryTerm,
+                new ReleasingTransportChannel(channel, releasable), (ReplicationTask) task).run();
         }
     }
 
@@ -476,7 +523,7 @@ public abstract class TransportReplicationAction<
             Request request, ActionListener<PrimaryResult<ReplicaRequest, Response>> listener,
             PrimaryShardReference primaryShardReference) {
             return new ReplicationOperation<>(request, primaryShardReference, listener,
-                    newReplicasProxy(primaryTerm), logger, actionName);
+                    newReplicasProxy(primaryTerm), logger, actionName, maxInFlightReplicaChunks());
         }
     }
 
@@ -553,13 +600,14 @@ public abstract class TransportReplicationAction<
                 final TransportChannel channel,
                 final Task task)
             throws Exception {
+            final Releasable releasable = checkReplicaLimits(replicaRequest.getRequest());
             new AsyncReplicaAction(
                     replicaRequest.getRequest(),
                     replicaRequest.getTargetAllocationID(),
                     replicaRequest.getPrimaryTerm(),
                     replicaRequest.getGlobalCheckpoint(),
                     replicaRequest.getMaxSeqNoOfUpdatesOrDeletes(),
-                    channel,
+                    new ReleasingTransportChannel(channel, releasable),
                     (ReplicationTask) task).run();
         }
 
@@ -1037,6 +1085,14 @@ public abstract class TransportReplicationAction<
             return result;
         }
 
+        @Override
+        public PrimaryResult perform(Request request, Consumer<ReplicaRequest> pipelinedReplicaRequests) throws Exception {
+            PrimaryResult result = shardOperationOnPrimary(request, indexShard, pipelinedReplicaRequests);
+            assert result.replicaRequest() == null || result.finalFailure == null : "a replica request [" + result.replicaRequest()
+                + "] with a primary failure [" + result.finalFailure + "]";
+            return result;
+        }
+
         @Override
         public void updateLocalCheckpointForShard(String allocationId, long checkpoint) {
             indexShard.updateLocalCheckpointForShard(allocationId, checkpoint);
@@ -1390,4 +1446,51 @@ public abstract class TransportReplicationAction<
             task.setPhase(phase);
         }
     }
+
+    /**
+     * A {@link TransportChannel} that releases the given {@link Releasable} once a response or failure has been sent through it.
+     */
+    private static final class ReleasingTransportChannel implements TransportChannel {
+
+        private final TransportChannel delegate;
+        private final Releasable releasable;
+
+        ReleasingTransportChannel(TransportChannel delegate, Releasable releasable) {
+            this.delegate = delegate;
+            this.releasable = Releasables.releaseOnce(releasable);
+        }
+
+        @Override
+        public String getProfileName() {
+            return delegate.getProfileName();
+        }
+
+        @Override
+        public String getChannelType() {
+            return delegate.getChannelType();
+        }
+
+        @Override
+        public void sendResponse(TransportResponse response) throws IOException {
+            try {
+                delegate.sendResponse(response);
+            } finally {
+                releasable.close();
+            }
+        }
+
+        @Override
+        public void sendResponse(Exception exception) throws IOException {
+            try {
+                delegate.sendResponse(exception);
+            } finally {
+                releasable.close();
+            }
+        }
+
+        @Override
+        public Version getVersion() {
+            return delegate.getVersion();
+        }
+    }
 }
@@ -25,10 +25,13 @@ import org.elasticsearch.common.util.concurrent.ReleasableLock;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -63,6 +66,13 @@ import java.util.function.ToLongBiFunction;
  * <p>
  * Evictions only occur after a mutation to the cache (meaning an entry promotion, a cache insertion, or a manual
  * invalidation) or an explicit call to {@link #refresh()}.
+ * <p>
+ * With the {@link EvictionPolicy#TINY_LFU} eviction policy, reads do not take the LRU lock. Hits are recorded in
+ * striped, lossy buffers that are drained into the LRU list in batches by whichever thread holds or can acquire the
+ * lock, so promotions are deferred and may be dropped under heavy contention. The accesses are also counted in a
+ * {@link FrequencySketch}, and when the cache exceeds its maximum weight a new entry only displaces the least recently
+ * used entry if it was accessed more frequently. Otherwise the new entry is evicted right away, so that a burst of
+ * keys that are used only once cannot flush the entries that are used over and over again.
  *
  * @param <K> The type of the keys
  * @param <V> The type of the values
@@ -97,6 +107,12 @@ public class Cache<K, V> {
     private RemovalListener<K, V> removalListener = notification -> {
     };
 
+    // the access frequencies of the keys, only used by the TINY_LFU eviction policy
+    private FrequencySketch frequencySketch;
+
+    // the buffered reads that have yet to be applied to the LRU list, only used by the TINY_LFU eviction policy
+    private ReadBuffer<K, V>[] readBuffers;
+
     // use CacheBuilder to construct
     Cache() {
     }
@@ -144,6 +160,57 @@ public class Cache<K, V> {
         this.removalListener = removalListener;
     }
 
+    @SuppressWarnings("unchecked")
+    void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        Objects.requireNonNull(evictionPolicy);
+        if (evictionPolicy == EvictionPolicy.TINY_LFU) {
+            frequencySketch = new FrequencySketch();
+            readBuffers = new ReadBuffer[NUMBER_OF_READ_BUFFERS];
+            for (int i = 0; i < readBuffers.length; i++) {
+                readBuffers[i] = new ReadBuffer<>();
+            }
+        } else {
+            frequencySketch = null;
+            readBuffers = null;
+        }
+    }
+
+    // pkg-private for testing
+    EvictionPolicy getEvictionPolicy() {
+        return frequencySketch == null ? EvictionPolicy.LRU : EvictionPolicy.TINY_LFU;
+    }
+
+    /**
+     * The policy deciding which entries to evict when the cache exceeds its maximum weight.
+     */
+    public enum EvictionPolicy {
+        /**
+         * Evict the least recently used entries.
+         */
+        LRU,
+        /**
+         * Evict the least recently used entries, unless the new entry was used less frequently than the entry it would
+         * displace in which case the new entry is evicted.
+         */
+        TINY_LFU;
+
+        public static EvictionPolicy parse(String value) {
+            switch (value) {
+                case "lru":
+                    return LRU;
+                case "tiny_lfu":
+                    return TINY_LFU;
+                default:
+                    throw new IllegalArgumentException("unknown eviction policy [" + value + "], must be one of [lru, tiny_lfu]");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
     /**
      * The relative time used to track time-based evictions.
      *
@@ -344,6 +411,59 @@ public class Cache<K, V> {
         }
     }
 
+    // the number of read buffers, each thread records its reads in one of them depending on its id
+    static final int NUMBER_OF_READ_BUFFERS = 16;
+
+    /**
+     * A bounded buffer of the entries that were read since the buffer was last drained. Recording a read never blocks:
+     * reads are dropped when the buffer is full or when another thread is concurrently recording a read. The buffer is
+     * only drained while holding the LRU lock.
+     *
+     * @param <K> the type of the keys
+     * @param <V> the type of the values
+     */
+    private static final class ReadBuffer<K, V> {
+        static final int SIZE = 16;
+
+        final AtomicReferenceArray<Entry<K, V>> entries = new AtomicReferenceArray<>(SIZE);
+        final AtomicLong writes = new AtomicLong();
+        final AtomicLong reads = new AtomicLong();
+
+        /**
+         * Records a read of the entry.
+         *
+         * @return true if the buffer is full and should be drained
+         */
+        boolean offer(Entry<K, V> entry) {
+            final long read = reads.get();
+            final long write = writes.get();
+            if (write - read >= SIZE) {
+                return true;
+            }
+            if (writes.compareAndSet(write, write + 1)) {
+                entries.lazySet((int) (write & (SIZE - 1)), entry);
+                return write + 1 - read >= SIZE;
+            }
+            return false;
+        }
+
+        void drain(Consumer<Entry<K, V>> consumer) {
+            long read = reads.get();
+            final long write = writes.get();
+            for (; read < write; read++) {
+                final int index = (int) (read & (SIZE - 1));
+                final Entry<K, V> entry = entries.get(index);
+                if (entry == null) {
+                    // the slot was claimed but the entry is not published yet, pick it up on the next drain
+                    break;
+                }
+                entries.lazySet(index, null);
+                consumer.accept(entry);
+            }
+            reads.lazySet(read);
+        }
+    }
+
     Entry<K, V> head;
     Entry<K, V> tail;
 
@@ -366,11 +486,28 @@ public class Cache<K, V> {
         if (entry == null) {
             return null;
         } else {
-            promote(entry, now);
+            if (readBuffers == null) {
+                promote(entry, now);
+            } else {
+                recordRead(entry, now);
+            }
             return entry.value;
         }
     }
 
+    private void recordRead(Entry<K, V> entry, long now) {
+        ReadBuffer<K, V> readBuffer = readBuffers[(int) Thread.currentThread().getId() & (NUMBER_OF_READ_BUFFERS - 1)];
+        if (readBuffer.offer(entry)) {
+            // the buffer is full, drain it unless another thread is already mutating the LRU list
+            try (ReleasableLock locked = lruLock.tryAcquire()) {
+                if (locked != null) {
+                    drainReadBuffers();
+                    evict(now);
+                }
+            }
+        }
+    }
+
     /**
      * If the specified key is not already associated with a value (or is mapped to null), attempts to compute its
      * value using the given mapping function and enters it into this map unless null. The load method for a given key
@@ -541,6 +678,10 @@ public class Cache<K, V> {
                 haveSegmentLock[i] = true;
             }
             try (ReleasableLock ignored = lruLock.acquire()) {
+                if (readBuffers != null) {
+                    // release the entries that are still referenced by the read buffers
+                    drainReadBuffers();
+                }
                 h = head;
                 Arrays.stream(segments).forEach(segment -> segment.map = new HashMap<>());
                 Entry<K, V> current = head;
@@ -571,6 +712,9 @@ public class Cache<K, V> {
     public void refresh() {
         long now = now();
         try (ReleasableLock ignored = lruLock.acquire()) {
+            if (readBuffers != null) {
+                drainReadBuffers();
+            }
             evict(now);
         }
     }
@@ -729,6 +873,8 @@ public class Cache<K, V> {
     private boolean promote(Entry<K, V> entry, long now) {
         boolean promoted = true;
         try (ReleasableLock ignored = lruLock.acquire()) {
+            // the new entry that has to be admitted into the cache, if the eviction policy makes it compete for admission
+            Entry<K, V> candidate = null;
             switch (entry.state) {
                 case DELETED:
                     promoted = false;
@@ -738,20 +884,55 @@ public class Cache<K, V> {
                     break;
                 case NEW:
                     linkAtHead(entry);
+                    if (frequencySketch != null) {
+                        frequencySketch.ensureCapacity(count);
+                        candidate = entry;
+                    }
                     break;
             }
+            if (readBuffers != null) {
+                drainReadBuffers();
+                if (promoted) {
+                    frequencySketch.increment(entry.key);
+                }
+            }
             if (promoted) {
-                evict(now);
+                evict(now, candidate);
             }
         }
         return promoted;
     }
 
+    private void drainReadBuffers() {
+        assert lruLock.isHeldByCurrentThread();
+
+        for (ReadBuffer<K, V> readBuffer : readBuffers) {
+            readBuffer.drain(entry -> {
+                frequencySketch.increment(entry.key);
+                // entries that are still new are linked by the thread that inserted them
+                if (entry.state == State.EXISTING) {
+                    relinkAtHead(entry);
+                }
+            });
+        }
+    }
+
     private void evict(long now) {
+        evict(now, null);
+    }
+
+    private void evict(long now, Entry<K, V> candidate) {
         assert lruLock.isHeldByCurrentThread();
 
         while (tail != null && shouldPrune(tail, now)) {
-            evictEntry(tail);
+            if (candidate != null && candidate != tail && candidate.state == State.EXISTING && isExpired(tail, now) == false
+                    && frequencySketch.frequency(candidate.key) <= frequencySketch.frequency(tail.key)) {
+                // the new entry was not used more often than the entry it would displace, reject it instead
+                evictEntry(candidate);
+                candidate = null;
+            } else {
+                evictEntry(tail);
+            }
         }
     }
 
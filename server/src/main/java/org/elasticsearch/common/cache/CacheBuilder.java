@@ -30,6 +30,7 @@ public class CacheBuilder<K, V> {
     private long expireAfterWriteNanos = -1;
     private ToLongBiFunction<K, V> weigher;
     private RemovalListener<K, V> removalListener;
+    private Cache.EvictionPolicy evictionPolicy = Cache.EvictionPolicy.LRU;
 
     public static <K, V> CacheBuilder<K, V> builder() {
         return new CacheBuilder<>();
@@ -90,6 +91,16 @@ public class CacheBuilder<K, V> {
         return this;
     }
 
+    /**
+     * Sets the policy deciding which entries to evict when the cache exceeds its maximum weight. Defaults to
+     * {@link Cache.EvictionPolicy#LRU}.
+     */
+    public CacheBuilder<K, V> setEvictionPolicy(Cache.EvictionPolicy evictionPolicy) {
+        Objects.requireNonNull(evictionPolicy);
+        this.evictionPolicy = evictionPolicy;
+        return this;
+    }
+
     public Cache<K, V> build() {
         Cache<K, V> cache = new Cache<>();
         if (maximumWeight != -1) {
@@ -107,6 +118,7 @@ public class CacheBuilder<K, V> {
         if (removalListener != null) {
             cache.setRemovalListener(removalListener);
         }
+        cache.setEvictionPolicy(evictionPolicy);
         return cache;
     }
 }
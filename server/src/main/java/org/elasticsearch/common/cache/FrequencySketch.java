@@ -0,0 +1,122 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.cache;
+
+/**
+ * A count-min sketch estimating how often keys were accessed, used by {@link Cache} to decide whether a new entry is
+ * worth evicting an existing one for.
+ * <p>
+ * Each key is mapped to four 4-bit counters, one in each of four different longs of the table, and its frequency is
+ * the minimum of these counters. Counters saturate at 15. To keep the sketch biased towards recent accesses, all
+ * counters are halved once the number of increments reaches ten times the capacity of the sketch.
+ * <p>
+ * The sketch is not thread-safe; {@link Cache} only uses it while holding its LRU lock.
+ */
+final class FrequencySketch {
+
+    static final int MAXIMUM_CAPACITY = 1 << 20;
+
+    private static final long[] SEEDS = new long[] {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private long[] table;
+    private int sampleSize;
+    private int size;
+
+    FrequencySketch() {
+        ensureCapacity(0);
+    }
+
+    /**
+     * Grows the sketch so that it can estimate the frequencies of the given number of keys with a low error rate. The
+     * counts are discarded when the sketch grows.
+     */
+    void ensureCapacity(long expectedKeys) {
+        int capacity = (int) Math.min(Math.max(expectedKeys, 16), MAXIMUM_CAPACITY);
+        if (table != null && table.length >= capacity) {
+            return;
+        }
+        table = new long[Integer.highestOneBit(capacity - 1) << 1];
+        sampleSize = 10 * table.length;
+        size = 0;
+    }
+
+    /**
+     * Returns the estimated number of times the key was accessed, at most 15.
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int offset = (start + i) << 2;
+            int count = (int) ((table[indexOf(hash, i)] >>> offset) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access to the key, aging all counters once enough accesses were recorded.
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size = (size >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return ((int) h) & (table.length - 1);
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -21,6 +21,10 @@ package org.elasticsearch.common.settings;
 import org.apache.logging.log4j.LogManager;
 import org.elasticsearch.action.admin.cluster.configuration.TransportAddVotingConfigExclusionsAction;
 import org.elasticsearch.action.admin.indices.close.TransportCloseIndexAction;
+import org.elasticsearch.action.bulk.TransportBulkAction;
+import org.elasticsearch.action.bulk.TransportShardBulkAction;
+import org.elasticsearch.action.search.ShardFieldRangesCache;
+import org.elasticsearch.action.search.TransportMultiSearchAction;
 import org.elasticsearch.action.search.TransportSearchAction;
 import org.elasticsearch.action.support.AutoCreateIndex;
 import org.elasticsearch.action.support.DestructiveOperations;
@@ -77,6 +81,8 @@ import org.elasticsearch.gateway.GatewayService;
 import org.elasticsearch.http.HttpTransportSettings;
 import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.IndexingPressure;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.IndexingMemoryController;
 import org.elasticsearch.indices.IndicesQueryCache;
 import org.elasticsearch.indices.IndicesRequestCache;
@@ -291,6 +297,9 @@ public final class ClusterSettings extends AbstractScopedSettings {
                     SearchService.DEFAULT_ALLOW_PARTIAL_SEARCH_RESULTS,
                     ElectMasterService.DISCOVERY_ZEN_MINIMUM_MASTER_NODES_SETTING,
                     TransportSearchAction.SHARD_COUNT_LIMIT_SETTING,
+                    TransportSearchAction.HEDGING_ENABLED_SETTING,
+                    TransportSearchAction.HEDGING_PERCENTILE_SETTING,
+                    TransportMultiSearchAction.BATCHED_SHARD_QUERIES_SETTING,
                     RemoteClusterAware.REMOTE_CLUSTERS_SEEDS,
                     RemoteClusterAware.SEARCH_REMOTE_CLUSTERS_SEEDS,
                     RemoteClusterAware.REMOTE_CLUSTERS_PROXY,
@@ -365,14 +374,26 @@ public final class ClusterSettings extends AbstractScopedSettings {
                     IndexSettings.QUERY_STRING_ALLOW_LEADING_WILDCARD,
                     ScriptService.SCRIPT_CACHE_SIZE_SETTING,
                     ScriptService.SCRIPT_CACHE_EXPIRE_SETTING,
+                    ScriptService.SCRIPT_CACHE_EVICTION_POLICY_SETTING,
                     ScriptService.SCRIPT_MAX_SIZE_IN_BYTES,
                     ScriptService.SCRIPT_MAX_COMPILATIONS_RATE,
                     ScriptService.TYPES_ALLOWED_SETTING,
                     ScriptService.CONTEXTS_ALLOWED_SETTING,
                     IndicesService.INDICES_CACHE_CLEAN_INTERVAL_SETTING,
+                    TransportBulkAction.SHARD_REQUEST_MAX_OPERATIONS_SETTING,
+                    TransportBulkAction.SHARD_REQUEST_MAX_SIZE_SETTING,
+                    TransportBulkAction.SHARD_REQUEST_COALESCE_WINDOW_SETTING,
+                    TransportShardBulkAction.REPLICATION_PIPELINE_CHUNK_SIZE_SETTING,
+                    TransportShardBulkAction.REPLICATION_MAX_IN_FLIGHT_CHUNKS_SETTING,
+                    IndexingPressure.MAX_INDEXING_BYTES,
+                    IndexingPressure.MAX_REPLICA_INDEXING_BYTES,
+                    TranslogSyncCoordinator.GROUP_COMMIT_ENABLED_SETTING,
+                    TranslogSyncCoordinator.GROUP_COMMIT_MAX_LATENCY_SETTING,
                     IndicesFieldDataCache.INDICES_FIELDDATA_CACHE_SIZE_KEY,
+                    IndicesFieldDataCache.INDICES_FIELDDATA_CACHE_EVICTION_POLICY,
                     IndicesRequestCache.INDICES_CACHE_QUERY_SIZE,
                     IndicesRequestCache.INDICES_CACHE_QUERY_EXPIRE,
+                    IndicesRequestCache.INDICES_CACHE_QUERY_EVICTION_POLICY,
                     HunspellService.HUNSPELL_LAZY_LOAD,
                     HunspellService.HUNSPELL_IGNORE_CASE,
                     HunspellService.HUNSPELL_DICTIONARY_OPTIONS,
@@ -410,6 +431,8 @@ public final class ClusterSettings extends AbstractScopedSettings {
                     MultiBucketConsumerService.MAX_BUCKET_SETTING,
                     SearchService.LOW_LEVEL_CANCELLATION_SETTING,
                     SearchService.MAX_OPEN_SCROLL_CONTEXT,
+                    SearchService.MAX_OPEN_READER_CONTEXT,
+                    ShardFieldRangesCache.CACHE_SIZE_SETTING,
                     Node.WRITE_PORTS_FILE_SETTING,
                     Node.NODE_NAME_SETTING,
                     Node.NODE_DATA_SETTING,
@@ -444,6 +467,8 @@ public final class ClusterSettings extends AbstractScopedSettings {
                     PageCacheRecycler.WEIGHT_LONG_SETTING,
                     PageCacheRecycler.WEIGHT_OBJECTS_SETTING,
                     PageCacheRecycler.TYPE_SETTING,
+                    PageCacheRecycler.DIRECT_SETTING,
+                    PageCacheRecycler.LIMIT_DIRECT_SETTING,
                     PluginsService.MANDATORY_SETTING,
                     BootstrapSettings.SECURITY_FILTER_BAD_DEFAULTS_SETTING,
                     BootstrapSettings.MEMORY_LOCK_SETTING,
@@ -429,6 +429,13 @@ public class BigArrays {
         return this.circuitBreakingInstance.breakerService;
     }
 
+    /**
+     * Whether big int, long and double arrays should be allocated in direct memory, see {@link PageCacheRecycler#DIRECT_SETTING}.
+     */
+    private boolean directPages() {
+        return recycler != null && recycler.isDirect();
+    }
+
     private <T extends AbstractBigArray> T resizeInPlace(T array, long newSize) {
         final long oldMemSize = array.ramBytesUsed();
         final long oldSize = array.size();
@@ -544,7 +551,10 @@ public class BigArrays {
      * @param clearOnResize whether values should be set to 0 on initialization and resize
      */
     public IntArray newIntArray(long size, boolean clearOnResize) {
-        if (size > PageCacheRecycler.INT_PAGE_SIZE) {
+        if (size > PageCacheRecycler.INT_PAGE_SIZE && directPages()) {
+            adjustBreaker(BigIntArray.estimateRamBytes(size), false);
+            return new BigDirectIntArray(size, this, clearOnResize);
+        } else if (size > PageCacheRecycler.INT_PAGE_SIZE) {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
             adjustBreaker(BigIntArray.estimateRamBytes(size), false);
@@ -569,6 +579,8 @@ public class BigArrays {
     public IntArray resize(IntArray array, long size) {
         if (array instanceof BigIntArray) {
             return resizeInPlace((BigIntArray) array, size);
+        } else if (array instanceof BigDirectIntArray) {
+            return resizeInPlace((BigDirectIntArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final IntArray newArray = newIntArray(size, arr.clearOnResize);
@@ -596,7 +608,10 @@ public class BigArrays {
      * @param clearOnResize whether values should be set to 0 on initialization and resize
      */
     public LongArray newLongArray(long size, boolean clearOnResize) {
-        if (size > PageCacheRecycler.LONG_PAGE_SIZE) {
+        if (size > PageCacheRecycler.LONG_PAGE_SIZE && directPages()) {
+            adjustBreaker(BigLongArray.estimateRamBytes(size), false);
+            return new BigDirectLongArray(size, this, clearOnResize);
+        } else if (size > PageCacheRecycler.LONG_PAGE_SIZE) {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
             adjustBreaker(BigLongArray.estimateRamBytes(size), false);
@@ -621,6 +636,8 @@ public class BigArrays {
     public LongArray resize(LongArray array, long size) {
         if (array instanceof BigLongArray) {
             return resizeInPlace((BigLongArray) array, size);
+        } else if (array instanceof BigDirectLongArray) {
+            return resizeInPlace((BigDirectLongArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final LongArray newArray = newLongArray(size, arr.clearOnResize);
@@ -648,7 +665,10 @@ public class BigArrays {
      * @param clearOnResize whether values should be set to 0 on initialization and resize
      */
     public DoubleArray newDoubleArray(long size, boolean clearOnResize) {
-        if (size > PageCacheRecycler.LONG_PAGE_SIZE) {
+        if (size > PageCacheRecycler.LONG_PAGE_SIZE && directPages()) {
+            adjustBreaker(BigLongArray.estimateRamBytes(size), false);
+            return new BigDirectDoubleArray(size, this, clearOnResize);
+        } else if (size > PageCacheRecycler.LONG_PAGE_SIZE) {
             // when allocating big arrays, we want to first ensure we have the capacity by
             // checking with the circuit breaker before attempting to allocate
             adjustBreaker(BigDoubleArray.estimateRamBytes(size), false);
@@ -670,6 +690,8 @@ public class BigArrays {
     public DoubleArray resize(DoubleArray array, long size) {
         if (array instanceof BigDoubleArray) {
             return resizeInPlace((BigDoubleArray) array, size);
+        } else if (array instanceof BigDirectDoubleArray) {
+            return resizeInPlace((BigDirectDoubleArray) array, size);
         } else {
             AbstractArray arr = (AbstractArray) array;
             final DoubleArray newArray = newDoubleArray(size, arr.clearOnResize);
@@ -30,6 +30,8 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.Locale;
 
@@ -54,6 +56,11 @@ public class PageCacheRecycler implements Releasable {
     // object pages are less useful to us so we give them a lower weight by default
     public static final Setting<Double> WEIGHT_OBJECTS_SETTING  =
         Setting.doubleSetting("cache.recycler.page.weight.objects", 0.1d, 0d, Property.NodeScope);
+    // big int, long and double arrays may optionally store their pages in direct memory rather than on the heap
+    public static final Setting<Boolean> DIRECT_SETTING =
+        Setting.boolSetting("cache.recycler.page.direct", false, Property.NodeScope);
+    public static final Setting<ByteSizeValue> LIMIT_DIRECT_SETTING  =
+        Setting.memorySizeSetting("cache.recycler.page.limit.direct", "10%", Property.NodeScope);
 
     /** Page size in bytes: 16KB */
     public static final int PAGE_SIZE_IN_BYTES = 1 << 14;
@@ -66,6 +73,8 @@ public class PageCacheRecycler implements Releasable {
     private final Recycler<int[]> intPage;
     private final Recycler<long[]> longPage;
     private final Recycler<Object[]> objectPage;
+    private final boolean direct;
+    private final Recycler<ByteBuffer> directPage;
 
     public static final PageCacheRecycler NON_RECYCLING_INSTANCE;
 
@@ -75,7 +84,7 @@ public class PageCacheRecycler implements Releasable {
 
     @Override
     public void close() {
-        Releasables.close(true, bytePage, intPage, longPage, objectPage);
+        Releasables.close(true, bytePage, intPage, longPage, objectPage, directPage);
     }
 
     public PageCacheRecycler(Settings settings) {
@@ -153,6 +162,30 @@ public class PageCacheRecycler implements Releasable {
         });
 
         assert PAGE_SIZE_IN_BYTES * (maxBytePageCount + maxIntPageCount + maxLongPageCount + maxObjectPageCount) <= limit;
+
+        // direct pages are shared by all types of arrays since they can be viewed as ints, longs or doubles, and they
+        // have their own limit since they don't live on the heap
+        direct = DIRECT_SETTING.get(settings);
+        final int maxDirectPageCount = direct
+            ? (int) Math.min(Integer.MAX_VALUE, LIMIT_DIRECT_SETTING.get(settings).getBytes() / PAGE_SIZE_IN_BYTES)
+            : 0;
+        directPage = build(type, maxDirectPageCount, availableProcessors, new AbstractRecyclerC<ByteBuffer>() {
+            @Override
+            public ByteBuffer newInstance(int sizing) {
+                return ByteBuffer.allocateDirect(PAGE_SIZE_IN_BYTES).order(ByteOrder.nativeOrder());
+            }
+            @Override
+            public void recycle(ByteBuffer value) {
+                // nothing to do
+            }
+        });
+    }
+
+    /**
+     * Whether big int, long and double arrays should store their pages in direct memory.
+     */
+    public boolean isDirect() {
+        return direct;
     }
 
     public Recycler.V<byte[]> bytePage(boolean clear) {
@@ -184,6 +217,21 @@ public class PageCacheRecycler implements Releasable {
         return objectPage.obtain();
     }
 
+    /**
+     * Returns a page of {@link #PAGE_SIZE_IN_BYTES} bytes of direct memory in native byte order. The page must be
+     * released by closing it: pages that don't fit in the pool are only freed once they are garbage collected.
+     */
+    public Recycler.V<ByteBuffer> directPage(boolean clear) {
+        final Recycler.V<ByteBuffer> v = directPage.obtain();
+        if (v.isRecycled() && clear) {
+            final ByteBuffer page = v.v();
+            for (int i = 0; i < PAGE_SIZE_IN_BYTES; i += Long.BYTES) {
+                page.putLong(i, 0L);
+            }
+        }
+        return v;
+    }
+
     private static <T> Recycler<T> build(Type type, int limit, int availableProcessors, Recycler.C<T> c) {
         final Recycler<T> recycler;
         if (limit == 0) {
@@ -57,6 +57,19 @@ public class ReleasableLock implements Releasable {
         return this;
     }
 
+    /**
+     * Try acquiring the lock without waiting for it.
+     *
+     * @return this lock if it was acquired, otherwise null
+     */
+    public ReleasableLock tryAcquire() {
+        if (lock.tryLock()) {
+            assert addCurrentThread();
+            return this;
+        }
+        return null;
+    }
+
     private boolean addCurrentThread() {
         final Integer current = holdingThreads.get();
         holdingThreads.set(current == null ? 1 : current + 1);
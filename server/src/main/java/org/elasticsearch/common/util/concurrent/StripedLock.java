@@ -0,0 +1,113 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import com.carrotsearch.hppc.BitMixer;
+import org.elasticsearch.common.lease.Releasable;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class manages a fixed number of locks that are accessed with an identifier. Unlike {@link KeyedLock} acquiring and
+ * releasing a lock doesn't allocate any object, which makes it a better fit for hot paths like indexing, but identifiers
+ * that hash to the same stripe share the same lock. A thread that holds the lock of an identifier must therefore never block
+ * on the lock of another identifier, it should use {@link #tryAcquire(Object)} instead.
+ * Note: this lock is reentrant
+ */
+public final class StripedLock<T> {
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    /**
+     * Creates a new non-fair lock
+     * @param numStripes The minimum number of stripes, it is rounded up to the next power of two
+     */
+    public StripedLock(int numStripes) {
+        if (numStripes <= 0) {
+            throw new IllegalArgumentException("number of stripes must be greater than 0 but was [" + numStripes + "]");
+        }
+        final int size = numStripes == 1 ? 1 : Integer.highestOneBit(numStripes - 1) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+    }
+
+    private Stripe stripe(T key) {
+        return stripes[BitMixer.mix32(key.hashCode()) & mask];
+    }
+
+    /**
+     * Acquires a lock for the given key. The key is selected by its hash code. The lock can be acquired by the same thread
+     * multiple times. The lock is released by closing the returned {@link Releasable} exactly once.
+     */
+    public Releasable acquire(T key) {
+        final Stripe stripe = stripe(key);
+        stripe.lock();
+        return stripe;
+    }
+
+    /**
+     * Tries to acquire the lock for the given key and returns it. If the lock can't be acquired null is returned.
+     */
+    public Releasable tryAcquire(T key) {
+        final Stripe stripe = stripe(key);
+        if (stripe.tryLock()) {
+            return stripe;
+        }
+        return null;
+    }
+
+    /**
+     * Returns <code>true</code> iff the caller thread holds the lock for the given key
+     */
+    public boolean isHeldByCurrentThread(T key) {
+        return stripe(key).isHeldByCurrentThread();
+    }
+
+    /**
+     * Returns <code>true</code> if this lock has at least one locked stripe.
+     */
+    public boolean hasLockedKeys() {
+        for (Stripe stripe : stripes) {
+            if (stripe.isLocked()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of stripes of this lock.
+     */
+    public int numStripes() {
+        return stripes.length;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Stripe extends ReentrantLock implements Releasable {
+        @Override
+        public void close() {
+            unlock();
+        }
+    }
+}
@@ -95,7 +95,9 @@ public class DefaultRestChannel extends AbstractRestChannel implements RestChann
         addCustomHeaders(httpResponse, restResponse.getHeaders());
         addCustomHeaders(httpResponse, threadContext.getResponseHeaders());
 
-        ArrayList<Releasable> toClose = new ArrayList<>(3);
+        ArrayList<Releasable> toClose = new ArrayList<>(4);
+        // the request may still hold on to pooled buffers which are no longer needed once the response is sent
+        toClose.add(httpRequest::release);
 
         boolean success = false;
         try {
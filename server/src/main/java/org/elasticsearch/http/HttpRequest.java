@@ -62,4 +62,21 @@ public interface HttpRequest {
      */
     HttpResponse createResponse(RestStatus status, BytesReference content);
 
+    /**
+     * Release any resources associated with this request. Implementations must be idempotent. The behavior of {@link #content()}
+     * after this method has been invoked is undefined and implementation specific.
+     */
+    default void release() {
+    }
+
+    /**
+     * If this instance uses any pooled resources, creates a copy of this instance that does not use any pooled resources and
+     * releases any resources associated with this instance. If the instance does not use any pooled resources, returns itself.
+     *
+     * @return a safe unpooled http request
+     */
+    default HttpRequest releaseAndCopy() {
+        return this;
+    }
+
 }
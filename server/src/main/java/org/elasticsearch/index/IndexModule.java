@@ -46,6 +46,7 @@ import org.elasticsearch.index.shard.IndexingOperationListener;
 import org.elasticsearch.index.shard.SearchOperationListener;
 import org.elasticsearch.index.similarity.SimilarityService;
 import org.elasticsearch.index.store.IndexStore;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.IndicesQueryCache;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -114,6 +115,7 @@ public final class IndexModule {
     private final Map<String, TriFunction<Settings, Version, ScriptService, Similarity>> similarities = new HashMap<>();
     private final Map<String, Function<IndexSettings, IndexStore>> indexStoreFactories;
     private final SetOnce<BiFunction<IndexSettings, IndicesQueryCache, QueryCache>> forceQueryCacheProvider = new SetOnce<>();
+    private final SetOnce<TranslogSyncCoordinator> translogSyncCoordinator = new SetOnce<>();
     private final List<SearchOperationListener> searchOperationListeners = new ArrayList<>();
     private final List<IndexingOperationListener> indexOperationListeners = new ArrayList<>();
     private final AtomicBoolean frozen = new AtomicBoolean(false);
@@ -399,7 +401,8 @@ public final class IndexModule {
                 new SimilarityService(indexSettings, scriptService, similarities),
                 shardStoreDeleter, analysisRegistry, engineFactory, circuitBreakerService, bigArrays, threadPool, scriptService,
                 client, queryCache, store, eventListener, searcherWrapperFactory, mapperRegistry,
-                indicesFieldDataCache, searchOperationListeners, indexOperationListeners, namedWriteableRegistry);
+                indicesFieldDataCache, searchOperationListeners, indexOperationListeners, namedWriteableRegistry,
+                translogSyncCoordinator.get());
     }
 
     private static IndexStore getIndexStore(
@@ -459,6 +462,15 @@ public final class IndexModule {
         this.forceQueryCacheProvider.set(queryCacheProvider);
     }
 
+    /**
+     * Sets the node level {@link TranslogSyncCoordinator} the shards of this index use to group commit their translog syncs.
+     * NOTE: this can only be set once
+     */
+    public void setTranslogSyncCoordinator(TranslogSyncCoordinator translogSyncCoordinator) {
+        ensureNotFrozen();
+        this.translogSyncCoordinator.set(translogSyncCoordinator);
+    }
+
     private void ensureNotFrozen() {
         if (this.frozen.get()) {
             throw new IllegalStateException("Can't modify IndexModule once the index service has been created");
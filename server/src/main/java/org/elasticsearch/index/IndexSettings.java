@@ -232,6 +232,20 @@ public final class IndexSettings {
                     new ByteSizeValue(Long.MAX_VALUE, ByteSizeUnit.BYTES),
                     Property.Dynamic, Property.IndexScope);
 
+    /**
+     * Controls whether the source of index operations is compressed when it is written to the translog. Translog generations
+     * written with and without compression can be mixed freely.
+     */
+    public static final Setting<Boolean> INDEX_TRANSLOG_COMPRESS_SETTING =
+        Setting.boolSetting("index.translog.compress", false, Property.Dynamic, Property.IndexScope);
+
+    /**
+     * Controls whether translog snapshots read generations that are no longer written to through a memory mapping instead of
+     * positional reads on the file channel.
+     */
+    public static final Setting<Boolean> INDEX_TRANSLOG_MMAP_SETTING =
+        Setting.boolSetting("index.translog.mmap", false, Property.Dynamic, Property.IndexScope);
+
     /**
      * Index setting to enable / disable deletes garbage collection.
      * This setting is realtime updateable
@@ -299,6 +313,13 @@ public final class IndexSettings {
     public static final Setting<Boolean> INDEX_SEARCH_THROTTLED = Setting.boolSetting("index.search.throttled", false,
         Property.IndexScope, Property.PrivateIndex, Property.Dynamic);
 
+    /**
+     * Whether the segments of a shard should be grouped into slices that are searched in parallel on the
+     * {@link org.elasticsearch.threadpool.ThreadPool.Names#SEARCH_WORKER} thread-pool.
+     */
+    public static final Setting<Boolean> INDEX_CONCURRENT_SEGMENT_SEARCH_SETTING =
+        Setting.boolSetting("index.search.concurrent_segment_search", false, Property.Dynamic, Property.IndexScope);
+
     private final Index index;
     private final Version version;
     private final Logger logger;
@@ -320,6 +341,8 @@ public final class IndexSettings {
     private volatile TimeValue translogRetentionAge;
     private volatile ByteSizeValue translogRetentionSize;
     private volatile ByteSizeValue generationThresholdSize;
+    private volatile boolean translogCompressionEnabled;
+    private volatile boolean translogMmapEnabled;
     private final MergeSchedulerConfig mergeSchedulerConfig;
     private final MergePolicyConfig mergePolicyConfig;
     private final IndexSortConfig indexSortConfig;
@@ -354,6 +377,7 @@ public final class IndexSettings {
     private volatile int maxTermsCount;
     private volatile String defaultPipeline;
     private volatile boolean searchThrottled;
+    private volatile boolean concurrentSegmentSearch;
 
     /**
      * The maximum number of refresh listeners allows on this shard.
@@ -438,6 +462,7 @@ public final class IndexSettings {
         numberOfShards = settings.getAsInt(IndexMetaData.SETTING_NUMBER_OF_SHARDS, null);
 
         this.searchThrottled = INDEX_SEARCH_THROTTLED.get(settings);
+        this.concurrentSegmentSearch = INDEX_CONCURRENT_SEGMENT_SEARCH_SETTING.get(settings);
         this.queryStringLenient = QUERY_STRING_LENIENT_SETTING.get(settings);
         this.queryStringAnalyzeWildcard = QUERY_STRING_ANALYZE_WILDCARD.get(nodeSettings);
         this.queryStringAllowLeadingWildcard = QUERY_STRING_ALLOW_LEADING_WILDCARD.get(nodeSettings);
@@ -450,6 +475,8 @@ public final class IndexSettings {
         translogRetentionAge = scopedSettings.get(INDEX_TRANSLOG_RETENTION_AGE_SETTING);
         translogRetentionSize = scopedSettings.get(INDEX_TRANSLOG_RETENTION_SIZE_SETTING);
         generationThresholdSize = scopedSettings.get(INDEX_TRANSLOG_GENERATION_THRESHOLD_SIZE_SETTING);
+        translogCompressionEnabled = scopedSettings.get(INDEX_TRANSLOG_COMPRESS_SETTING);
+        translogMmapEnabled = scopedSettings.get(INDEX_TRANSLOG_MMAP_SETTING);
         mergeSchedulerConfig = new MergeSchedulerConfig(this);
         gcDeletesInMillis = scopedSettings.get(INDEX_GC_DELETES_SETTING).getMillis();
         softDeleteEnabled = version.onOrAfter(Version.V_6_5_0) && scopedSettings.get(INDEX_SOFT_DELETES_SETTING);
@@ -512,6 +539,8 @@ public final class IndexSettings {
                 this::setGenerationThresholdSize);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_RETENTION_AGE_SETTING, this::setTranslogRetentionAge);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_RETENTION_SIZE_SETTING, this::setTranslogRetentionSize);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_COMPRESS_SETTING, this::setTranslogCompressionEnabled);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_MMAP_SETTING, this::setTranslogMmapEnabled);
         scopedSettings.addSettingsUpdateConsumer(INDEX_REFRESH_INTERVAL_SETTING, this::setRefreshInterval);
         scopedSettings.addSettingsUpdateConsumer(MAX_REFRESH_LISTENERS_PER_SHARD, this::setMaxRefreshListeners);
         scopedSettings.addSettingsUpdateConsumer(MAX_ANALYZED_OFFSET_SETTING, this::setHighlightMaxAnalyzedOffset);
@@ -523,6 +552,7 @@ public final class IndexSettings {
         scopedSettings.addSettingsUpdateConsumer(DEFAULT_PIPELINE, this::setDefaultPipeline);
         scopedSettings.addSettingsUpdateConsumer(INDEX_SOFT_DELETES_RETENTION_OPERATIONS_SETTING, this::setSoftDeleteRetentionOperations);
         scopedSettings.addSettingsUpdateConsumer(INDEX_SEARCH_THROTTLED, this::setSearchThrottled);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_CONCURRENT_SEGMENT_SEARCH_SETTING, this::setConcurrentSegmentSearch);
     }
 
     private void setSearchIdleAfter(TimeValue searchIdleAfter) { this.searchIdleAfter = searchIdleAfter; }
@@ -730,6 +760,28 @@ public final class IndexSettings {
         return generationThresholdSize;
     }
 
+    /**
+     * Returns <code>true</code> if the source of index operations is compressed when written to the translog.
+     */
+    public boolean isTranslogCompressionEnabled() {
+        return translogCompressionEnabled;
+    }
+
+    private void setTranslogCompressionEnabled(boolean translogCompressionEnabled) {
+        this.translogCompressionEnabled = translogCompressionEnabled;
+    }
+
+    /**
+     * Returns <code>true</code> if translog snapshots read immutable translog generations through a memory mapping.
+     */
+    public boolean isTranslogMmapEnabled() {
+        return translogMmapEnabled;
+    }
+
+    private void setTranslogMmapEnabled(boolean translogMmapEnabled) {
+        this.translogMmapEnabled = translogMmapEnabled;
+    }
+
     /**
      * Returns the {@link MergeSchedulerConfig}
      */
@@ -950,4 +1002,15 @@ public final class IndexSettings {
     private void setSearchThrottled(boolean searchThrottled) {
         this.searchThrottled = searchThrottled;
     }
+
+    /**
+     * Returns true if the segments of this index should be searched concurrently, see {@link #INDEX_CONCURRENT_SEGMENT_SEARCH_SETTING}
+     */
+    public boolean isConcurrentSegmentSearchEnabled() {
+        return concurrentSegmentSearch;
+    }
+
+    private void setConcurrentSegmentSearch(boolean concurrentSegmentSearch) {
+        this.concurrentSegmentSearch = concurrentSegmentSearch;
+    }
 }
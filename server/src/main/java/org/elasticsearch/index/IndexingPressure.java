@@ -0,0 +1,176 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the number of bytes of write operations that are in flight on this node, per stage of the write path, and rejects new
+ * operations once their stage is over its byte budget. The coordinating and primary stages share a budget while the replica stage
+ * has a larger budget of its own, so that replication of already accepted operations is not blocked by new coordinating work. An
+ * operation is always admitted while nothing else is in flight in its stage, so that a single request that is larger than the
+ * budget can still make progress.
+ * Replica operations are never rejected, since the primary fails a replica that fails an operation and would take it out of the
+ * in-sync copies. Instead new coordinating and primary operations are rejected while the replica stage is over its budget.
+ * Rejections are signalled with an {@link EsRejectedExecutionException} so that callers handle them like a full write queue.
+ */
+public class IndexingPressure {
+
+    public static final Setting<ByteSizeValue> MAX_INDEXING_BYTES =
+        Setting.memorySizeSetting("indexing_pressure.memory.limit", "10%", Setting.Property.NodeScope);
+
+    public static final Setting<ByteSizeValue> MAX_REPLICA_INDEXING_BYTES =
+        Setting.memorySizeSetting("indexing_pressure.memory.replica.limit", "15%", Setting.Property.NodeScope);
+
+    private final AtomicLong currentCombinedCoordinatingAndPrimaryBytes = new AtomicLong(0);
+    private final AtomicLong currentCoordinatingBytes = new AtomicLong(0);
+    private final AtomicLong currentPrimaryBytes = new AtomicLong(0);
+    private final AtomicLong currentReplicaBytes = new AtomicLong(0);
+
+    private final AtomicLong totalCombinedCoordinatingAndPrimaryBytes = new AtomicLong(0);
+    private final AtomicLong totalCoordinatingBytes = new AtomicLong(0);
+    private final AtomicLong totalPrimaryBytes = new AtomicLong(0);
+    private final AtomicLong totalReplicaBytes = new AtomicLong(0);
+
+    private final AtomicLong coordinatingRejections = new AtomicLong(0);
+    private final AtomicLong primaryRejections = new AtomicLong(0);
+
+    private final long primaryAndCoordinatingLimits;
+    private final long replicaLimits;
+
+    public IndexingPressure(Settings settings) {
+        this.primaryAndCoordinatingLimits = MAX_INDEXING_BYTES.get(settings).getBytes();
+        this.replicaLimits = MAX_REPLICA_INDEXING_BYTES.get(settings).getBytes();
+    }
+
+    /**
+     * Accounts for the given number of bytes of a write request that is being coordinated by this node. The returned
+     * {@link Releasable} must be released once the request completed.
+     *
+     * @throws EsRejectedExecutionException if the coordinating and primary stages are over their combined budget or the replica
+     *                                       stage is over its budget
+     */
+    public Releasable markCoordinatingOperationStarted(long bytes) {
+        final long combinedBytes = currentCombinedCoordinatingAndPrimaryBytes.addAndGet(bytes);
+        final long replicaWriteBytes = currentReplicaBytes.get();
+        final long totalBytes = combinedBytes + replicaWriteBytes;
+        if ((combinedBytes - bytes > 0 && combinedBytes > primaryAndCoordinatingLimits) || replicaWriteBytes > replicaLimits) {
+            currentCombinedCoordinatingAndPrimaryBytes.getAndAdd(-bytes);
+            coordinatingRejections.getAndIncrement();
+            throw new EsRejectedExecutionException("rejected execution of coordinating operation [" +
+                "coordinating_and_primary_bytes=" + (combinedBytes - bytes) + ", " +
+                "replica_bytes=" + replicaWriteBytes + ", " +
+                "all_bytes=" + (totalBytes - bytes) + ", " +
+                "coordinating_operation_bytes=" + bytes + ", " +
+                "max_coordinating_and_primary_bytes=" + primaryAndCoordinatingLimits + ", " +
+                "max_replica_bytes=" + replicaLimits + "]", false);
+        }
+        currentCoordinatingBytes.getAndAdd(bytes);
+        totalCombinedCoordinatingAndPrimaryBytes.getAndAdd(bytes);
+        totalCoordinatingBytes.getAndAdd(bytes);
+        return Releasables.releaseOnce(() -> {
+            currentCombinedCoordinatingAndPrimaryBytes.getAndAdd(-bytes);
+            currentCoordinatingBytes.getAndAdd(-bytes);
+        });
+    }
+
+    /**
+     * Accounts for the given number of bytes of a primary operation whose request was coordinated by this node and therefore has
+     * already been admitted by {@link #markCoordinatingOperationStarted(long)}. The bytes are tracked as primary bytes but they do not
+     * count against the combined budget a second time and the operation is never rejected.
+     */
+    public Releasable markPrimaryOperationLocalToCoordinatingNodeStarted(long bytes) {
+        currentPrimaryBytes.getAndAdd(bytes);
+        totalPrimaryBytes.getAndAdd(bytes);
+        return Releasables.releaseOnce(() -> currentPrimaryBytes.getAndAdd(-bytes));
+    }
+
+    /**
+     * Accounts for the given number of bytes of a primary operation that was coordinated by another node. The returned
+     * {@link Releasable} must be released once the primary operation and its replication completed.
+     *
+     * @throws EsRejectedExecutionException if the coordinating and primary stages are over their combined budget or the replica
+     *                                       stage is over its budget
+     */
+    public Releasable markPrimaryOperationStarted(long bytes) {
+        final long combinedBytes = currentCombinedCoordinatingAndPrimaryBytes.addAndGet(bytes);
+        final long replicaWriteBytes = currentReplicaBytes.get();
+        final long totalBytes = combinedBytes + replicaWriteBytes;
+        if ((combinedBytes - bytes > 0 && combinedBytes > primaryAndCoordinatingLimits) || replicaWriteBytes > replicaLimits) {
+            currentCombinedCoordinatingAndPrimaryBytes.getAndAdd(-bytes);
+            primaryRejections.getAndIncrement();
+            throw new EsRejectedExecutionException("rejected execution of primary operation [" +
+                "coordinating_and_primary_bytes=" + (combinedBytes - bytes) + ", " +
+                "replica_bytes=" + replicaWriteBytes + ", " +
+                "all_bytes=" + (totalBytes - bytes) + ", " +
+                "primary_operation_bytes=" + bytes + ", " +
+                "max_coordinating_and_primary_bytes=" + primaryAndCoordinatingLimits + ", " +
+                "max_replica_bytes=" + replicaLimits + "]", false);
+        }
+        currentPrimaryBytes.getAndAdd(bytes);
+        totalCombinedCoordinatingAndPrimaryBytes.getAndAdd(bytes);
+        totalPrimaryBytes.getAndAdd(bytes);
+        return Releasables.releaseOnce(() -> {
+            currentCombinedCoordinatingAndPrimaryBytes.getAndAdd(-bytes);
+            currentPrimaryBytes.getAndAdd(-bytes);
+        });
+    }
+
+    /**
+     * Accounts for the given number of bytes of a replica operation. The returned {@link Releasable} must be released once the
+     * replica operation completed. The operation is never rejected, but while the replica stage is over its budget new coordinating
+     * and primary operations are.
+     */
+    public Releasable markReplicaOperationStarted(long bytes) {
+        currentReplicaBytes.getAndAdd(bytes);
+        totalReplicaBytes.getAndAdd(bytes);
+        return Releasables.releaseOnce(() -> currentReplicaBytes.getAndAdd(-bytes));
+    }
+
+    public long getCurrentCombinedCoordinatingAndPrimaryBytes() {
+        return currentCombinedCoordinatingAndPrimaryBytes.get();
+    }
+
+    public long getCurrentCoordinatingBytes() {
+        return currentCoordinatingBytes.get();
+    }
+
+    public long getCurrentPrimaryBytes() {
+        return currentPrimaryBytes.get();
+    }
+
+    public long getCurrentReplicaBytes() {
+        return currentReplicaBytes.get();
+    }
+
+    public IndexingPressureStats stats() {
+        return new IndexingPressureStats(totalCombinedCoordinatingAndPrimaryBytes.get(), totalCoordinatingBytes.get(),
+            totalPrimaryBytes.get(), totalReplicaBytes.get(), currentCombinedCoordinatingAndPrimaryBytes.get(),
+            currentCoordinatingBytes.get(), currentPrimaryBytes.get(), currentReplicaBytes.get(), coordinatingRejections.get(),
+            primaryRejections.get(), primaryAndCoordinatingLimits, replicaLimits);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+
+import java.io.IOException;
+
+/**
+ * Node level statistics of the bytes of write operations accounted by {@link IndexingPressure}.
+ */
+public class IndexingPressureStats implements Writeable, ToXContentFragment {
+
+    private final long totalCombinedCoordinatingAndPrimaryBytes;
+    private final long totalCoordinatingBytes;
+    private final long totalPrimaryBytes;
+    private final long totalReplicaBytes;
+
+    private final long currentCombinedCoordinatingAndPrimaryBytes;
+    private final long currentCoordinatingBytes;
+    private final long currentPrimaryBytes;
+    private final long currentReplicaBytes;
+
+    private final long coordinatingRejections;
+    private final long primaryRejections;
+
+    private final long primaryAndCoordinatingLimit;
+    private final long replicaLimit;
+
+    public IndexingPressureStats(long totalCombinedCoordinatingAndPrimaryBytes, long totalCoordinatingBytes, long totalPrimaryBytes,
+                                 long totalReplicaBytes, long currentCombinedCoordinatingAndPrimaryBytes, long currentCoordinatingBytes,
+                                 long currentPrimaryBytes, long currentReplicaBytes, long coordinatingRejections,
+                                 long primaryRejections, long primaryAndCoordinatingLimit, long replicaLimit) {
+        this.totalCombinedCoordinatingAndPrimaryBytes = totalCombinedCoordinatingAndPrimaryBytes;
+        this.totalCoordinatingBytes = totalCoordinatingBytes;
+        this.totalPrimaryBytes = totalPrimaryBytes;
+        this.totalReplicaBytes = totalReplicaBytes;
+        this.currentCombinedCoordinatingAndPrimaryBytes = currentCombinedCoordinatingAndPrimaryBytes;
+        this.currentCoordinatingBytes = currentCoordinatingBytes;
+        this.currentPrimaryBytes = currentPrimaryBytes;
+        this.currentReplicaBytes = currentReplicaBytes;
+        this.coordinatingRejections = coordinatingRejections;
+        this.primaryRejections = primaryRejections;
+        this.primaryAndCoordinatingLimit = primaryAndCoordinatingLimit;
+        this.replicaLimit = replicaLimit;
+    }
+
+    public IndexingPressureStats(StreamInput in) throws IOException {
+        totalCombinedCoordinatingAndPrimaryBytes = in.readVLong();
+        totalCoordinatingBytes = in.readVLong();
+        totalPrimaryBytes = in.readVLong();
+        totalReplicaBytes = in.readVLong();
+        currentCombinedCoordinatingAndPrimaryBytes = in.readVLong();
+        currentCoordinatingBytes = in.readVLong();
+        currentPrimaryBytes = in.readVLong();
+        currentReplicaBytes = in.readVLong();
+        coordinatingRejections = in.readVLong();
+        primaryRejections = in.readVLong();
+        primaryAndCoordinatingLimit = in.readVLong();
+        replicaLimit = in.readVLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(totalCombinedCoordinatingAndPrimaryBytes);
+        out.writeVLong(totalCoordinatingBytes);
+        out.writeVLong(totalPrimaryBytes);
+        out.writeVLong(totalReplicaBytes);
+        out.writeVLong(currentCombinedCoordinatingAndPrimaryBytes);
+        out.writeVLong(currentCoordinatingBytes);
+        out.writeVLong(currentPrimaryBytes);
+        out.writeVLong(currentReplicaBytes);
+        out.writeVLong(coordinatingRejections);
+        out.writeVLong(primaryRejections);
+        out.writeVLong(primaryAndCoordinatingLimit);
+        out.writeVLong(replicaLimit);
+    }
+
+    public long getTotalCombinedCoordinatingAndPrimaryBytes() {
+        return totalCombinedCoordinatingAndPrimaryBytes;
+    }
+
+    public long getTotalCoordinatingBytes() {
+        return totalCoordinatingBytes;
+    }
+
+    public long getTotalPrimaryBytes() {
+        return totalPrimaryBytes;
+    }
+
+    public long getTotalReplicaBytes() {
+        return totalReplicaBytes;
+    }
+
+    public long getCurrentCombinedCoordinatingAndPrimaryBytes() {
+        return currentCombinedCoordinatingAndPrimaryBytes;
+    }
+
+    public long getCurrentCoordinatingBytes() {
+        return currentCoordinatingBytes;
+    }
+
+    public long getCurrentPrimaryBytes() {
+        return currentPrimaryBytes;
+    }
+
+    public long getCurrentReplicaBytes() {
+        return currentReplicaBytes;
+    }
+
+    public long getCoordinatingRejections() {
+        return coordinatingRejections;
+    }
+
+    public long getPrimaryRejections() {
+        return primaryRejections;
+    }
+
+    public long getPrimaryAndCoordinatingLimit() {
+        return primaryAndCoordinatingLimit;
+    }
+
+    public long getReplicaLimit() {
+        return replicaLimit;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(Fields.INDEXING_PRESSURE);
+        builder.startObject(Fields.MEMORY);
+        builder.startObject(Fields.CURRENT);
+        builder.humanReadableField(Fields.COMBINED_COORDINATING_AND_PRIMARY_IN_BYTES, Fields.COMBINED_COORDINATING_AND_PRIMARY,
+            new ByteSizeValue(currentCombinedCoordinatingAndPrimaryBytes));
+        builder.humanReadableField(Fields.COORDINATING_IN_BYTES, Fields.COORDINATING, new ByteSizeValue(currentCoordinatingBytes));
+        builder.humanReadableField(Fields.PRIMARY_IN_BYTES, Fields.PRIMARY, new ByteSizeValue(currentPrimaryBytes));
+        builder.humanReadableField(Fields.REPLICA_IN_BYTES, Fields.REPLICA, new ByteSizeValue(currentReplicaBytes));
+        builder.humanReadableField(Fields.ALL_IN_BYTES, Fields.ALL,
+            new ByteSizeValue(currentCombinedCoordinatingAndPrimaryBytes + currentReplicaBytes));
+        builder.endObject();
+        builder.startObject(Fields.TOTAL);
+        builder.humanReadableField(Fields.COMBINED_COORDINATING_AND_PRIMARY_IN_BYTES, Fields.COMBINED_COORDINATING_AND_PRIMARY,
+            new ByteSizeValue(totalCombinedCoordinatingAndPrimaryBytes));
+        builder.humanReadableField(Fields.COORDINATING_IN_BYTES, Fields.COORDINATING, new ByteSizeValue(totalCoordinatingBytes));
+        builder.humanReadableField(Fields.PRIMARY_IN_BYTES, Fields.PRIMARY, new ByteSizeValue(totalPrimaryBytes));
+        builder.humanReadableField(Fields.REPLICA_IN_BYTES, Fields.REPLICA, new ByteSizeValue(totalReplicaBytes));
+        builder.humanReadableField(Fields.ALL_IN_BYTES, Fields.ALL,
+            new ByteSizeValue(totalCombinedCoordinatingAndPrimaryBytes + totalReplicaBytes));
+        builder.field(Fields.COORDINATING_REJECTIONS, coordinatingRejections);
+        builder.field(Fields.PRIMARY_REJECTIONS, primaryRejections);
+        builder.endObject();
+        builder.humanReadableField(Fields.LIMIT_IN_BYTES, Fields.LIMIT, new ByteSizeValue(primaryAndCoordinatingLimit));
+        builder.humanReadableField(Fields.REPLICA_LIMIT_IN_BYTES, Fields.REPLICA_LIMIT, new ByteSizeValue(replicaLimit));
+        builder.endObject();
+        builder.endObject();
+        return builder;
+    }
+
+    static final class Fields {
+        static final String INDEXING_PRESSURE = "indexing_pressure";
+        static final String MEMORY = "memory";
+        static final String CURRENT = "current";
+        static final String TOTAL = "total";
+        static final String COMBINED_COORDINATING_AND_PRIMARY = "combined_coordinating_and_primary";
+        static final String COMBINED_COORDINATING_AND_PRIMARY_IN_BYTES = "combined_coordinating_and_primary_in_bytes";
+        static final String COORDINATING = "coordinating";
+        static final String COORDINATING_IN_BYTES = "coordinating_in_bytes";
+        static final String PRIMARY = "primary";
+        static final String PRIMARY_IN_BYTES = "primary_in_bytes";
+        static final String REPLICA = "replica";
+        static final String REPLICA_IN_BYTES = "replica_in_bytes";
+        static final String ALL = "all";
+        static final String ALL_IN_BYTES = "all_in_bytes";
+        static final String COORDINATING_REJECTIONS = "coordinating_rejections";
+        static final String PRIMARY_REJECTIONS = "primary_rejections";
+        static final String LIMIT = "limit";
+        static final String LIMIT_IN_BYTES = "limit_in_bytes";
+        static final String REPLICA_LIMIT = "replica_limit";
+        static final String REPLICA_LIMIT_IN_BYTES = "replica_limit_in_bytes";
+    }
+}
@@ -25,7 +25,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
-import org.elasticsearch.common.util.concurrent.KeyedLock;
+import org.elasticsearch.common.util.concurrent.StripedLock;
 
 import java.io.IOException;
 import java.util.Collection;
@@ -36,7 +36,13 @@ import java.util.concurrent.atomic.AtomicLong;
 /** Maps _uid value to its version information. */
 final class LiveVersionMap implements ReferenceManager.RefreshListener, Accountable {
 
-    private final KeyedLock<BytesRef> keyedLock = new KeyedLock<>();
+    /**
+     * The number of locks that protect the uids. Operations on the same shard are bounded by the size of the write thread pool,
+     * so a few hundred stripes keep contention between unrelated uids low without allocating a lock per operation.
+     */
+    static final int NUM_LOCK_STRIPES = 256;
+
+    private final StripedLock<BytesRef> keyedLock = new StripedLock<>(NUM_LOCK_STRIPES);
 
     private static final class VersionLookup {
 
@@ -466,8 +472,9 @@ final class LiveVersionMap implements ReferenceManager.RefreshListener, Accounta
     /**
      * Acquires a releaseable lock for the given uId. All *UnderLock methods require
      * this lock to be hold by the caller otherwise the visibility guarantees of this version
-     * map are broken. We assert on this lock to be hold when calling these methods.
-     * @see KeyedLock
+     * map are broken. We assert on this lock to be hold when calling these methods. Since locks are striped, callers must
+     * not acquire the lock of another uid while holding this lock.
+     * @see StripedLock
      */
     Releasable acquireLock(BytesRef uid) {
         return keyedLock.acquire(uid);
@@ -22,6 +22,8 @@ package org.elasticsearch.index.fielddata;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.util.Accountable;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.fielddata.ordinals.IncrementalOrdinalMap;
 import org.elasticsearch.index.shard.ShardId;
 
 /**
@@ -34,6 +36,15 @@ public interface IndexFieldDataCache {
     <FD extends AtomicFieldData, IFD extends IndexFieldData.Global<FD>> IFD load(DirectoryReader indexReader, IFD indexFieldData)
         throws Exception;
 
+    /**
+     * Returns the ordinal map of the global ordinals of the most recent reader of the shard of the provided reader that is
+     * still open, or {@code null} if there are none. The global ordinals of a new reader of the shard can be built incrementally from it.
+     */
+    @Nullable
+    default IncrementalOrdinalMap lastOrdinalMap(DirectoryReader indexReader) {
+        return null;
+    }
+
     /**
      * Clears all the field data stored cached in on this index.
      */
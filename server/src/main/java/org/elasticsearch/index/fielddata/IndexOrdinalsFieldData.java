@@ -22,6 +22,7 @@ package org.elasticsearch.index.fielddata;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.util.LongValues;
 
 
 /**
@@ -47,4 +48,13 @@ public interface IndexOrdinalsFieldData extends IndexFieldData.Global<AtomicOrdi
      * or null if global ordinals are not needed (constant value or single segment).
      */
     OrdinalMap getOrdinalMap();
+
+    /**
+     * Returns the mapping from the ordinals of the segment at the provided index to global ordinals
+     * or null if global ordinals are not needed (constant value or single segment).
+     */
+    default LongValues getGlobalOrds(int segmentIndex) {
+        final OrdinalMap ordinalMap = getOrdinalMap();
+        return ordinalMap == null ? null : ordinalMap.getGlobalOrds(segmentIndex);
+    }
 }
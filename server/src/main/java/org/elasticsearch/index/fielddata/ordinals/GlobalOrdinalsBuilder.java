@@ -22,10 +22,9 @@ package org.elasticsearch.index.fielddata.ordinals;
 import org.apache.logging.log4j.Logger;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.util.Accountable;
-import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.IndexSettings;
@@ -53,6 +52,16 @@ public enum GlobalOrdinalsBuilder {
     public static IndexOrdinalsFieldData build(final IndexReader indexReader, IndexOrdinalsFieldData indexFieldData,
             IndexSettings indexSettings, CircuitBreakerService breakerService, Logger logger,
             Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction) throws IOException {
+        return build(indexReader, indexFieldData, null, indexSettings, breakerService, logger, scriptFunction);
+    }
+
+    /**
+     * Build global ordinals for the provided {@link IndexReader}, incrementally from the global ordinals of a previous reader of
+     * the same shard if provided and possible.
+     */
+    public static IndexOrdinalsFieldData build(final IndexReader indexReader, IndexOrdinalsFieldData indexFieldData,
+            @Nullable IncrementalOrdinalMap previous, IndexSettings indexSettings, CircuitBreakerService breakerService,
+            Logger logger, Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction) throws IOException {
         assert indexReader.leaves().size() > 1;
         long startTimeNS = System.nanoTime();
 
@@ -62,16 +71,21 @@ public enum GlobalOrdinalsBuilder {
             atomicFD[i] = indexFieldData.load(indexReader.leaves().get(i));
             subs[i] = atomicFD[i].getOrdinalsValues();
         }
-        final OrdinalMap ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
+        IncrementalOrdinalMap ordinalMap = previous == null ? null : IncrementalOrdinalMap.update(previous, indexReader.leaves(), subs);
+        final boolean incremental = ordinalMap != null;
+        if (incremental == false) {
+            ordinalMap = IncrementalOrdinalMap.build(indexReader.leaves(), subs);
+        }
         final long memorySizeInBytes = ordinalMap.ramBytesUsed();
         breakerService.getBreaker(CircuitBreaker.FIELDDATA).addWithoutBreaking(memorySizeInBytes);
 
         if (logger.isDebugEnabled()) {
             logger.debug(
-                    "global-ordinals [{}][{}] took [{}]",
+                    "global-ordinals [{}][{}] took [{}]{}",
                     indexFieldData.getFieldName(),
                     ordinalMap.getValueCount(),
-                    new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS)
+                    new TimeValue(System.nanoTime() - startTimeNS, TimeUnit.NANOSECONDS),
+                    incremental ? " (incremental)" : ""
             );
         }
         return new GlobalOrdinalsIndexFieldData(indexSettings, indexFieldData.getFieldName(),
@@ -108,7 +122,7 @@ public enum GlobalOrdinalsBuilder {
             };
             subs[i] = atomicFD[i].getOrdinalsValues();
         }
-        final OrdinalMap ordinalMap = OrdinalMap.build(null, subs, PackedInts.DEFAULT);
+        final IncrementalOrdinalMap ordinalMap = IncrementalOrdinalMap.build(indexReader.leaves(), subs);
         return new GlobalOrdinalsIndexFieldData(indexSettings, indexFieldData.getFieldName(),
                 atomicFD, ordinalMap, 0, AbstractAtomicOrdinalsFieldData.DEFAULT_SCRIPT_FUNCTION
         );
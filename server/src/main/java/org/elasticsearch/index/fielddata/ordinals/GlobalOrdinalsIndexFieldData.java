@@ -24,6 +24,7 @@ import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.LongValues;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.index.AbstractIndexComponent;
 import org.elasticsearch.index.IndexSettings;
@@ -35,6 +36,8 @@ import org.elasticsearch.index.fielddata.ScriptDocValues;
 import org.elasticsearch.index.fielddata.plain.AbstractAtomicOrdinalsFieldData;
 import org.elasticsearch.search.MultiValueMode;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.function.Function;
@@ -47,13 +50,13 @@ public class GlobalOrdinalsIndexFieldData extends AbstractIndexComponent impleme
     private final String fieldName;
     private final long memorySizeInBytes;
 
-    private final OrdinalMap ordinalMap;
+    private final IncrementalOrdinalMap ordinalMap;
     private final Atomic[] atomicReaders;
     private final Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction;
 
 
     protected GlobalOrdinalsIndexFieldData(IndexSettings indexSettings, String fieldName, AtomicOrdinalsFieldData[] segmentAfd,
-                                           OrdinalMap ordinalMap, long memorySizeInBytes, Function<SortedSetDocValues,
+                                           IncrementalOrdinalMap ordinalMap, long memorySizeInBytes, Function<SortedSetDocValues,
                                            ScriptDocValues<?>> scriptFunction) {
         super(indexSettings);
         this.fieldName = fieldName;
@@ -112,18 +115,45 @@ public class GlobalOrdinalsIndexFieldData extends AbstractIndexComponent impleme
         return atomicReaders[context.ord];
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If the global ordinals were built incrementally, the {@link OrdinalMap} is built from scratch on every call, prefer
+     * {@link #getGlobalOrds(int)} to map segment ordinals to global ordinals.
+     */
     @Override
     public OrdinalMap getOrdinalMap() {
+        final SortedSetDocValues[] values = new SortedSetDocValues[atomicReaders.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = atomicReaders[i].afd.getOrdinalsValues();
+        }
+        try {
+            return ordinalMap.toOrdinalMap(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public LongValues getGlobalOrds(int segmentIndex) {
+        return ordinalMap.getGlobalOrds(segmentIndex);
+    }
+
+    /**
+     * Returns the mapping of segment ordinals to global ordinals, which the global ordinals of the next reader of the shard
+     * can be built incrementally from.
+     */
+    public IncrementalOrdinalMap getIncrementalOrdinalMap() {
         return ordinalMap;
     }
 
     private final class Atomic extends AbstractAtomicOrdinalsFieldData {
 
         private final AtomicOrdinalsFieldData afd;
-        private final OrdinalMap ordinalMap;
+        private final IncrementalOrdinalMap ordinalMap;
         private final int segmentIndex;
 
-        private Atomic(AtomicOrdinalsFieldData afd, OrdinalMap ordinalMap, int segmentIndex) {
+        private Atomic(AtomicOrdinalsFieldData afd, IncrementalOrdinalMap ordinalMap, int segmentIndex) {
             super(scriptFunction);
             this.afd = afd;
             this.ordinalMap = ordinalMap;
@@ -0,0 +1,272 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.ordinals;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.packed.PackedInts;
+import org.elasticsearch.common.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the ordinals of the segments of a shard to global ordinals like an {@link OrdinalMap}, but that can be updated
+ * incrementally when new segments are added to the shard.
+ * <p>
+ * A full build merges the terms of all segments into an {@link OrdinalMap}. An incremental build keeps the mapping of the
+ * segments that the previous map already covers to the previous global ordinals, and merges the previous global ordinals
+ * with the terms of the new segments only, into an {@link OrdinalMap} whose first sub maps previous global ordinals to new
+ * global ordinals. Every incremental build adds an indirection to the mapping of the segments that it reuses, so an
+ * incremental build is only possible up to {@link #MAX_DEPTH} times in a row and only if all the segments of the previous map
+ * are still there, which is no longer the case once segments are merged.
+ */
+public final class IncrementalOrdinalMap implements Accountable {
+
+    /**
+     * The maximum number of incremental builds in a row.
+     */
+    static final int MAX_DEPTH = 4;
+
+    private static final long BASE_RAM_BYTES_USED = RamUsageEstimator.shallowSizeOfInstance(IncrementalOrdinalMap.class);
+
+    // the core cache key and the number of terms of each segment, to find out which segments are reused by the next build
+    private final IndexReader.CacheKey[] segmentKeys;
+    private final long[] segmentValueCounts;
+    // the map of all segments, or of the previous global ordinals (first sub) and of the new segments, null if there are none
+    private final OrdinalMap ordinalMap;
+    private final IncrementalOrdinalMap previous;
+    // the index of each segment in the previous map, or -1 if the segment is new
+    private final int[] previousSegments;
+    // the index of each segment of the previous map in this map
+    private final int[] segmentsOfPrevious;
+    // the index of each segment in the ordinal map, or -1 if the segment is reused, and the other way around
+    private final int[] subs;
+    private final int[] subSegments;
+    private final int depth;
+
+    private IncrementalOrdinalMap(IndexReader.CacheKey[] segmentKeys, long[] segmentValueCounts, @Nullable OrdinalMap ordinalMap,
+                                  @Nullable IncrementalOrdinalMap previous, int[] previousSegments, int[] segmentsOfPrevious,
+                                  int[] subs, int[] subSegments) {
+        this.segmentKeys = segmentKeys;
+        this.segmentValueCounts = segmentValueCounts;
+        this.ordinalMap = ordinalMap;
+        this.previous = previous;
+        this.previousSegments = previousSegments;
+        this.segmentsOfPrevious = segmentsOfPrevious;
+        this.subs = subs;
+        this.subSegments = subSegments;
+        this.depth = previous == null ? 0 : previous.depth + 1;
+    }
+
+    /**
+     * Builds the map of the provided segments in full.
+     */
+    public static IncrementalOrdinalMap build(List<LeafReaderContext> leaves, SortedSetDocValues[] values) throws IOException {
+        final OrdinalMap ordinalMap = OrdinalMap.build(null, values, PackedInts.DEFAULT);
+        final int[] subs = new int[values.length];
+        Arrays.setAll(subs, i -> i);
+        final int[] previousSegments = new int[values.length];
+        Arrays.fill(previousSegments, -1);
+        return new IncrementalOrdinalMap(segmentKeys(leaves), valueCounts(values), ordinalMap, null, previousSegments, new int[0],
+            subs, subs);
+    }
+
+    /**
+     * Builds the map of the provided segments incrementally from the map of a previous reader of the same shard, or returns
+     * {@code null} if the map must be built in full.
+     */
+    @Nullable
+    public static IncrementalOrdinalMap update(IncrementalOrdinalMap previous, List<LeafReaderContext> leaves,
+                                               SortedSetDocValues[] values) throws IOException {
+        if (previous.depth >= MAX_DEPTH) {
+            return null;
+        }
+        final Map<IndexReader.CacheKey, Integer> previousSegmentsByKey = new HashMap<>();
+        for (int i = 0; i < previous.segmentKeys.length; i++) {
+            if (previous.segmentKeys[i] == null) {
+                return null;
+            }
+            previousSegmentsByKey.put(previous.segmentKeys[i], i);
+        }
+        final IndexReader.CacheKey[] segmentKeys = segmentKeys(leaves);
+        final long[] segmentValueCounts = valueCounts(values);
+        final int[] previousSegments = new int[values.length];
+        final int[] segmentsOfPrevious = new int[previous.segmentKeys.length];
+        final int[] subs = new int[values.length];
+        Arrays.fill(segmentsOfPrevious, -1);
+        int reused = 0;
+        int numSubs = 1;
+        for (int i = 0; i < values.length; i++) {
+            final Integer previousSegment = segmentKeys[i] == null ? null : previousSegmentsByKey.get(segmentKeys[i]);
+            if (previousSegment != null && segmentsOfPrevious[previousSegment] == -1
+                    && previous.segmentValueCounts[previousSegment] == segmentValueCounts[i]) {
+                previousSegments[i] = previousSegment;
+                segmentsOfPrevious[previousSegment] = i;
+                subs[i] = -1;
+                reused++;
+            } else {
+                previousSegments[i] = -1;
+                subs[i] = numSubs++;
+            }
+        }
+        if (reused < previous.segmentKeys.length) {
+            // some segments were merged away, their terms may be gone
+            return null;
+        }
+        if (numSubs == 1) {
+            // same segments, only deletes changed
+            return new IncrementalOrdinalMap(segmentKeys, segmentValueCounts, null, previous, previousSegments, segmentsOfPrevious,
+                subs, new int[0]);
+        }
+        final SortedSetDocValues[] previousValues = new SortedSetDocValues[segmentsOfPrevious.length];
+        for (int i = 0; i < previousValues.length; i++) {
+            previousValues[i] = values[segmentsOfPrevious[i]];
+        }
+        final SortedSetDocValues[] subValues = new SortedSetDocValues[numSubs];
+        final int[] subSegments = new int[numSubs];
+        subValues[0] = new GlobalOrdinalMapping(previous, previousValues, 0);
+        subSegments[0] = -1;
+        for (int i = 0; i < values.length; i++) {
+            if (subs[i] != -1) {
+                subValues[subs[i]] = values[i];
+                subSegments[subs[i]] = i;
+            }
+        }
+        final OrdinalMap ordinalMap = OrdinalMap.build(null, subValues, PackedInts.DEFAULT);
+        return new IncrementalOrdinalMap(segmentKeys, segmentValueCounts, ordinalMap, previous, previousSegments, segmentsOfPrevious,
+            subs, subSegments);
+    }
+
+    private static IndexReader.CacheKey[] segmentKeys(List<LeafReaderContext> leaves) {
+        final IndexReader.CacheKey[] segmentKeys = new IndexReader.CacheKey[leaves.size()];
+        for (int i = 0; i < segmentKeys.length; i++) {
+            final IndexReader.CacheHelper cacheHelper = leaves.get(i).reader().getCoreCacheHelper();
+            segmentKeys[i] = cacheHelper == null ? null : cacheHelper.getKey();
+        }
+        return segmentKeys;
+    }
+
+    private static long[] valueCounts(SortedSetDocValues[] values) {
+        final long[] valueCounts = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            valueCounts[i] = values[i].getValueCount();
+        }
+        return valueCounts;
+    }
+
+    /**
+     * Returns whether this map was built incrementally.
+     */
+    public boolean isIncremental() {
+        return previous != null;
+    }
+
+    /**
+     * Returns the {@link OrdinalMap} of the provided segments, which is this map's own if it was built in full and is built
+     * from scratch otherwise.
+     */
+    public OrdinalMap toOrdinalMap(SortedSetDocValues[] values) throws IOException {
+        if (previous == null) {
+            return ordinalMap;
+        }
+        return OrdinalMap.build(null, values, PackedInts.DEFAULT);
+    }
+
+    /**
+     * Returns the total number of unique terms in the global ord space.
+     */
+    public long getValueCount() {
+        return ordinalMap == null ? previous.getValueCount() : ordinalMap.getValueCount();
+    }
+
+    /**
+     * Returns the mapping from the ordinals of the provided segment to global ordinals.
+     */
+    public LongValues getGlobalOrds(int segmentIndex) {
+        final int previousSegment = previousSegments[segmentIndex];
+        if (previousSegment == -1) {
+            return ordinalMap.getGlobalOrds(subs[segmentIndex]);
+        }
+        final LongValues previousGlobalOrds = previous.getGlobalOrds(previousSegment);
+        if (ordinalMap == null) {
+            return previousGlobalOrds;
+        }
+        final LongValues previousToGlobalOrds = ordinalMap.getGlobalOrds(0);
+        return new LongValues() {
+            @Override
+            public long get(long index) {
+                return previousToGlobalOrds.get(previousGlobalOrds.get(index));
+            }
+        };
+    }
+
+    /**
+     * Returns the index of a segment that contains the term of the provided global ordinal.
+     */
+    public int getFirstSegmentNumber(long globalOrd) {
+        if (ordinalMap == null) {
+            return segmentsOfPrevious[previous.getFirstSegmentNumber(globalOrd)];
+        }
+        final int sub = ordinalMap.getFirstSegmentNumber(globalOrd);
+        if (previous != null && sub == 0) {
+            return segmentsOfPrevious[previous.getFirstSegmentNumber(ordinalMap.getFirstSegmentOrd(globalOrd))];
+        }
+        return subSegments[sub];
+    }
+
+    /**
+     * Returns the ordinal of the term of the provided global ordinal in the segment returned by
+     * {@link #getFirstSegmentNumber(long)}.
+     */
+    public long getFirstSegmentOrd(long globalOrd) {
+        if (ordinalMap == null) {
+            return previous.getFirstSegmentOrd(globalOrd);
+        }
+        if (previous != null && ordinalMap.getFirstSegmentNumber(globalOrd) == 0) {
+            return previous.getFirstSegmentOrd(ordinalMap.getFirstSegmentOrd(globalOrd));
+        }
+        return ordinalMap.getFirstSegmentOrd(globalOrd);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        long size = BASE_RAM_BYTES_USED + RamUsageEstimator.shallowSizeOf(segmentKeys) + RamUsageEstimator.sizeOf(segmentValueCounts)
+            + RamUsageEstimator.sizeOf(previousSegments) + RamUsageEstimator.sizeOf(segmentsOfPrevious)
+            + RamUsageEstimator.sizeOf(subs) + RamUsageEstimator.sizeOf(subSegments);
+        if (ordinalMap != null) {
+            size += ordinalMap.ramBytesUsed();
+        }
+        // the previous maps stay referenced once their readers are closed, so they are counted again. This counts them twice while
+        // the previous readers are open, which is bounded by MAX_DEPTH and errs on the safe side for the circuit breaker.
+        if (previous != null) {
+            size += previous.ramBytesUsed();
+        }
+        return size;
+    }
+}
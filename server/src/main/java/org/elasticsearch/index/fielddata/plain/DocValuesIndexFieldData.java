@@ -71,6 +71,7 @@ public abstract class DocValuesIndexFieldData {
 
         private NumericType numericType;
         private Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction = AbstractAtomicOrdinalsFieldData.DEFAULT_SCRIPT_FUNCTION;
+        private boolean incrementalGlobalOrdinals = true;
 
         public Builder numericType(NumericType type) {
             this.numericType = type;
@@ -82,6 +83,15 @@ public abstract class DocValuesIndexFieldData {
             return this;
         }
 
+        /**
+         * Sets whether global ordinals may be built incrementally, which should be disabled for fields whose
+         * {@link org.apache.lucene.index.OrdinalMap} is used directly.
+         */
+        public Builder incrementalGlobalOrdinals(boolean incrementalGlobalOrdinals) {
+            this.incrementalGlobalOrdinals = incrementalGlobalOrdinals;
+            return this;
+        }
+
         @Override
         public IndexFieldData<?> build(IndexSettings indexSettings, MappedFieldType fieldType, IndexFieldDataCache cache,
                                        CircuitBreakerService breakerService, MapperService mapperService) {
@@ -93,7 +103,8 @@ public abstract class DocValuesIndexFieldData {
             } else if (numericType != null) {
                 return new SortedNumericDVIndexFieldData(indexSettings.getIndex(), fieldName, numericType);
             } else {
-                return new SortedSetDVOrdinalsIndexFieldData(indexSettings, cache, fieldName, breakerService, scriptFunction);
+                return new SortedSetDVOrdinalsIndexFieldData(indexSettings, cache, fieldName, breakerService, scriptFunction,
+                    incrementalGlobalOrdinals);
             }
         }
 
@@ -38,6 +38,7 @@ import org.elasticsearch.index.fielddata.IndexOrdinalsFieldData;
 import org.elasticsearch.index.fielddata.ScriptDocValues;
 import org.elasticsearch.index.fielddata.fieldcomparator.BytesRefFieldComparatorSource;
 import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsBuilder;
+import org.elasticsearch.index.fielddata.ordinals.IncrementalOrdinalMap;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.search.MultiValueMode;
 
@@ -50,15 +51,28 @@ public class SortedSetDVOrdinalsIndexFieldData extends DocValuesIndexFieldData i
     private final IndexFieldDataCache cache;
     private final CircuitBreakerService breakerService;
     private final Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction;
+    private final boolean incrementalGlobalOrdinals;
     private static final Logger logger = LogManager.getLogger(SortedSetDVOrdinalsIndexFieldData.class);
 
     public SortedSetDVOrdinalsIndexFieldData(IndexSettings indexSettings, IndexFieldDataCache cache, String fieldName,
             CircuitBreakerService breakerService, Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction) {
+        this(indexSettings, cache, fieldName, breakerService, scriptFunction, true);
+    }
+
+    /**
+     * @param incrementalGlobalOrdinals whether global ordinals may be built incrementally from the global ordinals of the previous
+     *                                  reader of the shard, which requires to build the {@link OrdinalMap} returned by
+     *                                  {@link #getOrdinalMap()} on every call
+     */
+    public SortedSetDVOrdinalsIndexFieldData(IndexSettings indexSettings, IndexFieldDataCache cache, String fieldName,
+            CircuitBreakerService breakerService, Function<SortedSetDocValues, ScriptDocValues<?>> scriptFunction,
+            boolean incrementalGlobalOrdinals) {
         super(indexSettings.getIndex(), fieldName);
         this.indexSettings = indexSettings;
         this.cache = cache;
         this.breakerService = breakerService;
         this.scriptFunction = scriptFunction;
+        this.incrementalGlobalOrdinals = incrementalGlobalOrdinals;
     }
 
     @Override
@@ -127,7 +141,8 @@ public class SortedSetDVOrdinalsIndexFieldData extends DocValuesIndexFieldData i
 
     @Override
     public IndexOrdinalsFieldData localGlobalDirect(DirectoryReader indexReader) throws Exception {
-        return GlobalOrdinalsBuilder.build(indexReader, this, indexSettings, breakerService, logger, scriptFunction);
+        final IncrementalOrdinalMap previous = incrementalGlobalOrdinals ? cache.lastOrdinalMap(indexReader) : null;
+        return GlobalOrdinalsBuilder.build(indexReader, this, previous, indexSettings, breakerService, logger, scriptFunction);
     }
 
     @Override
@@ -314,6 +314,24 @@ public class DateFieldMapper extends FieldMapper {
         public Relation isFieldWithinQuery(IndexReader reader, Object from, Object to, boolean includeLower, boolean includeUpper,
                                            DateTimeZone timeZone, DateMathParser dateParser,
                                            QueryRewriteContext context) throws IOException {
+            if (PointValues.size(reader, name()) == 0) {
+                // no points, so nothing matches
+                return isFieldWithinQuery(Long.MAX_VALUE, Long.MIN_VALUE, from, to, includeLower, includeUpper, timeZone, dateParser,
+                    context);
+            }
+            long minValue = LongPoint.decodeDimension(PointValues.getMinPackedValue(reader, name()), 0);
+            long maxValue = LongPoint.decodeDimension(PointValues.getMaxPackedValue(reader, name()), 0);
+            return isFieldWithinQuery(minValue, maxValue, from, to, includeLower, includeUpper, timeZone, dateParser, context);
+        }
+
+        /**
+         * Same as {@link #isFieldWithinQuery(IndexReader, Object, Object, boolean, boolean, DateTimeZone, DateMathParser,
+         * QueryRewriteContext)} for a field whose values are all between <code>minValue</code> and <code>maxValue</code>.
+         * A <code>minValue</code> that is greater than the <code>maxValue</code> means that the field has no values.
+         */
+        public Relation isFieldWithinQuery(long minValue, long maxValue, Object from, Object to, boolean includeLower,
+                                           boolean includeUpper, DateTimeZone timeZone, DateMathParser dateParser,
+                                           QueryRewriteContext context) {
             if (dateParser == null) {
                 dateParser = this.dateMathParser;
             }
@@ -342,15 +360,12 @@ public class DateFieldMapper extends FieldMapper {
 
             // This check needs to be done after fromInclusive and toInclusive
             // are resolved so we can throw an exception if they are invalid
-            // even if there are no points in the shard
-            if (PointValues.size(reader, name()) == 0) {
-                // no points, so nothing matches
+            // even if there are no values
+            if (minValue > maxValue) {
+                // no values, so nothing matches
                 return Relation.DISJOINT;
             }
 
-            long minValue = LongPoint.decodeDimension(PointValues.getMinPackedValue(reader, name()), 0);
-            long maxValue = LongPoint.decodeDimension(PointValues.getMaxPackedValue(reader, name()), 0);
-
             if (minValue >= fromInclusive && maxValue <= toInclusive) {
                 return Relation.WITHIN;
             } else if (maxValue < fromInclusive || minValue > toInclusive) {
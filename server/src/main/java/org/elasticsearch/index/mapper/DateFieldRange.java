@@ -0,0 +1,128 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.PointValues;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.time.DateFormatter;
+import org.elasticsearch.common.time.DateMathParser;
+import org.elasticsearch.index.query.QueryRewriteContext;
+import org.joda.time.DateTimeZone;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The minimum and maximum values of a {@code date} field in a shard, along with the format of the field, so that
+ * range queries on the field can be resolved without access to the shard.
+ */
+public final class DateFieldRange implements Writeable {
+
+    private final DateFieldMapper.DateFieldType fieldType;
+    private final long minValue;
+    private final long maxValue;
+
+    public DateFieldRange(String name, DateFormatter dateTimeFormatter, long minValue, long maxValue) {
+        this.fieldType = new DateFieldMapper.DateFieldType();
+        fieldType.setName(name);
+        fieldType.setDateTimeFormatter(dateTimeFormatter);
+        fieldType.freeze();
+        this.minValue = minValue;
+        this.maxValue = maxValue;
+    }
+
+    public DateFieldRange(StreamInput in) throws IOException {
+        this(in.readString(), DateFormatter.forPattern(in.readString()).withLocale(Locale.forLanguageTag(in.readString())),
+            in.readLong(), in.readLong());
+    }
+
+    /**
+     * Reads the range of values of the provided field from the points of the reader, or returns <code>null</code> if the
+     * field is not an indexed {@code date} field.
+     */
+    @Nullable
+    public static DateFieldRange fromReader(MappedFieldType fieldType, IndexReader reader) throws IOException {
+        if (fieldType instanceof DateFieldMapper.DateFieldType == false || fieldType.isSearchable() == false) {
+            return null;
+        }
+        final DateFormatter dateTimeFormatter = ((DateFieldMapper.DateFieldType) fieldType).dateTimeFormatter();
+        if (PointValues.size(reader, fieldType.name()) == 0) {
+            // an empty range, the field has no values
+            return new DateFieldRange(fieldType.name(), dateTimeFormatter, Long.MAX_VALUE, Long.MIN_VALUE);
+        }
+        return new DateFieldRange(fieldType.name(), dateTimeFormatter,
+            LongPoint.decodeDimension(PointValues.getMinPackedValue(reader, fieldType.name()), 0),
+            LongPoint.decodeDimension(PointValues.getMaxPackedValue(reader, fieldType.name()), 0));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeString(fieldType.name());
+        out.writeString(fieldType.dateTimeFormatter().pattern());
+        out.writeString(fieldType.dateTimeFormatter().locale().toLanguageTag());
+        out.writeLong(minValue);
+        out.writeLong(maxValue);
+    }
+
+    /**
+     * Returns whether the values of the field are within the provided range, see
+     * {@link MappedFieldType#isFieldWithinQuery(IndexReader, Object, Object, boolean, boolean, DateTimeZone, DateMathParser,
+     * QueryRewriteContext)}.
+     */
+    public MappedFieldType.Relation isFieldWithinQuery(Object from, Object to, boolean includeLower, boolean includeUpper,
+                                                       DateTimeZone timeZone, DateMathParser dateParser, QueryRewriteContext context) {
+        return fieldType.isFieldWithinQuery(minValue, maxValue, from, to, includeLower, includeUpper, timeZone, dateParser, context);
+    }
+
+    public String name() {
+        return fieldType.name();
+    }
+
+    public long getMinValue() {
+        return minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DateFieldRange that = (DateFieldRange) o;
+        return minValue == that.minValue && maxValue == that.maxValue && fieldType.equals(that.fieldType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fieldType, minValue, maxValue);
+    }
+}
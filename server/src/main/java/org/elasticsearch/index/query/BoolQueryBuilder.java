@@ -27,6 +27,8 @@ import org.apache.lucene.search.Query;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.ParsingException;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.lucene.search.Queries;
@@ -35,6 +37,8 @@ import org.elasticsearch.common.xcontent.XContentParser;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -412,6 +416,43 @@ public class BoolQueryBuilder extends AbstractQueryBuilder<BoolQueryBuilder> {
                 Objects.equals(filterClauses, other.filterClauses);
     }
 
+    /**
+     * Returns a copy of this query, and of the bool queries nested directly in its clauses, with the {@code filter} and
+     * {@code must_not} clauses sorted into a canonical order. These clauses do not contribute to the score, so the copy
+     * matches the same documents with the same scores as this query. It is used to key caches so that requests which
+     * only differ in the order of their filters share entries.
+     */
+    public BoolQueryBuilder canonicalClauseOrder() throws IOException {
+        BoolQueryBuilder canonical = new BoolQueryBuilder();
+        canonicalClauses(mustClauses, false).forEach(canonical::must);
+        canonicalClauses(mustNotClauses, true).forEach(canonical::mustNot);
+        canonicalClauses(filterClauses, true).forEach(canonical::filter);
+        canonicalClauses(shouldClauses, false).forEach(canonical::should);
+        canonical.adjustPureNegative = adjustPureNegative;
+        canonical.minimumShouldMatch = minimumShouldMatch;
+        canonical.boost(boost());
+        canonical.queryName(queryName());
+        return canonical;
+    }
+
+    private static List<QueryBuilder> canonicalClauses(List<QueryBuilder> clauses, boolean sort) throws IOException {
+        List<QueryBuilder> canonical = new ArrayList<>(clauses.size());
+        for (QueryBuilder clause : clauses) {
+            canonical.add(clause instanceof BoolQueryBuilder ? ((BoolQueryBuilder) clause).canonicalClauseOrder() : clause);
+        }
+        if (sort && canonical.size() > 1) {
+            // the serialized form is independent of how the clause was written, e.g. the order of its json keys
+            Map<QueryBuilder, BytesReference> sortKeys = new IdentityHashMap<>();
+            for (QueryBuilder clause : canonical) {
+                BytesStreamOutput out = new BytesStreamOutput();
+                out.writeNamedWriteable(clause);
+                sortKeys.put(clause, out.bytes());
+            }
+            canonical.sort(Comparator.comparing(sortKeys::get));
+        }
+        return canonical;
+    }
+
     @Override
     protected QueryBuilder doRewrite(QueryRewriteContext queryRewriteContext) throws IOException {
         BoolQueryBuilder newBuilder = new BoolQueryBuilder();
@@ -0,0 +1,51 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.query;
+
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.index.mapper.DateFieldRange;
+import org.elasticsearch.search.internal.ShardFieldRanges;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Context object used to rewrite the queries of a shard on the coordinating node, using the ranges of values that the
+ * shard published for some of its fields. Queries that can be resolved from these ranges are rewritten the same way as on
+ * the shard, all other queries are left unchanged.
+ */
+public class CoordinatorRewriteContext extends QueryRewriteContext {
+    private final ShardFieldRanges fieldRanges;
+
+    public CoordinatorRewriteContext(NamedXContentRegistry xContentRegistry, NamedWriteableRegistry writeableRegistry,
+                                     LongSupplier nowInMillis, ShardFieldRanges fieldRanges) {
+        super(xContentRegistry, writeableRegistry, null, nowInMillis);
+        this.fieldRanges = fieldRanges;
+    }
+
+    /**
+     * Returns the range of values of the provided field in the shard, or <code>null</code> if it is unknown.
+     */
+    @Nullable
+    public DateFieldRange getFieldRange(String fieldName) {
+        return fieldRanges.getFieldRange(fieldName);
+    }
+}
@@ -34,6 +34,7 @@ import org.elasticsearch.common.time.DateFormatter;
 import org.elasticsearch.common.time.DateMathParser;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.index.mapper.DateFieldRange;
 import org.elasticsearch.index.mapper.FieldNamesFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
@@ -438,6 +439,15 @@ public class RangeQueryBuilder extends AbstractQueryBuilder<RangeQueryBuilder> i
 
     // Overridable for testing only
     protected MappedFieldType.Relation getRelation(QueryRewriteContext queryRewriteContext) throws IOException {
+        if (queryRewriteContext instanceof CoordinatorRewriteContext) {
+            // the coordinating node may know the range of values of the field in the shard
+            final DateFieldRange fieldRange = ((CoordinatorRewriteContext) queryRewriteContext).getFieldRange(fieldName);
+            if (fieldRange == null) {
+                return MappedFieldType.Relation.INTERSECTS;
+            }
+            return fieldRange.isFieldWithinQuery(from, to, includeLower, includeUpper, timeZone, getForceDateParser(),
+                queryRewriteContext);
+        }
         QueryShardContext shardContext = queryRewriteContext.convertToShardContext();
         // If the context is null we are not on the shard and cannot
         // rewrite so just pretend there is an intersection so that the rewrite is a noop
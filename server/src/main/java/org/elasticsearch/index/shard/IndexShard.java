@@ -117,6 +117,7 @@ import org.elasticsearch.index.store.StoreStats;
 import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.index.translog.TranslogConfig;
 import org.elasticsearch.index.translog.TranslogStats;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.index.warmer.ShardIndexWarmerService;
 import org.elasticsearch.index.warmer.WarmerStats;
 import org.elasticsearch.indices.IndexingMemoryController;
@@ -159,6 +160,7 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
@@ -185,6 +187,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final IndexEventListener indexEventListener;
     private final QueryCachingPolicy cachingPolicy;
     private final Supplier<Sort> indexSortSupplier;
+    @Nullable
+    private final TranslogSyncCoordinator translogSyncCoordinator;
     // Package visible for testing
     final CircuitBreakerService circuitBreakerService;
 
@@ -214,6 +218,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final MeanMetric refreshMetric = new MeanMetric();
     private final MeanMetric flushMetric = new MeanMetric();
     private final CounterMetric periodicFlushMetric = new CounterMetric();
+    private final CounterMetric groupCommitOperationsMetric = new CounterMetric();
+    private final CounterMetric groupCommitSyncsMetric = new CounterMetric();
 
     private final ShardEventListener shardEventListener = new ShardEventListener();
 
@@ -264,7 +270,8 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
             List<SearchOperationListener> searchOperationListener,
             List<IndexingOperationListener> listeners,
             Runnable globalCheckpointSyncer,
-            CircuitBreakerService circuitBreakerService) throws IOException {
+            CircuitBreakerService circuitBreakerService,
+            @Nullable TranslogSyncCoordinator translogSyncCoordinator) throws IOException {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
         this.shardRouting = shardRouting;
@@ -296,6 +303,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         state = IndexShardState.CREATED;
         this.path = path;
         this.circuitBreakerService = circuitBreakerService;
+        this.translogSyncCoordinator = translogSyncCoordinator;
         /* create engine config */
         logger.debug("state: [CREATED]");
 
@@ -997,7 +1005,11 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     }
 
     public TranslogStats translogStats() {
-        return getEngine().getTranslogStats();
+        final TranslogStats translogStats = getEngine().getTranslogStats();
+        return new TranslogStats(translogStats.estimatedNumberOfOperations(), translogStats.getTranslogSizeInBytes(),
+            translogStats.getUncommittedOperations(), translogStats.getUncommittedSizeInBytes(), translogStats.getEarliestLastModifiedAge(),
+            groupCommitOperationsMetric.count(), groupCommitSyncsMetric.count(),
+            translogStats.getUncompressedSourceSizeInBytes(), translogStats.getCompressedSourceSizeInBytes());
     }
 
     public CompletionStats completionStats(String... fields) {
@@ -2593,18 +2605,29 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
     private final AsyncIOProcessor<Translog.Location> translogSyncProcessor = new AsyncIOProcessor<Translog.Location>(logger, 1024) {
         @Override
         protected void write(List<Tuple<Translog.Location, Consumer<Exception>>> candidates) throws IOException {
-            try {
-                getEngine().ensureTranslogSynced(candidates.stream().map(Tuple::v1));
-            } catch (AlreadyClosedException ex) {
-                // that's fine since we already synced everything on engine close - this also is conform with the methods
-                // documentation
-            } catch (IOException ex) { // if this fails we are in deep shit - fail the request
-                logger.debug("failed to sync translog", ex);
-                throw ex;
-            }
+            ensureTranslogSynced(candidates.stream().map(Tuple::v1));
         }
     };
 
+    // the identity of this target is used by the coordinator to group the pending syncs of this shard
+    private final TranslogSyncCoordinator.SyncTarget groupCommitSyncTarget = locations -> {
+        ensureTranslogSynced(locations.stream());
+        groupCommitOperationsMetric.inc(locations.size());
+        groupCommitSyncsMetric.inc();
+    };
+
+    private void ensureTranslogSynced(Stream<Translog.Location> locations) throws IOException {
+        try {
+            getEngine().ensureTranslogSynced(locations);
+        } catch (AlreadyClosedException ex) {
+            // that's fine since we already synced everything on engine close - this also is conform with the methods
+            // documentation
+        } catch (IOException ex) { // if this fails we are in deep shit - fail the request
+            logger.debug("failed to sync translog", ex);
+            throw ex;
+        }
+    }
+
     /**
      * Syncs the given location with the underlying storage unless already synced. This method might return immediately without
      * actually fsyncing the location until the sync listener is called. Yet, unless there is already another thread fsyncing
@@ -2613,10 +2636,16 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      * one thread blocking on the sync an all others can continue indexing.
      * NOTE: if the syncListener throws an exception when it's processed the exception will only be logged. Users should make sure that the
      * listener handles all exception cases internally.
+     * If node level group commit is enabled the sync is coalesced with the pending syncs of all shards on the same data path
+     * instead, see {@link TranslogSyncCoordinator}.
      */
     public final void sync(Translog.Location location, Consumer<Exception> syncListener) {
         verifyNotClosed();
-        translogSyncProcessor.put(location, syncListener);
+        if (translogSyncCoordinator != null) {
+            translogSyncCoordinator.sync(path.getRootDataPath(), groupCommitSyncTarget, location, syncListener);
+        } else {
+            translogSyncProcessor.put(location, syncListener);
+        }
     }
 
     public void sync() throws IOException {
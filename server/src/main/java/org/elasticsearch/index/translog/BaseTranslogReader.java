@@ -93,6 +93,14 @@ public abstract class BaseTranslogReader implements Comparable<BaseTranslogReade
         return new TranslogSnapshot(this, sizeInBytes());
     }
 
+    /**
+     * Creates a new snapshot of this reader that reads the translog file through a memory mapping if {@code preferMmap} is set and
+     * the generation can no longer change. Defaults to {@link #newSnapshot()}.
+     */
+    public TranslogSnapshot newSnapshot(boolean preferMmap) {
+        return newSnapshot();
+    }
+
     /**
      * reads an operation at the given position and returns it. The buffer length is equal to the number
      * of bytes reads.
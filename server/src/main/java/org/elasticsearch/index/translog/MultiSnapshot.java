@@ -20,6 +20,7 @@
 package org.elasticsearch.index.translog;
 
 import com.carrotsearch.hppc.LongObjectHashMap;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.seqno.CountedBitSet;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 
@@ -88,7 +89,11 @@ final class MultiSnapshot implements Translog.Snapshot {
 
     @Override
     public void close() throws IOException {
-        onClose.close();
+        try {
+            IOUtils.close(translogs);
+        } finally {
+            onClose.close();
+        }
     }
 
     static final class SeqNoSet {
@@ -27,12 +27,15 @@ import org.elasticsearch.common.UUIDs;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasablePagedBytesReference;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
@@ -130,6 +133,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     private final LongSupplier primaryTermSupplier;
     private final String translogUUID;
     private final TranslogDeletionPolicy deletionPolicy;
+    private final CounterMetric uncompressedSourceBytes = new CounterMetric();
+    private final CounterMetric compressedSourceBytes = new CounterMetric();
 
     /**
      * Creates a new Translog instance. This method will create a new transaction log unless the given {@link TranslogGeneration} is
@@ -524,7 +529,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         try {
             final long start = out.position();
             out.skip(Integer.BYTES);
-            writeOperationNoSize(new BufferedChecksumStreamOutput(out), operation);
+            final boolean compressSource = config.getIndexSettings().isTranslogCompressionEnabled();
+            writeOperationNoSize(new BufferedChecksumStreamOutput(out), operation, compressSource);
             final long end = out.position();
             final int operationSize = (int) (end - Integer.BYTES - start);
             out.seek(start);
@@ -612,7 +618,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
             }
             TranslogSnapshot[] snapshots = Stream.concat(readers.stream(), Stream.of(current))
                 .filter(reader -> reader.getGeneration() >= fromFileGen && reader.getCheckpoint().minSeqNo <= upToSeqNo)
-                .map(BaseTranslogReader::newSnapshot).toArray(TranslogSnapshot[]::new);
+                .map(this::newReaderSnapshot).toArray(TranslogSnapshot[]::new);
             final Snapshot snapshot = newMultiSnapshot(snapshots);
             if (upToSeqNo == Long.MAX_VALUE) {
                 return snapshot;
@@ -655,12 +661,16 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     public Snapshot newSnapshotFromMinSeqNo(long minSeqNo) throws IOException {
         try (ReleasableLock ignored = readLock.acquire()) {
             ensureOpen();
-            TranslogSnapshot[] snapshots = readersAboveMinSeqNo(minSeqNo).map(BaseTranslogReader::newSnapshot)
+            TranslogSnapshot[] snapshots = readersAboveMinSeqNo(minSeqNo).map(this::newReaderSnapshot)
                 .toArray(TranslogSnapshot[]::new);
             return newMultiSnapshot(snapshots);
         }
     }
 
+    private TranslogSnapshot newReaderSnapshot(BaseTranslogReader reader) {
+        return reader.newSnapshot(config.getIndexSettings().isTranslogMmapEnabled());
+    }
+
     private Snapshot newMultiSnapshot(TranslogSnapshot[] snapshots) throws IOException {
         final Closeable onClose;
         if (snapshots.length == 0) {
@@ -856,7 +866,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         try (ReleasableLock lock = readLock.acquire()) {
             final long uncommittedGen = deletionPolicy.getTranslogGenerationOfLastCommit();
             return new TranslogStats(totalOperations(), sizeInBytes(), totalOperationsByMinGen(uncommittedGen),
-                sizeInBytesByMinGen(uncommittedGen), earliestLastModifiedAge());
+                sizeInBytesByMinGen(uncommittedGen), earliestLastModifiedAge(), 0, 0,
+                uncompressedSourceBytes.count(), compressedSourceBytes.count());
         }
     }
 
@@ -1119,6 +1130,13 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         public static final int FORMAT_NO_PARENT = FORMAT_6_0 + 1; // since 7.0
         public static final int FORMAT_NO_VERSION_TYPE = FORMAT_NO_PARENT + 1;
         public static final int SERIALIZATION_FORMAT = FORMAT_NO_VERSION_TYPE;
+        /**
+         * Same as {@link #SERIALIZATION_FORMAT} followed by a byte of flags. Only ever written to translog files, operations that are
+         * sent over the wire always use {@link #SERIALIZATION_FORMAT}.
+         */
+        static final int FORMAT_FLAGS = FORMAT_NO_VERSION_TYPE + 1;
+
+        static final byte FLAG_COMPRESSED_SOURCE = 1;
 
         private final String id;
         private final long autoGeneratedIdTimestamp;
@@ -1132,9 +1150,17 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         private Index(final StreamInput in) throws IOException {
             final int format = in.readVInt(); // SERIALIZATION_FORMAT
             assert format >= FORMAT_6_0 : "format was: " + format;
+            final byte flags = format >= FORMAT_FLAGS ? in.readByte() : 0;
+            if ((flags & ~FLAG_COMPRESSED_SOURCE) != 0) {
+                throw new IllegalStateException("unknown flags [" + flags + "] for index operation");
+            }
             id = in.readString();
             type = in.readString();
-            source = in.readBytesReference();
+            if ((flags & FLAG_COMPRESSED_SOURCE) != 0) {
+                source = CompressorFactory.uncompress(in.readBytesReference());
+            } else {
+                source = in.readBytesReference();
+            }
             routing = in.readOptionalString();
             if (format < FORMAT_NO_PARENT) {
                 in.readOptionalString(); // _parent
@@ -1222,10 +1248,24 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
 
         private void write(final StreamOutput out) throws IOException {
             final int format = out.getVersion().onOrAfter(Version.V_7_0_0) ? SERIALIZATION_FORMAT : FORMAT_6_0;
+            write(out, format, (byte) 0, source);
+        }
+
+        /**
+         * Writes this operation with the given source, which must be compressed if the flags contain {@link #FLAG_COMPRESSED_SOURCE}.
+         * Flags can only be written with {@link #FORMAT_FLAGS}.
+         */
+        private void write(final StreamOutput out, final int format, final byte flags, final BytesReference sourceToWrite)
+            throws IOException {
+            assert format >= FORMAT_FLAGS || flags == 0 : "format [" + format + "] does not support flags";
+            assert (flags & FLAG_COMPRESSED_SOURCE) == 0 || CompressorFactory.isCompressed(sourceToWrite) : "source must be compressed";
             out.writeVInt(format);
+            if (format >= FORMAT_FLAGS) {
+                out.writeByte(flags);
+            }
             out.writeString(id);
             out.writeString(type);
-            out.writeBytesReference(source);
+            out.writeBytesReference(sourceToWrite);
             out.writeOptionalString(routing);
             if (format < FORMAT_NO_PARENT) {
                  out.writeOptionalString(null); // _parent
@@ -1618,6 +1658,41 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         out.writeInt((int) checksum);
     }
 
+    /**
+     * Writes the given operation to a translog file. If {@code compressSource} is set, the source of index operations is compressed
+     * unless compressing it does not make it any smaller. The compressed format never leaves the translog files: operations are
+     * decompressed when they are read back, so peer recoveries and resyncs send them in the regular format.
+     */
+    private void writeOperationNoSize(BufferedChecksumStreamOutput out, Translog.Operation op, boolean compressSource)
+        throws IOException {
+        if (compressSource == false || (op.opType() != Operation.Type.INDEX && op.opType() != Operation.Type.CREATE)) {
+            writeOperationNoSize(out, op);
+            return;
+        }
+        final Index index = (Index) op;
+        final BytesReference compressed = compressSource(index.source());
+        uncompressedSourceBytes.inc(index.source().length());
+        out.resetDigest();
+        out.writeByte(op.opType().id());
+        if (compressed.length() >= index.source().length()) {
+            compressedSourceBytes.inc(index.source().length());
+            index.write(out, Index.FORMAT_FLAGS, (byte) 0, index.source());
+        } else {
+            compressedSourceBytes.inc(compressed.length());
+            index.write(out, Index.FORMAT_FLAGS, Index.FLAG_COMPRESSED_SOURCE, compressed);
+        }
+        long checksum = out.getChecksum();
+        out.writeInt((int) checksum);
+    }
+
+    static BytesReference compressSource(BytesReference source) throws IOException {
+        final BytesStreamOutput bytes = new BytesStreamOutput();
+        try (StreamOutput compressed = CompressorFactory.COMPRESSOR.streamOutput(bytes)) {
+            source.writeTo(compressed);
+        }
+        return bytes.bytes();
+    }
+
     /**
      * Gets the minimum generation that could contain any sequence number after the specified sequence number, or the current generation if
      * there is no generation that could any such sequence number.
@@ -108,6 +108,15 @@ public class TranslogReader extends BaseTranslogReader implements Closeable {
         }
     }
 
+    @Override
+    public TranslogSnapshot newSnapshot(boolean preferMmap) {
+        if (preferMmap) {
+            // this generation is immutable, so it is safe to map it
+            return new TranslogSnapshot(this, sizeInBytes(), true);
+        }
+        return newSnapshot();
+    }
+
     public long sizeInBytes() {
         return length;
     }
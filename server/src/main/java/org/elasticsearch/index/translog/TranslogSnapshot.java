@@ -18,14 +18,19 @@
  */
 package org.elasticsearch.index.translog;
 
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.MMapDirectory;
 import org.elasticsearch.common.io.Channels;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 
+import java.io.Closeable;
 import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
-final class TranslogSnapshot extends BaseTranslogReader {
+final class TranslogSnapshot extends BaseTranslogReader implements Closeable {
 
     private final int totalOperations;
     private final Checkpoint checkpoint;
@@ -36,12 +41,24 @@ final class TranslogSnapshot extends BaseTranslogReader {
     private int skippedOperations;
     private int readOperations;
     private BufferedChecksumStreamInput reuse;
+    private final boolean mmap;
+    private MMapDirectory mappedDirectory;
+    private IndexInput mappedInput;
 
     /**
      * Create a snapshot of translog file channel.
      */
     TranslogSnapshot(final BaseTranslogReader reader, final long length) {
+        this(reader, length, false);
+    }
+
+    /**
+     * Create a snapshot of translog file channel. If {@code mmap} is set the file is read through a memory mapping instead of positional
+     * reads on the channel, which must only be used for generations that are no longer written to.
+     */
+    TranslogSnapshot(final BaseTranslogReader reader, final long length, final boolean mmap) {
         super(reader.generation, reader.channel, reader.path, reader.header);
+        this.mmap = mmap;
         this.length = length;
         this.totalOperations = reader.totalOperations();
         this.checkpoint = reader.getCheckpoint();
@@ -101,7 +118,33 @@ final class TranslogSnapshot extends BaseTranslogReader {
             throw new IOException("read requested before position of first ops. pos [" + position + "] first op on: [" +
                 getFirstOperationOffset() + "], generation: [" + getGeneration() + "], path: [" + path + "]");
         }
-        Channels.readFromFileChannelWithEofException(channel, position, buffer);
+        if (mmap) {
+            readMappedBytes(buffer, position);
+        } else {
+            Channels.readFromFileChannelWithEofException(channel, position, buffer);
+        }
+    }
+
+    private void readMappedBytes(ByteBuffer buffer, long position) throws IOException {
+        assert buffer.hasArray() : "mapped reads need a heap buffer";
+        if (mappedInput == null) {
+            // map lazily so that snapshots that are never consumed do not map their generation
+            mappedDirectory = new MMapDirectory(path.getParent());
+            mappedInput = mappedDirectory.openInput(path.getFileName().toString(), IOContext.READ);
+        }
+        if (position + buffer.remaining() > mappedInput.length()) {
+            throw new EOFException("read requested past EOF. pos [" + position + "] length [" + buffer.remaining() + "] file length: ["
+                + mappedInput.length() + "], generation: [" + getGeneration() + "], path: [" + path + "]");
+        }
+        mappedInput.seek(position);
+        mappedInput.readBytes(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        buffer.position(buffer.limit());
+    }
+
+    @Override
+    public void close() throws IOException {
+        // unmaps the generation if it was mapped
+        IOUtils.close(mappedInput, mappedDirectory);
     }
 
     @Override
@@ -112,6 +155,7 @@ final class TranslogSnapshot extends BaseTranslogReader {
                 ", estimateTotalOperations=" + totalOperations +
                 ", length=" + length +
                 ", generation=" + generation +
+                ", mmap=" + mmap +
                 ", reusableBuffer=" + reusableBuffer +
                 '}';
     }
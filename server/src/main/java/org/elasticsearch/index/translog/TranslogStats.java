@@ -36,12 +36,28 @@ public class TranslogStats implements Streamable, ToXContentFragment {
     private long uncommittedSizeInBytes;
     private int  uncommittedOperations;
     private long earliestLastModifiedAge;
+    private long groupCommitOperations;
+    private long groupCommitSyncs;
+    private long uncompressedSourceSizeInBytes;
+    private long compressedSourceSizeInBytes;
 
     public TranslogStats() {
     }
 
     public TranslogStats(int numberOfOperations, long translogSizeInBytes, int uncommittedOperations, long uncommittedSizeInBytes,
                          long earliestLastModifiedAge) {
+        this(numberOfOperations, translogSizeInBytes, uncommittedOperations, uncommittedSizeInBytes, earliestLastModifiedAge, 0, 0);
+    }
+
+    public TranslogStats(int numberOfOperations, long translogSizeInBytes, int uncommittedOperations, long uncommittedSizeInBytes,
+                         long earliestLastModifiedAge, long groupCommitOperations, long groupCommitSyncs) {
+        this(numberOfOperations, translogSizeInBytes, uncommittedOperations, uncommittedSizeInBytes, earliestLastModifiedAge,
+            groupCommitOperations, groupCommitSyncs, 0, 0);
+    }
+
+    public TranslogStats(int numberOfOperations, long translogSizeInBytes, int uncommittedOperations, long uncommittedSizeInBytes,
+                         long earliestLastModifiedAge, long groupCommitOperations, long groupCommitSyncs,
+                         long uncompressedSourceSizeInBytes, long compressedSourceSizeInBytes) {
         if (numberOfOperations < 0) {
             throw new IllegalArgumentException("numberOfOperations must be >= 0");
         }
@@ -57,11 +73,27 @@ public class TranslogStats implements Streamable, ToXContentFragment {
         if (earliestLastModifiedAge < 0) {
             throw new IllegalArgumentException("earliestLastModifiedAge must be >= 0");
         }
+        if (groupCommitOperations < 0) {
+            throw new IllegalArgumentException("groupCommitOperations must be >= 0");
+        }
+        if (groupCommitSyncs < 0) {
+            throw new IllegalArgumentException("groupCommitSyncs must be >= 0");
+        }
+        if (uncompressedSourceSizeInBytes < 0) {
+            throw new IllegalArgumentException("uncompressedSourceSizeInBytes must be >= 0");
+        }
+        if (compressedSourceSizeInBytes < 0) {
+            throw new IllegalArgumentException("compressedSourceSizeInBytes must be >= 0");
+        }
         this.numberOfOperations = numberOfOperations;
         this.translogSizeInBytes = translogSizeInBytes;
         this.uncommittedSizeInBytes = uncommittedSizeInBytes;
         this.uncommittedOperations = uncommittedOperations;
         this.earliestLastModifiedAge = earliestLastModifiedAge;
+        this.groupCommitOperations = groupCommitOperations;
+        this.groupCommitSyncs = groupCommitSyncs;
+        this.uncompressedSourceSizeInBytes = uncompressedSourceSizeInBytes;
+        this.compressedSourceSizeInBytes = compressedSourceSizeInBytes;
     }
 
     public void add(TranslogStats translogStats) {
@@ -75,6 +107,10 @@ public class TranslogStats implements Streamable, ToXContentFragment {
         this.uncommittedSizeInBytes += translogStats.uncommittedSizeInBytes;
         this.earliestLastModifiedAge =
             Math.min(this.earliestLastModifiedAge, translogStats.earliestLastModifiedAge);
+        this.groupCommitOperations += translogStats.groupCommitOperations;
+        this.groupCommitSyncs += translogStats.groupCommitSyncs;
+        this.uncompressedSourceSizeInBytes += translogStats.uncompressedSourceSizeInBytes;
+        this.compressedSourceSizeInBytes += translogStats.compressedSourceSizeInBytes;
     }
 
     public long getTranslogSizeInBytes() {
@@ -97,6 +133,26 @@ public class TranslogStats implements Streamable, ToXContentFragment {
 
     public long getEarliestLastModifiedAge() { return earliestLastModifiedAge; }
 
+    /** the number of translog sync requests that were served by a node level group commit */
+    public long getGroupCommitOperations() {
+        return groupCommitOperations;
+    }
+
+    /** the number of translog fsyncs that were issued by node level group commits */
+    public long getGroupCommitSyncs() {
+        return groupCommitSyncs;
+    }
+
+    /** the size of the sources of index operations that were written to the translog with compression enabled, before compression */
+    public long getUncompressedSourceSizeInBytes() {
+        return uncompressedSourceSizeInBytes;
+    }
+
+    /** the size of the sources of index operations that were written to the translog with compression enabled, as written */
+    public long getCompressedSourceSizeInBytes() {
+        return compressedSourceSizeInBytes;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("translog");
@@ -105,6 +161,12 @@ public class TranslogStats implements Streamable, ToXContentFragment {
         builder.field("uncommitted_operations", uncommittedOperations);
         builder.humanReadableField("uncommitted_size_in_bytes", "uncommitted_size", new ByteSizeValue(uncommittedSizeInBytes));
         builder.field("earliest_last_modified_age", earliestLastModifiedAge);
+        builder.field("group_commit_operations", groupCommitOperations);
+        builder.field("group_commit_syncs", groupCommitSyncs);
+        builder.humanReadableField("uncompressed_source_size_in_bytes", "uncompressed_source_size",
+            new ByteSizeValue(uncompressedSourceSizeInBytes));
+        builder.humanReadableField("compressed_source_size_in_bytes", "compressed_source_size",
+            new ByteSizeValue(compressedSourceSizeInBytes));
         builder.endObject();
         return builder;
     }
@@ -128,6 +190,12 @@ public class TranslogStats implements Streamable, ToXContentFragment {
         if (in.getVersion().onOrAfter(Version.V_6_3_0)) {
             earliestLastModifiedAge = in.readVLong();
         }
+        if (in.getVersion().onOrAfter(Version.V_7_0_0)) {
+            groupCommitOperations = in.readVLong();
+            groupCommitSyncs = in.readVLong();
+            uncompressedSourceSizeInBytes = in.readVLong();
+            compressedSourceSizeInBytes = in.readVLong();
+        }
     }
 
     @Override
@@ -141,5 +209,11 @@ public class TranslogStats implements Streamable, ToXContentFragment {
         if (out.getVersion().onOrAfter(Version.V_6_3_0)) {
             out.writeVLong(earliestLastModifiedAge);
         }
+        if (out.getVersion().onOrAfter(Version.V_7_0_0)) {
+            out.writeVLong(groupCommitOperations);
+            out.writeVLong(groupCommitSyncs);
+            out.writeVLong(uncompressedSourceSizeInBytes);
+            out.writeVLong(compressedSourceSizeInBytes);
+        }
     }
 }
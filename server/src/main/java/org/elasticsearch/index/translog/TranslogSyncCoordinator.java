@@ -0,0 +1,174 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * A node level coordinator that coalesces translog fsyncs of all shards that share the same data path into a single flush window.
+ * Shards using {@link Translog.Durability#REQUEST} durability fsync their translog after every write request. Each shard already
+ * batches concurrent syncs on its own translog, yet with many shards per node every shard issues an independent stream of fsyncs
+ * to the same disk. The coordinator collects the pending sync requests of all shards on a data path for at most
+ * {@link #GROUP_COMMIT_MAX_LATENCY_SETTING} and then syncs every shard that has pending requests once, serializing the fsyncs
+ * issued to that data path. Flush windows are always processed on the generic thread pool, never on the thread that requests the
+ * sync. A max latency of {@code 0} hands the flush window over right away, batching only requests that arrive before it starts or
+ * while another flush on the same data path is in progress.
+ */
+public final class TranslogSyncCoordinator {
+
+    private static final Logger logger = LogManager.getLogger(TranslogSyncCoordinator.class);
+
+    public static final Setting<Boolean> GROUP_COMMIT_ENABLED_SETTING =
+        Setting.boolSetting("indices.translog.group_commit.enabled", false, Property.NodeScope);
+
+    public static final Setting<TimeValue> GROUP_COMMIT_MAX_LATENCY_SETTING =
+        Setting.timeSetting("indices.translog.group_commit.max_latency", TimeValue.timeValueMillis(2), TimeValue.ZERO,
+            Property.NodeScope);
+
+    /**
+     * The per shard entry point the coordinator uses to fsync the translog of a shard up to the given locations.
+     */
+    @FunctionalInterface
+    public interface SyncTarget {
+        void syncTranslog(List<Translog.Location> locations) throws IOException;
+    }
+
+    private final ThreadPool threadPool;
+    private final TimeValue maxLatency;
+    private final ConcurrentMap<Path, DataPathQueue> queues = ConcurrentCollections.newConcurrentMap();
+
+    public TranslogSyncCoordinator(Settings settings, ThreadPool threadPool) {
+        this.threadPool = threadPool;
+        this.maxLatency = GROUP_COMMIT_MAX_LATENCY_SETTING.get(settings);
+    }
+
+    /**
+     * Returns a coordinator if group commit is enabled in the given node settings, otherwise <code>null</code>
+     */
+    public static TranslogSyncCoordinator create(Settings settings, ThreadPool threadPool) {
+        return GROUP_COMMIT_ENABLED_SETTING.get(settings) ? new TranslogSyncCoordinator(settings, threadPool) : null;
+    }
+
+    /**
+     * Syncs the given location of the given target with the next flush window of the given data path. The listener is notified once
+     * the location is synced or the sync failed. Listeners of different targets don't see each others failures.
+     */
+    public void sync(Path dataPath, SyncTarget target, Translog.Location location, Consumer<Exception> listener) {
+        Objects.requireNonNull(target, "target must not be null");
+        Objects.requireNonNull(location, "location must not be null");
+        Objects.requireNonNull(listener, "listener must not be null");
+        queues.computeIfAbsent(dataPath, DataPathQueue::new).add(new PendingSync(target, location, listener));
+    }
+
+    public TimeValue getMaxLatency() {
+        return maxLatency;
+    }
+
+    private static final class PendingSync {
+        private final SyncTarget target;
+        private final Translog.Location location;
+        private final Consumer<Exception> listener;
+
+        PendingSync(SyncTarget target, Translog.Location location, Consumer<Exception> listener) {
+            this.target = target;
+            this.location = location;
+            this.listener = listener;
+        }
+    }
+
+    private final class DataPathQueue {
+        private final Path dataPath;
+        private final Queue<PendingSync> pending = ConcurrentCollections.newQueue();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        // only one flush window per data path is processed at a time
+        private final Object flushLock = new Object();
+
+        DataPathQueue(Path dataPath) {
+            this.dataPath = dataPath;
+        }
+
+        void add(PendingSync pendingSync) {
+            pending.add(pendingSync);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    if (maxLatency.nanos() == 0) {
+                        threadPool.generic().execute(this::flush);
+                    } else {
+                        threadPool.schedule(maxLatency, ThreadPool.Names.GENERIC, this::flush);
+                    }
+                } catch (EsRejectedExecutionException e) {
+                    // we are shutting down - flush on the calling thread instead of leaving the listeners hanging
+                    flush();
+                }
+            }
+        }
+
+        private void flush() {
+            synchronized (flushLock) {
+                // reset the flag before draining such that requests that come in after the drain open a new flush window
+                scheduled.set(false);
+                final Map<SyncTarget, List<PendingSync>> byTarget = new IdentityHashMap<>();
+                PendingSync pendingSync;
+                while ((pendingSync = pending.poll()) != null) {
+                    byTarget.computeIfAbsent(pendingSync.target, t -> new ArrayList<>()).add(pendingSync);
+                }
+                for (Map.Entry<SyncTarget, List<PendingSync>> entry : byTarget.entrySet()) {
+                    final List<PendingSync> syncs = entry.getValue();
+                    Exception exception = null;
+                    try {
+                        entry.getKey().syncTranslog(syncs.stream().map(s -> s.location).collect(Collectors.toList()));
+                    } catch (Exception e) {
+                        logger.debug(() -> new ParameterizedMessage("failed to sync translog on data path [{}]", dataPath), e);
+                        exception = e;
+                    }
+                    for (PendingSync sync : syncs) {
+                        try {
+                            sync.listener.accept(exception);
+                        } catch (Exception e) {
+                            logger.warn("failed to notify callback", e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -74,10 +74,19 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
      */
     public static final Setting<Boolean> INDEX_CACHE_REQUEST_ENABLED_SETTING =
         Setting.boolSetting("index.requests.cache.enable", true, Property.Dynamic, Property.IndexScope);
+    /**
+     * The number of hits up to which requests that do not explicitly opt in or out of the cache are cached on an index level.
+     * By default only requests that do not ask for hits at all are cached. Its dynamic for the same reason as the setting above.
+     */
+    public static final Setting<Integer> INDEX_CACHE_REQUEST_MAX_HITS_SETTING =
+        Setting.intSetting("index.requests.cache.max_hits", 0, 0, Property.Dynamic, Property.IndexScope);
     public static final Setting<ByteSizeValue> INDICES_CACHE_QUERY_SIZE =
         Setting.memorySizeSetting("indices.requests.cache.size", "1%", Property.NodeScope);
     public static final Setting<TimeValue> INDICES_CACHE_QUERY_EXPIRE =
         Setting.positiveTimeSetting("indices.requests.cache.expire", new TimeValue(0), Property.NodeScope);
+    public static final Setting<Cache.EvictionPolicy> INDICES_CACHE_QUERY_EVICTION_POLICY =
+        new Setting<>("indices.requests.cache.eviction_policy", Cache.EvictionPolicy.LRU.toString(), Cache.EvictionPolicy::parse,
+            Property.NodeScope);
 
     private final ConcurrentMap<CleanupKey, Boolean> registeredClosedListeners = ConcurrentCollections.newConcurrentMap();
     private final Set<CleanupKey> keysToClean = ConcurrentCollections.newConcurrentSet();
@@ -90,7 +99,8 @@ public final class IndicesRequestCache implements RemovalListener<IndicesRequest
         this.expire = INDICES_CACHE_QUERY_EXPIRE.exists(settings) ? INDICES_CACHE_QUERY_EXPIRE.get(settings) : null;
         long sizeInBytes = size.getBytes();
         CacheBuilder<Key, BytesReference> cacheBuilder = CacheBuilder.<Key, BytesReference>builder()
-            .setMaximumWeight(sizeInBytes).weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed()).removalListener(this);
+            .setMaximumWeight(sizeInBytes).weigher((k, v) -> k.ramBytesUsed() + v.ramBytesUsed()).removalListener(this)
+            .setEvictionPolicy(INDICES_CACHE_QUERY_EVICTION_POLICY.get(settings));
         if (expire != null) {
             cacheBuilder.setExpireAfterAccess(expire);
         }
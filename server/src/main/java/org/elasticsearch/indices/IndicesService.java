@@ -103,6 +103,7 @@ import org.elasticsearch.index.shard.IndexingOperationListener;
 import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.IndexStore;
+import org.elasticsearch.index.translog.TranslogSyncCoordinator;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService;
 import org.elasticsearch.indices.fielddata.cache.IndicesFieldDataCache;
@@ -191,6 +192,8 @@ public class IndicesService extends AbstractLifecycleComponent
     private final MetaStateService metaStateService;
     private final Collection<Function<IndexSettings, Optional<EngineFactory>>> engineFactoryProviders;
     private final Map<String, Function<IndexSettings, IndexStore>> indexStoreFactories;
+    @Nullable
+    private final TranslogSyncCoordinator translogSyncCoordinator;
 
     @Override
     protected void doStart() {
@@ -238,6 +241,7 @@ public class IndicesService extends AbstractLifecycleComponent
         this.cacheCleaner = new CacheCleaner(indicesFieldDataCache, indicesRequestCache,  logger, threadPool, this.cleanInterval);
         this.metaStateService = metaStateService;
         this.engineFactoryProviders = engineFactoryProviders;
+        this.translogSyncCoordinator = TranslogSyncCoordinator.create(settings, threadPool);
 
         // do not allow any plugin-provided index store type to conflict with a built-in type
         for (final String indexStoreType : indexStoreFactories.keySet()) {
@@ -497,6 +501,9 @@ public class IndicesService extends AbstractLifecycleComponent
         for (IndexingOperationListener operationListener : indexingOperationListeners) {
             indexModule.addIndexOperationListener(operationListener);
         }
+        if (translogSyncCoordinator != null) {
+            indexModule.setTranslogSyncCoordinator(translogSyncCoordinator);
+        }
         pluginsService.onIndexModule(indexModule);
         for (IndexEventListener listener : builtInListeners) {
             indexModule.addIndexEventListener(listener);
@@ -1185,9 +1192,11 @@ public class IndicesService extends AbstractLifecycleComponent
         if (request.requestCache() == null) {
             if (settings.getValue(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING) == false) {
                 return false;
-            } else if (context.size() != 0) {
+            } else if (context.size() != 0 && Math.max(0, context.from()) + context.size() > settings.getValue(
+                    IndicesRequestCache.INDEX_CACHE_REQUEST_MAX_HITS_SETTING)) {
                 // If no request cache query parameter and shard request cache
-                // is enabled in settings don't cache for requests with size > 0
+                // is enabled in settings don't cache for requests that ask for
+                // more hits than configured, which is none by default
                 return false;
             }
         } else if (request.requestCache() == false) {
@@ -39,16 +39,20 @@ import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.fielddata.AtomicFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataCache;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
+import org.elasticsearch.index.fielddata.ordinals.IncrementalOrdinalMap;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardUtils;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.ToLongBiFunction;
 
 public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCache.Key, Accountable>, Releasable{
@@ -57,6 +61,9 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
 
     public static final Setting<ByteSizeValue> INDICES_FIELDDATA_CACHE_SIZE_KEY =
         Setting.memorySizeSetting("indices.fielddata.cache.size", new ByteSizeValue(-1), Property.NodeScope);
+    public static final Setting<Cache.EvictionPolicy> INDICES_FIELDDATA_CACHE_EVICTION_POLICY =
+        new Setting<>("indices.fielddata.cache.eviction_policy", Cache.EvictionPolicy.LRU.toString(), Cache.EvictionPolicy::parse,
+            Property.NodeScope);
     private final IndexFieldDataCache.Listener indicesFieldDataCacheListener;
     private final Cache<Key, Accountable> cache;
 
@@ -64,7 +71,7 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         this.indicesFieldDataCacheListener = indicesFieldDataCacheListener;
         final long sizeInBytes = INDICES_FIELDDATA_CACHE_SIZE_KEY.get(settings).getBytes();
         CacheBuilder<Key, Accountable> cacheBuilder = CacheBuilder.<Key, Accountable>builder()
-                .removalListener(this);
+                .removalListener(this).setEvictionPolicy(INDICES_FIELDDATA_CACHE_EVICTION_POLICY.get(settings));
         if (sizeInBytes > 0) {
             cacheBuilder.setMaximumWeight(sizeInBytes).weigher(new FieldDataWeigher());
         }
@@ -120,6 +127,8 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         final String fieldName;
         private final Cache<Key, Accountable> cache;
         private final Listener[] listeners;
+        // the mappings of segment ordinals to global ordinals of the open readers, removed when the reader is closed
+        private final Map<IndexReader.CacheKey, ShardOrdinalMap> lastOrdinalMaps = ConcurrentCollections.newConcurrentMap();
 
         IndexFieldCache(Logger logger,final Cache<Key, Accountable> cache, Index index, String fieldName, Listener... listeners) {
             this.logger = logger;
@@ -170,6 +179,10 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
                 ElasticsearchDirectoryReader.addReaderCloseListener(indexReader, IndexFieldCache.this);
                 Collections.addAll(k.listeners, this.listeners);
                 final Accountable ifd = (Accountable) indexFieldData.localGlobalDirect(indexReader);
+                if (shardId != null && ifd instanceof GlobalOrdinalsIndexFieldData) {
+                    lastOrdinalMaps.put(cacheHelper.getKey(), new ShardOrdinalMap(shardId, indexReader.getVersion(),
+                        ((GlobalOrdinalsIndexFieldData) ifd).getIncrementalOrdinalMap()));
+                }
                 for (Listener listener : k.listeners) {
                     try {
                         listener.onCache(shardId, fieldName, ifd);
@@ -183,14 +196,31 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
             return (IFD) accountable;
         }
 
+        @Override
+        public IncrementalOrdinalMap lastOrdinalMap(DirectoryReader indexReader) {
+            final ShardId shardId = ShardUtils.extractShardId(indexReader);
+            if (shardId == null) {
+                return null;
+            }
+            ShardOrdinalMap last = null;
+            for (ShardOrdinalMap ordinalMap : lastOrdinalMaps.values()) {
+                if (ordinalMap.shardId.equals(shardId) && (last == null || ordinalMap.version > last.version)) {
+                    last = ordinalMap;
+                }
+            }
+            return last == null ? null : last.ordinalMap;
+        }
+
         @Override
         public void onClose(CacheKey key) throws IOException {
+            lastOrdinalMaps.remove(key);
             cache.invalidate(new Key(this, key, null));
             // don't call cache.cleanUp here as it would have bad performance implications
         }
 
         @Override
         public void clear() {
+            lastOrdinalMaps.clear();
             for (Key key : cache.keys()) {
                 if (key.indexCache.index.equals(index)) {
                     cache.invalidate(key);
@@ -202,6 +232,9 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
 
         @Override
         public void clear(String fieldName) {
+            if (this.fieldName.equals(fieldName)) {
+                lastOrdinalMaps.clear();
+            }
             for (Key key : cache.keys()) {
                 if (key.indexCache.index.equals(index)) {
                     if (key.indexCache.fieldName.equals(fieldName)) {
@@ -216,6 +249,18 @@ public class IndicesFieldDataCache implements RemovalListener<IndicesFieldDataCa
         }
     }
 
+    private static class ShardOrdinalMap {
+        final ShardId shardId;
+        final long version;
+        final IncrementalOrdinalMap ordinalMap;
+
+        ShardOrdinalMap(ShardId shardId, long version, IncrementalOrdinalMap ordinalMap) {
+            this.shardId = shardId;
+            this.version = version;
+            this.ordinalMap = ordinalMap;
+        }
+    }
+
     public static class Key {
         public final IndexFieldCache indexCache;
         public final IndexReader.CacheKey readerKey;
@@ -66,6 +66,10 @@ public class MonitorService extends AbstractLifecycleComponent {
         return this.fsService;
     }
 
+    public JvmGcMonitorService jvmGcMonitorService() {
+        return this.jvmGcMonitorService;
+    }
+
     @Override
     protected void doStart() {
         jvmGcMonitorService.start();
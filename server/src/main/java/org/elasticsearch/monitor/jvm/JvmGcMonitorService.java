@@ -51,6 +51,7 @@ public class JvmGcMonitorService extends AbstractLifecycleComponent {
     private final GcOverheadThreshold gcOverheadThreshold;
 
     private volatile Cancellable scheduledFuture;
+    private volatile int gcOverhead = -1;
 
     public static final Setting<Boolean> ENABLED_SETTING =
         Setting.boolSetting("monitor.jvm.gc.enabled", true, Property.NodeScope);
@@ -200,9 +201,22 @@ public class JvmGcMonitorService extends AbstractLifecycleComponent {
             void onGcOverhead(final Threshold threshold, final long current, final long elapsed, final long seq) {
                 logGcOverhead(logger, threshold, current, elapsed, seq);
             }
+
+            @Override
+            void onGcOverheadSampled(final int fraction) {
+                gcOverhead = fraction;
+            }
         }, interval, Names.SAME);
     }
 
+    /**
+     * Returns the percentage of time spent collecting garbage during the last monitoring interval, or {@code -1} if the
+     * monitor is disabled or has not sampled the collectors yet.
+     */
+    public int gcOverhead() {
+        return gcOverhead;
+    }
+
     private static final String SLOW_GC_LOG_MESSAGE =
         "[gc][{}][{}][{}] duration [{}], collections [{}]/[{}], total [{}]/[{}], memory [{}]->[{}]/[{}], all_pools {}";
 
@@ -467,6 +481,7 @@ public class JvmGcMonitorService extends AbstractLifecycleComponent {
 
         void checkGcOverhead(final long current, final long elapsed, final long seq) {
             final int fraction = (int) ((100 * current) / (double) elapsed);
+            onGcOverheadSampled(Math.max(0, Math.min(100, fraction)));
             Threshold overheadThreshold = null;
             if (fraction >= gcOverheadThreshold.warnThreshold) {
                 overheadThreshold = Threshold.WARN;
@@ -492,6 +507,12 @@ public class JvmGcMonitorService extends AbstractLifecycleComponent {
 
         abstract void onGcOverhead(Threshold threshold, long total, long elapsed, long seq);
 
+        /**
+         * Called on every check with the percentage of the elapsed time that was spent collecting garbage.
+         */
+        void onGcOverheadSampled(int fraction) {
+        }
+
     }
 
 }
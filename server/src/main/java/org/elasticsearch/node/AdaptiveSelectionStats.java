@@ -37,8 +37,9 @@ import java.util.stream.Collectors;
 
 /**
  * Class representing statistics about adaptive replica selection. This includes
- * EWMA of queue size, service time, and response time, as well as outgoing
- * searches to each node and the "rank" based on the ARS formula.
+ * EWMA of queue size, service time, response time, search utilization and breaker
+ * headroom, the garbage collection overhead, as well as outgoing searches to each
+ * node and the "rank" based on the ARS formula.
  */
 public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
 
@@ -81,6 +82,15 @@ public class AdaptiveSelectionStats implements Writeable, ToXContentFragment {
                     builder.field("avg_response_time", new TimeValue((long) stats.responseTime, TimeUnit.NANOSECONDS).toString());
                 }
                 builder.field("avg_response_time_ns", (long) stats.responseTime);
+                if (stats.searchUtilization >= 0) {
+                    builder.field("avg_search_utilization", String.format(Locale.ROOT, "%.2f", stats.searchUtilization));
+                }
+                if (stats.breakerHeadroom >= 0) {
+                    builder.field("avg_breaker_headroom", String.format(Locale.ROOT, "%.2f", stats.breakerHeadroom));
+                }
+                if (stats.gcOverhead >= 0) {
+                    builder.field("gc_overhead_percent", stats.gcOverhead);
+                }
                 builder.field("rank", String.format(Locale.ROOT, "%.1f", stats.rank(outgoingSearches)));
             }
             builder.endObject();
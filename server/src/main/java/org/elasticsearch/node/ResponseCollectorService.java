@@ -19,6 +19,7 @@
 
 package org.elasticsearch.node;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.ClusterChangedEvent;
 import org.elasticsearch.cluster.ClusterStateListener;
 import org.elasticsearch.cluster.node.DiscoveryNode;
@@ -30,6 +31,7 @@ import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
@@ -39,14 +41,29 @@ import java.util.concurrent.ConcurrentMap;
 /**
  * Collects statistics about queue size, response time, and service time of
  * tasks executed on each node, making the EWMA of the values available to the
- * coordinating node.
+ * coordinating node. Nodes may additionally report how busy their search threads
+ * are, how much of their request circuit breaker is left and how much time they
+ * recently spent collecting garbage, which are folded into the rank of the node.
  */
 public final class ResponseCollectorService implements ClusterStateListener {
 
     private static final double ALPHA = 0.3;
 
+    // the number of most recent response times that response time percentiles are computed from
+    private static final int RESPONSE_TIME_SAMPLES = 1024;
+    // the number of response times that must be collected before percentiles are reported
+    private static final int MIN_RESPONSE_TIME_SAMPLES = 100;
+    // how many new response times may be collected before a cached percentile is recomputed
+    private static final int PERCENTILE_REFRESH_SAMPLES = 64;
+
     private final ConcurrentMap<String, NodeStatistics> nodeIdToStats = ConcurrentCollections.newConcurrentMap();
 
+    private final long[] responseTimes = new long[RESPONSE_TIME_SAMPLES];
+    private long responseTimeCount = 0;
+    private double cachedPercentile = Double.NaN;
+    private long cachedPercentileValue = -1;
+    private long cachedPercentileCount = 0;
+
     public ResponseCollectorService(ClusterService clusterService) {
         clusterService.addListener(this);
     }
@@ -65,20 +82,62 @@ public final class ResponseCollectorService implements ClusterStateListener {
     }
 
     public void addNodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long avgServiceTimeNanos) {
+        addNodeStatistics(nodeId, queueSize, responseTimeNanos, avgServiceTimeNanos, -1, -1, -1);
+    }
+
+    /**
+     * Adds the statistics piggybacked on a response from the given node.
+     *
+     * @param searchUtilization the fraction of the node's search threads that were busy, or a negative value if unknown
+     * @param breakerHeadroom   the fraction of the node's request circuit breaker that was still free, or a negative value if unknown
+     * @param gcOverhead        the percentage of time the node recently spent collecting garbage, or a negative value if unknown
+     */
+    public void addNodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long avgServiceTimeNanos,
+                                  double searchUtilization, double breakerHeadroom, int gcOverhead) {
+        addResponseTime(responseTimeNanos);
         nodeIdToStats.compute(nodeId, (id, ns) -> {
             if (ns == null) {
                 ExponentiallyWeightedMovingAverage queueEWMA = new ExponentiallyWeightedMovingAverage(ALPHA, queueSize);
                 ExponentiallyWeightedMovingAverage responseEWMA = new ExponentiallyWeightedMovingAverage(ALPHA, responseTimeNanos);
-                return new NodeStatistics(nodeId, queueEWMA, responseEWMA, avgServiceTimeNanos);
+                ns = new NodeStatistics(nodeId, queueEWMA, responseEWMA, avgServiceTimeNanos);
             } else {
                 ns.queueSize.addValue((double) queueSize);
                 ns.responseTime.addValue((double) responseTimeNanos);
                 ns.serviceTime = avgServiceTimeNanos;
-                return ns;
             }
+            ns.addLoad(searchUtilization, breakerHeadroom, gcOverhead);
+            return ns;
         });
     }
 
+    private synchronized void addResponseTime(long responseTimeNanos) {
+        responseTimes[(int) (responseTimeCount % RESPONSE_TIME_SAMPLES)] = responseTimeNanos;
+        responseTimeCount++;
+    }
+
+    /**
+     * Returns the given percentile of the most recent response times collected across all nodes in nanoseconds, or
+     * {@code -1} if too few responses have been collected so far for the percentile to be meaningful.
+     */
+    public synchronized long responseTimePercentile(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in (0, 100] but was [" + percentile + "]");
+        }
+        if (responseTimeCount < MIN_RESPONSE_TIME_SAMPLES) {
+            return -1;
+        }
+        if (percentile != cachedPercentile || responseTimeCount - cachedPercentileCount >= PERCENTILE_REFRESH_SAMPLES) {
+            final int numSamples = (int) Math.min(responseTimeCount, RESPONSE_TIME_SAMPLES);
+            final long[] sorted = Arrays.copyOf(responseTimes, numSamples);
+            Arrays.sort(sorted);
+            final int index = (int) Math.ceil(percentile / 100 * numSamples) - 1;
+            cachedPercentile = percentile;
+            cachedPercentileValue = sorted[Math.max(0, index)];
+            cachedPercentileCount = responseTimeCount;
+        }
+        return cachedPercentileValue;
+    }
+
     public Map<String, ComputedNodeStats> getAllNodeStatistics() {
         final int clientNum = nodeIdToStats.size();
         // Transform the mutable object internally used for accounting into the computed version
@@ -106,7 +165,8 @@ public final class ResponseCollectorService implements ClusterStateListener {
     /**
      * Struct-like class encapsulating a point-in-time snapshot of a particular
      * node's statistics. This includes the EWMA of queue size, response time,
-     * and service time.
+     * service time, search thread pool utilization and circuit breaker headroom,
+     * as well as the last reported garbage collection overhead.
      */
     public static class ComputedNodeStats implements Writeable {
         // We store timestamps with nanosecond precision, however, the
@@ -121,18 +181,33 @@ public final class ResponseCollectorService implements ClusterStateListener {
         public final int queueSize;
         public final double responseTime;
         public final double serviceTime;
+        // the following are negative if the node did not report them
+        public final double searchUtilization;
+        public final double breakerHeadroom;
+        public final int gcOverhead;
 
         public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime) {
+            this(nodeId, clientNum, queueSize, responseTime, serviceTime, -1, -1, -1);
+        }
+
+        public ComputedNodeStats(String nodeId, int clientNum, int queueSize, double responseTime, double serviceTime,
+                                 double searchUtilization, double breakerHeadroom, int gcOverhead) {
             this.nodeId = nodeId;
             this.clientNum = clientNum;
             this.queueSize = queueSize;
             this.responseTime = responseTime;
             this.serviceTime = serviceTime;
+            this.searchUtilization = searchUtilization;
+            this.breakerHeadroom = breakerHeadroom;
+            this.gcOverhead = gcOverhead;
         }
 
         ComputedNodeStats(int clientNum, NodeStatistics nodeStats) {
             this(nodeStats.nodeId, clientNum,
-                    (int) nodeStats.queueSize.getAverage(), nodeStats.responseTime.getAverage(), nodeStats.serviceTime);
+                    (int) nodeStats.queueSize.getAverage(), nodeStats.responseTime.getAverage(), nodeStats.serviceTime,
+                    nodeStats.searchUtilization == null ? -1 : nodeStats.searchUtilization.getAverage(),
+                    nodeStats.breakerHeadroom == null ? -1 : nodeStats.breakerHeadroom.getAverage(),
+                    nodeStats.gcOverhead);
         }
 
         ComputedNodeStats(StreamInput in) throws IOException {
@@ -141,6 +216,15 @@ public final class ResponseCollectorService implements ClusterStateListener {
             this.queueSize = in.readInt();
             this.responseTime = in.readDouble();
             this.serviceTime = in.readDouble();
+            if (in.getVersion().onOrAfter(Version.V_7_0_0)) {
+                this.searchUtilization = in.readDouble();
+                this.breakerHeadroom = in.readDouble();
+                this.gcOverhead = in.readInt();
+            } else {
+                this.searchUtilization = -1;
+                this.breakerHeadroom = -1;
+                this.gcOverhead = -1;
+            }
         }
 
         @Override
@@ -150,6 +234,32 @@ public final class ResponseCollectorService implements ClusterStateListener {
             out.writeInt(this.queueSize);
             out.writeDouble(this.responseTime);
             out.writeDouble(this.serviceTime);
+            if (out.getVersion().onOrAfter(Version.V_7_0_0)) {
+                out.writeDouble(this.searchUtilization);
+                out.writeDouble(this.breakerHeadroom);
+                out.writeInt(this.gcOverhead);
+            }
+        }
+
+        /**
+         * Returns how much the queueing delay predicted by the C3 formula should be inflated to account for load that
+         * queue sizes and service times only reflect with a delay: busy search threads, a nearly exhausted request
+         * circuit breaker, and time the node spends collecting garbage rather than serving requests. Returns {@code 1}
+         * if the node did not report any of these.
+         */
+        double loadFactor() {
+            double loadFactor = 1.0;
+            if (searchUtilization >= 0) {
+                loadFactor += Math.min(1.0, searchUtilization);
+            }
+            if (breakerHeadroom >= 0) {
+                loadFactor += 1.0 - Math.min(1.0, breakerHeadroom);
+            }
+            if (gcOverhead > 0) {
+                // a node that spends a fraction of its time collecting garbage serves requests that much slower
+                loadFactor /= 1.0 - Math.min(90, gcOverhead) / 100.0;
+            }
+            return loadFactor;
         }
 
         /**
@@ -175,8 +285,8 @@ public final class ResponseCollectorService implements ClusterStateListener {
             // EWMA of service time
             double muBarS = serviceTime / FACTOR;
 
-            // The final formula
-            double rank = rS - (1.0 / muBarS) + (Math.pow(qHatS, queueAdjustmentFactor) / muBarS);
+            // The final formula, with the queueing delay inflated by the load of the node
+            double rank = rS - (1.0 / muBarS) + (Math.pow(qHatS, queueAdjustmentFactor) / muBarS) * loadFactor();
             return rank;
         }
 
@@ -195,6 +305,9 @@ public final class ResponseCollectorService implements ClusterStateListener {
             sb.append(", queue: ").append(queueSize);
             sb.append(", response time: ").append(String.format(Locale.ROOT, "%.1f", responseTime));
             sb.append(", service time: ").append(String.format(Locale.ROOT, "%.1f", serviceTime));
+            sb.append(", search utilization: ").append(String.format(Locale.ROOT, "%.2f", searchUtilization));
+            sb.append(", breaker headroom: ").append(String.format(Locale.ROOT, "%.2f", breakerHeadroom));
+            sb.append(", gc overhead: ").append(gcOverhead);
             sb.append(", rank: ").append(String.format(Locale.ROOT, "%.1f", rank(1)));
             sb.append(")");
             return sb.toString();
@@ -203,14 +316,19 @@ public final class ResponseCollectorService implements ClusterStateListener {
 
     /**
      * Class encapsulating a node's exponentially weighted queue size, response
-     * time, and service time, however, this class is private and intended only
-     * to be used for the internal accounting of {@code ResponseCollectorService}.
+     * time, service time, search utilization and breaker headroom, however, this
+     * class is private and intended only to be used for the internal accounting
+     * of {@code ResponseCollectorService}.
      */
     private static class NodeStatistics {
         final String nodeId;
         final ExponentiallyWeightedMovingAverage queueSize;
         final ExponentiallyWeightedMovingAverage responseTime;
         double serviceTime;
+        // null until the node reports them
+        ExponentiallyWeightedMovingAverage searchUtilization;
+        ExponentiallyWeightedMovingAverage breakerHeadroom;
+        int gcOverhead = -1;
 
         NodeStatistics(String nodeId,
                        ExponentiallyWeightedMovingAverage queueSizeEWMA,
@@ -221,5 +339,26 @@ public final class ResponseCollectorService implements ClusterStateListener {
             this.responseTime = responseTimeEWMA;
             this.serviceTime = serviceTimeEWMA;
         }
+
+        void addLoad(double searchUtilization, double breakerHeadroom, int gcOverhead) {
+            if (searchUtilization >= 0) {
+                if (this.searchUtilization == null) {
+                    this.searchUtilization = new ExponentiallyWeightedMovingAverage(ALPHA, searchUtilization);
+                } else {
+                    this.searchUtilization.addValue(searchUtilization);
+                }
+            }
+            if (breakerHeadroom >= 0) {
+                if (this.breakerHeadroom == null) {
+                    this.breakerHeadroom = new ExponentiallyWeightedMovingAverage(ALPHA, breakerHeadroom);
+                } else {
+                    this.breakerHeadroom.addValue(breakerHeadroom);
+                }
+            }
+            if (gcOverhead >= 0) {
+                // garbage collection pauses are bursty, so the latest observation is used as is
+                this.gcOverhead = gcOverhead;
+            }
+        }
     }
 }
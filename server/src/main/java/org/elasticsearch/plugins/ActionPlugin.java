@@ -22,6 +22,7 @@ package org.elasticsearch.plugins;
 import org.elasticsearch.action.Action;
 import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.search.async.AsyncSearchSecurity;
 import org.elasticsearch.action.support.ActionFilter;
 import org.elasticsearch.action.support.TransportAction;
 import org.elasticsearch.action.support.TransportActions;
@@ -126,6 +127,15 @@ public interface ActionPlugin {
         return null;
     }
 
+    /**
+     * Returns the {@link AsyncSearchSecurity} that restricts the access to async searches to the user that submitted them.
+     *
+     * Note: Only one installed plugin may secure async searches.
+     */
+    default AsyncSearchSecurity getAsyncSearchSecurity() {
+        return null;
+    }
+
     final class ActionHandler<Request extends ActionRequest, Response extends ActionResponse> {
         private final Action<Response> action;
         private final Class<? extends TransportAction<Request, Response>> transportAction;
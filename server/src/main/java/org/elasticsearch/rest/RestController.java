@@ -235,6 +235,10 @@ public class RestController implements HttpServerTransport.Dispatcher {
                 }
                 // iff we could reserve bytes for the request we need to send the response also over this channel
                 responseChannel = new ResourceHandlingHttpChannel(channel, circuitBreakerService, contentLength);
+                // handlers that may hold on to the request content beyond the response must not see pooled buffers
+                if (mHandler.get().allowsUnsafeBuffers() == false) {
+                    request.ensureSafeBuffers();
+                }
 
                 final RestHandler wrappedHandler = mHandler.map(h -> handlerWrapper.apply(h)).get();
                 wrappedHandler.handleRequest(request, responseChannel, client);
@@ -47,4 +47,13 @@ public interface RestHandler {
     default boolean supportsContentStream() {
         return false;
     }
+
+    /**
+     * Indicates if the RestHandler supports working with pooled buffers. If the request handler will not escape the buffers of the
+     * {@link RestRequest#content()} beyond the time the response is sent, it can return true. Otherwise the content of the request is
+     * copied into an unpooled buffer before the request is dispatched to this handler.
+     */
+    default boolean allowsUnsafeBuffers() {
+        return false;
+    }
 }
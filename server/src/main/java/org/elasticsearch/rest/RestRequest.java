@@ -63,7 +63,7 @@ public class RestRequest implements ToXContent.Params {
     private final String rawPath;
     private final Set<String> consumedParams = new HashSet<>();
     private final SetOnce<XContentType> xContentType = new SetOnce<>();
-    private final HttpRequest httpRequest;
+    private HttpRequest httpRequest;
     private final HttpChannel httpChannel;
 
     protected RestRequest(NamedXContentRegistry xContentRegistry, Map<String, String> params, String path,
@@ -246,6 +246,15 @@ public class RestRequest implements ToXContent.Params {
         return httpRequest;
     }
 
+    /**
+     * Replaces the http request of this instance with a copy that does not use pooled buffers and releases the pooled buffers of the
+     * original request, see {@link HttpRequest#releaseAndCopy()}. This is invoked by the {@link RestController} before dispatching to
+     * handlers that do not allow unsafe buffers, see {@link RestHandler#allowsUnsafeBuffers()}.
+     */
+    void ensureSafeBuffers() {
+        httpRequest = httpRequest.releaseAndCopy();
+    }
+
     public final boolean hasParam(String key) {
         return params.containsKey(key);
     }
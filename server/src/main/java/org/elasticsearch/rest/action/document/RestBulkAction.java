@@ -104,4 +104,10 @@ public class RestBulkAction extends BaseRestHandler {
     public boolean supportsContentStream() {
         return true;
     }
+
+    @Override
+    public boolean allowsUnsafeBuffers() {
+        // the bulk response is only sent once all shard level requests holding slices of the request content have completed
+        return true;
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest.action.search;
+
+import org.elasticsearch.action.search.async.GetAsyncSearchAction;
+import org.elasticsearch.action.search.async.GetAsyncSearchRequest;
+import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.RestController;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.action.RestStatusToXContentListener;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.elasticsearch.rest.RestRequest.Method.GET;
+import static org.elasticsearch.rest.action.search.RestSearchAction.TOTAL_HITS_AS_INT_PARAM;
+import static org.elasticsearch.rest.action.search.RestSearchAction.TYPED_KEYS_PARAM;
+
+public class RestGetAsyncSearchAction extends BaseRestHandler {
+    private static final Set<String> RESPONSE_PARAMS =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList(TYPED_KEYS_PARAM, TOTAL_HITS_AS_INT_PARAM)));
+
+    public RestGetAsyncSearchAction(Settings settings, RestController controller) {
+        super(settings);
+        controller.registerHandler(GET, "/_async_search/{id}", this);
+    }
+
+    @Override
+    public String getName() {
+        return "async_search_get_action";
+    }
+
+    @Override
+    public RestChannelConsumer prepareRequest(final RestRequest request, final NodeClient client) throws IOException {
+        GetAsyncSearchRequest getRequest = new GetAsyncSearchRequest(request.param("id"));
+        getRequest.setWaitForCompletion(request.paramAsTime("wait_for_completion_timeout", getRequest.getWaitForCompletion()));
+        return channel -> client.execute(GetAsyncSearchAction.INSTANCE, getRequest, new RestStatusToXContentListener<>(channel));
+    }
+
+    @Override
+    protected Set<String> responseParams() {
+        return RESPONSE_PARAMS;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.rest.action.search;
+
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.async.SubmitAsyncSearchAction;
+import org.elasticsearch.action.search.async.SubmitAsyncSearchRequest;
+import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.rest.BaseRestHandler;
+import org.elasticsearch.rest.RestController;
+import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.action.RestStatusToXContentListener;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+import static org.elasticsearch.rest.RestRequest.Method.POST;
+import static org.elasticsearch.rest.action.search.RestSearchAction.TOTAL_HITS_AS_INT_PARAM;
+import static org.elasticsearch.rest.action.search.RestSearchAction.TYPED_KEYS_PARAM;
+
+public class RestSubmitAsyncSearchAction extends BaseRestHandler {
+    /**
+     * The default number of shard results that are reduced at once, smaller than for regular searches so that partial
+     * aggregations are available early.
+     */
+    static final int DEFAULT_BATCHED_REDUCE_SIZE = 5;
+
+    private static final Set<String> RESPONSE_PARAMS =
+        Collections.unmodifiableSet(new HashSet<>(Arrays.asList(TYPED_KEYS_PARAM, TOTAL_HITS_AS_INT_PARAM)));
+
+    public RestSubmitAsyncSearchAction(Settings settings, RestController controller) {
+        super(settings);
+        controller.registerHandler(POST, "/_async_search", this);
+        controller.registerHandler(POST, "/{index}/_async_search", this);
+    }
+
+    @Override
+    public String getName() {
+        return "async_search_submit_action";
+    }
+
+    @Override
+    public RestChannelConsumer prepareRequest(final RestRequest request, final NodeClient client) throws IOException {
+        SearchRequest searchRequest = new SearchRequest();
+        searchRequest.setBatchedReduceSize(DEFAULT_BATCHED_REDUCE_SIZE);
+        IntConsumer setSize = size -> searchRequest.source().size(size);
+        request.withContentOrSourceParamParserOrNull(parser ->
+            RestSearchAction.parseSearchRequest(searchRequest, request, parser, setSize));
+
+        SubmitAsyncSearchRequest submitRequest = new SubmitAsyncSearchRequest(searchRequest);
+        submitRequest.setWaitForCompletion(request.paramAsTime("wait_for_completion_timeout", submitRequest.getWaitForCompletion()));
+        submitRequest.setKeepAlive(request.paramAsTime("keep_alive", submitRequest.getKeepAlive()));
+        submitRequest.setKeepOnCompletion(request.paramAsBoolean("keep_on_completion", submitRequest.isKeepOnCompletion()));
+        return channel -> client.execute(SubmitAsyncSearchAction.INSTANCE, submitRequest, new RestStatusToXContentListener<>(channel));
+    }
+
+    @Override
+    protected Set<String> responseParams() {
+        return RESPONSE_PARAMS;
+    }
+}
@@ -101,6 +101,9 @@ public class ScriptService implements Closeable, ClusterStateApplier {
         Setting.intSetting("script.cache.max_size", 100, 0, Property.NodeScope);
     public static final Setting<TimeValue> SCRIPT_CACHE_EXPIRE_SETTING =
         Setting.positiveTimeSetting("script.cache.expire", TimeValue.timeValueMillis(0), Property.NodeScope);
+    public static final Setting<Cache.EvictionPolicy> SCRIPT_CACHE_EVICTION_POLICY_SETTING =
+        new Setting<>("script.cache.eviction_policy", Cache.EvictionPolicy.LRU.toString(), Cache.EvictionPolicy::parse,
+            Property.NodeScope);
     public static final Setting<Integer> SCRIPT_MAX_SIZE_IN_BYTES =
         Setting.intSetting("script.max_size_in_bytes", 65535, 0, Property.Dynamic, Property.NodeScope);
     public static final Setting<Tuple<Integer, TimeValue>> SCRIPT_MAX_COMPILATIONS_RATE =
@@ -223,7 +226,11 @@ public class ScriptService implements Closeable, ClusterStateApplier {
             cacheBuilder.setExpireAfterAccess(cacheExpire);
         }
 
-        logger.debug("using script cache with max_size [{}], expire [{}]", cacheMaxSize, cacheExpire);
+        Cache.EvictionPolicy cacheEvictionPolicy = SCRIPT_CACHE_EVICTION_POLICY_SETTING.get(settings);
+        cacheBuilder.setEvictionPolicy(cacheEvictionPolicy);
+
+        logger.debug("using script cache with max_size [{}], expire [{}], eviction_policy [{}]", cacheMaxSize, cacheExpire,
+            cacheEvictionPolicy);
         this.cache = cacheBuilder.removalListener(new ScriptCacheRemovalListener()).build();
 
         this.lastInlineCompileTime = System.nanoTime();
@@ -73,6 +73,7 @@ import org.elasticsearch.search.rescore.RescoreContext;
 import org.elasticsearch.search.slice.SliceBuilder;
 import org.elasticsearch.search.sort.SortAndFormats;
 import org.elasticsearch.search.suggest.SuggestionSearchContext;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
@@ -82,6 +83,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 final class DefaultSearchContext extends SearchContext {
 
@@ -174,7 +176,10 @@ final class DefaultSearchContext extends SearchContext {
         this.indexShard = indexShard;
         this.indexService = indexService;
         this.clusterService = clusterService;
-        this.searcher = new ContextIndexSearcher(engineSearcher, indexService.cache().query(), indexShard.getQueryCachingPolicy());
+        final Executor sliceExecutor = indexService.getIndexSettings().isConcurrentSegmentSearchEnabled() ?
+            indexShard.getThreadPool().executor(ThreadPool.Names.SEARCH_WORKER) : null;
+        this.searcher = new ContextIndexSearcher(engineSearcher, indexService.cache().query(), indexShard.getQueryCachingPolicy(),
+            sliceExecutor);
         this.timeEstimateCounter = timeEstimateCounter;
         this.timeout = timeout;
         this.minNodeVersion = minNodeVersion;
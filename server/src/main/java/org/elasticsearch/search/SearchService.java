@@ -25,12 +25,14 @@ import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.TopDocs;
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.OriginalIndices;
 import org.elasticsearch.action.search.SearchTask;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -41,8 +43,10 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.ConcurrentMapLong;
+import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.IndexService;
@@ -58,8 +62,10 @@ import org.elasticsearch.index.query.Rewriteable;
 import org.elasticsearch.index.shard.IndexEventListener;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.SearchOperationListener;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.cluster.IndicesClusterStateService.AllocatedIndices.IndexRemovalReason;
+import org.elasticsearch.monitor.jvm.JvmGcMonitorService;
 import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.script.FieldScript;
 import org.elasticsearch.script.ScriptService;
@@ -82,9 +88,11 @@ import org.elasticsearch.search.fetch.subphase.ScriptFieldsContext.ScriptField;
 import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.InternalScrollSearchRequest;
+import org.elasticsearch.search.internal.ReaderContext;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.SearchContext.Lifetime;
+import org.elasticsearch.search.internal.ShardFieldRanges;
 import org.elasticsearch.search.internal.ShardSearchRequest;
 import org.elasticsearch.search.profile.Profilers;
 import org.elasticsearch.search.query.QueryPhase;
@@ -149,6 +157,9 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     public static final Setting<Integer> MAX_OPEN_SCROLL_CONTEXT =
         Setting.intSetting("search.max_open_scroll_context", 500, 0, Property.Dynamic, Property.NodeScope);
 
+    public static final Setting<Integer> MAX_OPEN_READER_CONTEXT =
+        Setting.intSetting("search.max_open_point_in_time_context", 500, 0, Property.Dynamic, Property.NodeScope);
+
 
     private final ThreadPool threadPool;
 
@@ -180,19 +191,25 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     private volatile int maxOpenScrollContext;
 
+    private volatile int maxOpenReaderContext;
+
     private final Cancellable keepAliveReaper;
 
     private final AtomicLong idGenerator = new AtomicLong();
 
     private final ConcurrentMapLong<SearchContext> activeContexts = ConcurrentCollections.newConcurrentMapLongWithAggressiveConcurrency();
 
+    private final ConcurrentMapLong<ReaderContext> activeReaders = ConcurrentCollections.newConcurrentMapLongWithAggressiveConcurrency();
+
     private final MultiBucketConsumerService multiBucketConsumerService;
 
     private final AtomicInteger openScrollContexts = new AtomicInteger();
 
+    private final AtomicInteger openReaderContexts = new AtomicInteger();
+
     public SearchService(ClusterService clusterService, IndicesService indicesService,
                          ThreadPool threadPool, ScriptService scriptService, BigArrays bigArrays, FetchPhase fetchPhase,
-                         ResponseCollectorService responseCollectorService) {
+                         ResponseCollectorService responseCollectorService, @Nullable JvmGcMonitorService gcMonitorService) {
         super(clusterService.getSettings());
         Settings settings = clusterService.getSettings();
         this.threadPool = threadPool;
@@ -201,7 +218,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         this.scriptService = scriptService;
         this.responseCollectorService = responseCollectorService;
         this.bigArrays = bigArrays;
-        this.queryPhase = new QueryPhase();
+        this.queryPhase = new QueryPhase(gcMonitorService == null ? () -> -1 : gcMonitorService::gcOverhead);
         this.fetchPhase = fetchPhase;
         this.multiBucketConsumerService = new MultiBucketConsumerService(clusterService, settings);
 
@@ -223,6 +240,9 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         maxOpenScrollContext = MAX_OPEN_SCROLL_CONTEXT.get(settings);
         clusterService.getClusterSettings().addSettingsUpdateConsumer(MAX_OPEN_SCROLL_CONTEXT, this::setMaxOpenScrollContext);
 
+        maxOpenReaderContext = MAX_OPEN_READER_CONTEXT.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(MAX_OPEN_READER_CONTEXT, this::setMaxOpenReaderContext);
+
         lowLevelCancellation = LOW_LEVEL_CANCELLATION_SETTING.get(settings);
         clusterService.getClusterSettings().addSettingsUpdateConsumer(LOW_LEVEL_CANCELLATION_SETTING, this::setLowLevelCancellation);
     }
@@ -257,6 +277,10 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         this.maxOpenScrollContext = maxOpenScrollContext;
     }
 
+    private void setMaxOpenReaderContext(int maxOpenReaderContext) {
+        this.maxOpenReaderContext = maxOpenReaderContext;
+    }
+
     private void setLowLevelCancellation(Boolean lowLevelCancellation) {
         this.lowLevelCancellation = lowLevelCancellation;
     }
@@ -270,6 +294,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         // to release memory and let references to the filesystem go etc.
         if (reason == IndexRemovalReason.DELETED || reason == IndexRemovalReason.CLOSED) {
             freeAllContextForIndex(index);
+            freeAllReaderContextsForIndex(index);
         }
 
     }
@@ -292,6 +317,9 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         for (final SearchContext context : activeContexts.values()) {
             freeContext(context.id());
         }
+        for (final ReaderContext readerContext : activeReaders.values()) {
+            freeReaderContext(readerContext.id());
+        }
     }
 
     @Override
@@ -367,6 +395,93 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         });
     }
 
+    /**
+     * Executes the query phase of several requests that target the same shard. The requests share a single searcher of the
+     * shard, which is acquired once for the whole batch rather than once per request, but each request is executed on its
+     * own thread under its own task so that it can be cancelled and is accounted for like any other query. Each listener
+     * is notified with the result or the failure of the request at the same position.
+     */
+    public void executeQueryPhase(List<? extends ShardSearchRequest> requests, List<SearchTask> tasks,
+                                  List<? extends ActionListener<SearchPhaseResult>> listeners) {
+        assert requests.size() == listeners.size() : "got [" + requests.size() + "] requests but [" + listeners.size() + "] listeners";
+        assert requests.size() == tasks.size() : "got [" + requests.size() + "] requests but [" + tasks.size() + "] tasks";
+        assert requests.isEmpty() == false;
+        final ShardId shardId = requests.get(0).shardId();
+        assert requests.stream().allMatch(r -> r.shardId().equals(shardId)) : "all requests must target shard " + shardId;
+        final IndexShard shard;
+        try {
+            shard = indicesService.indexServiceSafe(shardId.getIndex()).getShard(shardId.id());
+        } catch (Exception e) {
+            listeners.forEach(l -> l.onFailure(e));
+            return;
+        }
+        final int numRequests = requests.size();
+        final AtomicArray<ShardSearchRequest> rewritten = new AtomicArray<>(numRequests);
+        final CountDown countDown = new CountDown(numRequests);
+        // wait for a pending refresh once for the whole batch
+        final Runnable executeBatch = () -> shard.awaitShardSearchActive(b -> {
+            final ReaderContext sharedReader;
+            try {
+                sharedReader = new ReaderContext(idGenerator.incrementAndGet(), shard,
+                    shard.acquireSearcher("search"), defaultKeepAlive, threadPool::relativeTimeInMillis);
+            } catch (Exception e) {
+                for (int i = 0; i < numRequests; i++) {
+                    if (rewritten.get(i) != null) {
+                        listeners.get(i).onFailure(e);
+                    }
+                }
+                return;
+            }
+            try {
+                for (int i = 0; i < numRequests; i++) {
+                    final ShardSearchRequest request = rewritten.get(i);
+                    if (request == null) {
+                        continue;
+                    }
+                    final SearchTask task = tasks.get(i);
+                    final ActionListener<SearchPhaseResult> listener = listeners.get(i);
+                    // each query holds a reference on the shared reader until it completed, contexts that are kept
+                    // for the fetch phase hold their own reference on the searcher
+                    sharedReader.incRef();
+                    getExecutor(shard).execute(new AbstractRunnable() {
+                        @Override
+                        public void onFailure(Exception e) {
+                            listener.onFailure(e);
+                        }
+
+                        @Override
+                        protected void doRun() throws Exception {
+                            listener.onResponse(executeQueryPhase(request, task, sharedReader));
+                        }
+
+                        @Override
+                        public void onAfter() {
+                            sharedReader.decRef();
+                        }
+                    });
+                }
+            } finally {
+                sharedReader.decRef();
+            }
+        });
+        for (int i = 0; i < numRequests; i++) {
+            final int index = i;
+            final ShardSearchRequest request = requests.get(i);
+            Rewriteable.rewriteAndFetch(request.getRewriteable(), indicesService.getRewriteContext(request::nowInMillis),
+                ActionListener.wrap(r -> {
+                    rewritten.set(index, request);
+                    if (countDown.countDown()) {
+                        executeBatch.run();
+                    }
+                }, e -> {
+                    listeners.get(index).onFailure(e);
+                    if (countDown.countDown()) {
+                        executeBatch.run();
+                    }
+                }));
+        }
+    }
+
     private <T> void runAsync(long id, Supplier<T> executable, ActionListener<T> listener) {
         getExecutor(id).execute(new AbstractRunnable() {
             @Override
@@ -382,7 +497,12 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     }
 
     private SearchPhaseResult executeQueryPhase(ShardSearchRequest request, SearchTask task) throws IOException {
-        final SearchContext context = createAndPutContext(request);
+        return executeQueryPhase(request, task, null);
+    }
+
+    private SearchPhaseResult executeQueryPhase(ShardSearchRequest request, SearchTask task,
+                                                @Nullable ReaderContext sharedReader) throws IOException {
+        final SearchContext context = createAndPutContext(request, sharedReader);
         final SearchOperationListener operationListener = context.indexShard().getSearchOperationListener();
         context.incRef();
         boolean queryPhaseSuccess = false;
@@ -606,6 +726,10 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     }
 
     final SearchContext createAndPutContext(ShardSearchRequest request) throws IOException {
+        return createAndPutContext(request, null);
+    }
+
+    private SearchContext createAndPutContext(ShardSearchRequest request, @Nullable ReaderContext sharedReader) throws IOException {
         if (request.scroll() != null && openScrollContexts.get() >= maxOpenScrollContext) {
             throw new ElasticsearchException(
                 "Trying to create too many scroll contexts. Must be less than or equal to: [" +
@@ -613,7 +737,7 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                     + MAX_OPEN_SCROLL_CONTEXT.getKey() + "] setting.");
         }
 
-        SearchContext context = createContext(request);
+        SearchContext context = createContext(request, sharedReader);
         boolean success = false;
         try {
             putContext(context);
@@ -632,7 +756,11 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     }
 
     final SearchContext createContext(ShardSearchRequest request) throws IOException {
-        final DefaultSearchContext context = createSearchContext(request, defaultSearchTimeout);
+        return createContext(request, null);
+    }
+
+    private SearchContext createContext(ShardSearchRequest request, @Nullable ReaderContext sharedReader) throws IOException {
+        final DefaultSearchContext context = createSearchContext(request, defaultSearchTimeout, true, "search", sharedReader);
         try {
             if (request.scroll() != null) {
                 context.scrollContext(new ScrollContext());
@@ -669,17 +797,30 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
     }
 
     public DefaultSearchContext createSearchContext(ShardSearchRequest request, TimeValue timeout) throws IOException {
-        return createSearchContext(request, timeout, true, "search");
+        return createSearchContext(request, timeout, true, "search", null);
     }
 
+    /**
+     * Creates a search context for the provided request. If a shared reader is provided, the search context acquires its searcher
+     * from the shared reader instead of the shard, unless the request targets a point in time.
+     */
     private DefaultSearchContext createSearchContext(ShardSearchRequest request, TimeValue timeout,
-                                                     boolean assertAsyncActions, String source)
+                                                     boolean assertAsyncActions, String source, @Nullable ReaderContext sharedReader)
             throws IOException {
         IndexService indexService = indicesService.indexServiceSafe(request.shardId().getIndex());
         IndexShard indexShard = indexService.getShard(request.shardId().getId());
         SearchShardTarget shardTarget = new SearchShardTarget(clusterService.localNode().getId(),
                 indexShard.shardId(), request.getClusterAlias(), OriginalIndices.NONE);
-        Engine.Searcher engineSearcher = indexShard.acquireSearcher(source);
+        final Engine.Searcher engineSearcher;
+        if (request.readerId() != null) {
+            final ReaderContext readerContext = findReaderContext(request.readerId(), indexShard);
+            engineSearcher = readerContext.acquireSearcher(source, readerKeepAlive(request.source()));
+        } else if (sharedReader != null) {
+            assert sharedReader.shardId().equals(indexShard.shardId());
+            engineSearcher = sharedReader.acquireSearcher(source, -1);
+        } else {
+            engineSearcher = indexShard.acquireSearcher(source);
+        }
 
         final DefaultSearchContext searchContext = new DefaultSearchContext(idGenerator.incrementAndGet(), request, shardTarget,
             engineSearcher, clusterService, indexService, indexShard, bigArrays, threadPool.estimatedTimeInMillisCounter(), timeout,
@@ -701,6 +842,96 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         return searchContext;
     }
 
+    /**
+     * Opens a {@link ReaderContext} on the latest searcher of the provided shard and returns its id. Searches that carry the id
+     * run against the same point in time of the shard until the context is freed or expires.
+     */
+    public void openReaderContext(ShardId shardId, TimeValue keepAlive, ActionListener<Long> listener) {
+        final IndexShard indexShard;
+        try {
+            checkReaderKeepAlive(keepAlive.millis());
+            indexShard = indicesService.indexServiceSafe(shardId.getIndex()).getShard(shardId.id());
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
+        // reserve the slot of the new context upfront so that concurrent requests cannot exceed the limit
+        if (openReaderContexts.incrementAndGet() > maxOpenReaderContext) {
+            openReaderContexts.decrementAndGet();
+            listener.onFailure(new ElasticsearchException("Trying to create too many point in time contexts. Must be less than or " +
+                "equal to: [" + maxOpenReaderContext + "]. This limit can be set by changing the [" + MAX_OPEN_READER_CONTEXT.getKey()
+                + "] setting."));
+            return;
+        }
+        // make sure that a search idle shard is refreshed before its reader is pinned
+        indexShard.awaitShardSearchActive(b ->
+            getExecutor(indexShard).execute(new AbstractRunnable() {
+                private boolean opened = false;
+
+                @Override
+                public void onFailure(Exception e) {
+                    if (opened == false) {
+                        openReaderContexts.decrementAndGet();
+                    }
+                    listener.onFailure(e);
+                }
+
+                @Override
+                protected void doRun() {
+                    final ReaderContext readerContext = new ReaderContext(idGenerator.incrementAndGet(), indexShard,
+                        indexShard.acquireSearcher("point_in_time"), keepAlive.millis(), threadPool::relativeTimeInMillis);
+                    final ReaderContext previous = activeReaders.put(readerContext.id(), readerContext);
+                    assert previous == null;
+                    opened = true;
+                    listener.onResponse(readerContext.id());
+                }
+            }));
+    }
+
+    public boolean freeReaderContext(long id) {
+        final ReaderContext readerContext = activeReaders.remove(id);
+        if (readerContext != null) {
+            openReaderContexts.decrementAndGet();
+            readerContext.decRef();
+            return true;
+        }
+        return false;
+    }
+
+    private ReaderContext findReaderContext(long id, IndexShard indexShard) {
+        final ReaderContext readerContext = activeReaders.get(id);
+        if (readerContext == null || readerContext.shardId().equals(indexShard.shardId()) == false) {
+            throw new SearchContextMissingException(id);
+        }
+        return readerContext;
+    }
+
+    private long readerKeepAlive(SearchSourceBuilder source) {
+        if (source == null || source.pointInTimeBuilder() == null || source.pointInTimeBuilder().getKeepAlive() == null) {
+            return -1;
+        }
+        final long keepAlive = source.pointInTimeBuilder().getKeepAlive().millis();
+        checkReaderKeepAlive(keepAlive);
+        return keepAlive;
+    }
+
+    private void checkReaderKeepAlive(long keepAlive) {
+        if (keepAlive > maxKeepAlive) {
+            throw new IllegalArgumentException(
+                "Keep alive for point in time (" + TimeValue.timeValueMillis(keepAlive) + ") is too large. " +
+                    "It must be less than (" + TimeValue.timeValueMillis(maxKeepAlive) + "). " +
+                    "This limit can be set by changing the [" + MAX_KEEPALIVE_SETTING.getKey() + "] cluster level setting.");
+        }
+    }
+
+    private void freeAllReaderContextsForIndex(Index index) {
+        for (ReaderContext readerContext : activeReaders.values()) {
+            if (index.equals(readerContext.shardId().getIndex())) {
+                freeReaderContext(readerContext.id());
+            }
+        }
+    }
+
     private void freeAllContextForIndex(Index index) {
         assert index != null;
         for (SearchContext ctx : activeContexts.values()) {
@@ -917,8 +1148,9 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         }
 
         if (source.slice() != null) {
-            if (context.scrollContext() == null) {
-                throw new SearchContextException(context, "`slice` cannot be used outside of a scroll context");
+            // slices must be computed on the same view of the shard for every request, like the one of a point in time
+            if (context.scrollContext() == null && context.request().readerId() == null) {
+                throw new SearchContextException(context, "`slice` cannot be used outside of a scroll context or a point in time");
             }
             context.sliceBuilder(source.slice());
         }
@@ -1005,6 +1237,10 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
         return this.activeContexts.size();
     }
 
+    public int getActiveReaderContexts() {
+        return this.activeReaders.size();
+    }
+
     public ResponseCollectorService getResponseCollectorService() {
         return this.responseCollectorService;
     }
@@ -1026,6 +1262,13 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
                     freeContext(context.id());
                 }
             }
+            for (ReaderContext readerContext : activeReaders.values()) {
+                if (readerContext.isExpired(time)) {
+                    logger.debug("freeing reader context [{}], time [{}], lastAccessTime [{}], keepAlive [{}]", readerContext.id(), time,
+                        readerContext.lastAccessTime(), readerContext.keepAlive());
+                    freeReaderContext(readerContext.id());
+                }
+            }
         }
     }
 
@@ -1040,23 +1283,32 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
      */
     public boolean canMatch(ShardSearchRequest request) throws IOException {
         assert request.searchType() == SearchType.QUERY_THEN_FETCH : "unexpected search type: " + request.searchType();
-        try (DefaultSearchContext context = createSearchContext(request, defaultSearchTimeout, false, "can_match")) {
-            SearchSourceBuilder source = context.request().source();
-            if (canRewriteToMatchNone(source)) {
-                QueryBuilder queryBuilder = source.query();
-                return queryBuilder instanceof MatchNoneQueryBuilder == false;
-            }
-            return true; // null query means match_all
+        try (DefaultSearchContext context = createSearchContext(request, defaultSearchTimeout, false, "can_match", null)) {
+            return canMatch(context);
         }
     }
 
+    private static boolean canMatch(DefaultSearchContext context) {
+        SearchSourceBuilder source = context.request().source();
+        if (canRewriteToMatchNone(source)) {
+            QueryBuilder queryBuilder = source.query();
+            return queryBuilder instanceof MatchNoneQueryBuilder == false;
+        }
+        return true; // null query means match_all
+    }
 
     public void canMatch(ShardSearchRequest request, ActionListener<CanMatchResponse> listener) {
-        try {
-            listener.onResponse(new CanMatchResponse(canMatch(request)));
+        assert request.searchType() == SearchType.QUERY_THEN_FETCH : "unexpected search type: " + request.searchType();
+        final CanMatchResponse response;
+        try (DefaultSearchContext context = createSearchContext(request, defaultSearchTimeout, false, "can_match", null)) {
+            // the field ranges are read from the searcher of the request rather than from a second searcher
+            final ShardFieldRanges fieldRanges = ShardFieldRanges.fromShard(context.indexShard(), context.searcher().getDirectoryReader());
+            response = new CanMatchResponse(canMatch(context), fieldRanges);
         } catch (IOException e) {
             listener.onFailure(e);
+            return;
         }
+        listener.onResponse(response);
     }
 
     /**
@@ -1118,29 +1370,53 @@ public class SearchService extends AbstractLifecycleComponent implements IndexEv
 
     public static final class CanMatchResponse extends SearchPhaseResult {
         private boolean canMatch;
+        private ShardFieldRanges fieldRanges;
 
         public CanMatchResponse(StreamInput in) throws IOException {
             this.canMatch = in.readBoolean();
+            if (in.getVersion().onOrAfter(Version.V_7_0_0)) {
+                fieldRanges = in.readOptionalWriteable(ShardFieldRanges::new);
+            }
         }
 
         public CanMatchResponse(boolean canMatch) {
+            this(canMatch, null);
+        }
+
+        public CanMatchResponse(boolean canMatch, @Nullable ShardFieldRanges fieldRanges) {
             this.canMatch = canMatch;
+            this.fieldRanges = fieldRanges;
         }
 
         @Override
         public void readFrom(StreamInput in) throws IOException {
             super.readFrom(in);
             canMatch = in.readBoolean();
+            if (in.getVersion().onOrAfter(Version.V_7_0_0)) {
+                fieldRanges = in.readOptionalWriteable(ShardFieldRanges::new);
+            }
         }
 
         @Override
         public void writeTo(StreamOutput out) throws IOException {
             super.writeTo(out);
             out.writeBoolean(canMatch);
+            if (out.getVersion().onOrAfter(Version.V_7_0_0)) {
+                out.writeOptionalWriteable(fieldRanges);
+            }
         }
 
         public boolean canMatch() {
             return canMatch;
         }
+
+        /**
+         * The ranges of values of the shard that the coordinating node can cache, or <code>null</code> if the shard
+         * did not publish them.
+         */
+        @Nullable
+        public ShardFieldRanges getFieldRanges() {
+            return fieldRanges;
+        }
     }
 }
@@ -19,6 +19,7 @@
 package org.elasticsearch.search.aggregations;
 
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.FilterCollector;
 import org.apache.lucene.search.Query;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.lucene.search.Queries;
@@ -30,6 +31,7 @@ import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.profile.query.CollectorResult;
 import org.elasticsearch.search.profile.query.InternalProfileCollector;
 import org.elasticsearch.search.query.QueryPhaseExecutionException;
+import org.elasticsearch.search.query.SliceableCollector;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -52,6 +54,8 @@ public class AggregationPhase implements SearchPhase {
             Aggregator[] aggregators;
             try {
                 AggregatorFactories factories = context.aggregations().factories();
+                context.aggregations().collectsSlices(context.getProfilers() == null
+                    && context.searcher().isConcurrentSearchEnabled() && factories.supportsConcurrentCollection());
                 aggregators = factories.createTopLevelAggregators();
                 for (int i = 0; i < aggregators.length; i++) {
                     if (aggregators[i] instanceof GlobalAggregator == false) {
@@ -66,6 +70,8 @@ public class AggregationPhase implements SearchPhase {
                         collector = new InternalProfileCollector(collector, CollectorResult.REASON_AGGREGATION,
                                 // TODO: report on child aggs as well
                                 Collections.emptyList());
+                    } else if (context.aggregations().collectsSlices()) {
+                        collector = new SliceableAggregationCollector(collector, context);
                     }
                     context.queryCollectors().put(AggregationPhase.class, collector);
                 }
@@ -122,17 +128,32 @@ public class AggregationPhase implements SearchPhase {
             }
         }
 
-        List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
         context.aggregations().resetBucketMultiConsumer();
-        for (Aggregator aggregator : context.aggregations().aggregators()) {
-            try {
-                aggregator.postCollection();
-                aggregations.add(aggregator.buildAggregation(0));
-            } catch (IOException e) {
-                throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
+        List<InternalAggregation> aggregations = buildAggregations(context.aggregations().aggregators());
+        List<Aggregator[]> sliceAggregators = context.aggregations().sliceAggregators();
+        if (context.aggregations().collectsSlices() == false) {
+            context.queryResult().aggregations(new InternalAggregations(aggregations));
+        } else {
+            // slices are collected like shards, merge their aggregations with the ones of the top level aggregators
+            // that only collected global aggregations. The reduce also runs if the searcher didn't slice the shard
+            // since the aggregators built all their buckets and rely on it to prune them
+            List<InternalAggregations> slices = new ArrayList<>(sliceAggregators.size() + 1);
+            slices.add(new InternalAggregations(aggregations));
+            for (Aggregator[] slice : sliceAggregators) {
+                context.aggregations().resetBucketMultiConsumer();
+                slices.add(new InternalAggregations(buildAggregations(slice)));
+            }
+            context.aggregations().resetBucketMultiConsumer();
+            InternalAggregation.ReduceContext reduceContext = new InternalAggregation.ReduceContext(context.bigArrays(),
+                context.getQueryShardContext().getScriptService(), context.aggregations().multiBucketConsumer(), false, true);
+            InternalAggregations reduced = InternalAggregations.reduce(slices, reduceContext);
+            // preserve the order of the top level aggregations
+            List<InternalAggregation> reducedAggregations = new ArrayList<>(aggregations.size());
+            for (InternalAggregation aggregation : aggregations) {
+                reducedAggregations.add(reduced.get(aggregation.getName()));
             }
+            context.queryResult().aggregations(new InternalAggregations(reducedAggregations));
         }
-        context.queryResult().aggregations(new InternalAggregations(aggregations));
         try {
             List<PipelineAggregator> pipelineAggregators = context.aggregations().factories().createPipelineAggregators();
             List<SiblingPipelineAggregator> siblingPipelineAggregators = new ArrayList<>(pipelineAggregators.size());
@@ -155,4 +176,45 @@ public class AggregationPhase implements SearchPhase {
         context.queryCollectors().remove(AggregationPhase.class);
     }
 
+    private static List<InternalAggregation> buildAggregations(Aggregator[] aggregators) {
+        List<InternalAggregation> aggregations = new ArrayList<>(aggregators.length);
+        for (Aggregator aggregator : aggregators) {
+            try {
+                aggregator.postCollection();
+                aggregations.add(aggregator.buildAggregation(0));
+            } catch (IOException e) {
+                throw new AggregationExecutionException("Failed to build aggregation [" + aggregator.name() + "]", e);
+            }
+        }
+        return aggregations;
+    }
+
+    /**
+     * Wraps the collector of the top level aggregators and creates a new set of top level aggregators for each slice
+     * of the shard that is collected concurrently. The aggregations of the slices are reduced in {@link #execute(SearchContext)}.
+     */
+    private static final class SliceableAggregationCollector extends FilterCollector implements SliceableCollector {
+        private final SearchContext context;
+
+        SliceableAggregationCollector(Collector in, SearchContext context) {
+            super(in);
+            this.context = context;
+        }
+
+        @Override
+        public Collector createSliceCollector() throws IOException {
+            List<Aggregator> collectors = new ArrayList<>();
+            for (Aggregator aggregator : context.aggregations().factories().createTopLevelAggregators()) {
+                // global aggregators are collected by the top level aggregators
+                if (aggregator instanceof GlobalAggregator == false) {
+                    collectors.add(aggregator);
+                }
+            }
+            context.aggregations().addSliceAggregators(collectors.toArray(new Aggregator[0]));
+            BucketCollector collector = MultiBucketCollector.wrap(collectors);
+            collector.preCollection();
+            return collector;
+        }
+    }
+
 }
@@ -222,6 +222,19 @@ public class AggregatorFactories {
         return aggregators;
     }
 
+    /**
+     * Returns true if all the aggregators of this tree can collect slices of a shard concurrently,
+     * see {@link AggregatorFactory#supportsConcurrentCollection()}.
+     */
+    public boolean supportsConcurrentCollection() {
+        for (AggregatorFactory<?> factory : factories) {
+            if (factory.supportsConcurrentCollection() == false || factory.factories.supportsConcurrentCollection() == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * @return the number of sub-aggregator factories not including pipeline
      *         aggregator factories
@@ -221,6 +221,17 @@ public abstract class AggregatorFactory<AF extends AggregatorFactory<AF>> {
         return parent;
     }
 
+    /**
+     * Returns true if slices of a shard can be collected concurrently, each with its own instance of the aggregator
+     * created by this factory, and if the aggregations built for the slices can be merged with a partial reduce before
+     * they leave the shard. Sub-aggregations must support it as well, see {@link AggregatorFactories#supportsConcurrentCollection()}.
+     * Factories whose aggregators depend on seeing all the documents of the shard, or whose aggregations can't be reduced
+     * on the shard, must return false.
+     */
+    protected boolean supportsConcurrentCollection() {
+        return true;
+    }
+
     /**
      * Utility method. Given an {@link AggregatorFactory} that creates
      * {@link Aggregator}s that only know how to collect bucket {@code 0}, this
@@ -0,0 +1,78 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.apache.lucene.search.Scorable;
+
+import java.io.IOException;
+
+/**
+ * A {@link LeafBucketCollector} that buffers the documents that are collected into the same bucket and collects them in blocks
+ * with {@link LeafBucketCollector#collect(int[], int, long)}. Buffered documents must be flushed with {@link #flush()} once the
+ * segment is collected, and the wrapped collector must not need scores since documents are collected after the scorer moved on.
+ */
+public final class DocBlockLeafBucketCollector extends LeafBucketCollector {
+
+    static final int BLOCK_SIZE = 1024;
+
+    private final LeafBucketCollector in;
+    private final int[] docs = new int[BLOCK_SIZE];
+    private int count;
+    private long bucket;
+
+    public DocBlockLeafBucketCollector(LeafBucketCollector in) {
+        this.in = in;
+    }
+
+    @Override
+    public void setScorer(Scorable scorer) throws IOException {
+        in.setScorer(scorer);
+    }
+
+    @Override
+    public void collect(int doc, long bucket) throws IOException {
+        if (count > 0 && bucket != this.bucket) {
+            flush();
+        }
+        this.bucket = bucket;
+        docs[count++] = doc;
+        if (count == docs.length) {
+            flush();
+        }
+    }
+
+    @Override
+    public void collect(int[] docs, int count, long bucket) throws IOException {
+        flush();
+        in.collect(docs, count, bucket);
+    }
+
+    /**
+     * Collects the buffered documents.
+     */
+    public void flush() throws IOException {
+        if (count > 0) {
+            final int count = this.count;
+            // reset first so that the buffer is not collected twice if collection fails
+            this.count = 0;
+            in.collect(docs, count, bucket);
+        }
+    }
+}
@@ -46,16 +46,24 @@ public abstract class InternalAggregation implements Aggregation, NamedWriteable
         private final ScriptService scriptService;
         private final IntConsumer multiBucketConsumer;
         private final boolean isFinalReduce;
+        private final boolean isSliceReduce;
 
         public ReduceContext(BigArrays bigArrays, ScriptService scriptService, boolean isFinalReduce) {
             this(bigArrays, scriptService, (s) -> {}, isFinalReduce);
         }
 
         public ReduceContext(BigArrays bigArrays, ScriptService scriptService, IntConsumer multiBucketConsumer, boolean isFinalReduce) {
+            this(bigArrays, scriptService, multiBucketConsumer, isFinalReduce, false);
+        }
+
+        public ReduceContext(BigArrays bigArrays, ScriptService scriptService, IntConsumer multiBucketConsumer, boolean isFinalReduce,
+                             boolean isSliceReduce) {
+            assert isFinalReduce == false || isSliceReduce == false : "the reduce of the slices of a shard can't be final";
             this.bigArrays = bigArrays;
             this.scriptService = scriptService;
             this.multiBucketConsumer = multiBucketConsumer;
             this.isFinalReduce = isFinalReduce;
+            this.isSliceReduce = isSliceReduce;
         }
 
         /**
@@ -67,6 +75,15 @@ public abstract class InternalAggregation implements Aggregation, NamedWriteable
             return isFinalReduce;
         }
 
+        /**
+         * Returns <code>true</code> iff the aggregations of the slices of a shard that were collected concurrently are reduced
+         * before they leave the shard. The slices build all their buckets, so this reduce must prune the buckets that the
+         * shard would not have returned if it had been collected by a single collector, like the terms beyond the shard size.
+         */
+        public boolean isSliceReduce() {
+            return isSliceReduce;
+        }
+
         public BigArrays bigArrays() {
             return bigArrays;
         }
@@ -68,6 +68,13 @@ public abstract class LeafBucketCollector implements LeafCollector {
                     }
                 }
 
+                @Override
+                public void collect(int[] docs, int count, long bucket) throws IOException {
+                    for (LeafBucketCollector c : colls) {
+                        c.collect(docs, count, bucket);
+                    }
+                }
+
             };
         }
     }
@@ -77,6 +84,17 @@ public abstract class LeafBucketCollector implements LeafCollector {
      */
     public abstract void collect(int doc, long bucket) throws IOException;
 
+    /**
+     * Collect the first {@code count} docs of the given array, which are in increasing order, in the given bucket.
+     * Collectors that can process blocks of docs faster than one doc at a time should override this method,
+     * see {@link DocBlockLeafBucketCollector}.
+     */
+    public void collect(int[] docs, int count, long bucket) throws IOException {
+        for (int i = 0; i < count; i++) {
+            collect(docs[i], bucket);
+        }
+    }
+
     @Override
     public final void collect(int doc) throws IOException {
         collect(doc, 0);
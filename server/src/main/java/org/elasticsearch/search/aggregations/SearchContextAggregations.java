@@ -18,6 +18,9 @@
  */
 package org.elasticsearch.search.aggregations;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.elasticsearch.search.aggregations.MultiBucketConsumerService.MultiBucketConsumer;
 
 /**
@@ -28,6 +31,8 @@ public class SearchContextAggregations {
     private final AggregatorFactories factories;
     private final MultiBucketConsumer multiBucketConsumer;
     private Aggregator[] aggregators;
+    private final List<Aggregator[]> sliceAggregators = new ArrayList<>();
+    private boolean collectsSlices;
 
     /**
      * Creates a new aggregation context with the parsed aggregator factories
@@ -54,6 +59,37 @@ public class SearchContextAggregations {
         this.aggregators = aggregators;
     }
 
+    /**
+     * Returns <code>true</code> iff the slices of the shard are collected concurrently by their own aggregators, whose
+     * aggregations are reduced before they leave the shard.
+     */
+    public boolean collectsSlices() {
+        return collectsSlices;
+    }
+
+    /**
+     * Sets whether the slices of the shard are collected concurrently. Must be set before the aggregators are created.
+     */
+    public void collectsSlices(boolean collectsSlices) {
+        this.collectsSlices = collectsSlices;
+    }
+
+    /**
+     * Returns the top level aggregators that collected slices of the shard concurrently, one array per slice.
+     */
+    public List<Aggregator[]> sliceAggregators() {
+        return sliceAggregators;
+    }
+
+    /**
+     * Registers the top level aggregators that collect a single slice of the shard.
+     *
+     * @param aggregators The top level aggregators of the slice, excluding global aggregators.
+     */
+    public void addSliceAggregators(Aggregator[] aggregators) {
+        sliceAggregators.add(aggregators);
+    }
+
     /**
      * Returns a consumer for multi bucket aggregation that checks the total number of buckets
      * created in the response
@@ -63,4 +63,8 @@ public class AdjacencyMatrixAggregatorFactory extends AggregatorFactory<Adjacenc
                 pipelineAggregators, metaData);
     }
 
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
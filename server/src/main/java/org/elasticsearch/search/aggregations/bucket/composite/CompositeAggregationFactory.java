@@ -49,4 +49,9 @@ class CompositeAggregationFactory extends AggregatorFactory<CompositeAggregation
         return new CompositeAggregator(name, factories, context, parent, pipelineAggregators, metaData,
             size, sources, afterKey);
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
@@ -73,4 +73,8 @@ public class FilterAggregatorFactory extends AggregatorFactory<FilterAggregatorF
         return new FilterAggregator(name, () -> this.getWeight(), factories, context, parent, pipelineAggregators, metaData);
     }
 
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
@@ -91,5 +91,8 @@ public class FiltersAggregatorFactory extends AggregatorFactory<FiltersAggregato
                 pipelineAggregators, metaData);
     }
 
-
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
@@ -77,4 +77,8 @@ public class GeoHashGridAggregatorFactory extends ValuesSourceAggregatorFactory<
 
     }
 
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
@@ -49,4 +49,9 @@ public class GlobalAggregatorFactory extends AggregatorFactory<GlobalAggregatorF
         }
         return new GlobalAggregator(name, factories, context, pipelineAggregators, metaData);
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
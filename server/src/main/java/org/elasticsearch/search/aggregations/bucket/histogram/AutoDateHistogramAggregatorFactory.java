@@ -69,4 +69,9 @@ public final class AutoDateHistogramAggregatorFactory
             throws IOException {
         return createAggregator(null, parent, pipelineAggregators, metaData);
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
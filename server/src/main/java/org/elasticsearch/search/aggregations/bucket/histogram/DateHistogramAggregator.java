@@ -18,14 +18,28 @@
  */
 package org.elasticsearch.search.aggregations.bucket.histogram;
 
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
 import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DocValuesFieldExistsQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PointRangeQuery;
+import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.util.CollectionUtil;
 import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.rounding.Rounding;
 import org.elasticsearch.common.util.LongHash;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
@@ -37,6 +51,7 @@ import org.elasticsearch.search.aggregations.LeafBucketCollectorBase;
 import org.elasticsearch.search.aggregations.bucket.BucketsAggregator;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
+import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
 import org.elasticsearch.search.internal.SearchContext;
 
 import java.io.IOException;
@@ -53,6 +68,13 @@ import java.util.Map;
  */
 class DateHistogramAggregator extends BucketsAggregator {
 
+    /**
+     * The minimum number of documents with a value that a segment must have per bucket in order to count the documents
+     * of the buckets from the points of the field, since every bucket costs a descent of the points tree plus the scan
+     * of up to two leaves of the tree that cross the bucket boundaries.
+     */
+    static final int MIN_DOCS_PER_POINT_RANGE_BUCKET = 1024;
+
     private final ValuesSource.Numeric valuesSource;
     private final DocValueFormat formatter;
     private final Rounding rounding;
@@ -66,10 +88,13 @@ class DateHistogramAggregator extends BucketsAggregator {
     private final LongHash bucketOrds;
     private long offset;
 
+    private final String pointField;
+    private final long[] pointRange;
+
     DateHistogramAggregator(String name, AggregatorFactories factories, Rounding rounding, Rounding shardRounding,
             long offset, BucketOrder order, boolean keyed,
             long minDocCount, @Nullable ExtendedBounds extendedBounds, @Nullable ValuesSource.Numeric valuesSource,
-            DocValueFormat formatter, SearchContext aggregationContext,
+            ValuesSourceConfig<ValuesSource.Numeric> config, SearchContext aggregationContext,
             Aggregator parent, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
 
         super(name, factories, aggregationContext, parent, pipelineAggregators, metaData);
@@ -81,9 +106,15 @@ class DateHistogramAggregator extends BucketsAggregator {
         this.minDocCount = minDocCount;
         this.extendedBounds = extendedBounds;
         this.valuesSource = valuesSource;
-        this.formatter = formatter;
+        this.formatter = config.format();
 
         bucketOrds = new LongHash(1, aggregationContext.bigArrays());
+        this.pointRange = valuesSource == null ? null : getPointRangeOrNull(aggregationContext, parent, factories, config);
+        if (pointRange != null) {
+            pointField = config.fieldContext().field();
+        } else {
+            pointField = null;
+        }
     }
 
     @Override
@@ -100,6 +131,10 @@ class DateHistogramAggregator extends BucketsAggregator {
         if (valuesSource == null) {
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
+        if (pointRange != null && countBucketsFromPoints(ctx.reader())) {
+            // the documents of all buckets have been counted, we don't need to collect hits on this segment.
+            throw new CollectionTerminatedException();
+        }
         final SortedNumericDocValues values = valuesSource.longValues(ctx);
         return new LeafBucketCollectorBase(sub, values) {
             @Override
@@ -132,6 +167,100 @@ class DateHistogramAggregator extends BucketsAggregator {
         };
     }
 
+    /**
+     * Counts the documents of every bucket of the provided segment with the points of the field, and returns
+     * <code>false</code> if the documents of the segment need to be collected instead.
+     */
+    private boolean countBucketsFromPoints(LeafReader reader) throws IOException {
+        final PointValues pointValues = reader.getPointValues(pointField);
+        if (pointValues == null || reader.getLiveDocs() != null || pointValues.size() != pointValues.getDocCount()) {
+            // deleted documents and documents with several values can't be counted from the points
+            return false;
+        }
+        final long min = Math.max(pointRange[0], LongPoint.decodeDimension(pointValues.getMinPackedValue(), 0));
+        final long max = Math.min(pointRange[1], LongPoint.decodeDimension(pointValues.getMaxPackedValue(), 0));
+        if (min > max) {
+            // no document of this segment matches the query
+            return true;
+        }
+        final int maxBuckets = Math.max(1, pointValues.getDocCount() / MIN_DOCS_PER_POINT_RANGE_BUCKET);
+        int numBuckets = 0;
+        for (long key = round(min); ; key = nextKey(key)) {
+            if (++numBuckets > maxBuckets) {
+                return false;
+            }
+            if (bucketUpperBound(key, max) == max) {
+                break;
+            }
+        }
+        for (long key = round(min); ; key = nextKey(key)) {
+            final long upper = bucketUpperBound(key, max);
+            final int count = countPoints(pointValues, Math.max(key, min), upper);
+            if (count > 0) {
+                long bucketOrd = bucketOrds.add(key);
+                if (bucketOrd < 0) { // already seen
+                    bucketOrd = -1 - bucketOrd;
+                }
+                incrementBucketDocCount(bucketOrd, count);
+            }
+            if (upper == max) {
+                return true;
+            }
+        }
+    }
+
+    private long round(long value) {
+        // We can use shardRounding here, see #getLeafCollector
+        return shardRounding.round(value - offset) + offset;
+    }
+
+    private long nextKey(long key) {
+        return shardRounding.nextRoundingValue(key - offset) + offset;
+    }
+
+    /**
+     * Returns the greatest value of the bucket with the provided key that is not greater than <code>max</code>.
+     */
+    private long bucketUpperBound(long key, long max) {
+        final long next = nextKey(key);
+        return next > key && next <= max ? next - 1 : max;
+    }
+
+    /**
+     * Counts the points of a single valued field whose value is between <code>lower</code> and <code>upper</code> inclusive.
+     */
+    static int countPoints(PointValues pointValues, long lower, long upper) throws IOException {
+        final int[] count = new int[1];
+        pointValues.intersect(new PointValues.IntersectVisitor() {
+            @Override
+            public void visit(int docID) {
+                count[0]++;
+            }
+
+            @Override
+            public void visit(int docID, byte[] packedValue) {
+                final long value = LongPoint.decodeDimension(packedValue, 0);
+                if (value >= lower && value <= upper) {
+                    count[0]++;
+                }
+            }
+
+            @Override
+            public PointValues.Relation compare(byte[] minPackedValue, byte[] maxPackedValue) {
+                final long min = LongPoint.decodeDimension(minPackedValue, 0);
+                final long max = LongPoint.decodeDimension(maxPackedValue, 0);
+                if (max < lower || min > upper) {
+                    return PointValues.Relation.CELL_OUTSIDE_QUERY;
+                }
+                if (min >= lower && max <= upper) {
+                    return PointValues.Relation.CELL_INSIDE_QUERY;
+                }
+                return PointValues.Relation.CELL_CROSSES_QUERY;
+            }
+        });
+        return count[0];
+    }
+
     @Override
     public InternalAggregation buildAggregation(long owningBucketOrdinal) throws IOException {
         assert owningBucketOrdinal == 0;
@@ -163,6 +292,56 @@ class DateHistogramAggregator extends BucketsAggregator {
                 pipelineAggregators(), metaData());
     }
 
+    /**
+     * Returns the inclusive range of values that the query matches if the documents of the buckets can be counted
+     * with the points of the field rather than collected, or <code>null</code> otherwise. This is the case for a
+     * top level aggregation without sub-aggregations on an indexed date field when the query is either a
+     * <code>match_all</code> or matches the documents that have a value in a range of the same field.
+     */
+    static long[] getPointRangeOrNull(SearchContext context, Aggregator parent, AggregatorFactories factories,
+                                      ValuesSourceConfig<ValuesSource.Numeric> config) {
+        if (parent != null || factories.countAggregators() > 0) {
+            return null;
+        }
+        if (context.minimumScore() != null || context.terminateAfter() != SearchContext.DEFAULT_TERMINATE_AFTER) {
+            return null;
+        }
+        if (config.fieldContext() == null || config.script() != null || config.missing() != null) {
+            return null;
+        }
+        MappedFieldType fieldType = config.fieldContext().fieldType();
+        if (fieldType == null || fieldType.getClass() != DateFieldMapper.DateFieldType.class
+                || fieldType.indexOptions() == IndexOptions.NONE) {
+            return null;
+        }
+        return getPointRangeOrNull(context.query(), fieldType.name());
+    }
+
+    private static long[] getPointRangeOrNull(Query query, String field) {
+        if (query == null || query.getClass() == MatchAllDocsQuery.class) {
+            return new long[] { Long.MIN_VALUE, Long.MAX_VALUE };
+        } else if (query instanceof ConstantScoreQuery) {
+            return getPointRangeOrNull(((ConstantScoreQuery) query).getQuery(), field);
+        } else if (query instanceof BoostQuery) {
+            return getPointRangeOrNull(((BoostQuery) query).getQuery(), field);
+        } else if (query instanceof IndexOrDocValuesQuery) {
+            return getPointRangeOrNull(((IndexOrDocValuesQuery) query).getIndexQuery(), field);
+        } else if (query instanceof DocValuesFieldExistsQuery) {
+            if (field.equals(((DocValuesFieldExistsQuery) query).getField())) {
+                return new long[] { Long.MIN_VALUE, Long.MAX_VALUE };
+            }
+        } else if (query instanceof PointRangeQuery) {
+            PointRangeQuery rangeQuery = (PointRangeQuery) query;
+            if (field.equals(rangeQuery.getField()) && rangeQuery.getNumDims() == 1 && rangeQuery.getBytesPerDim() == Long.BYTES) {
+                return new long[] {
+                    LongPoint.decodeDimension(rangeQuery.getLowerPoint(), 0),
+                    LongPoint.decodeDimension(rangeQuery.getUpperPoint(), 0)
+                };
+            }
+        }
+        return null;
+    }
+
     @Override
     public void doClose() {
         Releasables.close(bucketOrds);
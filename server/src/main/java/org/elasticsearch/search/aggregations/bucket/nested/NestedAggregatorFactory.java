@@ -68,4 +68,8 @@ class NestedAggregatorFactory extends AggregatorFactory<NestedAggregatorFactory>
         }
     }
 
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
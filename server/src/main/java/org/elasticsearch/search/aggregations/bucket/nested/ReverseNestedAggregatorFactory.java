@@ -68,4 +68,9 @@ public class ReverseNestedAggregatorFactory extends AggregatorFactory<ReverseNes
             return new InternalReverseNested(name, 0, buildEmptySubAggregations(), pipelineAggregators(), metaData());
         }
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
@@ -64,5 +64,8 @@ public class AbstractRangeAggregatorFactory<AF extends AbstractRangeAggregatorFa
                 pipelineAggregators, metaData);
     }
 
-
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
@@ -66,4 +66,8 @@ public class BinaryRangeAggregatorFactory
                 ranges, keyed, context, parent, pipelineAggregators, metaData);
     }
 
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
@@ -119,4 +119,8 @@ public class GeoDistanceRangeAggregatorFactory
 
     }
 
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
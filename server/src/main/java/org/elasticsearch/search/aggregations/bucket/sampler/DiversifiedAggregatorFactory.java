@@ -96,4 +96,8 @@ public class DiversifiedAggregatorFactory extends ValuesSourceAggregatorFactory<
         };
     }
 
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
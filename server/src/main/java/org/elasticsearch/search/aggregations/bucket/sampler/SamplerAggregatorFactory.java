@@ -45,4 +45,8 @@ public class SamplerAggregatorFactory extends AggregatorFactory<SamplerAggregato
         return new SamplerAggregator(name, shardSize, factories, context, parent, pipelineAggregators, metaData);
     }
 
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
@@ -187,4 +187,9 @@ public class SignificantTextAggregatorFactory extends AggregatorFactory<Signific
                 incExcFilter, significanceHeuristic, this, indexedFieldName, sourceFieldNames, filterDuplicateText, metaData);
 
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
@@ -239,7 +239,10 @@ public abstract class InternalTerms<A extends InternalTerms<A, B>, B extends Int
             }
             otherDocCount += terms.getSumOfOtherDocCounts();
             final long thisAggDocCountError;
-            if (terms.getBuckets().size() < getShardSize() || InternalOrder.isKeyOrder(order)) {
+            if (reduceContext.isSliceReduce()) {
+                // slices return all their terms
+                thisAggDocCountError = 0;
+            } else if (terms.getBuckets().size() < getShardSize() || InternalOrder.isKeyOrder(order)) {
                 thisAggDocCountError = 0;
             } else if (InternalOrder.isCountDesc(order)) {
                 if (terms.getDocCountError() > 0) {
@@ -280,7 +283,13 @@ public abstract class InternalTerms<A extends InternalTerms<A, B>, B extends Int
             }
         }
 
-        final int size = reduceContext.isFinalReduce() == false ? buckets.size() : Math.min(requiredSize, buckets.size());
+        final int size;
+        if (reduceContext.isSliceReduce()) {
+            // the shard returns its top terms only
+            size = Math.min(getShardSize(), buckets.size());
+        } else {
+            size = reduceContext.isFinalReduce() == false ? buckets.size() : Math.min(requiredSize, buckets.size());
+        }
         final BucketPriorityQueue<B> ordered = new BucketPriorityQueue<>(size, order.comparator(null));
         for (List<B> sameTermBuckets : buckets.values()) {
             final B b = sameTermBuckets.get(0).reduce(sameTermBuckets, reduceContext);
@@ -0,0 +1,165 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.bucket.terms;
+
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.lease.Releasables;
+import org.elasticsearch.common.util.IntArray;
+import org.elasticsearch.common.util.LongArray;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
+import org.elasticsearch.search.aggregations.LeafBucketCollectorBase;
+import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.search.aggregations.support.ValuesSource;
+import org.elasticsearch.search.internal.SearchContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An aggregator of string values that collects the ordinals of each segment instead of global ordinals, so that global
+ * ordinals never need to be built for the field. The terms of a segment are looked up and added to the buckets of the shard
+ * once per segment rather than once per document:
+ * <ul>
+ *     <li>without sub aggregations, the doc counts of the ordinals of a segment are collected in an array and merged
+ *     into the buckets when the segment is collected.</li>
+ *     <li>with sub aggregations, the bucket of each ordinal of a segment is resolved the first time the ordinal is
+ *     collected, so that documents can be collected in their final bucket.</li>
+ * </ul>
+ */
+public class SegmentOrdinalsStringTermsAggregator extends StringTermsAggregator {
+
+    private final ValuesSource.Bytes.WithOrdinals valuesSource;
+    private final IncludeExclude.StringFilter includeExclude;
+
+    // the ordinals of the segment that is being collected
+    private SortedSetDocValues segmentOrds;
+    // the doc count of each ordinal of the segment, when there are no sub aggregations
+    private IntArray segmentDocCounts;
+    // the bucket of each ordinal of the segment plus one, 0 if the ordinal was not resolved yet and -1 if it is excluded
+    private LongArray segmentBucketOrds;
+
+    public SegmentOrdinalsStringTermsAggregator(String name, AggregatorFactories factories, ValuesSource.Bytes.WithOrdinals valuesSource,
+            BucketOrder order, DocValueFormat format, BucketCountThresholds bucketCountThresholds,
+            IncludeExclude.StringFilter includeExclude, SearchContext context,
+            Aggregator parent, SubAggCollectionMode collectionMode, boolean showTermDocCountError,
+            List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData) throws IOException {
+        super(name, factories, valuesSource, order, format, bucketCountThresholds, includeExclude, context, parent, collectionMode,
+            showTermDocCountError, pipelineAggregators, metaData);
+        this.valuesSource = valuesSource;
+        this.includeExclude = includeExclude;
+    }
+
+    @Override
+    public LeafBucketCollector getLeafCollector(LeafReaderContext ctx, final LeafBucketCollector sub) throws IOException {
+        mergeSegment();
+        final SortedSetDocValues ords = valuesSource.ordinalsValues(ctx);
+        segmentOrds = ords;
+        if (sub == LeafBucketCollector.NO_OP_COLLECTOR) {
+            final IntArray docCounts = context.bigArrays().newIntArray(ords.getValueCount(), true);
+            segmentDocCounts = docCounts;
+            return new LeafBucketCollectorBase(sub, ords) {
+                @Override
+                public void collect(int doc, long bucket) throws IOException {
+                    assert bucket == 0;
+                    if (ords.advanceExact(doc)) {
+                        for (long ord = ords.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = ords.nextOrd()) {
+                            docCounts.increment(ord, 1);
+                        }
+                    }
+                }
+            };
+        }
+        final LongArray bucketOrdsPlusOne = context.bigArrays().newLongArray(ords.getValueCount(), true);
+        segmentBucketOrds = bucketOrdsPlusOne;
+        return new LeafBucketCollectorBase(sub, ords) {
+            @Override
+            public void collect(int doc, long bucket) throws IOException {
+                assert bucket == 0;
+                if (ords.advanceExact(doc)) {
+                    for (long ord = ords.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = ords.nextOrd()) {
+                        long bucketOrdPlusOne = bucketOrdsPlusOne.get(ord);
+                        if (bucketOrdPlusOne == 0) {
+                            final long bucketOrd = bucketOrd(ords.lookupOrd(ord));
+                            bucketOrdPlusOne = bucketOrd == -1 ? -1 : bucketOrd + 1;
+                            bucketOrdsPlusOne.set(ord, bucketOrdPlusOne);
+                        }
+                        if (bucketOrdPlusOne > 0) {
+                            collectBucket(sub, doc, bucketOrdPlusOne - 1);
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the bucket of the provided term, adding it if needed, or -1 if the term is excluded.
+     */
+    private long bucketOrd(BytesRef term) {
+        if (includeExclude != null && includeExclude.accept(term) == false) {
+            return -1;
+        }
+        final long bucketOrd = bucketOrds.add(term);
+        return bucketOrd < 0 ? -1 - bucketOrd : bucketOrd;
+    }
+
+    /**
+     * Adds the doc counts of the segment that was collected last to the buckets and releases the state of the segment.
+     */
+    private void mergeSegment() throws IOException {
+        try {
+            if (segmentDocCounts != null) {
+                for (long ord = 0; ord < segmentDocCounts.size(); ord++) {
+                    final int docCount = segmentDocCounts.get(ord);
+                    if (docCount == 0) {
+                        continue;
+                    }
+                    final long bucketOrd = bucketOrd(segmentOrds.lookupOrd(ord));
+                    if (bucketOrd != -1) {
+                        incrementBucketDocCount(bucketOrd, docCount);
+                    }
+                }
+            }
+        } finally {
+            Releasables.close(segmentDocCounts, segmentBucketOrds);
+            segmentDocCounts = null;
+            segmentBucketOrds = null;
+            segmentOrds = null;
+        }
+    }
+
+    @Override
+    protected void doPostCollection() throws IOException {
+        mergeSegment();
+    }
+
+    @Override
+    public void doClose() {
+        Releasables.close(segmentDocCounts, segmentBucketOrds);
+        super.doClose();
+    }
+}
@@ -31,6 +31,7 @@ import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
 import org.elasticsearch.search.aggregations.BucketOrder;
+import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.InternalOrder;
 import org.elasticsearch.search.aggregations.InternalOrder.Aggregation;
 import org.elasticsearch.search.aggregations.InternalOrder.CompoundOrder;
@@ -215,6 +216,18 @@ public abstract class TermsAggregator extends DeferableBucketAggregator {
         }
     }
 
+    /**
+     * Returns the maximum number of buckets that this aggregator builds. This is the shard size unless the slices of the shard
+     * are collected concurrently: each slice then builds all its buckets, and the buckets are pruned to the shard size once
+     * the slices are reduced, see {@link InternalAggregation.ReduceContext#isSliceReduce()}.
+     */
+    protected final int shardSize() {
+        if (context.aggregations() != null && context.aggregations().collectsSlices()) {
+            return Integer.MAX_VALUE;
+        }
+        return bucketCountThresholds.getShardSize();
+    }
+
     static boolean descendsFromNestedAggregator(Aggregator parent) {
         while (parent != null) {
             if (parent.getClass() == NestedAggregator.class) {
@@ -20,9 +20,11 @@
 package org.elasticsearch.search.aggregations.bucket.terms;
 
 import org.apache.logging.log4j.LogManager;
+import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.IndexSearcher;
 import org.elasticsearch.common.ParseField;
 import org.elasticsearch.common.logging.DeprecationLogger;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.AggregationExecutionException;
 import org.elasticsearch.search.aggregations.Aggregator;
@@ -51,6 +53,15 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
 
     static Boolean REMAP_GLOBAL_ORDS, COLLECT_SEGMENT_ORDS;
 
+    /**
+     * The maximum refresh interval of a shard to collect the ordinals of each segment rather than global ordinals.
+     */
+    static final TimeValue SEGMENT_ORDINALS_MAX_REFRESH_INTERVAL = TimeValue.timeValueSeconds(30);
+    /**
+     * The minimum number of terms of a segment to collect the ordinals of each segment rather than global ordinals.
+     */
+    static final long SEGMENT_ORDINALS_MIN_CARDINALITY = 1 << 16;
+
     private final BucketOrder order;
     private final IncludeExclude includeExclude;
     private final String executionHint;
@@ -79,6 +90,12 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
         this.showTermDocCountError = showTermDocCountError;
     }
 
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        // slices are reduced like shards so a shard_min_doc_count could prune terms that match in several slices
+        return bucketCountThresholds.getShardMinDocCount() <= 1;
+    }
+
     @Override
     protected Aggregator createUnmapped(Aggregator parent, List<PipelineAggregator> pipelineAggregators, Map<String, Object> metaData)
             throws IOException {
@@ -133,10 +150,12 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
             if (valuesSource instanceof ValuesSource.Bytes.WithOrdinals == false) {
                 execution = ExecutionMode.MAP;
             }
-            final long maxOrd = getMaxOrd(valuesSource, context.searcher());
             if (execution == null) {
-                execution = ExecutionMode.GLOBAL_ORDINALS;
+                execution = useSegmentOrdinals((ValuesSource.Bytes.WithOrdinals) valuesSource) ?
+                    ExecutionMode.SEGMENT_ORDINALS : ExecutionMode.GLOBAL_ORDINALS;
             }
+            // do not build global ordinals only to estimate the number of buckets if they are not used
+            final long maxOrd = execution == ExecutionMode.SEGMENT_ORDINALS ? -1 : getMaxOrd(valuesSource, context.searcher());
             SubAggCollectionMode cm = collectMode;
             if (cm == null) {
                 cm = SubAggCollectionMode.DEPTH_FIRST;
@@ -192,6 +211,43 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
                 + "]. It can only be applied to numeric or string fields.");
     }
 
+    /**
+     * Returns whether the terms of the provided values source should be collected with the ordinals of each segment
+     * rather than with global ordinals.
+     */
+    private boolean useSegmentOrdinals(ValuesSource.Bytes.WithOrdinals valuesSource) throws IOException {
+        if (config.fieldContext() == null) {
+            return false;
+        }
+        final List<LeafReaderContext> leaves = context.searcher().getIndexReader().leaves();
+        long maxSegmentCardinality = 0;
+        if (leaves.size() > 1) {
+            for (LeafReaderContext leaf : leaves) {
+                maxSegmentCardinality = Math.max(maxSegmentCardinality, valuesSource.ordinalsValues(leaf).getValueCount());
+            }
+        }
+        return useSegmentOrdinals(config.fieldContext().fieldType().eagerGlobalOrdinals(),
+            context.getQueryShardContext().getIndexSettings().getRefreshInterval(), leaves.size(), maxSegmentCardinality);
+    }
+
+    /**
+     * Global ordinals are built on the first search after each refresh, and building them for a field with many terms
+     * costs time and heap. We collect the ordinals of each segment instead when global ordinals are likely to be built
+     * for few searches, that is when the shard is refreshed often and the field has many terms, unless global ordinals
+     * are built eagerly on refresh anyway or the shard has a single segment, whose ordinals are the global ordinals.
+     *
+     * @param maxSegmentCardinality the number of terms of the segment with the most terms, a lower bound of the number
+     *                              of terms of the shard
+     */
+    static boolean useSegmentOrdinals(boolean eagerGlobalOrdinals, TimeValue refreshInterval, int numSegments,
+                                      long maxSegmentCardinality) {
+        return eagerGlobalOrdinals == false
+            && refreshInterval.millis() > 0
+            && refreshInterval.compareTo(SEGMENT_ORDINALS_MAX_REFRESH_INTERVAL) <= 0
+            && numSegments > 1
+            && maxSegmentCardinality >= SEGMENT_ORDINALS_MIN_CARDINALITY;
+    }
+
     // return the SubAggCollectionMode that this aggregation should use based on the expected size
     // and the cardinality of the field
     static SubAggCollectionMode subAggCollectionMode(int expectedSize, long maxOrd) {
@@ -305,16 +361,40 @@ public class TermsAggregatorFactory extends ValuesSourceAggregatorFactory<Values
                         format, bucketCountThresholds, filter, context, parent, remapGlobalOrds, subAggCollectMode, showTermDocCountError,
                         pipelineAggregators, metaData);
             }
+        },
+        SEGMENT_ORDINALS(new ParseField("segment_ordinals")) {
+
+            @Override
+            Aggregator create(String name,
+                              AggregatorFactories factories,
+                              ValuesSource valuesSource,
+                              BucketOrder order,
+                              DocValueFormat format,
+                              TermsAggregator.BucketCountThresholds bucketCountThresholds,
+                              IncludeExclude includeExclude,
+                              SearchContext context, Aggregator parent,
+                              SubAggCollectionMode subAggCollectMode,
+                              boolean showTermDocCountError,
+                              List<PipelineAggregator> pipelineAggregators,
+                              Map<String, Object> metaData) throws IOException {
+                final IncludeExclude.StringFilter filter = includeExclude == null ? null : includeExclude.convertToStringFilter(format);
+                return new SegmentOrdinalsStringTermsAggregator(name, factories, (ValuesSource.Bytes.WithOrdinals) valuesSource, order,
+                        format, bucketCountThresholds, filter, context, parent, subAggCollectMode, showTermDocCountError,
+                        pipelineAggregators, metaData);
+            }
         };
 
         public static ExecutionMode fromString(String value, final DeprecationLogger deprecationLogger) {
             switch (value) {
                 case "global_ordinals":
                     return GLOBAL_ORDINALS;
+                case "segment_ordinals":
+                    return SEGMENT_ORDINALS;
                 case "map":
                     return MAP;
                 default:
-                    throw new IllegalArgumentException("Unknown `execution_hint`: [" + value + "], expected any of [map, global_ordinals]");
+                    throw new IllegalArgumentException("Unknown `execution_hint`: [" + value + "], expected any of " +
+                        "[map, global_ordinals, segment_ordinals]");
             }
         }
 
@@ -24,13 +24,13 @@ import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.common.util.LongArray;
-import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.search.aggregations.LeafBucketCollectorBase;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.search.aggregations.support.BulkDoubleValues;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.search.internal.SearchContext;
 
@@ -72,8 +72,8 @@ class AvgAggregator extends NumericMetricsAggregator.SingleValue {
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
         final BigArrays bigArrays = context.bigArrays();
-        final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
-        return new LeafBucketCollectorBase(sub, values) {
+        final BulkDoubleValues values = valuesSource.bulkDoubleValues(ctx);
+        return collectInBlocks(new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 counts = bigArrays.grow(counts, bucket + 1);
@@ -103,7 +103,33 @@ class AvgAggregator extends NumericMetricsAggregator.SingleValue {
                     compensations.set(bucket, compensation);
                 }
             }
-        };
+
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                counts = bigArrays.grow(counts, bucket + 1);
+                sums = bigArrays.grow(sums, bucket + 1);
+                compensations = bigArrays.grow(compensations, bucket + 1);
+
+                final int valueCount = values.read(docs, count);
+                final double[] blockValues = values.values();
+                counts.increment(bucket, valueCount);
+                double sum = sums.get(bucket);
+                double compensation = compensations.get(bucket);
+                for (int i = 0; i < valueCount; i++) {
+                    double value = blockValues[i];
+                    if (Double.isFinite(value) == false) {
+                        sum += value;
+                    } else if (Double.isFinite(sum)) {
+                        double corrected = value - compensation;
+                        double newSum = sum + corrected;
+                        compensation = (newSum - sum) - corrected;
+                        sum = newSum;
+                    }
+                }
+                sums.set(bucket, sum);
+                compensations.set(bucket, compensation);
+            }
+        }, valuesSource.needsScores());
     }
 
     @Override
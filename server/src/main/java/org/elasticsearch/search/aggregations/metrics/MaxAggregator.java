@@ -37,6 +37,7 @@ import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.search.aggregations.LeafBucketCollectorBase;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.search.aggregations.support.BulkDoubleValues;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
 import org.elasticsearch.search.internal.SearchContext;
@@ -113,15 +114,12 @@ class MaxAggregator extends NumericMetricsAggregator.SingleValue {
         final BigArrays bigArrays = context.bigArrays();
         final SortedNumericDoubleValues allValues = valuesSource.doubleValues(ctx);
         final NumericDoubleValues values = MultiValueMode.MAX.select(allValues);
-        return new LeafBucketCollectorBase(sub, allValues) {
+        final BulkDoubleValues bulkValues = new BulkDoubleValues(allValues);
+        return collectInBlocks(new LeafBucketCollectorBase(sub, allValues) {
 
             @Override
             public void collect(int doc, long bucket) throws IOException {
-                if (bucket >= maxes.size()) {
-                    long from = maxes.size();
-                    maxes = bigArrays.grow(maxes, bucket + 1);
-                    maxes.fill(from, maxes.size(), Double.NEGATIVE_INFINITY);
-                }
+                maybeGrow(bucket);
                 if (values.advanceExact(doc)) {
                     final double value = values.doubleValue();
                     double max = maxes.get(bucket);
@@ -130,7 +128,26 @@ class MaxAggregator extends NumericMetricsAggregator.SingleValue {
                 }
             }
 
-        };
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                maybeGrow(bucket);
+                final int valueCount = bulkValues.read(docs, count);
+                final double[] blockValues = bulkValues.values();
+                double max = maxes.get(bucket);
+                for (int i = 0; i < valueCount; i++) {
+                    max = Math.max(max, blockValues[i]);
+                }
+                maxes.set(bucket, max);
+            }
+
+            private void maybeGrow(long bucket) {
+                if (bucket >= maxes.size()) {
+                    long from = maxes.size();
+                    maxes = bigArrays.grow(maxes, bucket + 1);
+                    maxes.fill(from, maxes.size(), Double.NEGATIVE_INFINITY);
+                }
+            }
+        }, valuesSource.needsScores());
     }
 
     @Override
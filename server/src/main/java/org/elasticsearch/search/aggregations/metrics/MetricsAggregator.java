@@ -22,6 +22,8 @@ package org.elasticsearch.search.aggregations.metrics;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.AggregatorBase;
 import org.elasticsearch.search.aggregations.AggregatorFactories;
+import org.elasticsearch.search.aggregations.DocBlockLeafBucketCollector;
+import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
 import org.elasticsearch.search.internal.SearchContext;
 
@@ -30,9 +32,43 @@ import java.util.List;
 import java.util.Map;
 
 public abstract class MetricsAggregator extends AggregatorBase {
-    
+
+    private DocBlockLeafBucketCollector docBlockCollector;
+
     protected MetricsAggregator(String name, SearchContext context, Aggregator parent, List<PipelineAggregator> pipelineAggregators,
             Map<String, Object> metaData) throws IOException {
         super(name, AggregatorFactories.EMPTY, context, parent, pipelineAggregators, metaData);
     }
+
+    /**
+     * Returns a collector that collects the docs of the provided collector in blocks if this aggregator is a top level
+     * aggregator, whose docs all go to the same bucket, and if the values of the collector do not need scores.
+     * Returns the provided collector otherwise.
+     */
+    protected final LeafBucketCollector collectInBlocks(LeafBucketCollector collector, boolean needsScores) {
+        if (parent != null || needsScores) {
+            return collector;
+        }
+        return docBlockCollector = new DocBlockLeafBucketCollector(collector);
+    }
+
+    @Override
+    protected void preGetSubLeafCollectors() throws IOException {
+        flushDocBlocks();
+    }
+
+    /**
+     * Subclasses that override this method must call it if they collect in blocks.
+     */
+    @Override
+    protected void doPostCollection() throws IOException {
+        flushDocBlocks();
+    }
+
+    private void flushDocBlocks() throws IOException {
+        if (docBlockCollector != null) {
+            docBlockCollector.flush();
+            docBlockCollector = null;
+        }
+    }
 }
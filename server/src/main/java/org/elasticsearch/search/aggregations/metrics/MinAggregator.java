@@ -42,6 +42,7 @@ import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.search.aggregations.LeafBucketCollectorBase;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.search.aggregations.support.BulkDoubleValues;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
 import org.elasticsearch.search.internal.SearchContext;
@@ -116,15 +117,12 @@ class MinAggregator extends NumericMetricsAggregator.SingleValue {
         final BigArrays bigArrays = context.bigArrays();
         final SortedNumericDoubleValues allValues = valuesSource.doubleValues(ctx);
         final NumericDoubleValues values = MultiValueMode.MIN.select(allValues);
-        return new LeafBucketCollectorBase(sub, allValues) {
+        final BulkDoubleValues bulkValues = new BulkDoubleValues(allValues);
+        return collectInBlocks(new LeafBucketCollectorBase(sub, allValues) {
 
             @Override
             public void collect(int doc, long bucket) throws IOException {
-                if (bucket >= mins.size()) {
-                    long from = mins.size();
-                    mins = bigArrays.grow(mins, bucket + 1);
-                    mins.fill(from, mins.size(), Double.POSITIVE_INFINITY);
-                }
+                maybeGrow(bucket);
                 if (values.advanceExact(doc)) {
                     final double value = values.doubleValue();
                     double min = mins.get(bucket);
@@ -133,7 +131,26 @@ class MinAggregator extends NumericMetricsAggregator.SingleValue {
                 }
             }
 
-        };
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                maybeGrow(bucket);
+                final int valueCount = bulkValues.readFirstValues(docs, count);
+                final double[] blockValues = bulkValues.values();
+                double min = mins.get(bucket);
+                for (int i = 0; i < valueCount; i++) {
+                    min = Math.min(min, blockValues[i]);
+                }
+                mins.set(bucket, min);
+            }
+
+            private void maybeGrow(long bucket) {
+                if (bucket >= mins.size()) {
+                    long from = mins.size();
+                    mins = bigArrays.grow(mins, bucket + 1);
+                    mins.fill(from, mins.size(), Double.POSITIVE_INFINITY);
+                }
+            }
+        }, valuesSource.needsScores());
     }
 
     @Override
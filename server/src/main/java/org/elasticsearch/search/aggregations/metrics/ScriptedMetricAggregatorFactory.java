@@ -153,4 +153,9 @@ class ScriptedMetricAggregatorFactory extends AggregatorFactory<ScriptedMetricAg
 
         return combined;
     }
+
+    @Override
+    protected boolean supportsConcurrentCollection() {
+        return false;
+    }
 }
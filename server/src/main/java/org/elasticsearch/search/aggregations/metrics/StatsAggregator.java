@@ -24,13 +24,13 @@ import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.DoubleArray;
 import org.elasticsearch.common.util.LongArray;
-import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.search.aggregations.LeafBucketCollectorBase;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.search.aggregations.support.BulkDoubleValues;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.search.internal.SearchContext;
 
@@ -80,21 +80,11 @@ class StatsAggregator extends NumericMetricsAggregator.MultiValue {
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
         final BigArrays bigArrays = context.bigArrays();
-        final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
-        return new LeafBucketCollectorBase(sub, values) {
+        final BulkDoubleValues values = valuesSource.bulkDoubleValues(ctx);
+        return collectInBlocks(new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
-                if (bucket >= counts.size()) {
-                    final long from = counts.size();
-                    final long overSize = BigArrays.overSize(bucket + 1);
-                    counts = bigArrays.resize(counts, overSize);
-                    sums = bigArrays.resize(sums, overSize);
-                    compensations = bigArrays.resize(compensations, overSize);
-                    mins = bigArrays.resize(mins, overSize);
-                    maxes = bigArrays.resize(maxes, overSize);
-                    mins.fill(from, overSize, Double.POSITIVE_INFINITY);
-                    maxes.fill(from, overSize, Double.NEGATIVE_INFINITY);
-                }
+                maybeGrow(bucket);
 
                 if (values.advanceExact(doc)) {
                     final int valuesCount = values.docValueCount();
@@ -125,7 +115,56 @@ class StatsAggregator extends NumericMetricsAggregator.MultiValue {
                     maxes.set(bucket, max);
                 }
             }
-        };
+
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                maybeGrow(bucket);
+
+                final int valuesCount = values.read(docs, count);
+                final double[] blockValues = values.values();
+                counts.increment(bucket, valuesCount);
+                double min = mins.get(bucket);
+                double max = maxes.get(bucket);
+                double sum = sums.get(bucket);
+                double compensation = compensations.get(bucket);
+                for (int i = 0; i < valuesCount; i++) {
+                    double value = blockValues[i];
+                    if (Double.isFinite(value) == false) {
+                        sum += value;
+                    } else if (Double.isFinite(sum)) {
+                        double corrected = value - compensation;
+                        double newSum = sum + corrected;
+                        compensation = (newSum - sum) - corrected;
+                        sum = newSum;
+                    }
+                }
+                // separate loops so that the JIT can vectorize them
+                for (int i = 0; i < valuesCount; i++) {
+                    min = Math.min(min, blockValues[i]);
+                }
+                for (int i = 0; i < valuesCount; i++) {
+                    max = Math.max(max, blockValues[i]);
+                }
+                sums.set(bucket, sum);
+                compensations.set(bucket, compensation);
+                mins.set(bucket, min);
+                maxes.set(bucket, max);
+            }
+
+            private void maybeGrow(long bucket) {
+                if (bucket >= counts.size()) {
+                    final long from = counts.size();
+                    final long overSize = BigArrays.overSize(bucket + 1);
+                    counts = bigArrays.resize(counts, overSize);
+                    sums = bigArrays.resize(sums, overSize);
+                    compensations = bigArrays.resize(compensations, overSize);
+                    mins = bigArrays.resize(mins, overSize);
+                    maxes = bigArrays.resize(maxes, overSize);
+                    mins.fill(from, overSize, Double.POSITIVE_INFINITY);
+                    maxes.fill(from, overSize, Double.NEGATIVE_INFINITY);
+                }
+            }
+        }, valuesSource.needsScores());
     }
 
     @Override
@@ -23,13 +23,13 @@ import org.apache.lucene.search.ScoreMode;
 import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.DoubleArray;
-import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.search.aggregations.InternalAggregation;
 import org.elasticsearch.search.aggregations.LeafBucketCollector;
 import org.elasticsearch.search.aggregations.LeafBucketCollectorBase;
 import org.elasticsearch.search.aggregations.pipeline.PipelineAggregator;
+import org.elasticsearch.search.aggregations.support.BulkDoubleValues;
 import org.elasticsearch.search.aggregations.support.ValuesSource;
 import org.elasticsearch.search.internal.SearchContext;
 
@@ -68,8 +68,8 @@ class SumAggregator extends NumericMetricsAggregator.SingleValue {
             return LeafBucketCollector.NO_OP_COLLECTOR;
         }
         final BigArrays bigArrays = context.bigArrays();
-        final SortedNumericDoubleValues values = valuesSource.doubleValues(ctx);
-        return new LeafBucketCollectorBase(sub, values) {
+        final BulkDoubleValues values = valuesSource.bulkDoubleValues(ctx);
+        return collectInBlocks(new LeafBucketCollectorBase(sub, values) {
             @Override
             public void collect(int doc, long bucket) throws IOException {
                 sums = bigArrays.grow(sums, bucket + 1);
@@ -96,7 +96,31 @@ class SumAggregator extends NumericMetricsAggregator.SingleValue {
                     sums.set(bucket, sum);
                 }
             }
-        };
+
+            @Override
+            public void collect(int[] docs, int count, long bucket) throws IOException {
+                sums = bigArrays.grow(sums, bucket + 1);
+                compensations = bigArrays.grow(compensations, bucket + 1);
+
+                final int valuesCount = values.read(docs, count);
+                final double[] blockValues = values.values();
+                double sum = sums.get(bucket);
+                double compensation = compensations.get(bucket);
+                for (int i = 0; i < valuesCount; i++) {
+                    double value = blockValues[i];
+                    if (Double.isFinite(value) == false) {
+                        sum += value;
+                    } else if (Double.isFinite(sum)) {
+                        double corrected = value - compensation;
+                        double newSum = sum + corrected;
+                        compensation = (newSum - sum) - corrected;
+                        sum = newSum;
+                    }
+                }
+                compensations.set(bucket, compensation);
+                sums.set(bucket, sum);
+            }
+        }, valuesSource.needsScores());
     }
 
     @Override
@@ -0,0 +1,119 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.support;
+
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.util.ArrayUtil;
+import org.elasticsearch.common.lucene.ScorerAware;
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+
+import java.io.IOException;
+
+/**
+ * {@link SortedNumericDoubleValues} that can also read the values of blocks of documents into a primitive array, so that
+ * aggregators can compute their metrics over all the values of a block in tight loops rather than one document at a time.
+ */
+public final class BulkDoubleValues extends SortedNumericDoubleValues implements ScorerAware {
+
+    private final SortedNumericDoubleValues values;
+    private final NumericDoubleValues singleValues;
+    private double[] buffer = new double[0];
+
+    public BulkDoubleValues(SortedNumericDoubleValues values) {
+        this.values = values;
+        this.singleValues = FieldData.unwrapSingleton(values);
+    }
+
+    @Override
+    public void setScorer(Scorable scorer) {
+        if (values instanceof ScorerAware) {
+            ((ScorerAware) values).setScorer(scorer);
+        }
+    }
+
+    @Override
+    public boolean advanceExact(int target) throws IOException {
+        return values.advanceExact(target);
+    }
+
+    @Override
+    public double nextValue() throws IOException {
+        return values.nextValue();
+    }
+
+    @Override
+    public int docValueCount() {
+        return values.docValueCount();
+    }
+
+    /**
+     * Reads all the values of the first {@code count} provided documents, which must be in increasing order, into
+     * {@link #values()} and returns the number of values that were read.
+     */
+    public int read(int[] docs, int count) throws IOException {
+        int size = 0;
+        if (singleValues != null) {
+            buffer = ArrayUtil.grow(buffer, count);
+            for (int i = 0; i < count; i++) {
+                if (singleValues.advanceExact(docs[i])) {
+                    buffer[size++] = singleValues.doubleValue();
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                if (values.advanceExact(docs[i])) {
+                    final int valueCount = values.docValueCount();
+                    buffer = ArrayUtil.grow(buffer, size + valueCount);
+                    for (int j = 0; j < valueCount; j++) {
+                        buffer[size++] = values.nextValue();
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Reads the first value, which is the minimum value, of each of the first {@code count} provided documents, which must be
+     * in increasing order, into {@link #values()} and returns the number of values that were read.
+     */
+    public int readFirstValues(int[] docs, int count) throws IOException {
+        if (singleValues != null) {
+            return read(docs, count);
+        }
+        buffer = ArrayUtil.grow(buffer, count);
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (values.advanceExact(docs[i])) {
+                buffer[size++] = values.nextValue();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the values that were read by the last call to {@link #read(int[], int)} or {@link #readFirstValues(int[], int)}.
+     */
+    public double[] values() {
+        return buffer;
+    }
+}
@@ -22,7 +22,6 @@ import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.DocValues;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
-import org.apache.lucene.index.OrdinalMap;
 import org.apache.lucene.index.SortedNumericDocValues;
 import org.apache.lucene.index.SortedSetDocValues;
 import org.apache.lucene.search.IndexSearcher;
@@ -156,12 +155,11 @@ public abstract class ValuesSource {
                 @Override
                 public LongUnaryOperator globalOrdinalsMapping(LeafReaderContext context) throws IOException {
                     final IndexOrdinalsFieldData global = indexFieldData.loadGlobal((DirectoryReader)context.parent.reader());
-                    final OrdinalMap map = global.getOrdinalMap();
-                    if (map == null) {
+                    final org.apache.lucene.util.LongValues segmentToGlobalOrd = global.getGlobalOrds(context.ord);
+                    if (segmentToGlobalOrd == null) {
                         // segments and global ordinals are the same
                         return LongUnaryOperator.identity();
                     }
-                    final org.apache.lucene.util.LongValues segmentToGlobalOrd = map.getGlobalOrds(context.ord);
                     return segmentToGlobalOrd::get;
                 }
             }
@@ -236,6 +234,13 @@ public abstract class ValuesSource {
         /** Get the current {@link SortedNumericDoubleValues}. */
         public abstract SortedNumericDoubleValues doubleValues(LeafReaderContext context) throws IOException;
 
+        /**
+         * Get the double values of the provided segment, which can also be read in blocks of documents.
+         */
+        public BulkDoubleValues bulkDoubleValues(LeafReaderContext context) throws IOException {
+            return new BulkDoubleValues(doubleValues(context));
+        }
+
         @Override
         public DocValueBits docsWithValue(LeafReaderContext context) throws IOException {
             if (isFloatingPoint()) {
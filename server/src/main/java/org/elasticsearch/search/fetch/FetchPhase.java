@@ -21,8 +21,12 @@ package org.elasticsearch.search.fetch;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.StoredFieldVisitor;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreMode;
@@ -32,9 +36,11 @@ import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.BitSet;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
+import org.elasticsearch.common.CheckedBiConsumer;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.Tuple;
 import org.elasticsearch.common.document.DocumentField;
+import org.elasticsearch.common.lucene.index.ElasticsearchLeafReader;
 import org.elasticsearch.common.lucene.search.Queries;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.xcontent.XContentHelper;
@@ -60,6 +66,7 @@ import org.elasticsearch.search.lookup.SourceLookup;
 import org.elasticsearch.tasks.TaskCancelledException;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -76,6 +83,15 @@ import java.util.Set;
 public class FetchPhase implements SearchPhase {
     private static final Logger LOGGER = LogManager.getLogger(FetchPhase.class);
 
+    /**
+     * The minimum number of documents to load in a segment to read its stored fields sequentially.
+     */
+    static final int SEQUENTIAL_READ_MIN_DOCS = 10;
+    /**
+     * The maximum average number of doc ids between two documents to load in a segment to read its stored fields sequentially.
+     */
+    static final int SEQUENTIAL_READ_MAX_AVERAGE_GAP = 4;
+
     private final FetchSubPhase[] fetchSubPhases;
 
     public FetchPhase(List<FetchSubPhase> fetchSubPhases) {
@@ -143,31 +159,56 @@ public class FetchPhase implements SearchPhase {
 
         try {
             SearchHit[] hits = new SearchHit[context.docIdsToLoadSize()];
-            FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
+            // load the documents in increasing doc id order, so that the documents of a segment are read one after the other
+            // from its stored fields, and put the hits back in the order of the top docs
+            DocIdToIndex[] docs = new DocIdToIndex[context.docIdsToLoadSize()];
             for (int index = 0; index < context.docIdsToLoadSize(); index++) {
-                if (context.isCancelled()) {
-                    throw new TaskCancelledException("cancelled");
-                }
-                int docId = context.docIdsToLoad()[context.docIdsToLoadFrom() + index];
-                int readerIndex = ReaderUtil.subIndex(docId, context.searcher().getIndexReader().leaves());
-                LeafReaderContext subReaderContext = context.searcher().getIndexReader().leaves().get(readerIndex);
-                int subDocId = docId - subReaderContext.docBase;
-
-                final SearchHit searchHit;
-                int rootDocId = findRootDocumentIfNested(context, subReaderContext, subDocId);
-                if (rootDocId != -1) {
-                    searchHit = createNestedSearchHit(context, docId, subDocId, rootDocId,
-                        storedToRequestedFields, subReaderContext);
-                } else {
-                    searchHit = createSearchHit(context, fieldsVisitor, docId, subDocId,
-                        storedToRequestedFields, subReaderContext);
+                docs[index] = new DocIdToIndex(context.docIdsToLoad()[context.docIdsToLoadFrom() + index], index);
+            }
+            Arrays.sort(docs);
+
+            List<LeafReaderContext> leaves = context.searcher().getIndexReader().leaves();
+            FetchSubPhase.HitContext hitContext = new FetchSubPhase.HitContext();
+            int index = 0;
+            while (index < docs.length) {
+                LeafReaderContext subReaderContext = leaves.get(ReaderUtil.subIndex(docs[index].docId, leaves));
+                int endDoc = subReaderContext.docBase + subReaderContext.reader().maxDoc();
+                int segmentEnd = index + 1;
+                while (segmentEnd < docs.length && docs[segmentEnd].docId < endDoc) {
+                    segmentEnd++;
                 }
+                CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader =
+                    storedFieldsReader(subReaderContext, segmentEnd - index, docs[segmentEnd - 1].docId - docs[index].docId + 1);
+
+                SearchHit[] segmentHits = new SearchHit[segmentEnd - index];
+                for (int i = 0; i < segmentHits.length; i++) {
+                    if (context.isCancelled()) {
+                        throw new TaskCancelledException("cancelled");
+                    }
+                    int docId = docs[index + i].docId;
+                    int subDocId = docId - subReaderContext.docBase;
+
+                    final SearchHit searchHit;
+                    int rootDocId = findRootDocumentIfNested(context, subReaderContext, subDocId);
+                    if (rootDocId != -1) {
+                        searchHit = createNestedSearchHit(context, docId, subDocId, rootDocId,
+                            storedToRequestedFields, subReaderContext, fieldReader);
+                    } else {
+                        searchHit = createSearchHit(context, fieldsVisitor, docId, subDocId,
+                            storedToRequestedFields, subReaderContext, fieldReader);
+                    }
 
-                hits[index] = searchHit;
-                hitContext.reset(searchHit, subReaderContext, subDocId, context.searcher());
+                    hits[docs[index + i].index] = searchHit;
+                    segmentHits[i] = searchHit;
+                    hitContext.reset(searchHit, subReaderContext, subDocId, context.searcher());
+                    for (FetchSubPhase fetchSubPhase : fetchSubPhases) {
+                        fetchSubPhase.hitExecute(context, hitContext);
+                    }
+                }
                 for (FetchSubPhase fetchSubPhase : fetchSubPhases) {
-                    fetchSubPhase.hitExecute(context, hitContext);
+                    fetchSubPhase.hitsExecute(context, subReaderContext, segmentHits);
                 }
+                index = segmentEnd;
             }
             if (context.isCancelled()) {
                 throw new TaskCancelledException("cancelled");
@@ -187,6 +228,29 @@ public class FetchPhase implements SearchPhase {
         }
     }
 
+    /**
+     * Returns a reader of the stored fields of the provided segment for documents that are read in increasing doc id order.
+     * When enough documents of the segment are loaded and they are close to each other, the stored fields are read through
+     * a merge instance of the stored fields reader, which decompresses a block of documents once and reuses it for the
+     * following documents of the same block rather than decompressing the block again for each document.
+     *
+     * @param numDocs the number of documents to load in the segment
+     * @param docSpan the number of doc ids between the first and the last document to load, both included
+     */
+    static CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> storedFieldsReader(LeafReaderContext readerContext,
+                                                                                         int numDocs, int docSpan) {
+        LeafReader reader = readerContext.reader();
+        if (numDocs >= SEQUENTIAL_READ_MIN_DOCS && docSpan <= numDocs * SEQUENTIAL_READ_MAX_AVERAGE_GAP) {
+            // only unwrap our own wrapper, other wrappers might filter stored fields
+            LeafReader in = reader instanceof ElasticsearchLeafReader ? ((ElasticsearchLeafReader) reader).getDelegate() : reader;
+            if (in instanceof CodecReader) {
+                StoredFieldsReader fieldsReader = ((CodecReader) in).getFieldsReader().getMergeInstance();
+                return fieldsReader::visitDocument;
+            }
+        }
+        return reader::document;
+    }
+
     private int findRootDocumentIfNested(SearchContext context, LeafReaderContext subReaderContext, int subDocId) throws IOException {
         if (context.mapperService().hasNested()) {
             BitSet bits = context.bitsetFilterCache()
@@ -204,7 +268,8 @@ public class FetchPhase implements SearchPhase {
                                       int docId,
                                       int subDocId,
                                       Map<String, Set<String>> storedToRequestedFields,
-                                      LeafReaderContext subReaderContext) {
+                                      LeafReaderContext subReaderContext,
+                                      CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader) {
         DocumentMapper documentMapper = context.mapperService().documentMapper();
         Text typeText = documentMapper.typeText();
         if (fieldsVisitor == null) {
@@ -212,7 +277,7 @@ public class FetchPhase implements SearchPhase {
         }
 
         Map<String, DocumentField> searchFields = getSearchFields(context, fieldsVisitor, subDocId,
-            storedToRequestedFields, subReaderContext);
+            storedToRequestedFields, fieldReader);
 
         SearchHit searchHit = new SearchHit(docId, fieldsVisitor.uid().id(), typeText, searchFields);
         // Set _source if requested.
@@ -228,8 +293,8 @@ public class FetchPhase implements SearchPhase {
                                                        FieldsVisitor fieldsVisitor,
                                                        int subDocId,
                                                        Map<String, Set<String>> storedToRequestedFields,
-                                                       LeafReaderContext subReaderContext) {
-        loadStoredFields(context, subReaderContext, fieldsVisitor, subDocId);
+                                                       CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader) {
+        loadStoredFields(context, fieldReader, fieldsVisitor, subDocId);
         fieldsVisitor.postProcess(context.mapperService());
 
         if (fieldsVisitor.fields().isEmpty()) {
@@ -257,7 +322,8 @@ public class FetchPhase implements SearchPhase {
                                             int nestedSubDocId,
                                             int rootSubDocId,
                                             Map<String, Set<String>> storedToRequestedFields,
-                                            LeafReaderContext subReaderContext) throws IOException {
+                                            LeafReaderContext subReaderContext,
+                                            CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader) throws IOException {
         // Also if highlighting is requested on nested documents we need to fetch the _source from the root document,
         // otherwise highlighting will attempt to fetch the _source from the nested doc, which will fail,
         // because the entire _source is only stored with the root document.
@@ -266,7 +332,7 @@ public class FetchPhase implements SearchPhase {
         final boolean needSource = context.sourceRequested() || context.highlight() != null;
         if (needSource || (context instanceof InnerHitsContext.InnerHitSubContext == false)) {
             FieldsVisitor rootFieldsVisitor = new FieldsVisitor(needSource);
-            loadStoredFields(context, subReaderContext, rootFieldsVisitor, rootSubDocId);
+            loadStoredFields(context, fieldReader, rootFieldsVisitor, rootSubDocId);
             rootFieldsVisitor.postProcess(context.mapperService());
             uid = rootFieldsVisitor.uid();
             source = rootFieldsVisitor.source();
@@ -280,7 +346,7 @@ public class FetchPhase implements SearchPhase {
         if (context.hasStoredFields() && !context.storedFieldsContext().fieldNames().isEmpty()) {
             FieldsVisitor nestedFieldsVisitor = new CustomFieldsVisitor(storedToRequestedFields.keySet(), false);
             searchFields = getSearchFields(context, nestedFieldsVisitor, nestedSubDocId,
-                storedToRequestedFields, subReaderContext);
+                storedToRequestedFields, fieldReader);
         }
 
         DocumentMapper documentMapper = context.mapperService().documentMapper();
@@ -419,12 +485,28 @@ public class FetchPhase implements SearchPhase {
         return nestedIdentity;
     }
 
-    private void loadStoredFields(SearchContext searchContext, LeafReaderContext readerContext, FieldsVisitor fieldVisitor, int docId) {
+    private void loadStoredFields(SearchContext searchContext, CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader,
+                                  FieldsVisitor fieldVisitor, int docId) {
         fieldVisitor.reset();
         try {
-            readerContext.reader().document(docId, fieldVisitor);
+            fieldReader.accept(docId, fieldVisitor);
         } catch (IOException e) {
             throw new FetchPhaseExecutionException(searchContext, "Failed to fetch doc id [" + docId + "]", e);
         }
     }
+
+    static final class DocIdToIndex implements Comparable<DocIdToIndex> {
+        final int docId;
+        final int index;
+
+        DocIdToIndex(int docId, int index) {
+            this.docId = docId;
+            this.index = index;
+        }
+
+        @Override
+        public int compareTo(DocIdToIndex o) {
+            return Integer.compare(docId, o.docId);
+        }
+    }
 }
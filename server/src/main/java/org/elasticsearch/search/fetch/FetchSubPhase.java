@@ -82,6 +82,12 @@ public interface FetchSubPhase {
      */
     default void hitExecute(SearchContext context, HitContext hitContext) throws IOException {}
 
+    /**
+     * Executes the phase on the hits of a single segment (note, its a low level reader), once all of them were loaded. The hits
+     * are sorted by increasing doc id, so sub phases that read per segment data like doc values can consume them in a single
+     * pass rather than sorting and grouping the hits of {@link #hitsExecute(SearchContext, SearchHit[])} by segment.
+     */
+    default void hitsExecute(SearchContext context, LeafReaderContext readerContext, SearchHit[] hits) throws IOException {}
 
     default void hitsExecute(SearchContext context, SearchHit[] hits) throws IOException {}
 }
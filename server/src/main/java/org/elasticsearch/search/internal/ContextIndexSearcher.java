@@ -26,6 +26,7 @@ import org.apache.lucene.index.TermStates;
 import org.apache.lucene.search.BulkScorer;
 import org.apache.lucene.search.CollectionStatistics;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
@@ -35,6 +36,9 @@ import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.TermStatistics;
 import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.Nullable;
 import org.elasticsearch.common.lease.Releasable;
 import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.search.dfs.AggregatedDfs;
@@ -45,14 +49,26 @@ import org.elasticsearch.search.profile.query.QueryProfiler;
 import org.elasticsearch.search.profile.query.QueryTimingType;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Context-aware extension of {@link IndexSearcher}.
  */
 public class ContextIndexSearcher extends IndexSearcher implements Releasable {
 
+    /** The maximum number of documents that are grouped in a single slice when segments are searched concurrently. */
+    static final int MAX_DOCS_PER_SLICE = 250_000;
+
+    /** The maximum number of segments that are grouped in a single slice when segments are searched concurrently. */
+    static final int MAX_SEGMENTS_PER_SLICE = 5;
+
     /** The wrapped {@link IndexSearcher}. The reason why we sometimes prefer delegating to this searcher instead of {@code super} is that
      *  this instance may have more assertions, for example if it comes from MockInternalEngine which wraps the IndexSearcher into an
      *  AssertingIndexSearcher. */
@@ -67,11 +83,30 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
 
     private Runnable checkCancelled;
 
+    /** The executor used to collect slices concurrently or null if all segments are searched on the calling thread. */
+    private final Executor executor;
+
+    /** Groups of consecutive leaves that are collected together when an {@link #executor} is set. */
+    private final List<List<LeafReaderContext>> slices;
+
     public ContextIndexSearcher(Engine.Searcher searcher,
             QueryCache queryCache, QueryCachingPolicy queryCachingPolicy) {
+        this(searcher, queryCache, queryCachingPolicy, null);
+    }
+
+    /**
+     * Creates a searcher that collects groups of segments (slices) in parallel on the provided <code>executor</code>
+     * when it is used with a {@link CollectorManager}. Searches that use a single {@link Collector} are always
+     * executed sequentially on the calling thread.
+     */
+    public ContextIndexSearcher(Engine.Searcher searcher, QueryCache queryCache, QueryCachingPolicy queryCachingPolicy,
+                                @Nullable Executor executor) {
         super(searcher.reader());
         in = searcher.searcher();
         engineSearcher = searcher;
+        this.executor = executor;
+        this.slices = executor == null ? Collections.emptyList() :
+            computeSlices(getIndexReader().leaves(), MAX_DOCS_PER_SLICE, MAX_SEGMENTS_PER_SLICE);
         setSimilarity(searcher.searcher().getSimilarity());
         setQueryCache(queryCache);
         setQueryCachingPolicy(queryCachingPolicy);
@@ -177,6 +212,112 @@ public class ContextIndexSearcher extends IndexSearcher implements Releasable {
         super.search(leaves, cancellableWeight, collector);
     }
 
+    /**
+     * Collects the documents of a single segment that match the provided weight, so that callers can choose the order in
+     * which segments are collected or skip segments.
+     */
+    public void searchLeaf(LeafReaderContext leaf, Weight weight, Collector collector) throws IOException {
+        search(Collections.singletonList(leaf), weight, collector);
+    }
+
+    /**
+     * Returns <code>true</code> if this searcher collects slices of the index concurrently when it is used with a
+     * {@link CollectorManager}.
+     */
+    public boolean isConcurrentSearchEnabled() {
+        return executor != null && slices.size() > 1;
+    }
+
+    @Override
+    public <C extends Collector, T> T search(Query query, CollectorManager<C, T> collectorManager) throws IOException {
+        if (isConcurrentSearchEnabled() == false) {
+            return super.search(query, collectorManager);
+        }
+        final List<C> collectors = new ArrayList<>(slices.size());
+        ScoreMode scoreMode = null;
+        for (int i = 0; i < slices.size(); i++) {
+            final C collector = collectorManager.newCollector();
+            if (scoreMode == null) {
+                scoreMode = collector.scoreMode();
+            } else if (scoreMode != collector.scoreMode()) {
+                throw new IllegalStateException("collector manager must create collectors with the same score mode");
+            }
+            collectors.add(collector);
+        }
+        final Weight weight = createWeight(rewrite(query), scoreMode, 1f);
+        final List<FutureTask<C>> tasks = new ArrayList<>(slices.size());
+        for (int i = 0; i < slices.size(); i++) {
+            final List<LeafReaderContext> leaves = slices.get(i);
+            final C collector = collectors.get(i);
+            final FutureTask<C> task = new FutureTask<>(() -> {
+                search(leaves, weight, collector);
+                return collector;
+            });
+            tasks.add(task);
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // collect the slice on the calling thread rather than failing the whole request
+                task.run();
+            }
+        }
+        // we need to wait for all slices, even if one of them failed, since they all use the reader of this searcher
+        Throwable failure = null;
+        boolean interrupted = false;
+        for (FutureTask<C> task : tasks) {
+            while (true) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    failure = ExceptionsHelper.useOrSuppress(failure, e.getCause());
+                    break;
+                }
+            }
+        }
+        if (failure != null) {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw new IllegalStateException(failure);
+        }
+        if (interrupted) {
+            throw new ThreadInterruptedException(new InterruptedException());
+        }
+        return collectorManager.reduce(collectors);
+    }
+
+    /**
+     * Groups consecutive <code>leaves</code> into slices of at most <code>maxDocsPerSlice</code> documents and
+     * <code>maxSegmentsPerSlice</code> segments. A segment that is bigger than <code>maxDocsPerSlice</code> gets its own slice.
+     * Since slices are made of consecutive leaves, merging their results in slice order preserves the doc id order.
+     */
+    static List<List<LeafReaderContext>> computeSlices(List<LeafReaderContext> leaves, int maxDocsPerSlice, int maxSegmentsPerSlice) {
+        final List<List<LeafReaderContext>> slices = new ArrayList<>();
+        List<LeafReaderContext> current = new ArrayList<>();
+        long currentDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            final int maxDoc = leaf.reader().maxDoc();
+            if (current.isEmpty() == false && (currentDocs + maxDoc > maxDocsPerSlice || current.size() >= maxSegmentsPerSlice)) {
+                slices.add(Collections.unmodifiableList(current));
+                current = new ArrayList<>();
+                currentDocs = 0;
+            }
+            current.add(leaf);
+            currentDocs += maxDoc;
+        }
+        if (current.isEmpty() == false) {
+            slices.add(Collections.unmodifiableList(current));
+        }
+        return Collections.unmodifiableList(slices);
+    }
+
     @Override
     public Explanation explain(Query query, int doc) throws IOException {
         if (aggregatedDfs != null) {
@@ -0,0 +1,104 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.elasticsearch.common.util.concurrent.AbstractRefCounted;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Holds an {@link Engine.Searcher} of a shard open so that any number of searches can run against the same point in time
+ * of the shard. Unlike a scroll context, a reader context does not hold the state of a search (query, aggregations, collectors)
+ * but only the searcher, and it is released once it has not been used for longer than its keep alive.
+ */
+public final class ReaderContext extends AbstractRefCounted {
+    private final long id;
+    private final IndexShard indexShard;
+    private final Engine.Searcher searcher;
+    private final LongSupplier relativeTimeInMillis;
+    private volatile long keepAlive;
+    private volatile long lastAccessTime;
+
+    public ReaderContext(long id, IndexShard indexShard, Engine.Searcher searcher, long keepAlive, LongSupplier relativeTimeInMillis) {
+        super("reader_context");
+        this.id = id;
+        this.indexShard = indexShard;
+        this.searcher = searcher;
+        this.keepAlive = keepAlive;
+        this.relativeTimeInMillis = relativeTimeInMillis;
+        this.lastAccessTime = relativeTimeInMillis.getAsLong();
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public IndexShard indexShard() {
+        return indexShard;
+    }
+
+    public ShardId shardId() {
+        return indexShard.shardId();
+    }
+
+    /**
+     * Acquires a searcher on the pinned reader for a single search. The reader context cannot be released until the
+     * returned searcher is closed, and its keep alive starts over once the searcher is closed.
+     *
+     * @param source the source of the search, see {@link Engine.Searcher#source()}
+     * @param keepAlive the new keep alive of the reader context, or <code>-1</code> to keep the current one
+     */
+    public Engine.Searcher acquireSearcher(String source, long keepAlive) {
+        if (tryIncRef() == false) {
+            throw new IllegalStateException("reader context [" + id + "] is already released");
+        }
+        if (keepAlive != -1) {
+            this.keepAlive = keepAlive;
+        }
+        return new Engine.Searcher(source, searcher.searcher(), () -> {
+            lastAccessTime = relativeTimeInMillis.getAsLong();
+            decRef();
+        });
+    }
+
+    /**
+     * Returns whether the reader context is not used by any search and was last used longer than its keep alive ago.
+     */
+    public boolean isExpired(long relativeTimeInMillis) {
+        // the reader context holds one reference itself, any other reference is held by a running search
+        return refCount() == 1 && relativeTimeInMillis - lastAccessTime > keepAlive;
+    }
+
+    public long keepAlive() {
+        return keepAlive;
+    }
+
+    public long lastAccessTime() {
+        return lastAccessTime;
+    }
+
+    @Override
+    protected void closeInternal() {
+        searcher.close();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.internal;
+
+import org.apache.lucene.index.DirectoryReader;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.index.mapper.DateFieldRange;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.seqno.SeqNoStats;
+import org.elasticsearch.index.shard.IndexShard;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * The ranges of values of the fields listed in {@link #INDEX_FIELD_RANGES_SETTING} in a shard. Shards return them with their
+ * can_match responses so that the coordinating node can cache them and skip the shards that cannot match range queries on
+ * these fields without a round trip. The ranges are only published by primaries whose index has a write block, and are valid
+ * as long as the settings version of the index does not change since the write block cannot be removed without changing
+ * the settings of the index.
+ */
+public final class ShardFieldRanges implements Writeable {
+
+    /**
+     * The {@code date} fields whose range of values is published to the coordinating nodes.
+     */
+    public static final Setting<List<String>> INDEX_FIELD_RANGES_SETTING =
+        Setting.listSetting("index.search.can_match.fields", Collections.singletonList("@timestamp"), Function.identity(),
+            Property.Dynamic, Property.IndexScope);
+
+    private final long settingsVersion;
+    private final List<DateFieldRange> ranges;
+    private final Map<String, DateFieldRange> rangesByField;
+
+    public ShardFieldRanges(long settingsVersion, List<DateFieldRange> ranges) {
+        this.settingsVersion = settingsVersion;
+        this.ranges = Collections.unmodifiableList(ranges);
+        final Map<String, DateFieldRange> rangesByField = new HashMap<>();
+        for (DateFieldRange range : ranges) {
+            rangesByField.put(range.name(), range);
+        }
+        this.rangesByField = Collections.unmodifiableMap(rangesByField);
+    }
+
+    public ShardFieldRanges(StreamInput in) throws IOException {
+        this(in.readVLong(), in.readList(DateFieldRange::new));
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(settingsVersion);
+        out.writeList(ranges);
+    }
+
+    /**
+     * Reads the ranges of the configured fields of the shard from the provided reader, or returns <code>null</code> if the
+     * documents of the shard may still change: the index has no write block, the shard is not the primary, or some operations
+     * are still in flight or not visible to searches yet.
+     *
+     * Ranges are only read on primaries since a replica may apply the write block of its index before it received all the
+     * operations that the primary accepted before the block. The primary holds a permit for every operation that it is
+     * executing and only considers an operation completed once all in-sync copies processed it.
+     */
+    @Nullable
+    public static ShardFieldRanges fromShard(IndexShard indexShard, DirectoryReader reader) throws IOException {
+        final IndexMetaData indexMetaData = indexShard.indexSettings().getIndexMetaData();
+        final List<String> fields = indexShard.indexSettings().getValue(INDEX_FIELD_RANGES_SETTING);
+        if (fields.isEmpty() || isWriteBlocked(indexMetaData) == false || indexShard.routingEntry().primary() == false) {
+            return null;
+        }
+        if (indexShard.getActiveOperationsCount() != 0) {
+            // operations that started before the write block are still executing
+            return null;
+        }
+        final SeqNoStats seqNoStats = indexShard.seqNoStats();
+        if (seqNoStats.getGlobalCheckpoint() != seqNoStats.getMaxSeqNo()) {
+            // operations are still in flight on the replicas
+            return null;
+        }
+        if (reader.isCurrent() == false) {
+            // some operations are not refreshed yet
+            return null;
+        }
+        final List<DateFieldRange> ranges = new ArrayList<>();
+        for (String field : fields) {
+            final MappedFieldType fieldType = indexShard.mapperService().fullName(field);
+            final DateFieldRange range = fieldType == null ? null : DateFieldRange.fromReader(fieldType, reader);
+            if (range != null) {
+                ranges.add(range);
+            }
+        }
+        return new ShardFieldRanges(indexMetaData.getSettingsVersion(), ranges);
+    }
+
+    /**
+     * Returns whether the documents of the provided index cannot be indexed or updated.
+     */
+    public static boolean isWriteBlocked(IndexMetaData indexMetaData) {
+        return IndexMetaData.INDEX_BLOCKS_WRITE_SETTING.get(indexMetaData.getSettings())
+            || IndexMetaData.INDEX_READ_ONLY_SETTING.get(indexMetaData.getSettings())
+            || IndexMetaData.INDEX_BLOCKS_READ_ONLY_ALLOW_DELETE_SETTING.get(indexMetaData.getSettings());
+    }
+
+    /**
+     * The settings version of the index when the ranges were read.
+     */
+    public long getSettingsVersion() {
+        return settingsVersion;
+    }
+
+    /**
+     * Returns the range of values of the provided field, or <code>null</code> if the range of the field is unknown.
+     */
+    @Nullable
+    public DateFieldRange getFieldRange(String field) {
+        return rangesByField.get(field);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ShardFieldRanges that = (ShardFieldRanges) o;
+        return settingsVersion == that.settingsVersion && ranges.equals(that.ranges);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(settingsVersion, ranges);
+    }
+}
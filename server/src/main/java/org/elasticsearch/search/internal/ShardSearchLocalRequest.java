@@ -29,6 +29,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryRewriteContext;
 import org.elasticsearch.index.query.Rewriteable;
 import org.elasticsearch.index.shard.ShardId;
@@ -73,12 +74,13 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
     private String[] indexRoutings = Strings.EMPTY_ARRAY;
     private String preference;
     private boolean profile;
+    private Long readerId;
 
     ShardSearchLocalRequest() {
     }
 
     ShardSearchLocalRequest(SearchRequest searchRequest, ShardId shardId, int numberOfShards, AliasFilter aliasFilter, float indexBoost,
-                            long nowInMillis, @Nullable String clusterAlias, String[] indexRoutings) {
+                            long nowInMillis, @Nullable String clusterAlias, String[] indexRoutings, @Nullable Long readerId) {
         this(shardId, numberOfShards, searchRequest.searchType(),
                 searchRequest.source(), searchRequest.types(), searchRequest.requestCache(), aliasFilter, indexBoost,
                 searchRequest.allowPartialSearchResults(), indexRoutings, searchRequest.preference());
@@ -88,6 +90,7 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         this.scroll = searchRequest.scroll();
         this.nowInMillis = nowInMillis;
         this.clusterAlias = clusterAlias;
+        this.readerId = readerId;
     }
 
     public ShardSearchLocalRequest(ShardId shardId, String[] types, long nowInMillis, AliasFilter aliasFilter) {
@@ -180,6 +183,11 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
         return scroll;
     }
 
+    @Override
+    public Long readerId() {
+        return readerId;
+    }
+
     @Override
     public String[] indexRoutings() {
         return indexRoutings;
@@ -226,6 +234,9 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
             indexRoutings = Strings.EMPTY_ARRAY;
             preference = null;
         }
+        if (in.getVersion().onOrAfter(Version.V_7_0_0)) {
+            readerId = in.readOptionalLong();
+        }
     }
 
     protected void innerWriteTo(StreamOutput out, boolean asKey) throws IOException {
@@ -235,14 +246,14 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
             out.writeVInt(numberOfShards);
         }
         out.writeOptionalWriteable(scroll);
-        out.writeOptionalWriteable(source);
+        out.writeOptionalWriteable(asKey ? cacheKeySource() : source);
         out.writeStringArray(types);
         aliasFilter.writeTo(out);
         out.writeFloat(indexBoost);
         if (asKey == false) {
             out.writeVLong(nowInMillis);
+            out.writeOptionalBoolean(requestCache);
         }
-        out.writeOptionalBoolean(requestCache);
         out.writeOptionalString(clusterAlias);
         if (out.getVersion().onOrAfter(Version.V_6_3_0)) {
             out.writeOptionalBoolean(allowPartialSearchResults);
@@ -252,7 +263,29 @@ public class ShardSearchLocalRequest implements ShardSearchRequest {
                 out.writeStringArray(indexRoutings);
                 out.writeOptionalString(preference);
             }
+            // the reader of the shard is part of the cache key already
+            if (out.getVersion().onOrAfter(Version.V_7_0_0)) {
+                out.writeOptionalLong(readerId);
+            }
+        }
+    }
+
+    /**
+     * Returns the source as it is used in the cache key: requests whose sources only differ in options that do not influence the
+     * results of the query phase, or in the order of their filters, produce the same cache key.
+     */
+    private SearchSourceBuilder cacheKeySource() throws IOException {
+        if (source == null) {
+            return null;
+        }
+        SearchSourceBuilder keySource = source.copyWithoutFetchOptions();
+        if (keySource.query() instanceof BoolQueryBuilder) {
+            keySource.query(((BoolQueryBuilder) keySource.query()).canonicalClauseOrder());
+        }
+        if (keySource.postFilter() instanceof BoolQueryBuilder) {
+            keySource.postFilter(((BoolQueryBuilder) keySource.postFilter()).canonicalClauseOrder());
         }
+        return keySource;
     }
 
     @Override
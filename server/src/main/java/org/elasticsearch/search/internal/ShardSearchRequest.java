@@ -73,6 +73,13 @@ public interface ShardSearchRequest {
 
     Scroll scroll();
 
+    /**
+     * Returns the id of the {@link ReaderContext} that the search runs against, or <code>null</code> if the search runs against
+     * the latest searcher of the shard.
+     */
+    @Nullable
+    Long readerId();
+
     /**
      * Returns the routing values resolved by the coordinating node for the index pointed by {@link #shardId()}.
      */
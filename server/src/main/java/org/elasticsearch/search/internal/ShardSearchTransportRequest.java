@@ -55,8 +55,15 @@ public class ShardSearchTransportRequest extends TransportRequest implements Sha
     public ShardSearchTransportRequest(OriginalIndices originalIndices, SearchRequest searchRequest, ShardId shardId, int numberOfShards,
                                        AliasFilter aliasFilter, float indexBoost, long nowInMillis,
                                        @Nullable String clusterAlias, String[] indexRoutings) {
+        this(originalIndices, searchRequest, shardId, numberOfShards, aliasFilter, indexBoost, nowInMillis, clusterAlias, indexRoutings,
+            null);
+    }
+
+    public ShardSearchTransportRequest(OriginalIndices originalIndices, SearchRequest searchRequest, ShardId shardId, int numberOfShards,
+                                       AliasFilter aliasFilter, float indexBoost, long nowInMillis,
+                                       @Nullable String clusterAlias, String[] indexRoutings, @Nullable Long readerId) {
         this.shardSearchLocalRequest = new ShardSearchLocalRequest(searchRequest, shardId, numberOfShards, aliasFilter, indexBoost,
-            nowInMillis, clusterAlias, indexRoutings);
+            nowInMillis, clusterAlias, indexRoutings, readerId);
         this.originalIndices = originalIndices;
     }
 
@@ -159,6 +166,11 @@ public class ShardSearchTransportRequest extends TransportRequest implements Sha
         return shardSearchLocalRequest.scroll();
     }
 
+    @Override
+    public Long readerId() {
+        return shardSearchLocalRequest.readerId();
+    }
+
     @Override
     public String[] indexRoutings() {
         return shardSearchLocalRequest.indexRoutings();
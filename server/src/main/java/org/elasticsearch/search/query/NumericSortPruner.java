@@ -0,0 +1,456 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.ConjunctionDISI;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.FilterCollector;
+import org.apache.lucene.search.FilterLeafCollector;
+import org.apache.lucene.search.FilterWeight;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSelector;
+import org.apache.lucene.search.SortedNumericSortField;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.Weight;
+import org.elasticsearch.common.Nullable;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.sort.SortAndFormats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collects the top hits of a query sorted by a numeric field, that is not the index sort, without visiting the documents
+ * that cannot be competitive. The points of the sort field give the range of values of each segment: segments are
+ * collected starting with the ones that contain the best values, segments whose values cannot beat the current bottom
+ * of the top hits (or that are all before the {@code search_after} value) are skipped, and the other segments only
+ * collect the documents whose values fall in the competitive range.
+ * <p>
+ * Since segments are not collected in doc id order, the top hits collector breaks ties on the doc id explicitly so
+ * that the top hits are the same as if all documents had been collected in order. Documents that are skipped are not
+ * counted in the total hits, so pruning only starts once the number of hits that must be tracked was collected.
+ */
+final class NumericSortPruner {
+
+    // marker returned when none of the documents of a segment are competitive, never iterated
+    private static final DocIdSetIterator NO_COMPETITIVE_DOCS = DocIdSetIterator.empty();
+
+    private final SortField sortField;
+    private final String field;
+    private final boolean reverse;
+    private final SortedNumericSelector.Type selector;
+    private final long missingValue;
+    private final int numHits;
+    private final @Nullable FieldDoc searchAfter;
+    // the sort value of the search after doc, normalized so that better values are greater, only set with a search after doc
+    private final long after;
+    private final long pruneAfterHits;
+
+    // the normalized sort values of the top hits collected so far, as a min-heap
+    private final long[] topValues;
+    private int numTopValues;
+    private long collectedHits;
+    private boolean prunedDocs;
+
+    private NumericSortPruner(SortedNumericSortField sortField, int numHits, @Nullable FieldDoc searchAfter, long pruneAfterHits) {
+        this.sortField = sortField;
+        this.field = sortField.getField();
+        this.reverse = sortField.getReverse();
+        this.selector = sortField.getSelector();
+        this.missingValue = sortField.getMissingValue() == null ? 0L : (Long) sortField.getMissingValue();
+        this.numHits = numHits;
+        this.searchAfter = searchAfter;
+        this.after = searchAfter == null ? Long.MAX_VALUE : normalize((Long) searchAfter.fields[0]);
+        this.pruneAfterHits = pruneAfterHits;
+        this.topValues = new long[numHits];
+    }
+
+    /**
+     * Returns a pruner for the provided sort, or <code>null</code> if the top hits cannot be pruned.
+     *
+     * @param numHits The number of top hits to retrieve
+     * @param searchAfter The doc this request should "search after"
+     * @param pruneAfterHits The number of hits that must be collected before documents can be skipped
+     */
+    @Nullable
+    static NumericSortPruner create(SearchContext searchContext, IndexReader reader, @Nullable SortAndFormats sortAndFormats,
+                                    int numHits, @Nullable ScoreDoc searchAfter, long pruneAfterHits) {
+        if (sortAndFormats == null || sortAndFormats.sort.getSort().length != 1 || pruneAfterHits == Integer.MAX_VALUE) {
+            return null;
+        }
+        final SortField sortField = sortAndFormats.sort.getSort()[0];
+        if (sortField instanceof SortedNumericSortField == false
+                || ((SortedNumericSortField) sortField).getNumericType() != SortField.Type.LONG) {
+            return null;
+        }
+        if (searchAfter != null && (searchAfter instanceof FieldDoc == false || searchAfter.doc != Integer.MAX_VALUE
+                || ((FieldDoc) searchAfter).fields[0] instanceof Long == false)) {
+            // only the search after docs that skip all the documents with the same value are supported
+            return null;
+        }
+        if (searchContext.queryCollectors().isEmpty() == false || searchContext.getProfilers() != null
+                || QueryPhase.canEarlyTerminate(reader, sortAndFormats)) {
+            // aggregations need all documents, and sorts on the index sort already terminate early
+            return null;
+        }
+        if (searchContext.trackScores()) {
+            // the max score is computed over all the matching documents, including the ones that cannot be competitive
+            return null;
+        }
+        final MappedFieldType fieldType = searchContext.smartNameFieldType(sortField.getField());
+        if (fieldType != null && isIndexedAsPoints(fieldType) == false) {
+            return null;
+        }
+        return new NumericSortPruner((SortedNumericSortField) sortField, numHits, (FieldDoc) searchAfter, pruneAfterHits);
+    }
+
+    private static boolean isIndexedAsPoints(MappedFieldType fieldType) {
+        if (fieldType.isSearchable() == false) {
+            return false;
+        }
+        if (fieldType instanceof DateFieldMapper.DateFieldType) {
+            return true;
+        }
+        if (fieldType instanceof NumberFieldMapper.NumberFieldType) {
+            switch (fieldType.typeName()) {
+                case "long":
+                case "integer":
+                case "short":
+                case "byte":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The sort that the top hits collector must use: ties are broken on the doc id since segments are not collected in order.
+     */
+    Sort collectorSort() {
+        return new Sort(sortField, SortField.FIELD_DOC);
+    }
+
+    /**
+     * The doc that the top hits collector must search after, with the doc id tie breaker of {@link #collectorSort()}.
+     */
+    @Nullable
+    FieldDoc collectorSearchAfter() {
+        if (searchAfter == null) {
+            return null;
+        }
+        final Object[] fields = Arrays.copyOf(searchAfter.fields, searchAfter.fields.length + 1);
+        fields[fields.length - 1] = searchAfter.doc;
+        return new FieldDoc(searchAfter.doc, searchAfter.score, fields);
+    }
+
+    /**
+     * Removes the doc id tie breaker of {@link #collectorSort()} from the top hits.
+     */
+    TopFieldDocs restoreTopDocs(TopFieldDocs topDocs) {
+        final ScoreDoc[] scoreDocs = new ScoreDoc[topDocs.scoreDocs.length];
+        for (int i = 0; i < scoreDocs.length; i++) {
+            final FieldDoc fieldDoc = (FieldDoc) topDocs.scoreDocs[i];
+            scoreDocs[i] = new FieldDoc(fieldDoc.doc, fieldDoc.score, Arrays.copyOf(fieldDoc.fields, fieldDoc.fields.length - 1),
+                fieldDoc.shardIndex);
+        }
+        return new TopFieldDocs(topDocs.totalHits, scoreDocs, new SortField[] { sortField });
+    }
+
+    /**
+     * Whether documents that match the query were skipped, in which case the total hits that were collected are a lower bound.
+     */
+    boolean prunedDocs() {
+        return prunedDocs;
+    }
+
+    /**
+     * Collects the top hits of the query with the provided collector, which must contain the top hits collector created with
+     * {@link #collectorSort()} and no collector that filters documents.
+     */
+    void search(ContextIndexSearcher searcher, Query query, Collector collector) throws IOException {
+        final Weight weight = searcher.createWeight(searcher.rewrite(query), collector.scoreMode(), 1f);
+        final List<LeafBounds> leaves = new ArrayList<>();
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            leaves.add(new LeafBounds(leaf));
+        }
+        // collect the segments with the best values first so that the top hits become competitive as soon as possible
+        leaves.sort(Comparator.comparingLong((LeafBounds bounds) -> bounds.best).reversed());
+        final Collector trackingCollector = new TrackingCollector(collector);
+        for (LeafBounds bounds : leaves) {
+            final boolean canPrune = collectedHits >= pruneAfterHits;
+            final long bottom = numTopValues == numHits ? topValues[0] : Long.MIN_VALUE;
+            if (canPrune && (bounds.best < bottom || (searchAfter != null && bounds.worst >= after))) {
+                // all the documents of the segment are worse than the top hits, or were returned on a previous page
+                prunedDocs = true;
+                continue;
+            }
+            final DocIdSetIterator competitiveDocs = canPrune ? competitiveDocs(searcher, bounds, bottom) : null;
+            if (competitiveDocs == null) {
+                searcher.searchLeaf(bounds.leaf, weight, trackingCollector);
+            } else if (competitiveDocs != NO_COMPETITIVE_DOCS) {
+                prunedDocs = true;
+                searcher.searchLeaf(bounds.leaf, new CompetitiveDocsWeight(weight, competitiveDocs), trackingCollector);
+            } else {
+                prunedDocs = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the documents of the segment whose values are in the competitive range, {@link #NO_COMPETITIVE_DOCS} if
+     * there are none, or <code>null</code> if all documents must be collected.
+     */
+    @Nullable
+    private DocIdSetIterator competitiveDocs(IndexSearcher searcher, LeafBounds bounds, long bottom) throws IOException {
+        if (bounds.points == null || (bottom <= bounds.worst && (searchAfter == null || after > bounds.best))) {
+            // all the documents of the segment are competitive
+            return null;
+        }
+        if (searchAfter != null && (reverse ? after == Long.MIN_VALUE : denormalize(after) == Long.MAX_VALUE)) {
+            // no sort value follows the search after value, the bounds below would overflow so let the collector reject the documents
+            return null;
+        }
+        // the competitive normalized values are in [bottom, after), convert them back to sort values
+        long lower = reverse ? bottom : denormalize(after) + 1;
+        long upper = reverse ? after - 1 : denormalize(bottom);
+        if (searchAfter == null) {
+            if (reverse) {
+                upper = Long.MAX_VALUE;
+            } else {
+                lower = Long.MIN_VALUE;
+            }
+        }
+        if (lower <= missingValue && missingValue <= upper) {
+            // the documents without values are competitive but have no points
+            return null;
+        }
+        final Query rangeQuery;
+        if (bounds.points.getBytesPerDimension() == Long.BYTES) {
+            rangeQuery = LongPoint.newRangeQuery(field, lower, upper);
+        } else {
+            if (lower > Integer.MAX_VALUE || upper < Integer.MIN_VALUE) {
+                return NO_COMPETITIVE_DOCS;
+            }
+            rangeQuery = IntPoint.newRangeQuery(field, (int) Math.max(Integer.MIN_VALUE, lower),
+                (int) Math.min(Integer.MAX_VALUE, upper));
+        }
+        final Weight rangeWeight = rangeQuery.createWeight(searcher, ScoreMode.COMPLETE_NO_SCORES, 1f);
+        final ScorerSupplier scorerSupplier = rangeWeight.scorerSupplier(bounds.leaf);
+        if (scorerSupplier == null) {
+            return NO_COMPETITIVE_DOCS;
+        }
+        if (scorerSupplier.cost() > bounds.leaf.reader().maxDoc() / 2) {
+            // most documents are competitive, reading the points would cost more than it saves
+            return null;
+        }
+        return scorerSupplier.get(Long.MAX_VALUE).iterator();
+    }
+
+    /**
+     * Maps sort values to longs that are greater for better values.
+     */
+    private long normalize(long value) {
+        return reverse ? value : ~value;
+    }
+
+    private long denormalize(long value) {
+        return reverse ? value : ~value;
+    }
+
+    private void addTopValue(long value) {
+        if (searchAfter != null && value >= after) {
+            // rejected by the search after doc
+            return;
+        }
+        if (numTopValues < numHits) {
+            topValues[numTopValues] = value;
+            int i = numTopValues++;
+            while (i > 0 && topValues[(i - 1) >>> 1] > topValues[i]) {
+                swap(i, (i - 1) >>> 1);
+                i = (i - 1) >>> 1;
+            }
+        } else if (value > topValues[0]) {
+            topValues[0] = value;
+            int i = 0;
+            while (true) {
+                final int left = 2 * i + 1;
+                final int right = left + 1;
+                int smallest = i;
+                if (left < numTopValues && topValues[left] < topValues[smallest]) {
+                    smallest = left;
+                }
+                if (right < numTopValues && topValues[right] < topValues[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    break;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        final long tmp = topValues[i];
+        topValues[i] = topValues[j];
+        topValues[j] = tmp;
+    }
+
+    /**
+     * The range of normalized sort values of the documents of a segment.
+     */
+    private final class LeafBounds {
+        final LeafReaderContext leaf;
+        final @Nullable PointValues points;
+        final long best;
+        final long worst;
+
+        LeafBounds(LeafReaderContext leaf) throws IOException {
+            this.leaf = leaf;
+            PointValues points = leaf.reader().getPointValues(field);
+            if (points != null && (points.getBytesPerDimension() != Long.BYTES && points.getBytesPerDimension() != Integer.BYTES
+                    || points.getMinPackedValue().length != points.getBytesPerDimension())) {
+                // not a single dimension numeric field, collect all documents of the segment
+                this.points = null;
+                this.best = Long.MAX_VALUE;
+                this.worst = Long.MIN_VALUE;
+                return;
+            }
+            this.points = points;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            if (points != null) {
+                min = decode(points, points.getMinPackedValue());
+                max = decode(points, points.getMaxPackedValue());
+            }
+            if (points == null || points.getDocCount() < leaf.reader().maxDoc()) {
+                // some documents have no value
+                min = Math.min(min, missingValue);
+                max = Math.max(max, missingValue);
+            }
+            this.best = Math.max(normalize(min), normalize(max));
+            this.worst = Math.min(normalize(min), normalize(max));
+        }
+
+        private long decode(PointValues points, byte[] packedValue) {
+            return points.getBytesPerDimension() == Long.BYTES ? LongPoint.decodeDimension(packedValue, 0)
+                : IntPoint.decodeDimension(packedValue, 0);
+        }
+    }
+
+    /**
+     * Tracks the sort values of the collected documents to know the bottom of the top hits.
+     */
+    private final class TrackingCollector extends FilterCollector {
+
+        TrackingCollector(Collector in) {
+            super(in);
+        }
+
+        @Override
+        public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+            final LeafCollector leafCollector = super.getLeafCollector(context);
+            final NumericDocValues values = SortedNumericSelector.wrap(DocValues.getSortedNumeric(context.reader(), field),
+                selector, SortField.Type.LONG);
+            return new FilterLeafCollector(leafCollector) {
+                @Override
+                public void collect(int doc) throws IOException {
+                    super.collect(doc);
+                    collectedHits++;
+                    addTopValue(normalize(values.advanceExact(doc) ? values.longValue() : missingValue));
+                }
+            };
+        }
+    }
+
+    /**
+     * A weight that only matches the documents of the segment that are competitive.
+     */
+    private static final class CompetitiveDocsWeight extends FilterWeight {
+        private final DocIdSetIterator competitiveDocs;
+
+        CompetitiveDocsWeight(Weight in, DocIdSetIterator competitiveDocs) {
+            super(in);
+            this.competitiveDocs = competitiveDocs;
+        }
+
+        @Override
+        public Scorer scorer(LeafReaderContext context) throws IOException {
+            final Scorer scorer = in.scorer(context);
+            if (scorer == null) {
+                return null;
+            }
+            final DocIdSetIterator iterator = ConjunctionDISI.intersectIterators(Arrays.asList(scorer.iterator(), competitiveDocs));
+            return new Scorer(this) {
+                @Override
+                public DocIdSetIterator iterator() {
+                    return iterator;
+                }
+
+                @Override
+                public float getMaxScore(int upTo) throws IOException {
+                    return scorer.getMaxScore(upTo);
+                }
+
+                @Override
+                public float score() throws IOException {
+                    return scorer.score();
+                }
+
+                @Override
+                public int docID() {
+                    return iterator.docID();
+                }
+            };
+        }
+
+        @Override
+        public boolean isCacheable(LeafReaderContext ctx) {
+            return false;
+        }
+    }
+}
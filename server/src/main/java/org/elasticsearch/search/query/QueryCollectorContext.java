@@ -20,6 +20,7 @@
 package org.elasticsearch.search.query;
 
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.CollectorManager;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MultiCollector;
 import org.apache.lucene.search.Query;
@@ -56,6 +57,23 @@ abstract class QueryCollectorContext {
      */
     abstract Collector create(Collector in) throws IOException;
 
+    /**
+     * Returns true if this context can create an independent collector for each slice of the index that is
+     * collected concurrently, see {@link #createSliceCollector(Collector)}.
+     */
+    boolean supportsSliceCollection() {
+        return true;
+    }
+
+    /**
+     * Creates a collector for a single slice of the index that delegates documents to the provided <code>in</code> collector.
+     * This method is only called when {@link #supportsSliceCollection()} returns true, once per slice.
+     * @param in The delegate collector of the slice
+     */
+    Collector createSliceCollector(Collector in) throws IOException {
+        return create(in);
+    }
+
     /**
      * Wraps this collector with a profiler
      */
@@ -83,6 +101,31 @@ abstract class QueryCollectorContext {
         return collector;
     }
 
+    /**
+     * Creates a {@link CollectorManager} that builds an independent collector tree per slice of the index from the
+     * provided <code>collectors</code>. All contexts must {@link #supportsSliceCollection() support slices}, the results
+     * of the slices are merged by each context in {@link #postProcess(QuerySearchResult)}.
+     * @param collectors Ordered list of collector context
+     */
+    static CollectorManager<Collector, Void> createQueryCollectorManager(List<QueryCollectorContext> collectors) {
+        assert collectors.stream().allMatch(QueryCollectorContext::supportsSliceCollection);
+        return new CollectorManager<Collector, Void>() {
+            @Override
+            public Collector newCollector() throws IOException {
+                Collector collector = null;
+                for (QueryCollectorContext ctx : collectors) {
+                    collector = ctx.createSliceCollector(collector);
+                }
+                return collector;
+            }
+
+            @Override
+            public Void reduce(Collection<Collector> collectors) {
+                return null;
+            }
+        };
+    }
+
     /**
      * Creates the collector tree from the provided <code>collectors</code> and wraps each collector with a profiler
      * @param collectors Ordered list of collector context
@@ -134,6 +177,21 @@ abstract class QueryCollectorContext {
                 return MultiCollector.wrap(subCollectors);
             }
 
+            @Override
+            boolean supportsSliceCollection() {
+                return subs.stream().allMatch(col -> col instanceof SliceableCollector);
+            }
+
+            @Override
+            Collector createSliceCollector(Collector in) throws IOException {
+                List<Collector> subCollectors = new ArrayList<> ();
+                subCollectors.add(in);
+                for (Collector collector : subs) {
+                    subCollectors.add(((SliceableCollector) collector).createSliceCollector());
+                }
+                return MultiCollector.wrap(subCollectors);
+            }
+
             @Override
             protected InternalProfileCollector createWithProfiler(InternalProfileCollector in) throws IOException {
                 final List<InternalProfileCollector> subCollectors = new ArrayList<> ();
@@ -175,6 +233,12 @@ abstract class QueryCollectorContext {
                 this.collector = new EarlyTerminatingCollector(in, numHits, true);
                 return collector;
             }
+
+            @Override
+            boolean supportsSliceCollection() {
+                // the number of collected documents is global to the shard
+                return false;
+            }
         };
     }
 }
@@ -39,10 +39,13 @@ import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.util.Counter;
 import org.elasticsearch.action.search.SearchTask;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
 import org.elasticsearch.common.util.concurrent.QueueResizingEsThreadPoolExecutor;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
 import org.elasticsearch.search.DocValueFormat;
 import org.elasticsearch.search.SearchPhase;
 import org.elasticsearch.search.SearchService;
@@ -61,6 +64,7 @@ import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.LinkedList;
 import java.util.function.Consumer;
+import java.util.function.IntSupplier;
 
 import static org.elasticsearch.search.query.QueryCollectorContext.createCancellableCollectorContext;
 import static org.elasticsearch.search.query.QueryCollectorContext.createEarlyTerminationCollectorContext;
@@ -80,11 +84,21 @@ public class QueryPhase implements SearchPhase {
     private final AggregationPhase aggregationPhase;
     private final SuggestPhase suggestPhase;
     private RescorePhase rescorePhase;
+    private final IntSupplier gcOverhead;
 
     public QueryPhase() {
+        this(() -> -1);
+    }
+
+    /**
+     * @param gcOverhead supplies the recent garbage collection overhead of this node that is piggybacked on query results
+     *                   for adaptive replica selection, see {@link QuerySearchResult#nodeGcOverhead()}
+     */
+    public QueryPhase(IntSupplier gcOverhead) {
         this.aggregationPhase = new AggregationPhase();
         this.suggestPhase = new SuggestPhase();
         this.rescorePhase = new RescorePhase();
+        this.gcOverhead = gcOverhead;
     }
 
     @Override
@@ -113,6 +127,7 @@ public class QueryPhase implements SearchPhase {
         aggregationPhase.preProcess(searchContext);
         final ContextIndexSearcher searcher = searchContext.searcher();
         boolean rescore = execute(searchContext, searchContext.searcher(), searcher::setCheckCancelled);
+        searchContext.queryResult().nodeGcOverhead(gcOverhead.getAsInt());
 
         if (rescore) { // only if we do a regular search
             rescorePhase.execute(searchContext);
@@ -127,6 +142,22 @@ public class QueryPhase implements SearchPhase {
         }
     }
 
+    /**
+     * Returns the fraction of the request circuit breaker that is still available, or {@code -1} if the request
+     * circuit breaker has no limit.
+     */
+    static double breakerHeadroom(BigArrays bigArrays) {
+        final CircuitBreakerService breakerService = bigArrays == null ? null : bigArrays.breakerService();
+        if (breakerService == null) {
+            return -1;
+        }
+        final CircuitBreaker breaker = breakerService.getBreaker(CircuitBreaker.REQUEST);
+        if (breaker == null || breaker.getLimit() <= 0) {
+            return -1;
+        }
+        return Math.max(0.0, 1.0 - (double) breaker.getUsed() / breaker.getLimit());
+    }
+
     /**
      * In a package-private method so that it can be tested without having to
      * wire everything (mapperService, etc.)
@@ -262,8 +293,16 @@ public class QueryPhase implements SearchPhase {
             // add the top docs collector, the first collector context in the chain
             collectors.addFirst(topDocsFactory);
 
+            final NumericSortPruner sortPruner = searcher instanceof ContextIndexSearcher ? topDocsFactory.sortPruner() : null;
+            final boolean searchSlices = doProfile == false && searcher instanceof ContextIndexSearcher
+                && ((ContextIndexSearcher) searcher).isConcurrentSearchEnabled()
+                && collectors.stream().allMatch(QueryCollectorContext::supportsSliceCollection);
+
             final Collector queryCollector;
-            if (doProfile) {
+            if (searchSlices) {
+                // each slice of the index is collected by its own collector tree
+                queryCollector = null;
+            } else if (doProfile) {
                 InternalProfileCollector profileCollector = QueryCollectorContext.createQueryCollectorWithProfiler(collectors);
                 searchContext.getProfilers().getCurrentQueryProfiler().setCollector(profileCollector);
                 queryCollector = profileCollector;
@@ -272,7 +311,14 @@ public class QueryPhase implements SearchPhase {
             }
 
             try {
-                searcher.search(query, queryCollector);
+                if (searchSlices) {
+                    searcher.search(query, QueryCollectorContext.createQueryCollectorManager(collectors));
+                } else if (sortPruner != null) {
+                    // skips the segments and documents that cannot compete with the top docs
+                    sortPruner.search((ContextIndexSearcher) searcher, query, queryCollector);
+                } else {
+                    searcher.search(query, queryCollector);
+                }
             } catch (EarlyTerminatingCollector.EarlyTerminationException e) {
                 queryResult.terminatedEarly(true);
             } catch (TimeExceededException e) {
@@ -298,6 +344,10 @@ public class QueryPhase implements SearchPhase {
                 queryResult.nodeQueueSize(rExecutor.getCurrentQueueSize());
                 queryResult.serviceTimeEWMA((long) rExecutor.getTaskExecutionEWMA());
             }
+            if (executor != null && executor.getMaximumPoolSize() > 0) {
+                queryResult.nodeSearchUtilization(Math.min(1.0, (double) executor.getActiveCount() / executor.getMaximumPoolSize()));
+            }
+            queryResult.nodeBreakerHeadroom(breakerHeadroom(searchContext.bigArrays()));
             if (searchContext.getProfilers() != null) {
                 ProfileShardResult shardResults = SearchProfileShardResults.buildShardResults(searchContext.getProfilers());
                 result.profileResults(shardResults);
@@ -62,6 +62,9 @@ public final class QuerySearchResult extends SearchPhaseResult {
     private boolean hasProfileResults;
     private long serviceTimeEWMA = -1;
     private int nodeQueueSize = -1;
+    private double nodeSearchUtilization = -1;
+    private double nodeBreakerHeadroom = -1;
+    private int nodeGcOverhead = -1;
 
     public QuerySearchResult() {
     }
@@ -254,6 +257,42 @@ public final class QuerySearchResult extends SearchPhaseResult {
         return this;
     }
 
+    /**
+     * The fraction of the search threads of the executing node that were busy, or {@code -1} if unknown.
+     */
+    public double nodeSearchUtilization() {
+        return this.nodeSearchUtilization;
+    }
+
+    public QuerySearchResult nodeSearchUtilization(double nodeSearchUtilization) {
+        this.nodeSearchUtilization = nodeSearchUtilization;
+        return this;
+    }
+
+    /**
+     * The fraction of the request circuit breaker of the executing node that was still free, or {@code -1} if unknown.
+     */
+    public double nodeBreakerHeadroom() {
+        return this.nodeBreakerHeadroom;
+    }
+
+    public QuerySearchResult nodeBreakerHeadroom(double nodeBreakerHeadroom) {
+        this.nodeBreakerHeadroom = nodeBreakerHeadroom;
+        return this;
+    }
+
+    /**
+     * The percentage of time the executing node recently spent collecting garbage, or {@code -1} if unknown.
+     */
+    public int nodeGcOverhead() {
+        return this.nodeGcOverhead;
+    }
+
+    public QuerySearchResult nodeGcOverhead(int nodeGcOverhead) {
+        this.nodeGcOverhead = nodeGcOverhead;
+        return this;
+    }
+
     /**
      * Returns <code>true</code> if this result has any suggest score docs
      */
@@ -311,6 +350,15 @@ public final class QuerySearchResult extends SearchPhaseResult {
             serviceTimeEWMA = -1;
             nodeQueueSize = -1;
         }
+        if (in.getVersion().onOrAfter(Version.V_7_0_0)) {
+            nodeSearchUtilization = in.readDouble();
+            nodeBreakerHeadroom = in.readDouble();
+            nodeGcOverhead = in.readInt();
+        } else {
+            nodeSearchUtilization = -1;
+            nodeBreakerHeadroom = -1;
+            nodeGcOverhead = -1;
+        }
     }
 
     @Override
@@ -352,6 +400,11 @@ public final class QuerySearchResult extends SearchPhaseResult {
             out.writeZLong(serviceTimeEWMA);
             out.writeInt(nodeQueueSize);
         }
+        if (out.getVersion().onOrAfter(Version.V_7_0_0)) {
+            out.writeDouble(nodeSearchUtilization);
+            out.writeDouble(nodeBreakerHeadroom);
+            out.writeInt(nodeGcOverhead);
+        }
     }
 
     public TotalHits getTotalHits() {
@@ -0,0 +1,39 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.query;
+
+import org.apache.lucene.search.Collector;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
+
+import java.io.IOException;
+
+/**
+ * A query collector that can create an independent collector for each slice of a shard when the segments
+ * are searched concurrently, see {@link ContextIndexSearcher#isConcurrentSearchEnabled()}. The owner of the
+ * collector is responsible for merging the results of the slice collectors with its own results.
+ */
+public interface SliceableCollector extends Collector {
+
+    /**
+     * Creates a new collector for a single slice. This method is called on the searching thread, once per slice,
+     * before any slice is collected.
+     */
+    Collector createSliceCollector() throws IOException;
+}
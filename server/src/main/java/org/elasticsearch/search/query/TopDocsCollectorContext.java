@@ -54,7 +54,10 @@ import org.elasticsearch.search.rescore.RescoreContext;
 import org.elasticsearch.search.sort.SortAndFormats;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.function.LongFunction;
 import java.util.function.Supplier;
 
 import static org.elasticsearch.search.profile.query.CollectorResult.REASON_SEARCH_COUNT;
@@ -85,9 +88,27 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         return false;
     }
 
+    @Override
+    boolean supportsSliceCollection() {
+        return false;
+    }
+
+    /**
+     * Returns the pruner that must be used to collect the top docs, or <code>null</code> if the query must be collected
+     * by a plain search on all segments.
+     */
+    @Nullable
+    NumericSortPruner sortPruner() {
+        return null;
+    }
+
     static class EmptyTopDocsCollectorContext extends TopDocsCollectorContext {
         private final Collector collector;
         private final Supplier<TotalHits> hitCountSupplier;
+        // the number of hits to count before terminating the collection or -1 to count all hits
+        private final int maxCountHits;
+        // the hit count collectors of the main collector and of all slices
+        private final List<TotalHitCountCollector> hitCountCollectors = new ArrayList<>();
 
         /**
          * Ctr
@@ -100,26 +121,43 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                                              int trackTotalHitsUpTo, boolean hasFilterCollector) throws IOException {
             super(REASON_SEARCH_COUNT, 0);
             if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
-                this.collector = new EarlyTerminatingCollector(new TotalHitCountCollector(), 0, false);
+                this.maxCountHits = 0;
                 // for bwc hit count is set to 0, it will be converted to -1 by the coordinating node
                 this.hitCountSupplier = () -> new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
             } else {
-                TotalHitCountCollector hitCountCollector = new TotalHitCountCollector();
                 // implicit total hit counts are valid only when there is no filter collector in the chain
                 int hitCount =  hasFilterCollector ? -1 : shortcutTotalHitCount(reader, query);
                 if (hitCount == -1) {
                     if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_ACCURATE) {
-                        this.collector = hitCountCollector;
-                        this.hitCountSupplier = () -> new TotalHits(hitCountCollector.getTotalHits(), TotalHits.Relation.EQUAL_TO);
+                        this.maxCountHits = -1;
+                        this.hitCountSupplier = () -> new TotalHits(countHits(), TotalHits.Relation.EQUAL_TO);
                     } else {
-                        this.collector = new EarlyTerminatingCollector(hitCountCollector, trackTotalHitsUpTo, false);
+                        this.maxCountHits = trackTotalHitsUpTo;
                         this.hitCountSupplier = () -> new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
                     }
                 } else {
-                    this.collector = new EarlyTerminatingCollector(hitCountCollector, 0, false);
+                    this.maxCountHits = 0;
                     this.hitCountSupplier = () -> new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
                 }
             }
+            this.collector = newHitCountCollector();
+        }
+
+        private Collector newHitCountCollector() {
+            final TotalHitCountCollector hitCountCollector = new TotalHitCountCollector();
+            hitCountCollectors.add(hitCountCollector);
+            if (maxCountHits == -1) {
+                return hitCountCollector;
+            }
+            return new EarlyTerminatingCollector(hitCountCollector, maxCountHits, false);
+        }
+
+        private int countHits() {
+            int count = 0;
+            for (TotalHitCountCollector hitCountCollector : hitCountCollectors) {
+                count += hitCountCollector.getTotalHits();
+            }
+            return count;
         }
 
         Collector create(Collector in) {
@@ -127,6 +165,17 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
             return collector;
         }
 
+        @Override
+        boolean supportsSliceCollection() {
+            return true;
+        }
+
+        @Override
+        Collector createSliceCollector(Collector in) {
+            assert in == null;
+            return newHitCountCollector();
+        }
+
         @Override
         void postProcess(QuerySearchResult result) {
             final TotalHits totalHitCount = hitCountSupplier.get();
@@ -191,10 +240,19 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
         }
 
         protected final @Nullable SortAndFormats sortAndFormats;
+        private final @Nullable ScoreDoc searchAfter;
+        private final int hitCountThreshold;
+        private final boolean trackMaxScore;
         private final Collector collector;
+        private final TopDocsCollector<?> topDocsCollector;
+        private final MaxScoreCollector maxScoreCollector;
+        // the top docs and max score collectors of the slices, if the index is collected concurrently
+        private final List<TopDocsCollector<?>> sliceTopDocsCollectors = new ArrayList<>();
+        private final List<MaxScoreCollector> sliceMaxScoreCollectors = new ArrayList<>();
         private final Supplier<TotalHits> totalHitsSupplier;
         private final Supplier<TopDocs> topDocsSupplier;
         private final Supplier<Float> maxScoreSupplier;
+        private final @Nullable NumericSortPruner sortPruner;
 
         /**
          * Ctr
@@ -206,6 +264,8 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
          * @param trackMaxScore True if max score should be tracked
          * @param trackTotalHitsUpTo True if the total number of hits should be tracked
          * @param hasFilterCollector True if the collector chain contains at least one collector that can filters document
+         * @param sortPrunerFactory Creates the pruner of the sort from the number of hits that must be collected before
+         *                          documents can be skipped, or <code>null</code> if all documents must be collected
          */
         private SimpleTopDocsCollectorContext(IndexReader reader,
                                               Query query,
@@ -214,32 +274,49 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                                               int numHits,
                                               boolean trackMaxScore,
                                               int trackTotalHitsUpTo,
-                                              boolean hasFilterCollector) throws IOException {
+                                              boolean hasFilterCollector,
+                                              @Nullable LongFunction<NumericSortPruner> sortPrunerFactory) throws IOException {
             super(REASON_SEARCH_TOP_HITS, numHits);
             this.sortAndFormats = sortAndFormats;
-
-            final TopDocsCollector<?> topDocsCollector;
+            this.searchAfter = searchAfter;
+            this.topDocsSupplier = new CachedSupplier<>(this::topDocs);
+            final long pruneAfterHits;
             if (trackTotalHitsUpTo == SearchContext.TRACK_TOTAL_HITS_DISABLED) {
                 // don't compute hit counts via the collector
-                topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, 1);
-                topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
+                hitCountThreshold = 1;
+                pruneAfterHits = 0;
                 totalHitsSupplier = () -> new TotalHits(0, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
             } else {
                 // implicit total hit counts are valid only when there is no filter collector in the chain
                 final int hitCount = hasFilterCollector ? -1 : shortcutTotalHitCount(reader, query);
                 if (hitCount == -1) {
-                    topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, trackTotalHitsUpTo);
-                    topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
-                    totalHitsSupplier = () -> topDocsSupplier.get().totalHits;
+                    hitCountThreshold = trackTotalHitsUpTo;
+                    pruneAfterHits = trackTotalHitsUpTo;
+                    totalHitsSupplier = () -> {
+                        final TotalHits totalHits = topDocsSupplier.get().totalHits;
+                        if (sortPruner() != null && sortPruner().prunedDocs()) {
+                            // skipped documents are not counted
+                            return new TotalHits(totalHits.value, TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO);
+                        }
+                        return totalHits;
+                    };
                 } else {
                     // don't compute hit counts via the collector
-                    topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, 1);
-                    topDocsSupplier = new CachedSupplier<>(topDocsCollector::topDocs);
+                    hitCountThreshold = 1;
+                    pruneAfterHits = 0;
                     totalHitsSupplier = () -> new TotalHits(hitCount, TotalHits.Relation.EQUAL_TO);
                 }
             }
-            MaxScoreCollector maxScoreCollector = null;
+            this.sortPruner = sortPrunerFactory == null || hasFilterCollector ? null : sortPrunerFactory.apply(pruneAfterHits);
+            if (sortPruner != null) {
+                this.topDocsCollector = TopFieldCollector.create(sortPruner.collectorSort(), numHits,
+                    sortPruner.collectorSearchAfter(), hitCountThreshold);
+            } else {
+                this.topDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, hitCountThreshold);
+            }
             if (sortAndFormats == null) {
+                this.trackMaxScore = false;
+                this.maxScoreCollector = null;
                 maxScoreSupplier = () -> {
                     TopDocs topDocs = topDocsSupplier.get();
                     if (topDocs.scoreDocs.length == 0) {
@@ -249,9 +326,12 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                     }
                 };
             } else if (trackMaxScore) {
-                maxScoreCollector = new MaxScoreCollector();
-                maxScoreSupplier = maxScoreCollector::getMaxScore;
+                this.trackMaxScore = true;
+                this.maxScoreCollector = new MaxScoreCollector();
+                maxScoreSupplier = this::maxScore;
             } else {
+                this.trackMaxScore = false;
+                this.maxScoreCollector = null;
                 maxScoreSupplier = () -> Float.NaN;
             }
             this.collector = MultiCollector.wrap(topDocsCollector, maxScoreCollector);
@@ -263,6 +343,77 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
             return collector;
         }
 
+        @Override
+        boolean supportsSliceCollection() {
+            // the pruner collects the segments one by one
+            return sortPruner == null;
+        }
+
+        @Override
+        NumericSortPruner sortPruner() {
+            return sortPruner;
+        }
+
+        @Override
+        Collector createSliceCollector(Collector in) {
+            assert in == null;
+            final TopDocsCollector<?> sliceTopDocsCollector = createCollector(sortAndFormats, numHits, searchAfter, hitCountThreshold);
+            sliceTopDocsCollectors.add(sliceTopDocsCollector);
+            MaxScoreCollector sliceMaxScoreCollector = null;
+            if (trackMaxScore) {
+                sliceMaxScoreCollector = new MaxScoreCollector();
+                sliceMaxScoreCollectors.add(sliceMaxScoreCollector);
+            }
+            return MultiCollector.wrap(sliceTopDocsCollector, sliceMaxScoreCollector);
+        }
+
+        /**
+         * Returns the top docs of the main collector, merged with the top docs of the slices if the index was
+         * collected concurrently.
+         */
+        private TopDocs topDocs() {
+            if (sortPruner != null) {
+                return sortPruner.restoreTopDocs((TopFieldDocs) topDocsCollector.topDocs());
+            }
+            if (sliceTopDocsCollectors.isEmpty()) {
+                return topDocsCollector.topDocs();
+            }
+            final List<TopDocsCollector<?>> collectors = new ArrayList<>();
+            collectors.add(topDocsCollector);
+            collectors.addAll(sliceTopDocsCollectors);
+            final TopDocs merged;
+            // slices are made of consecutive segments so using the slice index to break ties preserves the doc id order
+            if (sortAndFormats == null) {
+                final TopDocs[] topDocs = new TopDocs[collectors.size()];
+                for (int i = 0; i < topDocs.length; i++) {
+                    topDocs[i] = collectors.get(i).topDocs();
+                }
+                merged = TopDocs.merge(0, numHits, topDocs, true);
+            } else {
+                final TopFieldDocs[] topDocs = new TopFieldDocs[collectors.size()];
+                for (int i = 0; i < topDocs.length; i++) {
+                    topDocs[i] = (TopFieldDocs) collectors.get(i).topDocs();
+                }
+                merged = TopDocs.merge(sortAndFormats.sort, 0, numHits, topDocs, true);
+            }
+            for (ScoreDoc scoreDoc : merged.scoreDocs) {
+                // the shard index is set by the coordinating node
+                scoreDoc.shardIndex = -1;
+            }
+            return merged;
+        }
+
+        private float maxScore() {
+            float maxScore = maxScoreCollector.getMaxScore();
+            for (MaxScoreCollector sliceMaxScoreCollector : sliceMaxScoreCollectors) {
+                final float sliceMaxScore = sliceMaxScoreCollector.getMaxScore();
+                if (Float.isNaN(maxScore) || sliceMaxScore > maxScore) {
+                    maxScore = sliceMaxScore;
+                }
+            }
+            return maxScore;
+        }
+
         TopDocsAndMaxScore newTopDocs() {
             TopDocs in = topDocsSupplier.get();
             float maxScore = maxScoreSupplier.get();
@@ -297,11 +448,17 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                                                  int trackTotalHitsUpTo,
                                                  boolean hasFilterCollector) throws IOException {
             super(reader, query, sortAndFormats, scrollContext.lastEmittedDoc, numHits, trackMaxScore,
-                trackTotalHitsUpTo, hasFilterCollector);
+                trackTotalHitsUpTo, hasFilterCollector, null);
             this.scrollContext = Objects.requireNonNull(scrollContext);
             this.numberOfShards = numberOfShards;
         }
 
+        @Override
+        boolean supportsSliceCollection() {
+            // the last emitted doc is tracked per shard
+            return false;
+        }
+
         @Override
         void postProcess(QuerySearchResult result) throws IOException {
             final TopDocsAndMaxScore topDocs = newTopDocs();
@@ -395,8 +552,11 @@ abstract class TopDocsCollectorContext extends QueryCollectorContext {
                     numDocs = Math.max(numDocs, rescoreContext.getWindowSize());
                 }
             }
+            final int numHits = numDocs;
+            final LongFunction<NumericSortPruner> sortPrunerFactory = pruneAfterHits -> NumericSortPruner.create(searchContext,
+                reader, searchContext.sort(), numHits, searchContext.searchAfter(), pruneAfterHits);
             return new SimpleTopDocsCollectorContext(reader, query, searchContext.sort(), searchContext.searchAfter(), numDocs,
-                searchContext.trackScores(), searchContext.trackTotalHitsUpTo(), hasFilterCollector) {
+                searchContext.trackScores(), searchContext.trackTotalHitsUpTo(), hasFilterCollector, sortPrunerFactory) {
                 @Override
                 boolean shouldRescore() {
                     return rescore;
@@ -26,6 +26,7 @@ import org.elasticsearch.discovery.DiscoveryStats;
 import org.elasticsearch.discovery.zen.PendingClusterStateStats;
 import org.elasticsearch.discovery.zen.PublishClusterStateStats;
 import org.elasticsearch.http.HttpStats;
+import org.elasticsearch.index.IndexingPressureStats;
 import org.elasticsearch.indices.breaker.AllCircuitBreakerStats;
 import org.elasticsearch.indices.breaker.CircuitBreakerStats;
 import org.elasticsearch.ingest.IngestStats;
@@ -309,8 +310,37 @@ public class NodeStatsTests extends ESTestCase {
                         assertEquals(aStats.queueSize, bStats.queueSize, 0.01);
                         assertEquals(aStats.serviceTime, bStats.serviceTime, 0.01);
                         assertEquals(aStats.responseTime, bStats.responseTime, 0.01);
+                        assertEquals(aStats.searchUtilization, bStats.searchUtilization, 0.01);
+                        assertEquals(aStats.breakerHeadroom, bStats.breakerHeadroom, 0.01);
+                        assertEquals(aStats.gcOverhead, bStats.gcOverhead);
                     });
                 }
+                IndexingPressureStats indexingPressureStats = nodeStats.getIndexingPressureStats();
+                IndexingPressureStats deserializedIndexingPressureStats = deserializedNodeStats.getIndexingPressureStats();
+                if (indexingPressureStats == null) {
+                    assertNull(deserializedIndexingPressureStats);
+                } else {
+                    assertEquals(indexingPressureStats.getTotalCombinedCoordinatingAndPrimaryBytes(),
+                        deserializedIndexingPressureStats.getTotalCombinedCoordinatingAndPrimaryBytes());
+                    assertEquals(indexingPressureStats.getTotalCoordinatingBytes(),
+                        deserializedIndexingPressureStats.getTotalCoordinatingBytes());
+                    assertEquals(indexingPressureStats.getTotalPrimaryBytes(), deserializedIndexingPressureStats.getTotalPrimaryBytes());
+                    assertEquals(indexingPressureStats.getTotalReplicaBytes(), deserializedIndexingPressureStats.getTotalReplicaBytes());
+                    assertEquals(indexingPressureStats.getCurrentCombinedCoordinatingAndPrimaryBytes(),
+                        deserializedIndexingPressureStats.getCurrentCombinedCoordinatingAndPrimaryBytes());
+                    assertEquals(indexingPressureStats.getCurrentCoordinatingBytes(),
+                        deserializedIndexingPressureStats.getCurrentCoordinatingBytes());
+                    assertEquals(indexingPressureStats.getCurrentPrimaryBytes(),
+                        deserializedIndexingPressureStats.getCurrentPrimaryBytes());
+                    assertEquals(indexingPressureStats.getCurrentReplicaBytes(),
+                        deserializedIndexingPressureStats.getCurrentReplicaBytes());
+                    assertEquals(indexingPressureStats.getCoordinatingRejections(),
+                        deserializedIndexingPressureStats.getCoordinatingRejections());
+                    assertEquals(indexingPressureStats.getPrimaryRejections(), deserializedIndexingPressureStats.getPrimaryRejections());
+                    assertEquals(indexingPressureStats.getPrimaryAndCoordinatingLimit(),
+                        deserializedIndexingPressureStats.getPrimaryAndCoordinatingLimit());
+                    assertEquals(indexingPressureStats.getReplicaLimit(), deserializedIndexingPressureStats.getReplicaLimit());
+                }
             }
         }
     }
@@ -478,16 +508,25 @@ public class NodeStatsTests extends ESTestCase {
                     ResponseCollectorService.ComputedNodeStats stats = new ResponseCollectorService.ComputedNodeStats(nodeId,
                             randomIntBetween(1,10), randomIntBetween(0, 2000),
                             randomDoubleBetween(1.0, 10000000.0, true),
-                            randomDoubleBetween(1.0, 10000000.0, true));
+                            randomDoubleBetween(1.0, 10000000.0, true),
+                            randomDoubleBetween(0.0, 1.0, true), randomDoubleBetween(0.0, 1.0, true),
+                            randomIntBetween(-1, 100));
                     nodeStats.put(nodeId, stats);
                 }
             }
             adaptiveSelectionStats = new AdaptiveSelectionStats(nodeConnections, nodeStats);
         }
+        IndexingPressureStats indexingPressureStats = null;
+        if (frequently()) {
+            indexingPressureStats = new IndexingPressureStats(randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+                randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+                randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(), randomNonNegativeLong(),
+                randomNonNegativeLong());
+        }
         //TODO NodeIndicesStats are not tested here, way too complicated to create, also they need to be migrated to Writeable yet
         return new NodeStats(node, randomNonNegativeLong(), null, osStats, processStats, jvmStats, threadPoolStats,
                 fsInfo, transportStats, httpStats, allCircuitBreakerStats, scriptStats, discoveryStats,
-                ingestStats, adaptiveSelectionStats);
+                ingestStats, adaptiveSelectionStats, indexingPressureStats);
     }
 
     private IngestStats.Stats getPipelineStats(List<IngestStats.PipelineStat> pipelineStats, String id) {
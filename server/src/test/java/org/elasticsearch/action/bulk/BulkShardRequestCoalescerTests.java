@@ -0,0 +1,217 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.bulk;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.action.support.WriteRequest.RefreshPolicy;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class BulkShardRequestCoalescerTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Before
+    public void setUpThreadPool() {
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @After
+    public void tearDownThreadPool() {
+        terminate(threadPool);
+    }
+
+    public void testCoalesceRequestsToTheSameShard() throws Exception {
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        final List<BulkShardRequest> executed = new CopyOnWriteArrayList<>();
+        final BulkShardRequestCoalescer coalescer = new BulkShardRequestCoalescer(threadPool, (request, listener) -> {
+            executed.add(request);
+            final BulkItemResponse[] responses = new BulkItemResponse[request.items().length];
+            for (int i = 0; i < responses.length; i++) {
+                final BulkItemRequest item = request.items()[i];
+                responses[i] = new BulkItemResponse(item.id(), DocWriteRequest.OpType.INDEX,
+                    new IndexResponse(shardId, "type", item.request().id(), 0, 1, 1, true));
+            }
+            listener.onResponse(new BulkShardResponse(shardId, responses));
+        });
+
+        final int numRequests = randomIntBetween(2, 20);
+        final int maxOperations = randomBoolean() ? -1 : randomIntBetween(1, 10);
+        final CountDownLatch latch = new CountDownLatch(numRequests);
+        final AtomicReference<AssertionError> failure = new AtomicReference<>();
+        int totalOperations = 0;
+        for (int r = 0; r < numRequests; r++) {
+            final int numItems = randomIntBetween(1, 3);
+            final BulkItemRequest[] items = new BulkItemRequest[numItems];
+            for (int i = 0; i < numItems; i++) {
+                // item ids are the slots in the original bulk request, give every request its own range of slots
+                items[i] = new BulkItemRequest(r * 10 + i,
+                    new IndexRequest("index", "type", r + "_" + i).source(Collections.emptyMap()));
+            }
+            totalOperations += numItems;
+            final BulkShardRequest request = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+            coalescer.execute(request, 0, TimeValue.timeValueMillis(randomIntBetween(1, 20)), maxOperations, -1,
+                ActionListener.wrap(response -> {
+                    try {
+                        assertThat(response.getResponses().length, equalTo(numItems));
+                        for (int i = 0; i < numItems; i++) {
+                            assertThat(response.getResponses()[i].getItemId(), equalTo(items[i].id()));
+                            assertThat(response.getResponses()[i].getId(), equalTo(items[i].request().id()));
+                        }
+                    } catch (AssertionError e) {
+                        failure.set(e);
+                    }
+                    latch.countDown();
+                }, e -> {
+                    failure.set(new AssertionError(e));
+                    latch.countDown();
+                }));
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        int executedOperations = 0;
+        for (BulkShardRequest request : executed) {
+            executedOperations += request.items().length;
+            if (maxOperations >= 0 && request.items().length > 3) {
+                assertThat(request.items().length, lessThanOrEqualTo(maxOperations));
+            }
+        }
+        assertThat(executedOperations, equalTo(totalOperations));
+        assertThat(executed.size(), greaterThanOrEqualTo(1));
+        if (maxOperations < 0) {
+            assertThat(executed.size(), lessThan(numRequests + 1));
+        }
+    }
+
+    public void testCoalesceRequestsOfDifferentBulkRequestsOfTheSameUser() throws Exception {
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        final List<BulkShardRequest> executed = new CopyOnWriteArrayList<>();
+        final List<String> executedUsers = new CopyOnWriteArrayList<>();
+        final BulkShardRequestCoalescer coalescer = new BulkShardRequestCoalescer(threadPool, (request, listener) -> {
+            executed.add(request);
+            executedUsers.add(threadPool.getThreadContext().getHeader("user"));
+            final BulkItemResponse[] responses = new BulkItemResponse[request.items().length];
+            for (int i = 0; i < responses.length; i++) {
+                final BulkItemRequest item = request.items()[i];
+                responses[i] = new BulkItemResponse(item.id(), DocWriteRequest.OpType.INDEX,
+                    new IndexResponse(shardId, "type", item.request().id(), 0, 1, 1, true));
+            }
+            listener.onResponse(new BulkShardResponse(shardId, responses));
+        });
+
+        // two users, each with four bulk requests that send one shard request to the same shard. The window never elapses, the
+        // batch of a user is sent once it holds the four requests of that user.
+        final int numRequests = 8;
+        final CountDownLatch latch = new CountDownLatch(numRequests);
+        final AtomicReference<AssertionError> failure = new AtomicReference<>();
+        for (int r = 0; r < numRequests; r++) {
+            final String user = "user_" + (r % 2);
+            final String opaqueId = "opaque_" + r;
+            final BulkItemRequest[] items = new BulkItemRequest[] {
+                new BulkItemRequest(r, new IndexRequest("index", "type", Integer.toString(r)).source(Collections.emptyMap()))};
+            final BulkShardRequest request = new BulkShardRequest(shardId, RefreshPolicy.NONE, items);
+            request.setParentTask(new TaskId("node", r));
+            try (ThreadContext.StoredContext ignored = threadPool.getThreadContext().stashContext()) {
+                threadPool.getThreadContext().putHeader("user", user);
+                threadPool.getThreadContext().putHeader(Task.X_OPAQUE_ID, opaqueId);
+                coalescer.execute(request, 0, TimeValue.timeValueHours(1), 4, -1, ActionListener.wrap(response -> {
+                    try {
+                        // the listener is notified in the context of its request
+                        assertThat(threadPool.getThreadContext().getHeader("user"), equalTo(user));
+                        assertThat(threadPool.getThreadContext().getHeader(Task.X_OPAQUE_ID), equalTo(opaqueId));
+                        assertThat(response.getResponses().length, equalTo(1));
+                        assertThat(response.getResponses()[0].getItemId(), equalTo(items[0].id()));
+                    } catch (AssertionError e) {
+                        failure.set(e);
+                    }
+                    latch.countDown();
+                }, e -> {
+                    failure.set(new AssertionError(e));
+                    latch.countDown();
+                }));
+            }
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        assertThat(executed.size(), equalTo(2));
+        for (int i = 0; i < executed.size(); i++) {
+            final BulkShardRequest request = executed.get(i);
+            // the items of four bulk requests, so of four parent tasks, were sent on behalf of their user
+            assertThat(request.items().length, equalTo(4));
+            assertFalse(request.getParentTask().isSet());
+            for (BulkItemRequest item : request.items()) {
+                assertThat(executedUsers.get(i), equalTo("user_" + Integer.parseInt(item.request().id()) % 2));
+            }
+        }
+    }
+
+    public void testFailurePropagatesToAllRequests() throws Exception {
+        final ShardId shardId = new ShardId("index", "_na_", 0);
+        final BulkShardRequestCoalescer coalescer = new BulkShardRequestCoalescer(threadPool,
+            (request, listener) -> listener.onFailure(new IllegalStateException("simulated")));
+        final int numRequests = randomIntBetween(1, 10);
+        final CountDownLatch latch = new CountDownLatch(numRequests);
+        final List<Exception> failures = new CopyOnWriteArrayList<>();
+        for (int r = 0; r < numRequests; r++) {
+            final BulkItemRequest[] items = new BulkItemRequest[] {
+                new BulkItemRequest(r, new IndexRequest("index", "type", Integer.toString(r)).source(Collections.emptyMap()))};
+            coalescer.execute(new BulkShardRequest(shardId, RefreshPolicy.NONE, items), 0, TimeValue.timeValueMillis(10), -1, -1,
+                ActionListener.wrap(response -> fail("expected a failure"), e -> {
+                    failures.add(e);
+                    latch.countDown();
+                }));
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertThat(failures.size(), equalTo(numRequests));
+        final List<String> messages = new ArrayList<>();
+        for (Exception e : failures) {
+            messages.add(e.getMessage());
+        }
+        assertThat(messages, equalTo(Collections.nCopies(numRequests, "simulated")));
+    }
+}
@@ -31,6 +31,7 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.transport.CapturingTransport;
@@ -40,10 +41,15 @@ import org.elasticsearch.transport.TransportService;
 import org.junit.After;
 import org.junit.Before;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.elasticsearch.test.ClusterServiceUtils.createClusterService;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 public class TransportBulkActionTests extends ESTestCase {
 
@@ -61,7 +67,8 @@ public class TransportBulkActionTests extends ESTestCase {
         TestTransportBulkAction() {
             super(TransportBulkActionTests.this.threadPool, transportService, clusterService, null, null,
                     null, new ActionFilters(Collections.emptySet()), new Resolver(),
-                    new AutoCreateIndex(Settings.EMPTY, clusterService.getClusterSettings(), new Resolver()));
+                    new AutoCreateIndex(Settings.EMPTY, clusterService.getClusterSettings(), new Resolver()),
+                    new IndexingPressure(Settings.EMPTY));
         }
 
         @Override
@@ -153,4 +160,45 @@ public class TransportBulkActionTests extends ESTestCase {
         UpdateRequest badUpsertRequest = new UpdateRequest("index", "type", "id1");
         assertNull(TransportBulkAction.getIndexWriteRequest(badUpsertRequest));
     }
+
+    public void testSplitShardRequests() {
+        final int numItems = randomIntBetween(1, 100);
+        final List<BulkItemRequest> items = new ArrayList<>(numItems);
+        for (int i = 0; i < numItems; i++) {
+            items.add(new BulkItemRequest(i, new IndexRequest("index", "type", Integer.toString(i)).source(Collections.emptyMap())));
+        }
+        assertThat(TransportBulkAction.splitShardRequests(items, -1, -1), equalTo(Collections.singletonList(items)));
+
+        final int maxOperations = randomIntBetween(1, 10);
+        final List<List<BulkItemRequest>> byOperations = TransportBulkAction.splitShardRequests(items, maxOperations, -1);
+        assertThat(byOperations.size(), equalTo((numItems + maxOperations - 1) / maxOperations));
+        final List<BulkItemRequest> rejoined = new ArrayList<>();
+        for (List<BulkItemRequest> chunk : byOperations) {
+            assertThat(chunk.size(), lessThanOrEqualTo(maxOperations));
+            rejoined.addAll(chunk);
+        }
+        assertThat(rejoined, equalTo(items));
+
+        final long itemSize = BulkRequest.estimateSizeInBytes(items.get(0).request());
+        final int itemsPerChunk = randomIntBetween(1, 10);
+        final List<List<BulkItemRequest>> byBytes = TransportBulkAction.splitShardRequests(items, -1, itemSize * itemsPerChunk);
+        for (List<BulkItemRequest> chunk : byBytes) {
+            assertThat(chunk.size(), lessThanOrEqualTo(itemsPerChunk));
+        }
+        // a single item larger than the limit still makes up its own chunk
+        assertThat(TransportBulkAction.splitShardRequests(items, -1, 1).size(), equalTo(numItems));
+    }
+
+    public void testHasDistinctIds() {
+        final List<BulkItemRequest> first = Arrays.asList(
+            new BulkItemRequest(0, new IndexRequest("index", "type", "1").source(Collections.emptyMap())),
+            new BulkItemRequest(1, new IndexRequest("index", "type").source(Collections.emptyMap())));
+        final List<BulkItemRequest> second = Arrays.asList(
+            new BulkItemRequest(2, new IndexRequest("index", "type").source(Collections.emptyMap())),
+            new BulkItemRequest(3, new DeleteRequest("index", "type", "2")));
+        assertTrue(TransportBulkAction.hasDistinctIds(Arrays.asList(first, second)));
+        final List<BulkItemRequest> conflicting =
+            Collections.singletonList(new BulkItemRequest(4, new DeleteRequest("index", "type", "1")));
+        assertFalse(TransportBulkAction.hasDistinctIds(Arrays.asList(first, second, conflicting)));
+    }
 }
@@ -52,7 +52,10 @@ import org.elasticsearch.index.translog.Translog;
 import org.elasticsearch.rest.RestStatus;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -62,6 +65,7 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.Matchers.arrayWithSize;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
@@ -253,6 +257,49 @@ public class TransportShardBulkActionTests extends IndexShardTestCase {
         closeShards(shard);
     }
 
+    public void testPipelinedReplicaRequests() throws Exception {
+        IndexShard shard = newStartedShard(true);
+
+        BulkItemRequest[] items = new BulkItemRequest[randomIntBetween(2, 20)];
+        for (int i = 0; i < items.length; i++) {
+            DocWriteRequest<IndexRequest> writeRequest = new IndexRequest("index", "_doc", "id_" + i)
+                .source(Requests.INDEX_CONTENT_TYPE)
+                .opType(DocWriteRequest.OpType.INDEX);
+            items[i] = new BulkItemRequest(i, writeRequest);
+        }
+        RefreshPolicy refreshPolicy = randomFrom(RefreshPolicy.values());
+        BulkShardRequest bulkShardRequest = new BulkShardRequest(shardId, refreshPolicy, items);
+
+        final int chunkSize = randomIntBetween(1, items.length);
+        final List<BulkShardRequest> chunks = new ArrayList<>();
+        WritePrimaryResult<BulkShardRequest, BulkShardResponse> result = TransportShardBulkAction.performOnPrimary(
+            bulkShardRequest, shard, null, threadPool::absoluteTimeInMillis, new NoopMappingUpdatePerformer(), () -> {},
+            chunkSize, chunk -> {
+                // chunks are only handed out once their items completed on the primary
+                for (BulkItemRequest item : chunk.items()) {
+                    assertThat(item.getPrimaryResponse(), notNullValue());
+                }
+                chunks.add(chunk);
+            });
+
+        final List<BulkItemRequest> replicatedItems = new ArrayList<>();
+        for (BulkShardRequest chunk : chunks) {
+            assertThat(chunk.items(), arrayWithSize(chunkSize));
+            assertThat(chunk.getRefreshPolicy(), equalTo(RefreshPolicy.NONE));
+            replicatedItems.addAll(Arrays.asList(chunk.items()));
+        }
+        assertThat(chunks.size(), equalTo((items.length - 1) / chunkSize));
+        final BulkShardRequest replicaRequest = result.replicaRequest();
+        assertThat(replicaRequest.items().length, greaterThan(0));
+        assertThat(replicaRequest.getRefreshPolicy(), equalTo(refreshPolicy));
+        replicatedItems.addAll(Arrays.asList(replicaRequest.items()));
+        assertThat(replicatedItems, equalTo(Arrays.asList(bulkShardRequest.items())));
+        assertThat(result.finalResponseIfSuccessful.getResponses(), arrayWithSize(items.length));
+
+        assertDocCount(shard, items.length);
+        closeShards(shard);
+    }
+
     public void testExecuteBulkIndexRequestWithMappingUpdates() throws Exception {
 
         BulkItemRequest[] items = new BulkItemRequest[1];
@@ -21,15 +21,28 @@ package org.elasticsearch.action.search;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.OriginalIndices;
+import org.elasticsearch.cluster.ClusterName;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.cluster.metadata.MetaData;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.GroupShardsIterator;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.DateFieldRange;
+import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.SearchService;
 import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.search.internal.ShardFieldRanges;
 import org.elasticsearch.search.internal.ShardSearchTransportRequest;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.transport.Transport;
@@ -37,6 +50,7 @@ import org.elasticsearch.transport.Transport;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -86,7 +100,7 @@ public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
                     public void run() throws IOException {
                         result.set(iter);
                         latch.countDown();
-                    }}, SearchResponse.Clusters.EMPTY);
+                    }}, SearchResponse.Clusters.EMPTY, null, false);
 
         canMatchPhase.start();
         latch.await();
@@ -154,7 +168,7 @@ public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
                 public void run() throws IOException {
                     result.set(iter);
                     latch.countDown();
-                }}, SearchResponse.Clusters.EMPTY);
+                }}, SearchResponse.Clusters.EMPTY, null, false);
 
         canMatchPhase.start();
         latch.await();
@@ -241,10 +255,100 @@ public class CanMatchPreFilterSearchPhaseTests extends ESTestCase {
                             listener.onFailure(new Exception("failure"));
                         }
                     }
-                }, SearchResponse.Clusters.EMPTY);
+                }, SearchResponse.Clusters.EMPTY, null, false);
 
         canMatchPhase.start();
         latch.await();
         executor.shutdown();
     }
+
+    public void testFilterShardsWithCachedFieldRanges() throws InterruptedException {
+        final TransportSearchAction.SearchTimeProvider timeProvider = new TransportSearchAction.SearchTimeProvider(0, System.nanoTime(),
+            System::nanoTime);
+        Map<String, Transport.Connection> lookup = new ConcurrentHashMap<>();
+        DiscoveryNode primaryNode = new DiscoveryNode("node_1", buildNewFakeTransportAddress(), Version.CURRENT);
+        DiscoveryNode replicaNode = new DiscoveryNode("node_2", buildNewFakeTransportAddress(), Version.CURRENT);
+        lookup.put("node1", new SearchAsyncActionTests.MockConnection(primaryNode));
+        lookup.put("node2", new SearchAsyncActionTests.MockConnection(replicaNode));
+
+        final long january = DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parseJoda("2019-01-01").getMillis();
+        final long february = DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parseJoda("2019-02-01").getMillis();
+        final long march = DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parseJoda("2019-03-01").getMillis();
+        final Set<Integer> sentShards = ConcurrentCollections.newConcurrentSet();
+        SearchTransportService searchTransportService = new SearchTransportService(null, null) {
+            @Override
+            public void sendCanMatch(Transport.Connection connection, ShardSearchTransportRequest request, SearchTask task,
+                                     ActionListener<SearchService.CanMatchResponse> listener) {
+                final int shard = request.shardId().id();
+                sentShards.add(shard);
+                final DateFieldRange range = shard == 0
+                    ? new DateFieldRange("@timestamp", DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER, january, february - 1)
+                    : new DateFieldRange("@timestamp", DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER, february, march - 1);
+                final ShardFieldRanges fieldRanges = new ShardFieldRanges(1, Collections.singletonList(range));
+                new Thread(() -> listener.onResponse(new SearchService.CanMatchResponse(true, fieldRanges))).start();
+            }
+        };
+
+        final boolean writeBlock = randomBoolean();
+        final IndexMetaData indexMetaData = IndexMetaData.builder("idx")
+            .settings(Settings.builder()
+                .put(IndexMetaData.SETTING_VERSION_CREATED, Version.CURRENT)
+                .put(IndexMetaData.SETTING_INDEX_UUID, "_na_")
+                .put(IndexMetaData.SETTING_BLOCKS_WRITE, writeBlock))
+            .numberOfShards(2)
+            .numberOfReplicas(1)
+            .settingsVersion(1)
+            .build();
+        final ClusterState clusterState = ClusterState.builder(ClusterName.DEFAULT)
+            .metaData(MetaData.builder().put(indexMetaData, false))
+            .build();
+        final ShardFieldRangesCache cache = new ShardFieldRangesCache(Settings.EMPTY);
+
+        for (int run = 0; run < 2; run++) {
+            sentShards.clear();
+            // the second run may also skip the round trip for the shards that can match
+            final boolean cachedRangesOnly = run == 1 && randomBoolean();
+            AtomicReference<GroupShardsIterator<SearchShardIterator>> result = new AtomicReference<>();
+            CountDownLatch latch = new CountDownLatch(1);
+            GroupShardsIterator<SearchShardIterator> shardsIter = SearchAsyncActionTests.getShardsIter("idx",
+                new OriginalIndices(new String[]{"idx"}, SearchRequest.DEFAULT_INDICES_OPTIONS),
+                2, randomBoolean(), primaryNode, replicaNode);
+            final SearchRequest searchRequest = new SearchRequest();
+            searchRequest.allowPartialSearchResults(true);
+            searchRequest.source(new SearchSourceBuilder().query(new RangeQueryBuilder("@timestamp").gte("2019-02-01")));
+
+            CanMatchPreFilterSearchPhase canMatchPhase = new CanMatchPreFilterSearchPhase(logger,
+                searchTransportService,
+                (clusterAlias, node) -> lookup.get(node),
+                Collections.singletonMap("_na_", new AliasFilter(null, Strings.EMPTY_ARRAY)),
+                Collections.emptyMap(), Collections.emptyMap(), EsExecutors.newDirectExecutorService(),
+                searchRequest, null, shardsIter, timeProvider, 0, null,
+                (iter) -> new SearchPhase("test") {
+                    @Override
+                    public void run() throws IOException {
+                        result.set(iter);
+                        latch.countDown();
+                    }}, SearchResponse.Clusters.EMPTY,
+                cache.lookup(clusterState, NamedXContentRegistry.EMPTY, new NamedWriteableRegistry(Collections.emptyList())),
+                cachedRangesOnly);
+
+            canMatchPhase.start();
+            latch.await();
+
+            assertEquals(0, result.get().get(0).shardId().id());
+            assertEquals(1, result.get().get(1).shardId().id());
+            assertFalse(result.get().get(1).skip());
+            assertEquals(cachedRangesOnly == false, sentShards.contains(1));
+            if (run == 0 || writeBlock == false) {
+                // the ranges are unknown or cannot be trusted, all shards are asked unless only cached ranges are used
+                assertFalse(result.get().get(0).skip());
+                assertEquals(cachedRangesOnly == false, sentShards.contains(0));
+            } else {
+                // the first shard only holds documents of January
+                assertTrue(result.get().get(0).skip());
+                assertFalse(sentShards.contains(0));
+            }
+        }
+        assertEquals(writeBlock ? 2 : 0, cache.count());
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ESIntegTestCase;
+import org.elasticsearch.test.transport.MockTransportService;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+@ESIntegTestCase.ClusterScope(scope = ESIntegTestCase.Scope.TEST, numDataNodes = 2)
+public class MultiSearchBatchedQueriesIT extends ESIntegTestCase {
+
+    @Override
+    protected Collection<Class<? extends Plugin>> nodePlugins() {
+        return Collections.singletonList(MockTransportService.TestPlugin.class);
+    }
+
+    public void testBatchedShardQueries() throws Exception {
+        assertAcked(prepareCreate("index")
+            .setSettings(Settings.builder()
+                .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, randomIntBetween(2, 6))
+                .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0))
+            .addMapping("type", "value", "type=long"));
+        final int numDocs = randomIntBetween(10, 100);
+        List<IndexRequestBuilder> builders = new ArrayList<>(numDocs);
+        for (int i = 0; i < numDocs; i++) {
+            builders.add(client().prepareIndex("index", "type", Integer.toString(i)).setSource("value", i));
+        }
+        indexRandom(true, builders);
+
+        // all shards are remote to a coordinating only node, so its shard requests go through the transport
+        final String coordinatingNode = internalCluster().startCoordinatingOnlyNode(Settings.EMPTY);
+        ensureGreen("index");
+        final AtomicInteger batches = new AtomicInteger();
+        final MockTransportService transportService =
+            (MockTransportService) internalCluster().getInstance(TransportService.class, coordinatingNode);
+        for (String node : internalCluster().getNodeNames()) {
+            if (node.equals(coordinatingNode) == false) {
+                transportService.addSendBehavior(internalCluster().getInstance(TransportService.class, node),
+                    (connection, requestId, action, request, options) -> {
+                        if (action.equals(SearchTransportService.QUERY_BATCH_ACTION_NAME)) {
+                            batches.incrementAndGet();
+                        }
+                        connection.sendRequest(requestId, action, request, options);
+                    });
+            }
+        }
+
+        final Client client = client(coordinatingNode);
+        final int numSearches = randomIntBetween(2, 10);
+        final MultiSearchResponse expected = multiSearch(client, numSearches, numDocs);
+        assertThat(batches.get(), equalTo(0));
+        try {
+            assertAcked(client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+                .put(TransportMultiSearchAction.BATCHED_SHARD_QUERIES_SETTING.getKey(), true)));
+            final MultiSearchResponse response = multiSearch(client, numSearches, numDocs);
+            assertThat(batches.get(), greaterThan(0));
+
+            assertThat(response.getResponses().length, equalTo(expected.getResponses().length));
+            for (int i = 0; i < numSearches; i++) {
+                MultiSearchResponse.Item expectedItem = expected.getResponses()[i];
+                MultiSearchResponse.Item item = response.getResponses()[i];
+                assertThat(item.isFailure(), equalTo(expectedItem.isFailure()));
+                if (item.isFailure()) {
+                    continue;
+                }
+                SearchResponse expectedResponse = expectedItem.getResponse();
+                SearchResponse searchResponse = item.getResponse();
+                assertThat(searchResponse.getFailedShards(), equalTo(expectedResponse.getFailedShards()));
+                assertThat(searchResponse.getHits().getTotalHits().value, equalTo(expectedResponse.getHits().getTotalHits().value));
+                SearchHit[] expectedHits = expectedResponse.getHits().getHits();
+                SearchHit[] hits = searchResponse.getHits().getHits();
+                assertThat(hits.length, equalTo(expectedHits.length));
+                for (int j = 0; j < hits.length; j++) {
+                    assertThat(hits[j].getId(), equalTo(expectedHits[j].getId()));
+                }
+            }
+        } finally {
+            assertAcked(client().admin().cluster().prepareUpdateSettings().setTransientSettings(Settings.builder()
+                .putNull(TransportMultiSearchAction.BATCHED_SHARD_QUERIES_SETTING.getKey())));
+        }
+    }
+
+    private static MultiSearchResponse multiSearch(Client client, int numSearches, int numDocs) {
+        MultiSearchRequestBuilder request = client.prepareMultiSearch().setMaxConcurrentSearchRequests(numSearches);
+        for (int i = 0; i < numSearches; i++) {
+            SearchRequestBuilder search = client.prepareSearch("index").setSize(5);
+            if (i == 0) {
+                // the shard failures of a search are sent back in the batched response as well
+                search.addSort("no_such_field", SortOrder.ASC);
+            } else {
+                search.setQuery(QueryBuilders.rangeQuery("value").gte(i * numDocs / numSearches)).addSort("value", SortOrder.ASC);
+            }
+            request.add(search);
+        }
+        return request.get();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.NamedWriteableRegistry;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.query.TermQueryBuilder;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.search.SearchModule;
+import org.elasticsearch.search.internal.AliasFilter;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PointInTimeIdTests extends ESTestCase {
+
+    private final NamedWriteableRegistry namedWriteableRegistry =
+        new NamedWriteableRegistry(new SearchModule(Settings.EMPTY, false, Collections.emptyList()).getNamedWriteables());
+
+    public void testEncodeDecode() {
+        Map<ShardId, PointInTimeId.ShardReader> shards = new HashMap<>();
+        int numShards = randomIntBetween(1, 10);
+        for (int i = 0; i < numShards; i++) {
+            ShardId shardId = new ShardId(randomAlphaOfLength(10), randomAlphaOfLength(10), i);
+            AliasFilter aliasFilter = randomBoolean() ? AliasFilter.EMPTY
+                : new AliasFilter(new TermQueryBuilder(randomAlphaOfLength(5), randomAlphaOfLength(5)), randomAlphaOfLength(5));
+            shards.put(shardId, new PointInTimeId.ShardReader(randomAlphaOfLength(10), randomNonNegativeLong(), aliasFilter));
+        }
+        String id = PointInTimeId.encode(shards, Version.CURRENT);
+        Map<ShardId, PointInTimeId.ShardReader> decoded = PointInTimeId.decode(id, namedWriteableRegistry);
+        assertEquals(shards.keySet(), decoded.keySet());
+        for (Map.Entry<ShardId, PointInTimeId.ShardReader> entry : shards.entrySet()) {
+            PointInTimeId.ShardReader expected = entry.getValue();
+            PointInTimeId.ShardReader actual = decoded.get(entry.getKey());
+            assertEquals(expected.getNodeId(), actual.getNodeId());
+            assertEquals(expected.getReaderId(), actual.getReaderId());
+            assertEquals(expected.getAliasFilter(), actual.getAliasFilter());
+        }
+    }
+
+    public void testDecodeInvalidId() {
+        String id = randomBoolean() ? "not base 64!" : "";
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> PointInTimeId.decode(id, namedWriteableRegistry));
+        assertEquals("invalid point in time id [" + id + "]", e.getMessage());
+    }
+}
@@ -29,11 +29,14 @@ import org.elasticsearch.cluster.routing.UnassignedInfo;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.SearchPhaseResult;
 import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.Transport;
 import org.elasticsearch.transport.TransportException;
 import org.elasticsearch.transport.TransportRequest;
@@ -371,6 +374,111 @@ public class SearchAsyncActionTests extends ESTestCase {
         executor.shutdown();
     }
 
+    public void testHedgeSlowShardRequests() throws InterruptedException {
+        SearchRequest request = new SearchRequest();
+        request.allowPartialSearchResults(true);
+        int numShards = randomIntBetween(1, 10);
+        request.setMaxConcurrentShardRequests(numShards);
+        AtomicReference<TestSearchResponse> response = new AtomicReference<>();
+        ActionListener<SearchResponse> responseListener = ActionListener.wrap(
+            searchResponse -> response.set((TestSearchResponse) searchResponse),
+            (e) -> { throw new AssertionError("unexpected", e);});
+        DiscoveryNode slowNode = new DiscoveryNode("node_1", buildNewFakeTransportAddress(), Version.CURRENT);
+        DiscoveryNode fastNode = new DiscoveryNode("node_2", buildNewFakeTransportAddress(), Version.CURRENT);
+
+        GroupShardsIterator<SearchShardIterator> shardsIter = getShardsIter("idx",
+            new OriginalIndices(new String[]{"idx"}, SearchRequest.DEFAULT_INDICES_OPTIONS),
+            numShards, true, slowNode, fastNode);
+        AtomicInteger contextIdGenerator = new AtomicInteger(0);
+        Set<Long> freedContexts = newConcurrentSet();
+        SearchTransportService transportService = new SearchTransportService(null, null) {
+            @Override
+            public void sendFreeContext(Transport.Connection connection, long contextId, OriginalIndices originalIndices) {
+                assertEquals(slowNode, connection.getNode());
+                assertTrue(freedContexts.add(contextId));
+            }
+        };
+        Map<String, Transport.Connection> lookup = new HashMap<>();
+        lookup.put(slowNode.getId(), new MockConnection(slowNode));
+        lookup.put(fastNode.getId(), new MockConnection(fastNode));
+        Map<String, AliasFilter> aliasFilters = Collections.singletonMap("_na_", new AliasFilter(null, Strings.EMPTY_ARRAY));
+        Map<TestSearchPhaseResult, SearchActionListener<TestSearchPhaseResult>> slowRequests = newConcurrentMap();
+        ExecutorService executor = Executors.newFixedThreadPool(randomIntBetween(1, Runtime.getRuntime().availableProcessors()));
+        ThreadPool threadPool = new TestThreadPool(getTestName());
+        final CountDownLatch latch = new CountDownLatch(1);
+        AbstractSearchAsyncAction<TestSearchPhaseResult> asyncAction =
+            new AbstractSearchAsyncAction<TestSearchPhaseResult>(
+                "test",
+                logger,
+                transportService,
+                (cluster, node) -> {
+                    assert cluster == null : "cluster was not null: " + cluster;
+                    return lookup.get(node); },
+                aliasFilters,
+                Collections.emptyMap(),
+                Collections.emptyMap(),
+                executor,
+                request,
+                responseListener,
+                shardsIter,
+                new TransportSearchAction.SearchTimeProvider(0, 0, () -> 0),
+                0,
+                null,
+                new InitialSearchPhase.ArraySearchPhaseResults<>(shardsIter.size()),
+                request.getMaxConcurrentShardRequests(),
+                SearchResponse.Clusters.EMPTY) {
+                TestSearchResponse response = new TestSearchResponse();
+
+                @Override
+                protected void executePhaseOnShard(SearchShardIterator shardIt, ShardRouting shard,
+                                                   SearchActionListener<TestSearchPhaseResult> listener) {
+                    Transport.Connection connection = getConnection(null, shard.currentNodeId());
+                    TestSearchPhaseResult testSearchPhaseResult = new TestSearchPhaseResult(contextIdGenerator.incrementAndGet(),
+                        connection.getNode());
+                    if (slowNode.equals(connection.getNode())) {
+                        slowRequests.put(testSearchPhaseResult, listener);
+                    } else {
+                        // answer right away so that requests that go to the fast copy first are never hedged
+                        listener.onResponse(testSearchPhaseResult);
+                    }
+                }
+
+                @Override
+                protected SearchPhase getNextPhase(SearchPhaseResults<TestSearchPhaseResult> results, SearchPhaseContext context) {
+                    return new SearchPhase("test") {
+                        @Override
+                        public void run() {
+                            for (int i = 0; i < results.getNumShards(); i++) {
+                                TestSearchPhaseResult result = results.getAtomicArray().get(i);
+                                assertEquals(fastNode, result.node);
+                                response.queried.add(result.getSearchShardTarget().getShardId());
+                            }
+                            responseListener.onResponse(response);
+                            latch.countDown();
+                        }
+                    };
+                }
+            };
+        asyncAction.enableHedging(threadPool, TimeValue.timeValueMillis(randomIntBetween(1, 20)));
+        try {
+            asyncAction.start();
+            latch.await();
+            assertNotNull(response.get());
+            assertEquals(numShards, response.get().queried.size());
+            assertTrue(freedContexts.isEmpty());
+
+            // the slow copies answer eventually, their contexts are released since they are not needed anymore
+            slowRequests.forEach((result, listener) -> listener.onResponse(result));
+            assertEquals(slowRequests.size(), freedContexts.size());
+            for (TestSearchPhaseResult result : slowRequests.keySet()) {
+                assertTrue(freedContexts.contains(result.getRequestId()));
+            }
+        } finally {
+            executor.shutdown();
+            terminate(threadPool);
+        }
+    }
+
     static GroupShardsIterator<SearchShardIterator> getShardsIter(String index, OriginalIndices originalIndices, int numShards,
                                                      boolean doReplicas, DiscoveryNode primaryNode, DiscoveryNode replicaNode) {
         ArrayList<SearchShardIterator> list = new ArrayList<>();
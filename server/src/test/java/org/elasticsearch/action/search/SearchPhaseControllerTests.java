@@ -35,6 +35,7 @@ import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.DocValueFormat;
@@ -63,6 +64,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -421,6 +423,63 @@ public class SearchPhaseControllerTests extends ESTestCase {
         assertNull(reduce.sortedTopDocs.collapseValues);
     }
 
+    public void testConsumerPartialReducesOnExecutor() throws InterruptedException {
+        int expectedNumResults = randomIntBetween(3, 200);
+        int bufferSize = randomIntBetween(2, Math.min(20, expectedNumResults - 1));
+        SearchRequest request = randomBoolean() ? new SearchRequest() : new SearchRequest("remote");
+        request.source(new SearchSourceBuilder().aggregation(AggregationBuilders.avg("foo")).size(randomIntBetween(0, 1)));
+        request.setBatchedReduceSize(bufferSize);
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        List<Runnable> deferred = new CopyOnWriteArrayList<>();
+        // partial reduces either run concurrently, get rejected or never run before the final reduce
+        Executor executor = command -> {
+            switch (randomIntBetween(0, 2)) {
+                case 0:
+                    Thread thread = new Thread(command);
+                    threads.add(thread);
+                    thread.start();
+                    break;
+                case 1:
+                    throw new EsRejectedExecutionException("rejected");
+                default:
+                    deferred.add(command);
+            }
+        };
+        InitialSearchPhase.ArraySearchPhaseResults<SearchPhaseResult> consumer =
+            searchPhaseController.newSearchPhaseResults(executor, request, expectedNumResults);
+        assertThat(consumer, instanceOf(SearchPhaseController.QueryPhaseResultConsumer.class));
+        int max = 0;
+        for (int i = 0; i < expectedNumResults; i++) {
+            int number = randomIntBetween(1, 1000);
+            max = Math.max(max, number);
+            QuerySearchResult result = new QuerySearchResult(i, new SearchShardTarget("node", new Index("a", "b"), i, null));
+            result.topDocs(new TopDocsAndMaxScore(new TopDocs(new TotalHits(1, TotalHits.Relation.EQUAL_TO),
+                new ScoreDoc[] {new ScoreDoc(0, number)}), number), new DocValueFormat[0]);
+            InternalAggregations aggs = new InternalAggregations(Collections.singletonList(new InternalMax("test", (double) number,
+                DocValueFormat.RAW, Collections.emptyList(), Collections.emptyMap())));
+            result.aggregations(aggs);
+            result.setShardIndex(i);
+            result.size(1);
+            consumer.consumeResult(result);
+        }
+        SearchPhaseController.ReducedQueryPhase reduce = consumer.reduce();
+        for (Runnable runnable : deferred) {
+            runnable.run();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFinalReduction(request);
+        // the number of partial reduces does not depend on when they are executed
+        int expectedPartialReduces = 1 + (expectedNumResults - bufferSize - 1) / (bufferSize - 1);
+        assertEquals(expectedPartialReduces + 1, reduce.numReducePhases);
+        assertEquals(expectedPartialReduces + 1, reductions.size());
+        InternalMax internalMax = (InternalMax) reduce.aggregations.asList().get(0);
+        assertEquals(max, internalMax.getValue(), 0.0D);
+        assertEquals(expectedNumResults, reduce.totalHits.value);
+        assertEquals(max, reduce.maxScore, 0.0f);
+    }
+
     public void testConsumerOnlyAggs() {
         int expectedNumResults = randomIntBetween(1, 100);
         int bufferSize = randomIntBetween(2, 200);
@@ -29,6 +29,7 @@ import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.AbstractSearchTestCase;
 import org.elasticsearch.search.RandomSearchRequestGenerator;
 import org.elasticsearch.search.Scroll;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.rescore.QueryRescorerBuilder;
 import org.elasticsearch.test.ESTestCase;
@@ -186,6 +187,23 @@ public class SearchRequestTests extends AbstractSearchTestCase {
             assertEquals(1, validationErrors.validationErrors().size());
             assertEquals("using [rescore] is not allowed in a scroll context", validationErrors.validationErrors().get(0));
         }
+        {
+            // a point in time applies to all shards of the indices it was opened on
+            SearchRequest searchRequest = new SearchRequest()
+                .source(new SearchSourceBuilder().pointInTimeBuilder(new PointInTimeBuilder(randomAlphaOfLength(10))));
+            assertNull(searchRequest.validate());
+            searchRequest.indices("index");
+            searchRequest.routing("routing");
+            searchRequest.preference("_local");
+            searchRequest.scroll(new TimeValue(1000));
+            ActionRequestValidationException validationErrors = searchRequest.validate();
+            assertNotNull(validationErrors);
+            assertEquals(4, validationErrors.validationErrors().size());
+            assertEquals("using [pit] is not allowed in a scroll context", validationErrors.validationErrors().get(0));
+            assertEquals("[indices] cannot be used with point in time", validationErrors.validationErrors().get(1));
+            assertEquals("[routing] cannot be used with point in time", validationErrors.validationErrors().get(2));
+            assertEquals("[preference] cannot be used with point in time", validationErrors.validationErrors().get(3));
+        }
     }
 
     public void testCopyConstructor() throws IOException {
@@ -0,0 +1,110 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.lucene.search.TopDocsAndMaxScore;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.SearchShardTarget;
+import org.elasticsearch.search.internal.ShardSearchTransportRequest;
+import org.elasticsearch.search.query.QuerySearchResult;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SearchTransportServiceTests extends ESTestCase {
+
+    public void testBatchedQueryResponseSerialization() throws Exception {
+        final int numRequests = randomIntBetween(1, 10);
+        final List<ShardSearchTransportRequest> requests = new ArrayList<>(numRequests);
+        final SearchPhaseResult[] results = new SearchPhaseResult[numRequests];
+        final Exception[] failures = new Exception[numRequests];
+        for (int i = 0; i < numRequests; i++) {
+            ShardSearchTransportRequest request = mock(ShardSearchTransportRequest.class);
+            // the number of shards of each search tells whether its result must be read as a query or a query and fetch result
+            when(request.numberOfShards()).thenReturn(randomIntBetween(2, 5));
+            requests.add(request);
+            if (randomBoolean()) {
+                QuerySearchResult result = new QuerySearchResult(i, new SearchShardTarget("node", new Index("index", "_na_"), 0, null));
+                result.topDocs(new TopDocsAndMaxScore(new TopDocs(new TotalHits(i, TotalHits.Relation.EQUAL_TO),
+                    new ScoreDoc[] {new ScoreDoc(i, 1.0F)}), 1.0F), new DocValueFormat[0]);
+                result.size(1);
+                results[i] = result;
+            } else {
+                failures[i] = new ElasticsearchException("failure " + i);
+            }
+        }
+
+        final SearchTransportService.BatchedQueryResponse response = new SearchTransportService.BatchedQueryResponse(results, failures);
+        final SearchTransportService.BatchedQueryResponse deserialized;
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            response.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                deserialized = new SearchTransportService.BatchedQueryResponse(in, requests);
+            }
+        }
+        for (int i = 0; i < numRequests; i++) {
+            if (results[i] != null) {
+                assertNull(deserialized.failures()[i]);
+                assertThat(deserialized.results()[i], instanceOf(QuerySearchResult.class));
+                QuerySearchResult result = deserialized.results()[i].queryResult();
+                assertEquals(i, result.getRequestId());
+                assertEquals(i, result.topDocs().topDocs.totalHits.value);
+                assertEquals(i, result.topDocs().topDocs.scoreDocs[0].doc);
+            } else {
+                assertNull(deserialized.results()[i]);
+                assertThat(deserialized.failures()[i].getMessage(), containsString("failure " + i));
+            }
+        }
+    }
+
+    public void testBatchedQueryResponseOfAnotherBatch() throws Exception {
+        ShardSearchTransportRequest request = mock(ShardSearchTransportRequest.class);
+        when(request.numberOfShards()).thenReturn(1);
+        List<ShardSearchTransportRequest> requests = new ArrayList<>();
+        requests.add(request);
+        requests.add(request);
+        final SearchTransportService.BatchedQueryResponse response = new SearchTransportService.BatchedQueryResponse(
+            new SearchPhaseResult[2], new Exception[] {new ElasticsearchException("first"), new ElasticsearchException("second")});
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            response.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                requests.remove(0);
+                // the number of results must match the number of requests of the batch
+                IllegalStateException e = expectThrows(IllegalStateException.class,
+                    () -> new SearchTransportService.BatchedQueryResponse(in, requests));
+                assertEquals("expected [1] results but got [2]", e.getMessage());
+            }
+        }
+    }
+}
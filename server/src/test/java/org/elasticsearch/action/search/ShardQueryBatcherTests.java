@@ -0,0 +1,99 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.internal.ShardSearchTransportRequest;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.transport.Transport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ShardQueryBatcherTests extends ESTestCase {
+
+    public void testNotDispatching() {
+        List<List<ShardQueryBatcher.PendingQuery>> sent = new ArrayList<>();
+        ShardQueryBatcher batcher = new ShardQueryBatcher(null, (connection, queries) -> sent.add(queries));
+        assertFalse(batcher.add(connection("node"), mock(ShardSearchTransportRequest.class), null, ActionListener.wrap(() -> {})));
+        assertTrue(sent.isEmpty());
+    }
+
+    public void testBatchesQueriesPerNode() {
+        Map<String, List<ShardQueryBatcher.PendingQuery>> sent = new HashMap<>();
+        ShardQueryBatcher batcher = new ShardQueryBatcher(null, (connection, queries) -> {
+            assertNull(sent.put(connection.getNode().getId(), queries));
+            for (ShardQueryBatcher.PendingQuery query : queries) {
+                assertSame(connection, query.connection);
+            }
+        });
+        int numNodes = randomIntBetween(1, 5);
+        Transport.Connection[] connections = new Transport.Connection[numNodes];
+        for (int i = 0; i < numNodes; i++) {
+            connections[i] = connection("node_" + i);
+        }
+        Map<String, Integer> expected = new HashMap<>();
+        batcher.startDispatching();
+        int numSearches = randomIntBetween(1, 10);
+        for (int i = 0; i < numSearches; i++) {
+            // each search is dispatched in a nested call, like the searches of a multi search request
+            batcher.startDispatching();
+            int numShards = randomIntBetween(1, 5);
+            for (int j = 0; j < numShards; j++) {
+                Transport.Connection connection = randomFrom(connections);
+                ActionListener<SearchPhaseResult> listener = ActionListener.wrap(() -> {});
+                assertTrue(batcher.add(connection, mock(ShardSearchTransportRequest.class), null, listener));
+                expected.merge(connection.getNode().getId(), 1, Integer::sum);
+            }
+            batcher.stopDispatching();
+            assertTrue(sent.isEmpty());
+        }
+        batcher.stopDispatching();
+        assertEquals(expected.keySet(), sent.keySet());
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().intValue(), sent.get(entry.getKey()).size());
+        }
+
+        // queries that are added once all searches are dispatched are sent on their own
+        assertFalse(batcher.add(randomFrom(connections), mock(ShardSearchTransportRequest.class), null, ActionListener.wrap(() -> {})));
+
+        // a new round of dispatching starts a new batch
+        sent.clear();
+        batcher.startDispatching();
+        assertTrue(batcher.add(connections[0], mock(ShardSearchTransportRequest.class), null, ActionListener.wrap(() -> {})));
+        batcher.stopDispatching();
+        assertEquals(1, sent.size());
+        assertEquals(1, sent.get(connections[0].getNode().getId()).size());
+    }
+
+    private static Transport.Connection connection(String nodeId) {
+        Transport.Connection connection = mock(Transport.Connection.class);
+        when(connection.getNode()).thenReturn(new DiscoveryNode(nodeId, buildNewFakeTransportAddress(), Version.CURRENT));
+        return connection;
+    }
+}
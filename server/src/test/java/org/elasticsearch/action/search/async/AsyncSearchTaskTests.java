@@ -0,0 +1,177 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.action.search.async;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.search.SearchAction;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.ShardSearchFailure;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.search.aggregations.InternalAggregation.ReduceContext;
+import org.elasticsearch.search.aggregations.InternalAggregations;
+import org.elasticsearch.search.internal.InternalSearchResponse;
+import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AsyncSearchTaskTests extends ESTestCase {
+    private ThreadPool threadPool;
+
+    @Before
+    public void setUpThreadPool() {
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @After
+    public void tearDownThreadPool() {
+        ThreadPool.terminate(threadPool, 30, TimeUnit.SECONDS);
+    }
+
+    private AsyncSearchTask createTask(boolean keepOnCompletion) {
+        return new AsyncSearchTask(randomNonNegativeLong(), "transport", SearchAction.NAME, TaskId.EMPTY_TASK_ID,
+            Collections.emptyMap(), AsyncSearchTask.buildSearchId("random", new TaskId("node", 1)), Collections.emptyMap(),
+            () -> "async_search",
+            TimeValue.timeValueMinutes(1), keepOnCompletion, threadPool,
+            isFinal -> new ReduceContext(BigArrays.NON_RECYCLING_INSTANCE, null, isFinal));
+    }
+
+    private static SearchResponse newSearchResponse(int totalShards, int successfulShards, int skippedShards) {
+        return new SearchResponse(InternalSearchResponse.empty(), null, totalShards, successfulShards, skippedShards,
+            100, ShardSearchFailure.EMPTY_ARRAY, SearchResponse.Clusters.EMPTY);
+    }
+
+    public void testSearchId() {
+        TaskId taskId = new TaskId(randomAlphaOfLength(10), randomNonNegativeLong());
+        String searchId = AsyncSearchTask.buildSearchId(randomAlphaOfLength(20), taskId);
+        assertEquals(taskId, AsyncSearchTask.parseTaskId(searchId));
+        expectThrows(IllegalArgumentException.class, () -> AsyncSearchTask.parseTaskId(randomAlphaOfLength(10)));
+    }
+
+    public void testPartialResponse() {
+        AsyncSearchTask task = createTask(false);
+        AsyncSearchResponse response = task.getAsyncResponse();
+        assertTrue(response.isRunning());
+        assertTrue(response.isPartial());
+        assertNull(response.getSearchResponse());
+
+        AsyncSearchTask.Listener listener = (AsyncSearchTask.Listener) task.getProgressListener();
+        listener.onListShards(10, 2);
+        listener.onQueryResult(0);
+        listener.onQueryResult(1);
+        listener.onPartialReduce(2, InternalAggregations.EMPTY, 1);
+        response = task.getAsyncResponse();
+        assertTrue(response.isRunning());
+        assertTrue(response.isPartial());
+        assertEquals(task.getSearchId(), response.getId());
+        assertEquals(task.getExpirationTime(), response.getExpirationTime());
+        SearchResponse searchResponse = response.getSearchResponse();
+        assertEquals(10, searchResponse.getTotalShards());
+        assertEquals(2, searchResponse.getSkippedShards());
+        assertEquals(4, searchResponse.getSuccessfulShards());
+        assertEquals(1, searchResponse.getNumReducePhases());
+        assertNotNull(searchResponse.getAggregations());
+
+        // the response was retrieved while the search was running so it must be stored on completion
+        assertTrue(task.onCompletion(newSearchResponse(10, 10, 2), null));
+        response = task.getAsyncResponse();
+        assertFalse(response.isRunning());
+        assertFalse(response.isPartial());
+        assertEquals(10, response.getSearchResponse().getSuccessfulShards());
+    }
+
+    public void testStoreOnCompletion() {
+        AsyncSearchTask task = createTask(false);
+        assertFalse(task.onCompletion(newSearchResponse(1, 1, 0), null));
+
+        task = createTask(true);
+        assertTrue(task.onCompletion(newSearchResponse(1, 1, 0), null));
+
+        task = createTask(false);
+        assertFalse(task.onCompletion(null, new IllegalStateException("boom")));
+        AsyncSearchResponse response = task.getAsyncResponse();
+        assertFalse(response.isRunning());
+        assertTrue(response.isPartial());
+        assertEquals("boom", response.getFailure().getMessage());
+    }
+
+    public void testWaitForCompletion() throws InterruptedException {
+        AsyncSearchTask task = createTask(false);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<AsyncSearchResponse> responseRef = new AtomicReference<>();
+        task.addCompletionListener(ActionListener.wrap(response -> {
+            responseRef.set(response);
+            latch.countDown();
+        }, e -> fail(e.getMessage())), TimeValue.timeValueMinutes(1));
+        assertNull(responseRef.get());
+        task.onCompletion(newSearchResponse(1, 1, 0), null);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertFalse(responseRef.get().isRunning());
+        assertFalse(responseRef.get().isPartial());
+    }
+
+    public void testWaitForCompletionTimeout() throws InterruptedException {
+        AsyncSearchTask task = createTask(false);
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<AsyncSearchResponse> responseRef = new AtomicReference<>();
+        task.addCompletionListener(ActionListener.wrap(response -> {
+            responseRef.set(response);
+            latch.countDown();
+        }, e -> fail(e.getMessage())), TimeValue.timeValueMillis(randomIntBetween(1, 10)));
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(responseRef.get().isRunning());
+        // the search was still running when the response was returned so it must be stored on completion
+        assertTrue(task.onCompletion(newSearchResponse(1, 1, 0), null));
+    }
+
+    public void testSerialization() throws IOException {
+        AsyncSearchTask task = createTask(false);
+        AsyncSearchTask.Listener listener = (AsyncSearchTask.Listener) task.getProgressListener();
+        listener.onListShards(5, 1);
+        listener.onQueryResult(0);
+        AsyncSearchResponse response = task.getAsyncResponse();
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            response.writeTo(out);
+            try (StreamInput in = out.bytes().streamInput()) {
+                AsyncSearchResponse copy = new AsyncSearchResponse();
+                copy.readFrom(in);
+                assertEquals(response.getId(), copy.getId());
+                assertEquals(response.isRunning(), copy.isRunning());
+                assertEquals(response.isPartial(), copy.isPartial());
+                assertEquals(response.getStartTime(), copy.getStartTime());
+                assertEquals(response.getExpirationTime(), copy.getExpirationTime());
+                assertEquals(5, copy.getSearchResponse().getTotalShards());
+                assertEquals(2, copy.getSearchResponse().getSuccessfulShards());
+                assertNull(copy.getFailure());
+            }
+        }
+    }
+}
@@ -57,8 +57,10 @@ import java.util.function.Supplier;
 import static org.elasticsearch.action.support.replication.ClusterStateCreationUtils.state;
 import static org.elasticsearch.action.support.replication.ClusterStateCreationUtils.stateWithActivePrimary;
 import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 
@@ -162,6 +164,84 @@ public class ReplicationOperationTests extends ESTestCase {
         }
     }
 
+    public void testPipelinedReplication() throws Exception {
+        final String index = "test";
+        final ShardId shardId = new ShardId(index, "_na_", 0);
+        final ClusterState state = stateWithActivePrimary(index, true, randomIntBetween(1, 3));
+        final IndexMetaData indexMetaData = state.getMetaData().index(index);
+        final long primaryTerm = indexMetaData.primaryTerm(0);
+        final IndexShardRoutingTable indexShardRoutingTable = state.getRoutingTable().shardRoutingTable(shardId);
+        final ShardRouting primaryShard = indexShardRoutingTable.primaryShard();
+        final Set<String> trackedShards = new HashSet<>();
+        addTrackingInfo(indexShardRoutingTable, primaryShard, trackedShards, new HashSet<>());
+        final ReplicationGroup replicationGroup =
+            new ReplicationGroup(indexShardRoutingTable, indexMetaData.inSyncAllocationIds(0), trackedShards);
+        final Set<ShardRouting> expectedReplicas = getExpectedReplicas(shardId, state, trackedShards);
+
+        final Request request = new Request(shardId);
+        final List<Request> chunks = new ArrayList<>();
+        final int numChunks = randomIntBetween(1, 10);
+        final TestPrimary primary = new TestPrimary(primaryShard, () -> replicationGroup) {
+            @Override
+            public Result perform(Request primaryRequest, Consumer<Request> pipelinedReplicaRequests) throws Exception {
+                for (int i = 0; i < numChunks; i++) {
+                    final Request chunk = new Request(shardId);
+                    chunks.add(chunk);
+                    pipelinedReplicaRequests.accept(chunk);
+                }
+                return perform(primaryRequest);
+            }
+        };
+
+        final int maxInFlightChunks = randomIntBetween(1, 4);
+        final Map<ShardRouting, List<ActionListener<ReplicationOperation.ReplicaResponse>>> inFlight = new HashMap<>();
+        final TestReplicaProxy replicasProxy = new TestReplicaProxy(primaryTerm) {
+            @Override
+            public void performOn(ShardRouting replica, Request replicaRequest, long globalCheckpoint, long maxSeqNoOfUpdatesOrDeletes,
+                                  ActionListener<ReplicationOperation.ReplicaResponse> listener) {
+                assertTrue("replica request processed twice on [" + replica + "]", replicaRequest.processedOnReplicas.add(replica));
+                final List<ActionListener<ReplicationOperation.ReplicaResponse>> pending =
+                    inFlight.computeIfAbsent(replica, r -> new ArrayList<>());
+                if (replicaRequest == request) {
+                    assertThat("final request sent before all chunks were acknowledged", pending, empty());
+                } else {
+                    assertThat(pending.size(), lessThan(maxInFlightChunks));
+                }
+                pending.add(listener);
+            }
+        };
+
+        PlainActionFuture<TestPrimary.Result> listener = new PlainActionFuture<>();
+        final TestReplicationOperation op = new TestReplicationOperation(request, primary, listener, replicasProxy, maxInFlightChunks);
+        op.execute();
+
+        // acknowledge the in-flight requests in random order
+        while (true) {
+            final List<List<ActionListener<ReplicationOperation.ReplicaResponse>>> nonEmpty = new ArrayList<>();
+            for (List<ActionListener<ReplicationOperation.ReplicaResponse>> pending : inFlight.values()) {
+                if (pending.isEmpty() == false) {
+                    nonEmpty.add(pending);
+                }
+            }
+            if (nonEmpty.isEmpty()) {
+                break;
+            }
+            assertFalse(listener.isDone());
+            final List<ActionListener<ReplicationOperation.ReplicaResponse>> pending = randomFrom(nonEmpty);
+            pending.remove(randomIntBetween(0, pending.size() - 1))
+                .onResponse(new ReplicaResponse(randomNonNegativeLong(), randomNonNegativeLong()));
+        }
+
+        assertTrue("listener is not marked as done", listener.isDone());
+        for (Request chunk : chunks) {
+            assertThat(chunk.processedOnReplicas, equalTo(expectedReplicas));
+        }
+        assertThat(request.processedOnReplicas, equalTo(expectedReplicas));
+        ShardInfo shardInfo = listener.actionGet().getShardInfo();
+        assertThat(shardInfo.getFailed(), equalTo(0));
+        assertThat(shardInfo.getSuccessful(), equalTo(1 + expectedReplicas.size()));
+    }
+
     public void testDemotedPrimary() throws Exception {
         final String index = "test";
         final ShardId shardId = new ShardId(index, "_na_", 0);
@@ -630,6 +710,11 @@ public class ReplicationOperationTests extends ESTestCase {
             this(request, primary, listener, replicas, ReplicationOperationTests.this.logger, "test");
         }
 
+        TestReplicationOperation(Request request, Primary<Request, Request, TestPrimary.Result> primary,
+                ActionListener<TestPrimary.Result> listener, Replicas<Request> replicas, int maxInFlightReplicaChunks) {
+            super(request, primary, listener, replicas, ReplicationOperationTests.this.logger, "test", maxInFlightReplicaChunks);
+        }
+
         TestReplicationOperation(Request request, Primary<Request, Request, TestPrimary.Result> primary,
                                  ActionListener<TestPrimary.Result> listener,
                                  Replicas<Request> replicas, Logger logger, String opType) {
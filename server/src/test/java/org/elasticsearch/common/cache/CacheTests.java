@@ -885,6 +885,7 @@ public class CacheTests extends ESTestCase {
                 CacheBuilder.<Integer, String>builder()
                         .setMaximumWeight(1000)
                         .weigher((k, v) -> 2)
+                        .setEvictionPolicy(randomFrom(Cache.EvictionPolicy.values()))
                         .build();
 
         CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
@@ -914,6 +915,91 @@ public class CacheTests extends ESTestCase {
         assertEquals(500, cache.count());
     }
 
+    // access a small set of hot keys while scanning through keys that are used only once, then check that the hot keys
+    // are evicted less often with the tiny lfu eviction policy than with the lru eviction policy
+    public void testTinyLfuResistsScans() throws ExecutionException {
+        final long seed = randomLong();
+        final int lruHits = hotKeyHits(Cache.EvictionPolicy.LRU, new Random(seed));
+        final int tinyLfuHits = hotKeyHits(Cache.EvictionPolicy.TINY_LFU, new Random(seed));
+        assertThat("lru hits [" + lruHits + "], tiny lfu hits [" + tinyLfuHits + "]", tinyLfuHits > lruHits, is(true));
+    }
+
+    private int hotKeyHits(Cache.EvictionPolicy evictionPolicy, Random random) throws ExecutionException {
+        final int hotKeys = 100;
+        final Cache<Integer, String> cache =
+                CacheBuilder.<Integer, String>builder()
+                        .setMaximumWeight(hotKeys)
+                        .setEvictionPolicy(evictionPolicy)
+                        .build();
+        int hits = 0;
+        int scanKey = hotKeys;
+        for (int i = 0; i < 20000; i++) {
+            if (random.nextBoolean()) {
+                final int key = random.nextInt(hotKeys);
+                if (cache.get(key) != null) {
+                    hits++;
+                } else {
+                    cache.computeIfAbsent(key, Object::toString);
+                }
+            } else {
+                final int key = scanKey++;
+                cache.computeIfAbsent(key, Object::toString);
+            }
+        }
+        cache.refresh();
+        assertThat(cache.count(), is(hotKeys));
+        assertEquals(evictionPolicy, cache.getEvictionPolicy());
+        return hits;
+    }
+
+    // concurrently read and write with the tiny lfu eviction policy, then check that the cache is consistent
+    public void testTinyLfuTorture() throws BrokenBarrierException, InterruptedException {
+        int numberOfThreads = randomIntBetween(2, 32);
+        final Cache<Integer, String> cache =
+                CacheBuilder.<Integer, String>builder()
+                        .setMaximumWeight(1000)
+                        .weigher((k, v) -> 2)
+                        .setEvictionPolicy(Cache.EvictionPolicy.TINY_LFU)
+                        .build();
+
+        CyclicBarrier barrier = new CyclicBarrier(1 + numberOfThreads);
+        for (int i = 0; i < numberOfThreads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    Random random = new Random(random().nextLong());
+                    for (int j = 0; j < numberOfEntries; j++) {
+                        Integer key = random.nextInt(numberOfEntries);
+                        if (random.nextBoolean()) {
+                            cache.get(key);
+                        } else {
+                            cache.computeIfAbsent(key, Object::toString);
+                        }
+                    }
+                    barrier.await();
+                } catch (BrokenBarrierException | InterruptedException | ExecutionException e) {
+                    throw new AssertionError(e);
+                }
+            });
+            thread.start();
+        }
+
+        // wait for all threads to be ready
+        barrier.await();
+        // wait for all threads to finish
+        barrier.await();
+
+        cache.refresh();
+        assertEquals(500, cache.count());
+        assertEquals(1000, cache.weight());
+        Set<Integer> keys = new HashSet<>();
+        for (Integer key : cache.keys()) {
+            assertTrue(keys.add(key));
+            assertNotNull(cache.get(key));
+        }
+        assertEquals(500, keys.size());
+    }
+
     public void testRemoveUsingValuesIterator() {
         final List<RemovalNotification<Integer, String>> removalNotifications = new ArrayList<>();
         Cache<Integer, String> cache =
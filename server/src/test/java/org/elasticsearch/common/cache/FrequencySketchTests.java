@@ -0,0 +1,72 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.cache;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class FrequencySketchTests extends ESTestCase {
+
+    public void testIncrement() {
+        FrequencySketch sketch = new FrequencySketch();
+        String key = randomAlphaOfLength(10);
+        assertEquals(0, sketch.frequency(key));
+        int increments = randomIntBetween(1, 15);
+        for (int i = 0; i < increments; i++) {
+            sketch.increment(key);
+        }
+        assertThat(sketch.frequency(key), greaterThanOrEqualTo(increments));
+    }
+
+    public void testSaturates() {
+        FrequencySketch sketch = new FrequencySketch();
+        String key = randomAlphaOfLength(10);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(key);
+        }
+        assertEquals(15, sketch.frequency(key));
+    }
+
+    public void testAging() {
+        FrequencySketch sketch = new FrequencySketch();
+        Integer key = -1;
+        for (int i = 0; i < 15; i++) {
+            sketch.increment(key);
+        }
+        assertEquals(15, sketch.frequency(key));
+        // the default sketch has 16 longs and is aged after 160 increments
+        for (int i = 0; i < 1000; i++) {
+            sketch.increment(i);
+        }
+        assertThat(sketch.frequency(key), lessThan(15));
+    }
+
+    public void testEnsureCapacity() {
+        FrequencySketch sketch = new FrequencySketch();
+        String key = randomAlphaOfLength(10);
+        sketch.increment(key);
+        sketch.ensureCapacity(randomIntBetween(0, 16));
+        assertEquals(1, sketch.frequency(key));
+        sketch.ensureCapacity(randomIntBetween(17, FrequencySketch.MAXIMUM_CAPACITY * 2));
+        assertEquals(0, sketch.frequency(key));
+    }
+}
@@ -38,11 +38,13 @@ import java.util.function.Function;
 
 import static org.elasticsearch.indices.breaker.HierarchyCircuitBreakerService.REQUEST_CIRCUIT_BREAKER_LIMIT_SETTING;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 
 public class BigArraysTests extends ESTestCase {
 
     private BigArrays randombigArrays() {
-        return new MockBigArrays(new MockPageCacheRecycler(Settings.EMPTY), new NoneCircuitBreakerService());
+        Settings settings = Settings.builder().put(PageCacheRecycler.DIRECT_SETTING.getKey(), randomBoolean()).build();
+        return new MockBigArrays(new MockPageCacheRecycler(settings), new NoneCircuitBreakerService());
     }
 
     private BigArrays bigArrays;
@@ -387,6 +389,56 @@ public class BigArraysTests extends ESTestCase {
         }
     }
 
+    public void testDirectArrays() {
+        HierarchyCircuitBreakerService hcbs = new HierarchyCircuitBreakerService(
+            Settings.builder()
+                .put(HierarchyCircuitBreakerService.USE_REAL_MEMORY_USAGE_SETTING.getKey(), false)
+                .build(),
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        PageCacheRecycler recycler = new MockPageCacheRecycler(Settings.builder()
+            .put(PageCacheRecycler.DIRECT_SETTING.getKey(), true)
+            .build());
+        assertTrue(recycler.isDirect());
+        BigArrays bigArrays = new BigArrays(recycler, hcbs, CircuitBreaker.REQUEST);
+        CircuitBreaker breaker = hcbs.getBreaker(CircuitBreaker.REQUEST);
+        final int size = randomIntBetween(PageCacheRecycler.INT_PAGE_SIZE + 1, 1 << 16);
+
+        IntArray intArray = bigArrays.newIntArray(size);
+        assertThat(intArray, instanceOf(BigDirectIntArray.class));
+        LongArray longArray = bigArrays.newLongArray(size);
+        assertThat(longArray, instanceOf(BigDirectLongArray.class));
+        DoubleArray doubleArray = bigArrays.newDoubleArray(size);
+        assertThat(doubleArray, instanceOf(BigDirectDoubleArray.class));
+        for (long i = 0; i < size; ++i) {
+            assertEquals(0, intArray.get(i));
+            assertEquals(0L, longArray.get(i));
+            assertEquals(0d, doubleArray.get(i), 0d);
+            intArray.increment(i, (int) i);
+            longArray.increment(i, i);
+            doubleArray.increment(i, i);
+        }
+        assertEquals(intArray.ramBytesUsed() + longArray.ramBytesUsed() + doubleArray.ramBytesUsed(), breaker.getUsed());
+
+        intArray = bigArrays.grow(intArray, size * 2);
+        longArray = bigArrays.grow(longArray, size * 2);
+        doubleArray = bigArrays.grow(doubleArray, size * 2);
+        assertThat(intArray, instanceOf(BigDirectIntArray.class));
+        assertThat(longArray, instanceOf(BigDirectLongArray.class));
+        assertThat(doubleArray, instanceOf(BigDirectDoubleArray.class));
+        for (long i = 0; i < size; ++i) {
+            assertEquals(i, intArray.get(i));
+            assertEquals(i, longArray.get(i));
+            assertEquals(i, doubleArray.get(i), 0d);
+        }
+        assertEquals(intArray.ramBytesUsed() + longArray.ramBytesUsed() + doubleArray.ramBytesUsed(), breaker.getUsed());
+
+        intArray.close();
+        longArray.close();
+        doubleArray.close();
+        assertEquals(0, breaker.getUsed());
+        recycler.close();
+    }
+
     private List<BigArraysHelper> bigArrayCreators(final long maxSize, final boolean withBreaking) {
         final BigArrays byteBigArrays = newBigArraysInstance(maxSize, withBreaking);
         BigArraysHelper byteHelper = new BigArraysHelper(byteBigArrays,
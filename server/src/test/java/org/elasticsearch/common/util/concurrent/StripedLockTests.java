@@ -0,0 +1,126 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class StripedLockTests extends ESTestCase {
+
+    public void testNumStripesIsRoundedToPowerOfTwo() {
+        assertThat(new StripedLock<String>(1).numStripes(), equalTo(1));
+        assertThat(new StripedLock<String>(2).numStripes(), equalTo(2));
+        assertThat(new StripedLock<String>(3).numStripes(), equalTo(4));
+        assertThat(new StripedLock<String>(100).numStripes(), equalTo(128));
+        expectThrows(IllegalArgumentException.class, () -> new StripedLock<String>(0));
+    }
+
+    public void testHasLockedKeys() {
+        StripedLock<String> lock = new StripedLock<>(randomIntBetween(1, 64));
+        assertFalse(lock.hasLockedKeys());
+        Releasable foo = lock.acquire("foo");
+        assertTrue(lock.hasLockedKeys());
+        assertTrue(lock.isHeldByCurrentThread("foo"));
+        foo.close();
+        assertFalse(lock.hasLockedKeys());
+        assertFalse(lock.isHeldByCurrentThread("foo"));
+    }
+
+    public void testLockIsReentrant() {
+        StripedLock<String> lock = new StripedLock<>(randomIntBetween(1, 64));
+        Releasable foo = lock.acquire("foo");
+        Releasable foo2 = lock.tryAcquire("foo");
+        assertNotNull(foo2);
+        foo2.close();
+        assertTrue(lock.isHeldByCurrentThread("foo"));
+        foo.close();
+        assertFalse(lock.hasLockedKeys());
+    }
+
+    public void testTryAcquire() throws InterruptedException {
+        StripedLock<String> lock = new StripedLock<>(randomIntBetween(1, 64));
+        Releasable foo = lock.acquire("foo");
+        AtomicBoolean acquired = new AtomicBoolean(true);
+        Thread thread = new Thread(() -> {
+            Releasable releasable = lock.tryAcquire("foo");
+            acquired.set(releasable != null);
+            if (releasable != null) {
+                releasable.close();
+            }
+        });
+        thread.start();
+        thread.join();
+        assertFalse(acquired.get());
+        foo.close();
+        Releasable releasable = lock.tryAcquire("foo");
+        assertNotNull(releasable);
+        releasable.close();
+    }
+
+    public void testMutualExclusion() throws InterruptedException {
+        StripedLock<String> lock = new StripedLock<>(randomIntBetween(1, 16));
+        String[] names = new String[randomIntBetween(1, 40)];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = randomRealisticUnicodeOfLengthBetween(10, 20);
+        }
+        // unsynchronized counters, only safe because they are updated under the lock of their key
+        Map<String, int[]> counters = new HashMap<>();
+        for (String name : names) {
+            counters.put(name, new int[1]);
+        }
+        final int numThreads = randomIntBetween(3, 10);
+        final int numIterations = scaledRandomIntBetween(100, 5000);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        Thread[] threads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                for (int j = 0; j < numIterations; j++) {
+                    String name = names[j % names.length];
+                    try (Releasable ignored = lock.acquire(name)) {
+                        counters.get(name)[0]++;
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        startLatch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(lock.hasLockedKeys());
+        int total = 0;
+        for (int[] counter : counters.values()) {
+            total += counter[0];
+        }
+        assertThat(total, equalTo(numThreads * numIterations));
+    }
+}
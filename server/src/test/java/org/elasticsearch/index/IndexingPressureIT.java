@@ -0,0 +1,100 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.test.ESIntegTestCase;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+
+@ESIntegTestCase.ClusterScope(scope = ESIntegTestCase.Scope.TEST, numDataNodes = 2)
+public class IndexingPressureIT extends ESIntegTestCase {
+
+    @Override
+    protected Settings nodeSettings(int nodeOrdinal) {
+        return Settings.builder()
+            .put(super.nodeSettings(nodeOrdinal))
+            // every replica operation that overlaps with another one puts the replica stage over its budget
+            .put(IndexingPressure.MAX_REPLICA_INDEXING_BYTES.getKey(), "1b")
+            .build();
+    }
+
+    public void testReplicasOverBudgetAreNotFailed() throws Exception {
+        assertAcked(prepareCreate("test").setSettings(Settings.builder()
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 1)));
+        ensureGreen("test");
+        final Set<String> inSyncAllocationIds =
+            client().admin().cluster().prepareState().get().getState().metaData().index("test").inSyncAllocationIds(0);
+        assertThat(inSyncAllocationIds.size(), equalTo(2));
+
+        final int numThreads = randomIntBetween(2, 8);
+        final int numBulks = randomIntBetween(5, 20);
+        final AtomicInteger indexed = new AtomicInteger();
+        final Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < numBulks; i++) {
+                    BulkRequestBuilder bulk = client().prepareBulk();
+                    for (int j = randomIntBetween(1, 20); j > 0; j--) {
+                        bulk.add(client().prepareIndex("test", "_doc").setSource("field", randomAlphaOfLength(100)));
+                    }
+                    final BulkResponse response;
+                    try {
+                        response = bulk.get();
+                    } catch (EsRejectedExecutionException e) {
+                        // the coordinating node pushes back while its replica stage is over budget
+                        continue;
+                    }
+                    for (BulkItemResponse item : response) {
+                        if (item.isFailed()) {
+                            assertThat(ExceptionsHelper.unwrapCause(item.getFailure().getCause()),
+                                instanceOf(EsRejectedExecutionException.class));
+                        } else {
+                            assertThat(item.getResponse().getShardInfo().getFailed(), equalTo(0));
+                            indexed.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(indexed.get(), greaterThan(0));
+
+        ensureGreen("test");
+        assertThat(client().admin().cluster().prepareState().get().getState().metaData().index("test").inSyncAllocationIds(0),
+            equalTo(inSyncAllocationIds));
+    }
+}
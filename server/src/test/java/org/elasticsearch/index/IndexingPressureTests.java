@@ -0,0 +1,121 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index;
+
+import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.test.ESTestCase;
+
+public class IndexingPressureTests extends ESTestCase {
+
+    private final Settings settings = Settings.builder()
+        .put(IndexingPressure.MAX_INDEXING_BYTES.getKey(), "10KB")
+        .put(IndexingPressure.MAX_REPLICA_INDEXING_BYTES.getKey(), "15KB")
+        .build();
+
+    public void testMemoryBytesMarkedAndReleased() {
+        IndexingPressure indexingPressure = new IndexingPressure(settings);
+        try (Releasable coordinating = indexingPressure.markCoordinatingOperationStarted(10);
+             Releasable coordinating2 = indexingPressure.markCoordinatingOperationStarted(50);
+             Releasable primary = indexingPressure.markPrimaryOperationStarted(15);
+             Releasable primary2 = indexingPressure.markPrimaryOperationStarted(5);
+             Releasable local = indexingPressure.markPrimaryOperationLocalToCoordinatingNodeStarted(25);
+             Releasable replica = indexingPressure.markReplicaOperationStarted(25);
+             Releasable replica2 = indexingPressure.markReplicaOperationStarted(10)) {
+            IndexingPressureStats stats = indexingPressure.stats();
+            assertEquals(60, stats.getCurrentCoordinatingBytes());
+            assertEquals(45, stats.getCurrentPrimaryBytes());
+            assertEquals(80, stats.getCurrentCombinedCoordinatingAndPrimaryBytes());
+            assertEquals(35, stats.getCurrentReplicaBytes());
+        }
+        IndexingPressureStats stats = indexingPressure.stats();
+        assertEquals(0, stats.getCurrentCoordinatingBytes());
+        assertEquals(0, stats.getCurrentPrimaryBytes());
+        assertEquals(0, stats.getCurrentCombinedCoordinatingAndPrimaryBytes());
+        assertEquals(0, stats.getCurrentReplicaBytes());
+        assertEquals(60, stats.getTotalCoordinatingBytes());
+        assertEquals(45, stats.getTotalPrimaryBytes());
+        assertEquals(80, stats.getTotalCombinedCoordinatingAndPrimaryBytes());
+        assertEquals(35, stats.getTotalReplicaBytes());
+    }
+
+    public void testReleaseIsIdempotent() {
+        IndexingPressure indexingPressure = new IndexingPressure(settings);
+        Releasable coordinating = indexingPressure.markCoordinatingOperationStarted(100);
+        coordinating.close();
+        coordinating.close();
+        assertEquals(0, indexingPressure.getCurrentCoordinatingBytes());
+        assertEquals(0, indexingPressure.getCurrentCombinedCoordinatingAndPrimaryBytes());
+    }
+
+    public void testCoordinatingPrimaryRejections() {
+        IndexingPressure indexingPressure = new IndexingPressure(settings);
+        try (Releasable coordinating = indexingPressure.markCoordinatingOperationStarted(1024 * 3);
+             Releasable primary = indexingPressure.markPrimaryOperationStarted(1024 * 3);
+             Releasable replica = indexingPressure.markReplicaOperationStarted(1024 * 3)) {
+            if (randomBoolean()) {
+                expectThrows(EsRejectedExecutionException.class, () -> indexingPressure.markCoordinatingOperationStarted(1024 * 5));
+                IndexingPressureStats stats = indexingPressure.stats();
+                assertEquals(1, stats.getCoordinatingRejections());
+                assertEquals(1024 * 6, stats.getCurrentCombinedCoordinatingAndPrimaryBytes());
+            } else {
+                expectThrows(EsRejectedExecutionException.class, () -> indexingPressure.markPrimaryOperationStarted(1024 * 5));
+                IndexingPressureStats stats = indexingPressure.stats();
+                assertEquals(1, stats.getPrimaryRejections());
+                assertEquals(1024 * 6, stats.getCurrentCombinedCoordinatingAndPrimaryBytes());
+            }
+            // a primary operation that was coordinated by this node has already been admitted
+            indexingPressure.markPrimaryOperationLocalToCoordinatingNodeStarted(1024 * 5).close();
+        }
+        IndexingPressureStats stats = indexingPressure.stats();
+        assertEquals(1024 * 6, stats.getTotalCombinedCoordinatingAndPrimaryBytes());
+        assertEquals(0, stats.getCurrentCombinedCoordinatingAndPrimaryBytes());
+    }
+
+    public void testReplicaOperationsAreNeverRejected() {
+        IndexingPressure indexingPressure = new IndexingPressure(settings);
+        try (Releasable coordinating = indexingPressure.markCoordinatingOperationStarted(1024 * 3);
+             Releasable primary = indexingPressure.markPrimaryOperationStarted(1024 * 3);
+             Releasable replica = indexingPressure.markReplicaOperationStarted(1024 * 10)) {
+            // the replica stage goes over its budget rather than failing the replica
+            try (Releasable replica2 = indexingPressure.markReplicaOperationStarted(1024 * 13)) {
+                assertEquals(1024 * 23, indexingPressure.getCurrentReplicaBytes());
+                // which pushes back on new coordinating and primary operations instead
+                expectThrows(EsRejectedExecutionException.class, () -> indexingPressure.markCoordinatingOperationStarted(1));
+                expectThrows(EsRejectedExecutionException.class, () -> indexingPressure.markPrimaryOperationStarted(1));
+                IndexingPressureStats stats = indexingPressure.stats();
+                assertEquals(1, stats.getCoordinatingRejections());
+                assertEquals(1, stats.getPrimaryRejections());
+            }
+            indexingPressure.markCoordinatingOperationStarted(1).close();
+            indexingPressure.markPrimaryOperationStarted(1).close();
+        }
+        assertEquals(1024 * 23, indexingPressure.stats().getTotalReplicaBytes());
+        assertEquals(0, indexingPressure.getCurrentReplicaBytes());
+    }
+
+    public void testSingleOperationLargerThanLimitIsAdmittedWhenIdle() {
+        IndexingPressure indexingPressure = new IndexingPressure(settings);
+        try (Releasable coordinating = indexingPressure.markCoordinatingOperationStarted(1024 * 20)) {
+            expectThrows(EsRejectedExecutionException.class, () -> indexingPressure.markPrimaryOperationStarted(1));
+        }
+    }
+}
@@ -22,17 +22,22 @@ package org.elasticsearch.index.fielddata;
 import org.apache.lucene.analysis.core.KeywordAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.SortedSetDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.store.RAMDirectory;
 import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.fielddata.ordinals.GlobalOrdinalsIndexFieldData;
 import org.elasticsearch.index.fielddata.plain.SortedNumericDVIndexFieldData;
 import org.elasticsearch.index.fielddata.plain.SortedSetDVOrdinalsIndexFieldData;
 import org.elasticsearch.index.mapper.BooleanFieldMapper;
@@ -52,11 +57,13 @@ import org.elasticsearch.test.InternalSettingsPlugin;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
 
 public class IndexFieldDataServiceTests extends ESSingleNodeTestCase {
 
@@ -212,6 +219,52 @@ public class IndexFieldDataServiceTests extends ESSingleNodeTestCase {
         ifdService.clear();
     }
 
+    public void testIncrementalGlobalOrdinalsBreakerAccounting() throws Exception {
+        final IndexService indexService = createIndex("test");
+        final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
+        final IndexFieldDataService ifdService = new IndexFieldDataService(indexService.getIndexSettings(),
+            indicesService.getIndicesFieldDataCache(), indicesService.getCircuitBreakerService(), indexService.mapperService());
+        final CircuitBreaker breaker = indicesService.getCircuitBreakerService().getBreaker(CircuitBreaker.FIELDDATA);
+
+        final BuilderContext ctx = new BuilderContext(indexService.getIndexSettings().getSettings(), new ContentPath(1));
+        final MappedFieldType fieldType = new KeywordFieldMapper.Builder("s").build(ctx).fieldType();
+        final IndexWriter writer = new IndexWriter(new RAMDirectory(),
+            new IndexWriterConfig(new KeywordAnalyzer()).setMergePolicy(NoMergePolicy.INSTANCE));
+        for (int i = 0; i < 2; i++) {
+            addKeywordDocument(writer, "s", Integer.toString(i));
+            writer.commit();
+        }
+        final DirectoryReader reader1 = ElasticsearchDirectoryReader.wrap(DirectoryReader.open(writer), new ShardId("test", "_na_", 1));
+        final IndexOrdinalsFieldData ifd = ifdService.getForField(fieldType);
+        final long usedBefore = breaker.getUsed();
+        final GlobalOrdinalsIndexFieldData global1 = (GlobalOrdinalsIndexFieldData) ifd.loadGlobal(reader1);
+        assertFalse(global1.getIncrementalOrdinalMap().isIncremental());
+        assertEquals(usedBefore + global1.ramBytesUsed(), breaker.getUsed());
+
+        addKeywordDocument(writer, "s", "2");
+        final DirectoryReader reader2 = DirectoryReader.openIfChanged(reader1);
+        assertNotNull(reader2);
+        final GlobalOrdinalsIndexFieldData global2 = (GlobalOrdinalsIndexFieldData) ifd.loadGlobal(reader2);
+        assertTrue(global2.getIncrementalOrdinalMap().isIncremental());
+        assertEquals(usedBefore + global1.ramBytesUsed() + global2.ramBytesUsed(), breaker.getUsed());
+
+        // the incremental map still references the map of the closed reader, so its bytes must stay accounted for
+        reader1.close();
+        assertThat(global2.ramBytesUsed(), greaterThan(global1.ramBytesUsed()));
+        assertEquals(usedBefore + global2.ramBytesUsed(), breaker.getUsed());
+
+        reader2.close();
+        assertEquals(usedBefore, breaker.getUsed());
+        writer.close();
+        ifdService.clear();
+    }
+
+    private static void addKeywordDocument(IndexWriter writer, String field, String value) throws IOException {
+        final Document doc = new Document();
+        doc.add(new SortedSetDocValuesField(field, new BytesRef(value)));
+        writer.addDocument(doc);
+    }
+
     public void testSetCacheListenerTwice() {
         final IndexService indexService = createIndex("test");
         final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
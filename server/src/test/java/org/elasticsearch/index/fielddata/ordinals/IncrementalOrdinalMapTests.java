@@ -0,0 +1,181 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.fielddata.ordinals;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.OrdinalMap;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.LongValues;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+public class IncrementalOrdinalMapTests extends ESTestCase {
+
+    public void testIncrementalBuilds() throws IOException {
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            final List<String> deletableIds = new ArrayList<>();
+            int numDocs = 0;
+            for (int i = 0; i < 2; i++) {
+                numDocs = addSegment(writer, numDocs, deletableIds);
+            }
+            DirectoryReader reader = DirectoryReader.open(writer);
+            IncrementalOrdinalMap map = IncrementalOrdinalMap.build(reader.leaves(), values(reader));
+            assertFalse(map.isIncremental());
+            assertMapping(reader, map);
+            int depth = 0;
+            final int iters = randomIntBetween(1, 10);
+            for (int iter = 0; iter < iters; iter++) {
+                if (randomBoolean() || deletableIds.isEmpty()) {
+                    for (int i = randomIntBetween(1, 3); i > 0; i--) {
+                        numDocs = addSegment(writer, numDocs, deletableIds);
+                    }
+                } else {
+                    // only deletes, the segments stay the same
+                    writer.deleteDocuments(new Term("id", deletableIds.remove(randomIntBetween(0, deletableIds.size() - 1))));
+                }
+                final DirectoryReader newReader = DirectoryReader.openIfChanged(reader, writer);
+                assertNotNull(newReader);
+                reader.close();
+                reader = newReader;
+
+                final IncrementalOrdinalMap previous = map;
+                map = IncrementalOrdinalMap.update(previous, reader.leaves(), values(reader));
+                if (depth == IncrementalOrdinalMap.MAX_DEPTH) {
+                    assertNull(map);
+                    map = IncrementalOrdinalMap.build(reader.leaves(), values(reader));
+                    depth = 0;
+                } else {
+                    assertNotNull(map);
+                    assertTrue(map.isIncremental());
+                    assertTrue(map.ramBytesUsed() > previous.ramBytesUsed());
+                    depth++;
+                }
+                assertMapping(reader, map);
+            }
+            reader.close();
+        }
+    }
+
+    public void testMergedSegments() throws IOException {
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(newLogMergePolicy(100)))) {
+            int numDocs = 0;
+            for (int i = 0; i < 3; i++) {
+                numDocs = addSegment(writer, numDocs, new ArrayList<>());
+            }
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                final IncrementalOrdinalMap map = IncrementalOrdinalMap.build(reader.leaves(), values(reader));
+                assertEquals(3, reader.leaves().size());
+                writer.forceMerge(1);
+                addSegment(writer, numDocs, new ArrayList<>());
+                try (DirectoryReader newReader = DirectoryReader.openIfChanged(reader, writer)) {
+                    assertNull(IncrementalOrdinalMap.update(map, newReader.leaves(), values(newReader)));
+                }
+            }
+        }
+    }
+
+    public void testRamBytesUsedIncludesPrevious() throws IOException {
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE))) {
+            addSegment(writer, 0, new ArrayList<>());
+            try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                final IncrementalOrdinalMap full = IncrementalOrdinalMap.build(reader.leaves(), values(reader));
+                IncrementalOrdinalMap map = full;
+                for (int depth = 0; depth < IncrementalOrdinalMap.MAX_DEPTH; depth++) {
+                    // same segments, so every update only adds the mapping to the segments of the previous map, which it references
+                    final IncrementalOrdinalMap previous = map;
+                    map = IncrementalOrdinalMap.update(previous, reader.leaves(), values(reader));
+                    assertNotNull(map);
+                    assertThat(map.ramBytesUsed(), greaterThan(previous.ramBytesUsed()));
+                    assertThat(map.ramBytesUsed() - previous.ramBytesUsed(), lessThan(full.ramBytesUsed()));
+                }
+                assertMapping(reader, map);
+            }
+        }
+    }
+
+    private static int addSegment(IndexWriter writer, int numDocs, List<String> deletableIds) throws IOException {
+        final int segmentDocs = randomIntBetween(2, 50);
+        for (int i = 0; i < segmentDocs; i++) {
+            final String id = Integer.toString(numDocs++);
+            final Document doc = new Document();
+            doc.add(new StringField("id", id, Field.Store.NO));
+            for (int j = randomIntBetween(1, 3); j > 0; j--) {
+                doc.add(new SortedSetDocValuesField("field", new BytesRef(randomAlphaOfLengthBetween(1, 3))));
+            }
+            writer.addDocument(doc);
+            if (i > 0) {
+                // keep at least one document per segment so that segments do not get dropped
+                deletableIds.add(id);
+            }
+        }
+        writer.flush();
+        return numDocs;
+    }
+
+    private static SortedSetDocValues[] values(DirectoryReader reader) throws IOException {
+        final SortedSetDocValues[] values = new SortedSetDocValues[reader.leaves().size()];
+        for (LeafReaderContext leaf : reader.leaves()) {
+            values[leaf.ord] = DocValues.getSortedSet(leaf.reader(), "field");
+        }
+        return values;
+    }
+
+    private static void assertMapping(DirectoryReader reader, IncrementalOrdinalMap map) throws IOException {
+        final SortedSetDocValues[] values = values(reader);
+        final OrdinalMap expected = OrdinalMap.build(null, values(reader), 0f);
+        assertEquals(expected.getValueCount(), map.getValueCount());
+        for (int segment = 0; segment < values.length; segment++) {
+            final LongValues expectedGlobalOrds = expected.getGlobalOrds(segment);
+            final LongValues globalOrds = map.getGlobalOrds(segment);
+            for (long ord = 0; ord < values[segment].getValueCount(); ord++) {
+                assertEquals(expectedGlobalOrds.get(ord), globalOrds.get(ord));
+            }
+        }
+        final SortedSetDocValues[] expectedValues = values(reader);
+        for (long globalOrd = 0; globalOrd < expected.getValueCount(); globalOrd++) {
+            final BytesRef expectedTerm = BytesRef.deepCopyOf(expectedValues[expected.getFirstSegmentNumber(globalOrd)]
+                .lookupOrd(expected.getFirstSegmentOrd(globalOrd)));
+            final int segment = map.getFirstSegmentNumber(globalOrd);
+            assertEquals(expectedTerm, values[segment].lookupOrd(map.getFirstSegmentOrd(globalOrd)));
+            assertEquals(globalOrd, map.getGlobalOrds(segment).get(map.getFirstSegmentOrd(globalOrd)));
+        }
+    }
+}
@@ -136,6 +136,49 @@ public class DateFieldTypeTests extends FieldTypeTestCase {
         IOUtils.close(reader, w, dir);
     }
 
+    public void testIsFieldWithinQueryFromRange() throws IOException {
+        Directory dir = newDirectory();
+        IndexWriter w = new IndexWriter(dir, new IndexWriterConfig(null));
+        long instant1 = DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parseJoda("2015-10-12").getMillis();
+        long instant2 = DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parseJoda("2016-04-03").getMillis();
+        Document doc = new Document();
+        LongPoint field = new LongPoint("my_date", instant1);
+        doc.add(field);
+        w.addDocument(doc);
+        field.setLongValue(instant2);
+        w.addDocument(doc);
+        DirectoryReader reader = DirectoryReader.open(w);
+        DateFieldType ft = new DateFieldType();
+        ft.setName("my_date");
+        ft.setIndexOptions(IndexOptions.DOCS);
+
+        DateFieldRange range = DateFieldRange.fromReader(ft, reader);
+        assertNotNull(range);
+        assertEquals(instant1, range.getMinValue());
+        assertEquals(instant2, range.getMaxValue());
+        DateFieldRange copy = copyWriteable(range, writableRegistry(), DateFieldRange::new);
+        assertEquals(range, copy);
+
+        QueryRewriteContext context = new QueryRewriteContext(xContentRegistry(), writableRegistry(), null, () -> nowInMillis);
+        assertEquals(Relation.INTERSECTS, copy.isFieldWithinQuery("2015-10-09", "2016-01-02", false, false, null, null, context));
+        assertEquals(Relation.DISJOINT, copy.isFieldWithinQuery("2016-05-11", "2016-08-30", false, false, null, null, context));
+        assertEquals(Relation.WITHIN, copy.isFieldWithinQuery("2015-10-12", "2016-04-03", true, true, null, null, context));
+        assertEquals(Relation.INTERSECTS, copy.isFieldWithinQuery("2015-10-12", "2016-04-03", false, false, null, null, context));
+
+        // Fields with no value indexed.
+        DateFieldType ft2 = new DateFieldType();
+        ft2.setName("my_date2");
+        ft2.setIndexOptions(IndexOptions.DOCS);
+        DateFieldRange emptyRange = DateFieldRange.fromReader(ft2, reader);
+        assertEquals(Relation.DISJOINT, emptyRange.isFieldWithinQuery("2015-10-09", "2016-01-02", false, false, null, null, context));
+
+        // Fields that are not indexed.
+        DateFieldType ft3 = new DateFieldType();
+        ft3.setName("my_date");
+        assertNull(DateFieldRange.fromReader(ft3, reader));
+        IOUtils.close(reader, w, dir);
+    }
+
     public void testValueFormat() {
         MappedFieldType ft = createDefaultFieldType();
         long instant = DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER.parseJoda("2015-10-12T14:10:55").getMillis();
@@ -374,4 +374,30 @@ public class BoolQueryBuilderTests extends AbstractQueryTestCase<BoolQueryBuilde
         rewritten = Rewriteable.rewrite(boolQueryBuilder, createShardContext());
         assertEquals(new MatchNoneQueryBuilder(), rewritten);
     }
+
+    public void testCanonicalClauseOrder() throws IOException {
+        BoolQueryBuilder first = boolQuery().must(termQuery("foo", "a")).must(termQuery("foo", "b"))
+            .should(termQuery("bar", "a")).should(termQuery("bar", "b"))
+            .filter(termQuery("baz", "a")).filter(boolQuery().filter(termQuery("baz", "b")).filter(termQuery("baz", "c")))
+            .mustNot(termQuery("qux", "a")).mustNot(termQuery("qux", "b"))
+            .minimumShouldMatch(1).boost(2f).queryName("name");
+        BoolQueryBuilder second = boolQuery().must(termQuery("foo", "a")).must(termQuery("foo", "b"))
+            .should(termQuery("bar", "a")).should(termQuery("bar", "b"))
+            .filter(boolQuery().filter(termQuery("baz", "c")).filter(termQuery("baz", "b"))).filter(termQuery("baz", "a"))
+            .mustNot(termQuery("qux", "b")).mustNot(termQuery("qux", "a"))
+            .minimumShouldMatch(1).boost(2f).queryName("name");
+        assertNotEquals(first, second);
+        assertEquals(first.canonicalClauseOrder(), second.canonicalClauseOrder());
+        assertEquals(first.canonicalClauseOrder(), first.canonicalClauseOrder().canonicalClauseOrder());
+
+        // the order of scoring clauses is preserved
+        BoolQueryBuilder reordered = boolQuery().must(termQuery("foo", "b")).must(termQuery("foo", "a"))
+            .should(termQuery("bar", "a")).should(termQuery("bar", "b"))
+            .filter(termQuery("baz", "a")).filter(boolQuery().filter(termQuery("baz", "b")).filter(termQuery("baz", "c")))
+            .mustNot(termQuery("qux", "a")).mustNot(termQuery("qux", "b"))
+            .minimumShouldMatch(1).boost(2f).queryName("name");
+        assertNotEquals(first.canonicalClauseOrder(), reordered.canonicalClauseOrder());
+        assertEquals(first.must(), first.canonicalClauseOrder().must());
+        assertEquals(first.should(), first.canonicalClauseOrder().should());
+    }
 }
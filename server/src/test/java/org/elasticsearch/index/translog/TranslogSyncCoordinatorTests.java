@@ -0,0 +1,175 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TranslogSyncCoordinatorTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Before
+    public void setUpThreadPool() {
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @After
+    public void tearDownThreadPool() {
+        terminate(threadPool);
+    }
+
+    public void testDisabledByDefault() {
+        assertThat(TranslogSyncCoordinator.create(Settings.EMPTY, threadPool), nullValue());
+        final Settings settings = Settings.builder()
+            .put(TranslogSyncCoordinator.GROUP_COMMIT_ENABLED_SETTING.getKey(), true)
+            .put(TranslogSyncCoordinator.GROUP_COMMIT_MAX_LATENCY_SETTING.getKey(), "10ms")
+            .build();
+        assertThat(TranslogSyncCoordinator.create(settings, threadPool).getMaxLatency(), equalTo(TimeValue.timeValueMillis(10)));
+    }
+
+    public void testCoalesceSyncsAcrossTargets() throws Exception {
+        final Settings settings = Settings.builder()
+            .put(TranslogSyncCoordinator.GROUP_COMMIT_MAX_LATENCY_SETTING.getKey(), randomFrom("0ms", "1ms", "5ms"))
+            .build();
+        final TranslogSyncCoordinator coordinator = new TranslogSyncCoordinator(settings, threadPool);
+        final Path[] dataPaths = new Path[] {createTempDir(), createTempDir()};
+        final int numTargets = randomIntBetween(1, 8);
+        final AtomicLong[] maxSyncedOffset = new AtomicLong[numTargets];
+        final AtomicInteger[] syncedLocations = new AtomicInteger[numTargets];
+        final AtomicInteger syncs = new AtomicInteger();
+        final List<TranslogSyncCoordinator.SyncTarget> targets = new ArrayList<>();
+        for (int i = 0; i < numTargets; i++) {
+            final int target = i;
+            maxSyncedOffset[i] = new AtomicLong(-1);
+            syncedLocations[i] = new AtomicInteger();
+            targets.add(locations -> {
+                syncs.incrementAndGet();
+                syncedLocations[target].addAndGet(locations.size());
+                for (Translog.Location location : locations) {
+                    maxSyncedOffset[target].accumulateAndGet(location.translogLocation, Math::max);
+                }
+            });
+        }
+
+        final int numThreads = randomIntBetween(2, 8);
+        final int syncsPerThread = randomIntBetween(10, 100);
+        final CyclicBarrier barrier = new CyclicBarrier(numThreads);
+        final CountDownLatch latch = new CountDownLatch(numThreads * syncsPerThread);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Thread[] threads = new Thread[numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    barrier.await();
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+                for (int i = 0; i < syncsPerThread; i++) {
+                    final int target = randomIntBetween(0, numTargets - 1);
+                    final long offset = randomIntBetween(0, 1 << 20);
+                    coordinator.sync(dataPaths[target % dataPaths.length], targets.get(target), new Translog.Location(1, offset, 1),
+                        e -> {
+                            if (e != null) {
+                                failure.set(e);
+                            } else if (maxSyncedOffset[target].get() < offset) {
+                                failure.set(new AssertionError("location [" + offset + "] was not synced"));
+                            }
+                            latch.countDown();
+                        });
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertThat(failure.get(), nullValue());
+        int totalLocations = 0;
+        for (AtomicInteger locations : syncedLocations) {
+            totalLocations += locations.get();
+        }
+        assertThat(totalLocations, equalTo(numThreads * syncsPerThread));
+        assertThat(syncs.get(), lessThanOrEqualTo(numThreads * syncsPerThread));
+    }
+
+    public void testNeverSyncsOnCallingThread() throws Exception {
+        final Settings settings = Settings.builder()
+            .put(TranslogSyncCoordinator.GROUP_COMMIT_MAX_LATENCY_SETTING.getKey(), randomFrom("0ms", "1ms"))
+            .build();
+        final TranslogSyncCoordinator coordinator = new TranslogSyncCoordinator(settings, threadPool);
+        final AtomicReference<Thread> syncThread = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        coordinator.sync(createTempDir(), locations -> syncThread.set(Thread.currentThread()), new Translog.Location(1, 0, 1),
+            e -> latch.countDown());
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertThat(syncThread.get(), not(sameInstance(Thread.currentThread())));
+    }
+
+    public void testFailuresAreIsolatedPerTarget() throws Exception {
+        final Settings settings = Settings.builder()
+            .put(TranslogSyncCoordinator.GROUP_COMMIT_MAX_LATENCY_SETTING.getKey(), "5ms")
+            .build();
+        final TranslogSyncCoordinator coordinator = new TranslogSyncCoordinator(settings, threadPool);
+        final Path dataPath = createTempDir();
+        final IOException failure = new IOException("simulated");
+        final TranslogSyncCoordinator.SyncTarget failing = locations -> {
+            throw failure;
+        };
+        final TranslogSyncCoordinator.SyncTarget succeeding = locations -> {};
+        final CountDownLatch latch = new CountDownLatch(2);
+        final AtomicReference<Exception> failingResult = new AtomicReference<>();
+        final AtomicReference<Exception> succeedingResult = new AtomicReference<>();
+        coordinator.sync(dataPath, failing, new Translog.Location(1, 0, 1), e -> {
+            failingResult.set(e);
+            latch.countDown();
+        });
+        coordinator.sync(dataPath, succeeding, new Translog.Location(1, 0, 1), e -> {
+            succeedingResult.set(e);
+            latch.countDown();
+        });
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertThat(failingResult.get(), sameInstance(failure));
+        assertThat(succeedingResult.get(), nullValue());
+    }
+}
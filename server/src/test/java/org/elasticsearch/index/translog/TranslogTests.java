@@ -84,6 +84,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.CopyOption;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
@@ -130,6 +131,7 @@ import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasToString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isIn;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
@@ -409,6 +411,66 @@ public class TranslogTests extends ESTestCase {
             (LongStream.of(periods).max().orElse(0L)));
     }
 
+    public void testCompressedSource() throws IOException {
+        final Settings settings = Settings.builder()
+            .put(IndexMetaData.SETTING_VERSION_CREATED, org.elasticsearch.Version.CURRENT)
+            .put(IndexSettings.INDEX_TRANSLOG_COMPRESS_SETTING.getKey(), true)
+            .build();
+        final TranslogConfig config = getTranslogConfig(createTempDir(), settings);
+        final IndexSettings indexSettings = config.getIndexSettings();
+        final List<Translog.Operation> ops = new ArrayList<>();
+        long uncompressedSize = 0;
+        boolean compressible = false;
+        try (Translog compressedTranslog = createTranslog(config)) {
+            int seqNo = 0;
+            final int numGenerations = randomIntBetween(2, 5);
+            for (int gen = 0; gen < numGenerations; gen++) {
+                // alternate between compressed and uncompressed generations
+                final boolean compress = gen % 2 == 0;
+                indexSettings.updateIndexMetaData(IndexMetaData.builder(indexSettings.getIndex().getName())
+                    .settings(Settings.builder().put(indexSettings.getSettings())
+                        .put(IndexSettings.INDEX_TRANSLOG_COMPRESS_SETTING.getKey(), compress))
+                    .build());
+                assertThat(indexSettings.isTranslogCompressionEnabled(), equalTo(compress));
+                for (int i = randomIntBetween(1, 10); i > 0; i--) {
+                    final byte[] source;
+                    if (randomBoolean()) {
+                        final StringBuilder message = new StringBuilder();
+                        for (int j = randomIntBetween(10, 100); j > 0; j--) {
+                            message.append("{\"message\":\"GET /index.html HTTP/1.1\"}");
+                        }
+                        source = message.toString().getBytes(StandardCharsets.UTF_8);
+                        compressible |= compress;
+                    } else {
+                        source = randomByteArrayOfLength(randomIntBetween(0, 64));
+                    }
+                    if (compress) {
+                        uncompressedSize += source.length;
+                    }
+                    addToTranslogAndList(compressedTranslog, ops,
+                        new Translog.Index("test", Integer.toString(seqNo), seqNo, primaryTerm.get(), source));
+                    seqNo++;
+                    if (rarely()) {
+                        final String id = Integer.toString(seqNo);
+                        addToTranslogAndList(compressedTranslog, ops, new Translog.Delete("test", id, seqNo, primaryTerm.get(), newUid(id)));
+                        seqNo++;
+                    }
+                }
+                compressedTranslog.rollGeneration();
+            }
+
+            try (Translog.Snapshot snapshot = compressedTranslog.newSnapshot()) {
+                assertThat(snapshot, SnapshotMatchers.equalsTo(ops));
+            }
+            final TranslogStats stats = compressedTranslog.stats();
+            assertThat(stats.getUncompressedSourceSizeInBytes(), equalTo(uncompressedSize));
+            assertThat(stats.getCompressedSourceSizeInBytes(), lessThanOrEqualTo(uncompressedSize));
+            if (compressible) {
+                assertThat(stats.getCompressedSourceSizeInBytes(), lessThan(uncompressedSize));
+            }
+        }
+    }
+
     public void testStats() throws IOException {
         // self control cleaning for test
         translog.getDeletionPolicy().setRetentionSizeInBytes(1024 * 1024);
@@ -487,7 +549,9 @@ public class TranslogTests extends ESTestCase {
                 builder.endObject();
                 assertThat(Strings.toString(builder), equalTo("{\"translog\":{\"operations\":4,\"size_in_bytes\":" + expectedSizeInBytes
                     + ",\"uncommitted_operations\":4,\"uncommitted_size_in_bytes\":" + expectedSizeInBytes
-                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge() + "}}"));
+                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge()
+                    + ",\"group_commit_operations\":0,\"group_commit_syncs\":0"
+                    + ",\"uncompressed_source_size_in_bytes\":0,\"compressed_source_size_in_bytes\":0}}"));
             }
         }
 
@@ -1280,6 +1344,58 @@ public class TranslogTests extends ESTestCase {
         translog.close();
     }
 
+    public void testMappedSnapshots() throws IOException {
+        final Settings settings = Settings.builder()
+            .put(IndexMetaData.SETTING_VERSION_CREATED, org.elasticsearch.Version.CURRENT)
+            .put(IndexSettings.INDEX_TRANSLOG_MMAP_SETTING.getKey(), true)
+            .put(IndexSettings.INDEX_TRANSLOG_COMPRESS_SETTING.getKey(), randomBoolean())
+            .build();
+        final TranslogConfig config = getTranslogConfig(createTempDir(), settings);
+        assertTrue(config.getIndexSettings().isTranslogMmapEnabled());
+        final List<Translog.Operation> ops = new ArrayList<>();
+        try (Translog mappedTranslog = createTranslog(config)) {
+            final int numOps = randomIntBetween(1, 200);
+            for (int op = 0; op < numOps; op++) {
+                addToTranslogAndList(mappedTranslog, ops, new Translog.Index("test", Integer.toString(op), op, primaryTerm.get(),
+                    randomUnicodeOfLength(randomIntBetween(0, 2048)).getBytes(StandardCharsets.UTF_8)));
+                if (rarely()) {
+                    mappedTranslog.rollGeneration();
+                }
+            }
+            // the current generation is never mapped, make sure it holds some operations too
+            addToTranslogAndList(mappedTranslog, ops, new Translog.Index("test", Integer.toString(numOps), numOps, primaryTerm.get(),
+                new byte[]{1}));
+
+            try (Translog.Snapshot snapshot = mappedTranslog.newSnapshot()) {
+                assertThat(snapshot, SnapshotMatchers.equalsTo(ops));
+                assertThat(snapshot.totalOperations(), equalTo(ops.size()));
+            }
+            final long minSeqNo = randomIntBetween(0, numOps);
+            try (Translog.Snapshot snapshot = mappedTranslog.newSnapshotFromMinSeqNo(minSeqNo)) {
+                Translog.Operation op;
+                final Set<Long> seqNos = new HashSet<>();
+                while ((op = snapshot.next()) != null) {
+                    if (op.seqNo() >= minSeqNo) {
+                        assertThat(op, equalTo(ops.get((int) op.seqNo())));
+                        seqNos.add(op.seqNo());
+                    }
+                }
+                assertThat(seqNos.size(), equalTo(numOps + 1 - (int) minSeqNo));
+            }
+
+            for (TranslogReader reader : mappedTranslog.getReaders()) {
+                try (TranslogSnapshot mapped = reader.newSnapshot(true)) {
+                    final TranslogSnapshot unmapped = reader.newSnapshot(false);
+                    Translog.Operation op;
+                    while ((op = mapped.next()) != null) {
+                        assertThat(op, equalTo(unmapped.next()));
+                    }
+                    assertNull(unmapped.next());
+                }
+            }
+        }
+    }
+
     public void testTranslogWriter() throws IOException {
         final TranslogWriter writer = translog.createWriter(translog.currentFileGeneration() + 1);
         final int numOps = randomIntBetween(8, 128);
@@ -373,6 +373,47 @@ public class IndicesRequestCacheIT extends ESIntegTestCase {
         assertCacheState(client, "index", 0, 4);
     }
 
+    public void testCanCacheWithMaxHits() throws Exception {
+        Client client = client();
+        Settings settings = Settings.builder().put(IndicesRequestCache.INDEX_CACHE_REQUEST_MAX_HITS_SETTING.getKey(), 5)
+            .put(IndexMetaData.SETTING_NUMBER_OF_SHARDS, 1).put(IndexMetaData.SETTING_NUMBER_OF_REPLICAS, 0).build();
+        assertAcked(client.admin().indices().prepareCreate("index").addMapping("type", "s", "type=date", "t", "type=keyword")
+                .setSettings(settings)
+                .get());
+        indexRandom(true, client.prepareIndex("index", "type", "1").setSource("s", "2016-03-19", "t", "a"),
+                client.prepareIndex("index", "type", "2").setSource("s", "2016-03-20", "t", "b"),
+                client.prepareIndex("index", "type", "3").setSource("s", "2016-03-21", "t", "a"));
+        ensureSearchable("index");
+
+        // Force merge the index to ensure there can be no background merges during the subsequent searches that would invalidate the cache
+        ForceMergeResponse forceMergeResponse = client.admin().indices().prepareForceMerge("index").setFlush(true).get();
+        ElasticsearchAssertions.assertAllSuccessful(forceMergeResponse);
+        refresh();
+        ensureSearchable("index");
+        assertCacheState(client, "index", 0, 0);
+
+        // Requests for no more than max_hits hits are cached by default
+        final SearchResponse r1 = client.prepareSearch("index").setSize(5).setQuery(QueryBuilders.boolQuery()
+                .filter(QueryBuilders.termQuery("t", "a")).filter(QueryBuilders.rangeQuery("s").gte("2016-03-19"))).get();
+        ElasticsearchAssertions.assertAllSuccessful(r1);
+        assertThat(r1.getHits().getTotalHits().value, equalTo(2L));
+        assertCacheState(client, "index", 0, 1);
+
+        // The order of the filters and the fetch options are not part of the cache key
+        final SearchResponse r2 = client.prepareSearch("index").setSize(5).setQuery(QueryBuilders.boolQuery()
+                .filter(QueryBuilders.rangeQuery("s").gte("2016-03-19")).filter(QueryBuilders.termQuery("t", "a")))
+                .setFetchSource(false).get();
+        ElasticsearchAssertions.assertAllSuccessful(r2);
+        assertThat(r2.getHits().getTotalHits().value, equalTo(2L));
+        assertCacheState(client, "index", 1, 1);
+
+        // Requests for more than max_hits hits are not cached by default
+        final SearchResponse r3 = client.prepareSearch("index").setSize(5).setFrom(1)
+                .setQuery(QueryBuilders.termQuery("t", "a")).get();
+        ElasticsearchAssertions.assertAllSuccessful(r3);
+        assertCacheState(client, "index", 1, 1);
+    }
+
     public void testCacheWithFilteredAlias() {
         Client client = client();
         Settings settings = Settings.builder().put(IndicesRequestCache.INDEX_CACHE_REQUEST_ENABLED_SETTING.getKey(), true)
@@ -37,6 +37,7 @@ import org.junit.Before;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
+import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
 
@@ -71,6 +72,59 @@ public class ResponseCollectorServiceTests extends ESTestCase {
         assertThat(nodeStats.get("node1").serviceTime, equalTo(10.0));
     }
 
+    public void testNodeLoadStats() throws Exception {
+        collector.addNodeStatistics("node1", 1, 100, 10);
+        ResponseCollectorService.ComputedNodeStats stats = collector.getNodeStatistics("node1").get();
+        assertThat(stats.searchUtilization, equalTo(-1.0));
+        assertThat(stats.breakerHeadroom, equalTo(-1.0));
+        assertThat(stats.gcOverhead, equalTo(-1));
+
+        collector.addNodeStatistics("node1", 1, 100, 10, 0.5, 0.8, 20);
+        stats = collector.getNodeStatistics("node1").get();
+        assertThat(stats.searchUtilization, equalTo(0.5));
+        assertThat(stats.breakerHeadroom, equalTo(0.8));
+        assertThat(stats.gcOverhead, equalTo(20));
+
+        collector.addNodeStatistics("node1", 1, 100, 10, 1.0, 0.2, 5);
+        stats = collector.getNodeStatistics("node1").get();
+        assertThat(stats.searchUtilization, closeTo(0.65, 0.0001));
+        assertThat(stats.breakerHeadroom, closeTo(0.62, 0.0001));
+        assertThat(stats.gcOverhead, equalTo(5));
+
+        // nodes that do not report their load keep the values they reported last
+        collector.addNodeStatistics("node1", 1, 100, 10);
+        stats = collector.getNodeStatistics("node1").get();
+        assertThat(stats.searchUtilization, closeTo(0.65, 0.0001));
+        assertThat(stats.gcOverhead, equalTo(5));
+    }
+
+    public void testLoadRaisesRank() throws Exception {
+        collector.addNodeStatistics("idle", 2, 1000000, 500000);
+        collector.addNodeStatistics("reported_idle", 2, 1000000, 500000, 0.0, 1.0, 0);
+        collector.addNodeStatistics("busy", 2, 1000000, 500000, 0.9, 1.0, 0);
+        collector.addNodeStatistics("breaking", 2, 1000000, 500000, 0.0, 0.1, 0);
+        collector.addNodeStatistics("collecting", 2, 1000000, 500000, 0.0, 1.0, 50);
+        Map<String, ResponseCollectorService.ComputedNodeStats> nodeStats = collector.getAllNodeStatistics();
+        double idleRank = nodeStats.get("idle").rank(1);
+        assertThat(nodeStats.get("reported_idle").rank(1), equalTo(idleRank));
+        assertThat(nodeStats.get("busy").rank(1), greaterThan(idleRank));
+        assertThat(nodeStats.get("breaking").rank(1), greaterThan(idleRank));
+        assertThat(nodeStats.get("collecting").rank(1), greaterThan(idleRank));
+    }
+
+    public void testResponseTimePercentile() throws Exception {
+        expectThrows(IllegalArgumentException.class, () -> collector.responseTimePercentile(0));
+        expectThrows(IllegalArgumentException.class, () -> collector.responseTimePercentile(101));
+        for (int i = 1; i < 100; i++) {
+            collector.addNodeStatistics(randomFrom("node1", "node2"), 1, i, 10);
+        }
+        assertThat(collector.responseTimePercentile(50), equalTo(-1L));
+        collector.addNodeStatistics("node1", 1, 100, 10);
+        assertThat(collector.responseTimePercentile(50), equalTo(50L));
+        assertThat(collector.responseTimePercentile(95), equalTo(95L));
+        assertThat(collector.responseTimePercentile(100), equalTo(100L));
+    }
+
     /*
      * Test that concurrently adding values and removing nodes does not cause exceptions
      */
@@ -74,10 +74,12 @@ import org.elasticsearch.search.internal.AliasFilter;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.internal.ShardSearchLocalRequest;
 import org.elasticsearch.search.internal.ShardSearchTransportRequest;
+import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.search.suggest.SuggestBuilder;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -663,4 +665,146 @@ public class SearchServiceTests extends ESSingleNodeTestCase {
         assertSame(searchShardTarget, searchContext.queryResult().getSearchShardTarget());
         assertSame(searchShardTarget, searchContext.fetchResult().getSearchShardTarget());
     }
+
+    public void testOpenReaderContext() throws Exception {
+        createIndex("index");
+        client().prepareIndex("index", "type", "1").setSource("field", "value").setRefreshPolicy(IMMEDIATE).get();
+        final SearchService service = getInstanceFromNode(SearchService.class);
+        final IndicesService indicesService = getInstanceFromNode(IndicesService.class);
+        final IndexService indexService = indicesService.indexServiceSafe(resolveIndex("index"));
+        final ShardId shardId = new ShardId(indexService.index(), 0);
+
+        PlainActionFuture<Long> future = new PlainActionFuture<>();
+        service.openReaderContext(shardId, TimeValue.timeValueMinutes(1), future);
+        final long readerId = future.actionGet();
+        assertEquals(1, service.getActiveReaderContexts());
+        assertEquals(0, service.getActiveContexts());
+
+        // documents indexed after the reader was opened must not be visible through it
+        client().prepareIndex("index", "type", "2").setSource("field", "value").setRefreshPolicy(IMMEDIATE).get();
+        long nowInMillis = System.currentTimeMillis();
+        ShardSearchTransportRequest pitRequest = new ShardSearchTransportRequest(OriginalIndices.NONE, new SearchRequest(), shardId,
+            indexService.numberOfShards(), AliasFilter.EMPTY, 1f, nowInMillis, null, Strings.EMPTY_ARRAY, readerId);
+        try (DefaultSearchContext context = service.createSearchContext(pitRequest, TimeValue.timeValueMinutes(1))) {
+            assertEquals(1, context.searcher().getIndexReader().numDocs());
+        }
+        ShardSearchTransportRequest request = new ShardSearchTransportRequest(OriginalIndices.NONE, new SearchRequest(), shardId,
+            indexService.numberOfShards(), AliasFilter.EMPTY, 1f, nowInMillis, null, Strings.EMPTY_ARRAY);
+        try (DefaultSearchContext context = service.createSearchContext(request, TimeValue.timeValueMinutes(1))) {
+            assertEquals(2, context.searcher().getIndexReader().numDocs());
+        }
+        // the reader stays open until it is explicitly freed
+        assertEquals(1, service.getActiveReaderContexts());
+
+        assertTrue(service.freeReaderContext(readerId));
+        assertFalse(service.freeReaderContext(readerId));
+        assertEquals(0, service.getActiveReaderContexts());
+        expectThrows(SearchContextMissingException.class,
+            () -> service.createSearchContext(pitRequest, TimeValue.timeValueMinutes(1)));
+    }
+
+    public void testBatchedQueryPhase() throws Exception {
+        createIndex("index");
+        final int numDocs = randomIntBetween(1, 20);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("index", "type", Integer.toString(i)).setSource("field", i % 2 == 0 ? "even" : "odd").get();
+        }
+        client().admin().indices().prepareRefresh("index").get();
+        final SearchService service = getInstanceFromNode(SearchService.class);
+        final IndexService indexService = getInstanceFromNode(IndicesService.class).indexServiceSafe(resolveIndex("index"));
+        final ShardId shardId = new ShardId(indexService.index(), 0);
+
+        final int numRequests = randomIntBetween(2, 10);
+        final List<ShardSearchTransportRequest> requests = new ArrayList<>();
+        final List<SearchTask> tasks = new ArrayList<>();
+        final List<PlainActionFuture<SearchPhaseResult>> futures = new ArrayList<>();
+        for (int i = 0; i < numRequests; i++) {
+            SearchRequest searchRequest = new SearchRequest().allowPartialSearchResults(true);
+            if (i == 0) {
+                // a failing request must not fail the other requests of the batch
+                searchRequest.source(new SearchSourceBuilder().sort("no_such_field"));
+            } else {
+                searchRequest.source(new SearchSourceBuilder().query(new TermQueryBuilder("field", i % 2 == 0 ? "even" : "odd")));
+            }
+            requests.add(new ShardSearchTransportRequest(OriginalIndices.NONE, searchRequest, shardId, 2, AliasFilter.EMPTY, 1f,
+                System.currentTimeMillis(), null, Strings.EMPTY_ARRAY));
+            // each query of the batch runs under its own task
+            tasks.add(new SearchTask(123L + i, "", "", "", null, Collections.emptyMap()));
+            futures.add(new PlainActionFuture<>());
+        }
+        service.executeQueryPhase(requests, tasks, futures);
+
+        expectThrows(Exception.class, () -> futures.get(0).actionGet());
+        for (int i = 1; i < numRequests; i++) {
+            QuerySearchResult result = futures.get(i).actionGet().queryResult();
+            long expectedHits = i % 2 == 0 ? (numDocs + 1) / 2 : numDocs / 2;
+            assertEquals(expectedHits, result.getTotalHits().value);
+            if (result.hasSearchContext()) {
+                // the search context is kept for the fetch phase
+                assertTrue(service.freeContext(result.getRequestId()));
+            }
+        }
+        assertEquals(0, service.getActiveContexts());
+    }
+
+    public void testOpenReaderContextKeepAliveLimit() {
+        createIndex("index");
+        final SearchService service = getInstanceFromNode(SearchService.class);
+        final IndexService indexService = getInstanceFromNode(IndicesService.class).indexServiceSafe(resolveIndex("index"));
+        PlainActionFuture<Long> future = new PlainActionFuture<>();
+        service.openReaderContext(new ShardId(indexService.index(), 0), TimeValue.timeValueDays(365), future);
+        expectThrows(IllegalArgumentException.class, future::actionGet);
+        assertEquals(0, service.getActiveReaderContexts());
+    }
+
+    public void testMaxOpenReaderContextsConcurrently() throws Exception {
+        createIndex("index");
+        final int maxContexts = randomIntBetween(1, 10);
+        assertAcked(client().admin().cluster().prepareUpdateSettings()
+            .setTransientSettings(Settings.builder().put(SearchService.MAX_OPEN_READER_CONTEXT.getKey(), maxContexts)).get());
+        final SearchService service = getInstanceFromNode(SearchService.class);
+        final IndexService indexService = getInstanceFromNode(IndicesService.class).indexServiceSafe(resolveIndex("index"));
+        final ShardId shardId = new ShardId(indexService.index(), 0);
+
+        final int numThreads = maxContexts + randomIntBetween(1, 10);
+        final List<PlainActionFuture<Long>> futures = new ArrayList<>();
+        final Thread[] threads = new Thread[numThreads];
+        final CountDownLatch latch = new CountDownLatch(1);
+        for (int i = 0; i < numThreads; i++) {
+            final PlainActionFuture<Long> future = new PlainActionFuture<>();
+            futures.add(future);
+            threads[i] = new Thread(() -> {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                service.openReaderContext(shardId, TimeValue.timeValueMinutes(1), future);
+            });
+            threads[i].start();
+        }
+        latch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        final List<Long> readerIds = new ArrayList<>();
+        for (PlainActionFuture<Long> future : futures) {
+            try {
+                readerIds.add(future.actionGet());
+            } catch (ElasticsearchException e) {
+                assertThat(e.getMessage(), startsWith("Trying to create too many point in time contexts"));
+            }
+        }
+        // the limit is never exceeded, even if the contexts are opened concurrently
+        assertEquals(maxContexts, readerIds.size());
+        assertEquals(maxContexts, service.getActiveReaderContexts());
+
+        for (long readerId : readerIds) {
+            assertTrue(service.freeReaderContext(readerId));
+        }
+        PlainActionFuture<Long> future = new PlainActionFuture<>();
+        service.openReaderContext(shardId, TimeValue.timeValueMinutes(1), future);
+        assertTrue(service.freeReaderContext(future.actionGet()));
+        assertEquals(0, service.getActiveReaderContexts());
+    }
 }
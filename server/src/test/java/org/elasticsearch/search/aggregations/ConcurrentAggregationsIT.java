@@ -0,0 +1,158 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.MergePolicyConfig;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramInterval;
+import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.Avg;
+import org.elasticsearch.search.aggregations.metrics.Cardinality;
+import org.elasticsearch.search.aggregations.metrics.Stats;
+import org.elasticsearch.test.ESIntegTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.elasticsearch.common.xcontent.XContentFactory.jsonBuilder;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.avg;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.cardinality;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.dateHistogram;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.stats;
+import static org.elasticsearch.search.aggregations.AggregationBuilders.terms;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchResponse;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Checks that aggregations collected on concurrently searched slices of a shard return the same results as a sequential collection.
+ */
+public class ConcurrentAggregationsIT extends ESIntegTestCase {
+
+    public void testSameResultsAsSequentialCollection() throws Exception {
+        createIndices();
+
+        SearchResponse[] responses = new SearchResponse[2];
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = client().prepareSearch(i == 0 ? "sequential" : "concurrent")
+                .setSize(0)
+                .addAggregation(terms("names").field("name").size(20).subAggregation(avg("avg").field("value")))
+                .addAggregation(dateHistogram("dates").field("date").dateHistogramInterval(DateHistogramInterval.DAY))
+                .addAggregation(stats("stats").field("value"))
+                .addAggregation(cardinality("cardinality").field("name"))
+                .get();
+            assertSearchResponse(responses[i]);
+        }
+        SearchResponse expected = responses[0];
+        SearchResponse response = responses[1];
+        assertThat(response.getHits().getTotalHits().value, equalTo(expected.getHits().getTotalHits().value));
+
+        Terms expectedNames = expected.getAggregations().get("names");
+        Terms names = response.getAggregations().get("names");
+        assertThat(names.getBuckets().size(), equalTo(expectedNames.getBuckets().size()));
+        for (Terms.Bucket expectedBucket : expectedNames.getBuckets()) {
+            Terms.Bucket bucket = names.getBucketByKey(expectedBucket.getKeyAsString());
+            assertThat(bucket.getDocCount(), equalTo(expectedBucket.getDocCount()));
+            Avg expectedAvg = expectedBucket.getAggregations().get("avg");
+            Avg avg = bucket.getAggregations().get("avg");
+            assertThat(avg.getValue(), closeTo(expectedAvg.getValue(), 0.0001));
+        }
+
+        Histogram expectedDates = expected.getAggregations().get("dates");
+        Histogram dates = response.getAggregations().get("dates");
+        assertThat(dates.getBuckets().size(), equalTo(expectedDates.getBuckets().size()));
+        for (int i = 0; i < dates.getBuckets().size(); i++) {
+            assertThat(dates.getBuckets().get(i).getKeyAsString(), equalTo(expectedDates.getBuckets().get(i).getKeyAsString()));
+            assertThat(dates.getBuckets().get(i).getDocCount(), equalTo(expectedDates.getBuckets().get(i).getDocCount()));
+        }
+
+        Stats expectedStats = expected.getAggregations().get("stats");
+        Stats stats = response.getAggregations().get("stats");
+        assertThat(stats.getCount(), equalTo(expectedStats.getCount()));
+        assertThat(stats.getMin(), equalTo(expectedStats.getMin()));
+        assertThat(stats.getMax(), equalTo(expectedStats.getMax()));
+        assertThat(stats.getSum(), closeTo(expectedStats.getSum(), 0.0001));
+
+        Cardinality expectedCardinality = expected.getAggregations().get("cardinality");
+        Cardinality cardinality = response.getAggregations().get("cardinality");
+        assertThat(cardinality.getValue(), equalTo(expectedCardinality.getValue()));
+    }
+
+    public void testTermsPrunedToShardSizeAfterSliceReduce() throws Exception {
+        createIndices();
+
+        final int size = randomIntBetween(1, 5);
+        SearchResponse[] responses = new SearchResponse[2];
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = client().prepareSearch(i == 0 ? "sequential" : "concurrent")
+                .setSize(0)
+                .addAggregation(terms("names").field("name").size(size).shardSize(size))
+                .addAggregation(terms("values").field("value").size(size).shardSize(size))
+                .get();
+            assertSearchResponse(responses[i]);
+        }
+        for (String name : new String[] {"names", "values"}) {
+            Terms expectedTerms = responses[0].getAggregations().get(name);
+            Terms terms = responses[1].getAggregations().get(name);
+            // the slices keep all their terms so the shard returns exact counts, like the sequential collection
+            assertThat(terms.getDocCountError(), equalTo(0L));
+            assertThat(terms.getSumOfOtherDocCounts(), equalTo(expectedTerms.getSumOfOtherDocCounts()));
+            assertThat(terms.getBuckets().size(), equalTo(expectedTerms.getBuckets().size()));
+            for (int i = 0; i < terms.getBuckets().size(); i++) {
+                assertThat(terms.getBuckets().get(i).getDocCount(), equalTo(expectedTerms.getBuckets().get(i).getDocCount()));
+            }
+        }
+    }
+
+    private void createIndices() throws Exception {
+        for (String index : new String[] {"sequential", "concurrent"}) {
+            assertAcked(prepareCreate(index)
+                .setSettings(Settings.builder()
+                    .put("index.number_of_shards", 1)
+                    .put(MergePolicyConfig.INDEX_MERGE_ENABLED, false)
+                    .put(IndexSettings.INDEX_CONCURRENT_SEGMENT_SEARCH_SETTING.getKey(), index.equals("concurrent")))
+                .addMapping("type", "name", "type=keyword", "value", "type=long", "date", "type=date"));
+        }
+        final int numSegments = randomIntBetween(8, 16);
+        for (int i = 0; i < numSegments; i++) {
+            List<IndexRequestBuilder> builders = new ArrayList<>();
+            final int numDocs = randomIntBetween(1, 20);
+            for (int j = 0; j < numDocs; j++) {
+                final String name = "name_" + randomIntBetween(1, 10);
+                final int value = randomIntBetween(0, 100);
+                final long date = randomLongBetween(0, 30L * 24 * 60 * 60 * 1000);
+                for (String index : new String[] {"sequential", "concurrent"}) {
+                    builders.add(client().prepareIndex(index, "type").setSource(jsonBuilder()
+                        .startObject()
+                        .field("name", name)
+                        .field("value", value)
+                        .field("date", date)
+                        .endObject()));
+                }
+            }
+            indexRandom(true, false, builders);
+        }
+    }
+}
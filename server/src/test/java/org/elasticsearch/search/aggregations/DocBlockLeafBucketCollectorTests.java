@@ -0,0 +1,108 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations;
+
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class DocBlockLeafBucketCollectorTests extends ESTestCase {
+
+    private static class RecordingLeafBucketCollector extends LeafBucketCollector {
+
+        final List<Long> buckets = new ArrayList<>();
+        final List<Integer> docs = new ArrayList<>();
+        final List<Integer> blockSizes = new ArrayList<>();
+
+        @Override
+        public void collect(int doc, long bucket) {
+            buckets.add(bucket);
+            docs.add(doc);
+            blockSizes.add(1);
+        }
+
+        @Override
+        public void collect(int[] docs, int count, long bucket) {
+            for (int i = 0; i < count; i++) {
+                buckets.add(bucket);
+                this.docs.add(docs[i]);
+            }
+            blockSizes.add(count);
+        }
+    }
+
+    public void testCollectsAllDocuments() throws IOException {
+        RecordingLeafBucketCollector in = new RecordingLeafBucketCollector();
+        DocBlockLeafBucketCollector collector = new DocBlockLeafBucketCollector(in);
+        List<Long> expectedBuckets = new ArrayList<>();
+        List<Integer> expectedDocs = new ArrayList<>();
+        final int numDocs = randomIntBetween(0, 5000);
+        long bucket = 0;
+        for (int doc = 0; doc < numDocs; doc++) {
+            if (rarely()) {
+                bucket = randomIntBetween(0, 3);
+            }
+            collector.collect(doc, bucket);
+            expectedBuckets.add(bucket);
+            expectedDocs.add(doc);
+        }
+        collector.flush();
+        assertEquals(expectedBuckets, in.buckets);
+        assertEquals(expectedDocs, in.docs);
+        for (int blockSize : in.blockSizes) {
+            assertTrue(blockSize > 0);
+            assertTrue(blockSize <= DocBlockLeafBucketCollector.BLOCK_SIZE);
+        }
+
+        // flushing again is a no-op
+        collector.flush();
+        assertEquals(expectedDocs, in.docs);
+    }
+
+    public void testFlushWhenBucketChanges() throws IOException {
+        RecordingLeafBucketCollector in = new RecordingLeafBucketCollector();
+        DocBlockLeafBucketCollector collector = new DocBlockLeafBucketCollector(in);
+        collector.collect(0, 0);
+        collector.collect(1, 0);
+        assertTrue(in.docs.isEmpty());
+        collector.collect(2, 1);
+        assertEquals(Arrays.asList(0, 1), in.docs);
+        assertEquals(Arrays.asList(2), in.blockSizes);
+        collector.collect(new int[] { 3, 4, 5 }, 3, 2);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), in.docs);
+        assertEquals(Arrays.asList(0L, 0L, 1L, 2L, 2L, 2L), in.buckets);
+        assertEquals(Arrays.asList(2, 1, 3), in.blockSizes);
+    }
+
+    public void testFlushWhenBlockIsFull() throws IOException {
+        RecordingLeafBucketCollector in = new RecordingLeafBucketCollector();
+        DocBlockLeafBucketCollector collector = new DocBlockLeafBucketCollector(in);
+        for (int doc = 0; doc < DocBlockLeafBucketCollector.BLOCK_SIZE; doc++) {
+            collector.collect(doc, 0);
+        }
+        assertEquals(Arrays.asList(DocBlockLeafBucketCollector.BLOCK_SIZE), in.blockSizes);
+        collector.collect(DocBlockLeafBucketCollector.BLOCK_SIZE, 0);
+        collector.flush();
+        assertEquals(Arrays.asList(DocBlockLeafBucketCollector.BLOCK_SIZE, 1), in.blockSizes);
+    }
+}
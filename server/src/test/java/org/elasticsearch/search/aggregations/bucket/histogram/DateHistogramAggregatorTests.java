@@ -23,24 +23,46 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexOptions;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.RandomIndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.CollectionTerminatedException;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DocValuesFieldExistsQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.store.Directory;
+import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.Aggregator;
+import org.elasticsearch.search.aggregations.AggregatorFactories;
 import org.elasticsearch.search.aggregations.AggregatorTestCase;
 import org.elasticsearch.search.aggregations.MultiBucketConsumerService.TooManyBucketsException;
+import org.elasticsearch.search.aggregations.support.FieldContext;
+import org.elasticsearch.search.aggregations.support.ValuesSource;
+import org.elasticsearch.search.aggregations.support.ValuesSourceConfig;
+import org.elasticsearch.search.internal.SearchContext;
 
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
 public class DateHistogramAggregatorTests extends AggregatorTestCase {
 
     private static final String DATE_FIELD = "date";
@@ -369,6 +391,129 @@ public class DateHistogramAggregatorTests extends AggregatorTestCase {
             histogram -> {}, 5));
     }
 
+    public void testPointRangeShortcutIsApplicable() {
+        AggregatorFactories noSubAggregations = AggregatorFactories.EMPTY;
+        assertArrayEquals(new long[] { Long.MIN_VALUE, Long.MAX_VALUE }, DateHistogramAggregator.getPointRangeOrNull(
+            mockSearchContext(new MatchAllDocsQuery()), null, noSubAggregations, mockDateValuesSourceConfig(DATE_FIELD, true)));
+        assertArrayEquals(new long[] { Long.MIN_VALUE, Long.MAX_VALUE }, DateHistogramAggregator.getPointRangeOrNull(
+            mockSearchContext(null), null, noSubAggregations, mockDateValuesSourceConfig(DATE_FIELD, true)));
+        assertArrayEquals(new long[] { Long.MIN_VALUE, Long.MAX_VALUE }, DateHistogramAggregator.getPointRangeOrNull(
+            mockSearchContext(new ConstantScoreQuery(new DocValuesFieldExistsQuery(DATE_FIELD))), null, noSubAggregations,
+            mockDateValuesSourceConfig(DATE_FIELD, true)));
+        Query rangeQuery = new IndexOrDocValuesQuery(LongPoint.newRangeQuery(DATE_FIELD, 10, 20),
+            SortedNumericDocValuesField.newSlowRangeQuery(DATE_FIELD, 10, 20));
+        assertArrayEquals(new long[] { 10, 20 }, DateHistogramAggregator.getPointRangeOrNull(
+            mockSearchContext(rangeQuery), null, noSubAggregations, mockDateValuesSourceConfig(DATE_FIELD, true)));
+
+        // a range on another field
+        assertNull(DateHistogramAggregator.getPointRangeOrNull(mockSearchContext(LongPoint.newRangeQuery(INSTANT_FIELD, 10, 20)),
+            null, noSubAggregations, mockDateValuesSourceConfig(DATE_FIELD, true)));
+        assertNull(DateHistogramAggregator.getPointRangeOrNull(mockSearchContext(new TermQuery(new Term("foo", "bar"))),
+            null, noSubAggregations, mockDateValuesSourceConfig(DATE_FIELD, true)));
+        // not a top level aggregation
+        assertNull(DateHistogramAggregator.getPointRangeOrNull(mockSearchContext(new MatchAllDocsQuery()),
+            mock(Aggregator.class), noSubAggregations, mockDateValuesSourceConfig(DATE_FIELD, true)));
+        // sub-aggregations need to collect the documents
+        AggregatorFactories subAggregations = mock(AggregatorFactories.class);
+        when(subAggregations.countAggregators()).thenReturn(1);
+        assertNull(DateHistogramAggregator.getPointRangeOrNull(mockSearchContext(new MatchAllDocsQuery()),
+            null, subAggregations, mockDateValuesSourceConfig(DATE_FIELD, true)));
+        // the field is not indexed
+        assertNull(DateHistogramAggregator.getPointRangeOrNull(mockSearchContext(new MatchAllDocsQuery()),
+            null, noSubAggregations, mockDateValuesSourceConfig(DATE_FIELD, false)));
+        // the minimum score filters documents
+        SearchContext minScoreContext = mockSearchContext(new MatchAllDocsQuery());
+        when(minScoreContext.minimumScore()).thenReturn(1f);
+        assertNull(DateHistogramAggregator.getPointRangeOrNull(minScoreContext,
+            null, noSubAggregations, mockDateValuesSourceConfig(DATE_FIELD, true)));
+    }
+
+    public void testCountBucketsFromPoints() throws IOException {
+        final long dayMillis = TimeUnit.DAYS.toMillis(1);
+        final long start = asLong("2017-01-01T00:00:00");
+        final int numDays = randomIntBetween(1, 3);
+        final int numDocs = numDays * DateHistogramAggregator.MIN_DOCS_PER_POINT_RANGE_BUCKET + randomIntBetween(0, 100);
+        final long[] values = new long[numDocs];
+        try (Directory directory = newDirectory()) {
+            try (IndexWriter indexWriter = new IndexWriter(directory, newIndexWriterConfig())) {
+                for (int i = 0; i < numDocs; i++) {
+                    values[i] = start + randomLongBetween(0, numDays * dayMillis - 1);
+                    Document document = new Document();
+                    document.add(new SortedNumericDocValuesField(DATE_FIELD, values[i]));
+                    document.add(new LongPoint(DATE_FIELD, values[i]));
+                    indexWriter.addDocument(document);
+                }
+                indexWriter.forceMerge(1);
+            }
+
+            try (IndexReader indexReader = DirectoryReader.open(directory)) {
+                IndexSearcher indexSearcher = newSearcher(indexReader, false, false);
+                DateFieldMapper.DateFieldType fieldType = new DateFieldMapper.Builder("_name").fieldType();
+                fieldType.setName(DATE_FIELD);
+                fieldType.setHasDocValues(true);
+                fieldType.setIndexOptions(IndexOptions.DOCS);
+
+                final long lower = start + randomLongBetween(0, numDays * dayMillis);
+                final long upper = randomLongBetween(lower, start + numDays * dayMillis);
+                Query rangeQuery = new IndexOrDocValuesQuery(LongPoint.newRangeQuery(DATE_FIELD, lower, upper),
+                    SortedNumericDocValuesField.newSlowRangeQuery(DATE_FIELD, lower, upper));
+                for (Query query : Arrays.asList(new MatchAllDocsQuery(), rangeQuery)) {
+                    Map<Long, Long> expected = new TreeMap<>();
+                    for (long value : values) {
+                        if (query == rangeQuery && (value < lower || value > upper)) {
+                            continue;
+                        }
+                        expected.merge(start + (value - start) / dayMillis * dayMillis, 1L, Long::sum);
+                    }
+
+                    DateHistogramAggregationBuilder aggregationBuilder = new DateHistogramAggregationBuilder("_name")
+                        .field(DATE_FIELD).dateHistogramInterval(DateHistogramInterval.DAY);
+                    DateHistogramAggregator aggregator = createAggregator(query, aggregationBuilder, indexSearcher,
+                        createIndexSettings(), fieldType);
+                    // the documents of the segment are counted from the points rather than collected
+                    expectThrows(CollectionTerminatedException.class, () -> aggregator.getLeafCollector(indexReader.leaves().get(0)));
+
+                    DateHistogramAggregator countingAggregator = createAggregator(query, aggregationBuilder, indexSearcher,
+                        createIndexSettings(), fieldType);
+                    countingAggregator.preCollection();
+                    indexSearcher.search(query, countingAggregator);
+                    countingAggregator.postCollection();
+                    InternalDateHistogram histogram = (InternalDateHistogram) countingAggregator.buildAggregation(0L);
+                    Map<Long, Long> actual = new TreeMap<>();
+                    for (InternalDateHistogram.Bucket bucket : histogram.getBuckets()) {
+                        actual.put(bucket.key, bucket.getDocCount());
+                    }
+                    assertEquals(expected, actual);
+                }
+            }
+        }
+    }
+
+    @Override
+    protected SearchContext createSearchContext(IndexSearcher indexSearcher, IndexSettings indexSettings) {
+        SearchContext searchContext = super.createSearchContext(indexSearcher, indexSettings);
+        when(searchContext.minimumScore()).thenReturn(null);
+        return searchContext;
+    }
+
+    private SearchContext mockSearchContext(Query query) {
+        SearchContext searchContext = mock(SearchContext.class);
+        when(searchContext.query()).thenReturn(query);
+        when(searchContext.minimumScore()).thenReturn(null);
+        return searchContext;
+    }
+
+    private ValuesSourceConfig<ValuesSource.Numeric> mockDateValuesSourceConfig(String fieldName, boolean indexed) {
+        @SuppressWarnings("unchecked")
+        ValuesSourceConfig<ValuesSource.Numeric> config = mock(ValuesSourceConfig.class);
+        MappedFieldType ft = new DateFieldMapper.Builder(fieldName).fieldType();
+        ft.setName(fieldName);
+        ft.setIndexOptions(indexed ? IndexOptions.DOCS : IndexOptions.NONE);
+        ft.freeze();
+        when(config.fieldContext()).thenReturn(new FieldContext(fieldName, null, ft));
+        return config;
+    }
+
     private void testSearchCase(Query query, List<String> dataset,
                                 Consumer<DateHistogramAggregationBuilder> configure,
                                 Consumer<Histogram> verify) throws IOException {
@@ -19,6 +19,7 @@
 
 package org.elasticsearch.search.aggregations.bucket.terms;
 
+import org.elasticsearch.common.unit.TimeValue;
 import org.elasticsearch.search.aggregations.Aggregator;
 import org.elasticsearch.test.ESTestCase;
 
@@ -41,4 +42,20 @@ public class TermsAggregatorFactoryTests extends ESTestCase {
         assertThat(TermsAggregatorFactory.subAggCollectionMode(1, 100),
             equalTo(Aggregator.SubAggCollectionMode.BREADTH_FIRST));
     }
+
+    public void testUseSegmentOrdinals() {
+        final TimeValue refreshInterval = TimeValue.timeValueSeconds(1);
+        final long cardinality = TermsAggregatorFactory.SEGMENT_ORDINALS_MIN_CARDINALITY;
+        assertTrue(TermsAggregatorFactory.useSegmentOrdinals(false, refreshInterval, 2, cardinality));
+        // global ordinals are built on refresh
+        assertFalse(TermsAggregatorFactory.useSegmentOrdinals(true, refreshInterval, 2, cardinality));
+        // the ordinals of a single segment are the global ordinals
+        assertFalse(TermsAggregatorFactory.useSegmentOrdinals(false, refreshInterval, 1, cardinality));
+        // few terms
+        assertFalse(TermsAggregatorFactory.useSegmentOrdinals(false, refreshInterval, 2, cardinality - 1));
+        // refreshes are disabled or rare
+        assertFalse(TermsAggregatorFactory.useSegmentOrdinals(false, TimeValue.MINUS_ONE, 2, cardinality));
+        assertFalse(TermsAggregatorFactory.useSegmentOrdinals(false,
+            TimeValue.timeValueMillis(TermsAggregatorFactory.SEGMENT_ORDINALS_MAX_REFRESH_INTERVAL.millis() + 1), 2, cardinality));
+    }
 }
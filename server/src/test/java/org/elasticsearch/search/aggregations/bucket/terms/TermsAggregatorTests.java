@@ -72,6 +72,7 @@ import org.elasticsearch.search.aggregations.bucket.nested.InternalNested;
 import org.elasticsearch.search.aggregations.bucket.nested.NestedAggregationBuilder;
 import org.elasticsearch.search.aggregations.metrics.InternalTopHits;
 import org.elasticsearch.search.aggregations.metrics.TopHitsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.ValueCount;
 import org.elasticsearch.search.aggregations.pipeline.BucketScriptPipelineAggregationBuilder;
 import org.elasticsearch.search.aggregations.support.ValueType;
 import org.elasticsearch.search.sort.FieldSortBuilder;
@@ -153,6 +154,61 @@ public class TermsAggregatorTests extends AggregatorTestCase {
         directory.close();
     }
 
+    public void testSegmentOrdinalsExecutionHint() throws Exception {
+        try (Directory directory = newDirectory()) {
+            try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
+                String[][] docs = new String[][] { {"a", "b"}, {"b", "c"}, {"a"}, {"c", "d"}, {"e"} };
+                for (String[] values : docs) {
+                    Document document = new Document();
+                    for (String value : values) {
+                        document.add(new SortedSetDocValuesField("string", new BytesRef(value)));
+                    }
+                    indexWriter.addDocument(document);
+                    if (randomBoolean()) {
+                        indexWriter.commit();
+                    }
+                }
+                try (IndexReader indexReader = maybeWrapReaderEs(indexWriter.getReader())) {
+                    IndexSearcher indexSearcher = newIndexSearcher(indexReader);
+                    MappedFieldType fieldType = new KeywordFieldMapper.KeywordFieldType();
+                    fieldType.setName("string");
+                    fieldType.setHasDocValues(true);
+                    for (boolean withSubAggregation : new boolean[] {false, true}) {
+                        TermsAggregationBuilder aggregationBuilder = new TermsAggregationBuilder("_name", ValueType.STRING)
+                            .executionHint("segment_ordinals")
+                            .includeExclude(new IncludeExclude(null, new String[] {"e"}))
+                            .collectMode(randomFrom(Aggregator.SubAggCollectionMode.values()))
+                            .field("string")
+                            .order(BucketOrder.key(true));
+                        if (withSubAggregation) {
+                            aggregationBuilder.subAggregation(AggregationBuilders.count("count").field("string"));
+                        }
+
+                        TermsAggregator aggregator = createAggregator(aggregationBuilder, indexSearcher, fieldType);
+                        assertThat(aggregator, instanceOf(SegmentOrdinalsStringTermsAggregator.class));
+                        aggregator.preCollection();
+                        indexSearcher.search(new MatchAllDocsQuery(), aggregator);
+                        aggregator.postCollection();
+                        Terms result = (Terms) aggregator.buildAggregation(0L);
+                        assertEquals(4, result.getBuckets().size());
+                        String[] keys = new String[] {"a", "b", "c", "d"};
+                        long[] docCounts = new long[] {2, 2, 2, 1};
+                        long[] valueCounts = new long[] {3, 4, 4, 2};
+                        for (int i = 0; i < keys.length; i++) {
+                            Terms.Bucket bucket = result.getBuckets().get(i);
+                            assertEquals(keys[i], bucket.getKeyAsString());
+                            assertEquals(docCounts[i], bucket.getDocCount());
+                            if (withSubAggregation) {
+                                ValueCount count = bucket.getAggregations().get("count");
+                                assertEquals(valueCounts[i], count.getValue());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     public void testSimple() throws Exception {
         try (Directory directory = newDirectory()) {
             try (RandomIndexWriter indexWriter = new RandomIndexWriter(random(), directory)) {
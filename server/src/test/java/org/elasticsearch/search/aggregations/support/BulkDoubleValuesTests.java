@@ -0,0 +1,128 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.aggregations.support;
+
+import org.elasticsearch.index.fielddata.FieldData;
+import org.elasticsearch.index.fielddata.NumericDoubleValues;
+import org.elasticsearch.index.fielddata.SortedNumericDoubleValues;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class BulkDoubleValuesTests extends ESTestCase {
+
+    public void testSingleValued() throws IOException {
+        final int numDocs = randomIntBetween(1, 100);
+        final double[] values = new double[numDocs];
+        final boolean[] exists = new boolean[numDocs];
+        for (int i = 0; i < numDocs; ++i) {
+            values[i] = randomDouble();
+            exists[i] = randomBoolean();
+        }
+        NumericDoubleValues singleValues = new NumericDoubleValues() {
+
+            int doc = -1;
+
+            @Override
+            public boolean advanceExact(int docId) {
+                doc = docId;
+                return exists[doc];
+            }
+
+            @Override
+            public double doubleValue() {
+                return values[doc];
+            }
+        };
+        BulkDoubleValues bulkValues = new BulkDoubleValues(FieldData.singleton(singleValues));
+        final int[] docs = randomDocs(numDocs);
+        List<Double> expected = new ArrayList<>();
+        for (int doc : docs) {
+            if (exists[doc]) {
+                expected.add(values[doc]);
+            }
+        }
+        assertValues(expected, bulkValues.read(docs, docs.length), bulkValues.values());
+        assertValues(expected, bulkValues.readFirstValues(docs, docs.length), bulkValues.values());
+    }
+
+    public void testMultiValued() throws IOException {
+        final int numDocs = randomIntBetween(1, 100);
+        final double[][] values = new double[numDocs][];
+        for (int i = 0; i < numDocs; ++i) {
+            values[i] = new double[randomInt(4)];
+            for (int j = 0; j < values[i].length; ++j) {
+                values[i][j] = randomDouble();
+            }
+            Arrays.sort(values[i]);
+        }
+        SortedNumericDoubleValues multiValues = new SortedNumericDoubleValues() {
+
+            int doc = -1;
+            int i;
+
+            @Override
+            public double nextValue() {
+                return values[doc][i++];
+            }
+
+            @Override
+            public boolean advanceExact(int docId) {
+                doc = docId;
+                i = 0;
+                return values[doc].length > 0;
+            }
+
+            @Override
+            public int docValueCount() {
+                return values[doc].length;
+            }
+        };
+        BulkDoubleValues bulkValues = new BulkDoubleValues(multiValues);
+        final int[] docs = randomDocs(numDocs);
+        List<Double> expectedAll = new ArrayList<>();
+        List<Double> expectedFirst = new ArrayList<>();
+        for (int doc : docs) {
+            for (double value : values[doc]) {
+                expectedAll.add(value);
+            }
+            if (values[doc].length > 0) {
+                expectedFirst.add(values[doc][0]);
+            }
+        }
+        assertValues(expectedAll, bulkValues.read(docs, docs.length), bulkValues.values());
+        assertValues(expectedFirst, bulkValues.readFirstValues(docs, docs.length), bulkValues.values());
+    }
+
+    private static int[] randomDocs(int numDocs) {
+        return IntStream.range(0, numDocs).filter(i -> randomBoolean()).toArray();
+    }
+
+    private static void assertValues(List<Double> expected, int count, double[] values) {
+        assertEquals(expected.size(), count);
+        for (int i = 0; i < count; ++i) {
+            assertEquals(expected.get(i), values[i], 0d);
+        }
+    }
+}
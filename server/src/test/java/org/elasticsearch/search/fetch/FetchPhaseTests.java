@@ -0,0 +1,233 @@
+/*
+ * Licensed to Elasticsearch under one or more contributor
+ * license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright
+ * ownership. Elasticsearch licenses this file to you under
+ * the Apache License, Version 2.0 (the "License"); you may
+ * not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.elasticsearch.search.fetch;
+
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.CodecReader;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FilterCodecReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.common.CheckedBiConsumer;
+import org.elasticsearch.common.lucene.index.ElasticsearchLeafReader;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.fieldvisitor.CustomFieldsVisitor;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.plugins.Plugin;
+import org.elasticsearch.plugins.SearchPlugin;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.internal.SearchContext;
+import org.elasticsearch.search.sort.SortOrder;
+import org.elasticsearch.test.ESSingleNodeTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchResponse;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class FetchPhaseTests extends ESSingleNodeTestCase {
+
+    @Override
+    protected Collection<Class<? extends Plugin>> getPlugins() {
+        return pluginList(RecordingFetchSubPhasePlugin.class);
+    }
+
+    public void testLoadsDocumentsInDocIdOrder() throws Exception {
+        createIndex("test", Settings.builder().put("index.number_of_shards", 1).put("index.number_of_replicas", 0).build());
+        int numDocs = randomIntBetween(10, 100);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("test", "_doc", Integer.toString(i)).setSource("rank", i).get();
+            if (rarely()) {
+                client().admin().indices().prepareRefresh("test").get();
+            }
+        }
+        client().admin().indices().prepareRefresh("test").get();
+
+        RecordingFetchSubPhase.loadedDocs.clear();
+        // the top docs are in decreasing rank order, which is more or less the reverse of the doc id order
+        SearchResponse response = client().prepareSearch("test")
+            .setQuery(QueryBuilders.matchAllQuery())
+            .addSort("rank", SortOrder.DESC)
+            .setSize(numDocs)
+            .get();
+        assertSearchResponse(response);
+
+        SearchHit[] hits = response.getHits().getHits();
+        assertThat(hits.length, equalTo(numDocs));
+        for (int i = 0; i < numDocs; i++) {
+            assertThat(hits[i].getId(), equalTo(Integer.toString(numDocs - 1 - i)));
+        }
+        List<Integer> loadedDocs = new ArrayList<>(RecordingFetchSubPhase.loadedDocs);
+        assertThat(loadedDocs.size(), equalTo(numDocs));
+        for (int i = 1; i < loadedDocs.size(); i++) {
+            assertThat(loadedDocs.get(i), greaterThan(loadedDocs.get(i - 1)));
+        }
+    }
+
+    public void testStoredFieldsReader() throws IOException {
+        try (Directory dir = newDirectory();
+             IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig().setMergePolicy(newLogMergePolicy()))) {
+            int numDocs = randomIntBetween(FetchPhase.SEQUENTIAL_READ_MIN_DOCS, 200);
+            for (int i = 0; i < numDocs; i++) {
+                Document doc = new Document();
+                doc.add(new StoredField("field", "value_" + i));
+                writer.addDocument(doc);
+            }
+            writer.forceMerge(1);
+            try (DirectoryReader directoryReader = DirectoryReader.open(writer)) {
+                AtomicInteger mergeInstanceReads = new AtomicInteger();
+                CodecReader codecReader = new MergeInstanceRecordingReader((CodecReader) directoryReader.leaves().get(0).reader(),
+                    mergeInstanceReads);
+                LeafReader reader = randomBoolean() ? codecReader
+                    : new ElasticsearchLeafReader(codecReader, new ShardId("index", "_na_", 0));
+
+                // enough documents that are close to each other are read through the merge instance
+                TreeSet<Integer> docs = new TreeSet<>();
+                int first = randomIntBetween(0, numDocs - FetchPhase.SEQUENTIAL_READ_MIN_DOCS);
+                for (int doc = first; doc < numDocs; doc++) {
+                    docs.add(doc);
+                }
+                assertStoredFields(reader, docs);
+                assertThat(mergeInstanceReads.get(), equalTo(docs.size()));
+
+                // a few documents are read one at a time
+                mergeInstanceReads.set(0);
+                docs.clear();
+                int numDocsToLoad = randomIntBetween(1, FetchPhase.SEQUENTIAL_READ_MIN_DOCS - 1);
+                while (docs.size() < numDocsToLoad) {
+                    docs.add(randomIntBetween(0, numDocs - 1));
+                }
+                assertStoredFields(reader, docs);
+                assertThat(mergeInstanceReads.get(), equalTo(0));
+            }
+        }
+    }
+
+    private static void assertStoredFields(LeafReader reader, TreeSet<Integer> docs) throws IOException {
+        CheckedBiConsumer<Integer, StoredFieldVisitor, IOException> fieldReader =
+            FetchPhase.storedFieldsReader(reader.getContext(), docs.size(), docs.last() - docs.first() + 1);
+        for (int doc : docs) {
+            CustomFieldsVisitor visitor = new CustomFieldsVisitor(Collections.singleton("field"), false);
+            fieldReader.accept(doc, visitor);
+            assertEquals(Collections.singletonList("value_" + doc), visitor.fields().get("field"));
+        }
+    }
+
+    public static class RecordingFetchSubPhasePlugin extends Plugin implements SearchPlugin {
+        @Override
+        public List<FetchSubPhase> getFetchSubPhases(FetchPhaseConstructionContext context) {
+            return Collections.singletonList(new RecordingFetchSubPhase());
+        }
+    }
+
+    private static final class RecordingFetchSubPhase implements FetchSubPhase {
+        private static final List<Integer> loadedDocs = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void hitExecute(SearchContext context, HitContext hitContext) {
+            loadedDocs.add(hitContext.hit().docId());
+        }
+    }
+
+    /**
+     * Counts the documents that are read through the merge instance of the stored fields reader.
+     */
+    private static final class MergeInstanceRecordingReader extends FilterCodecReader {
+        private final AtomicInteger mergeInstanceReads;
+
+        MergeInstanceRecordingReader(CodecReader in, AtomicInteger mergeInstanceReads) {
+            super(in);
+            this.mergeInstanceReads = mergeInstanceReads;
+        }
+
+        @Override
+        public StoredFieldsReader getFieldsReader() {
+            return new RecordingStoredFieldsReader(super.getFieldsReader(), null);
+        }
+
+        @Override
+        public CacheHelper getCoreCacheHelper() {
+            return null;
+        }
+
+        @Override
+        public CacheHelper getReaderCacheHelper() {
+            return null;
+        }
+
+        private final class RecordingStoredFieldsReader extends StoredFieldsReader {
+            private final StoredFieldsReader in;
+            // only set on the merge instance
+            private final AtomicInteger reads;
+
+            RecordingStoredFieldsReader(StoredFieldsReader in, AtomicInteger reads) {
+                this.in = in;
+                this.reads = reads;
+            }
+
+            @Override
+            public void visitDocument(int docID, StoredFieldVisitor visitor) throws IOException {
+                if (reads != null) {
+                    reads.incrementAndGet();
+                }
+                in.visitDocument(docID, visitor);
+            }
+
+            @Override
+            public StoredFieldsReader getMergeInstance() {
+                return new RecordingStoredFieldsReader(in.getMergeInstance(), mergeInstanceReads);
+            }
+
+            @Override
+            public StoredFieldsReader clone() {
+                return new RecordingStoredFieldsReader(in.clone(), reads);
+            }
+
+            @Override
+            public void checkIntegrity() throws IOException {
+                in.checkIntegrity();
+            }
+
+            @Override
+            public void close() throws IOException {
+                in.close();
+            }
+
+            @Override
+            public long ramBytesUsed() {
+                return in.ramBytesUsed();
+            }
+        }
+    }
+}
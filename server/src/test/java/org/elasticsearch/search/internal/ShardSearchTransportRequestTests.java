@@ -40,6 +40,8 @@ import org.elasticsearch.index.query.RandomQueryBuilder;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.InvalidAliasNameException;
 import org.elasticsearch.search.AbstractSearchTestCase;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.highlight.HighlightBuilder;
 
 import java.io.IOException;
 
@@ -94,6 +96,30 @@ public class ShardSearchTransportRequestTests extends AbstractSearchTestCase {
             Math.abs(randomLong()), randomAlphaOfLengthBetween(3, 10), routings);
     }
 
+    public void testCacheKeyIgnoresFetchOptionsAndFilterOrder() throws IOException {
+        SearchSourceBuilder source = new SearchSourceBuilder().size(10)
+            .query(QueryBuilders.boolQuery().must(termQuery("title", "foo"))
+                .filter(termQuery("tag", "a")).filter(QueryBuilders.rangeQuery("age").gte(10)).mustNot(termQuery("tag", "b")));
+        SearchSourceBuilder equivalent = new SearchSourceBuilder().size(10)
+            .query(QueryBuilders.boolQuery().mustNot(termQuery("tag", "b"))
+                .filter(QueryBuilders.rangeQuery("age").gte(10)).filter(termQuery("tag", "a")).must(termQuery("title", "foo")))
+            .fetchSource(new String[] {"title"}, null).storedField("title").explain(true).version(true)
+            .highlighter(new HighlightBuilder().field("title"));
+        assertEquals(createCacheKeyRequest(source, null).cacheKey(), createCacheKeyRequest(equivalent, true).cacheKey());
+
+        SearchSourceBuilder otherQuery = new SearchSourceBuilder().size(10)
+            .query(QueryBuilders.boolQuery().must(termQuery("title", "foo")).filter(termQuery("tag", "a")));
+        assertNotEquals(createCacheKeyRequest(source, null).cacheKey(), createCacheKeyRequest(otherQuery, null).cacheKey());
+        SearchSourceBuilder otherSize = new SearchSourceBuilder().size(20).query(source.query());
+        assertNotEquals(createCacheKeyRequest(source, null).cacheKey(), createCacheKeyRequest(otherSize, null).cacheKey());
+    }
+
+    private static ShardSearchTransportRequest createCacheKeyRequest(SearchSourceBuilder source, Boolean requestCache) {
+        SearchRequest searchRequest = new SearchRequest("index").source(source).requestCache(requestCache);
+        return new ShardSearchTransportRequest(new OriginalIndices(searchRequest), searchRequest, new ShardId("index", "_na_", 0),
+            1, new AliasFilter(null, Strings.EMPTY_ARRAY), 1.0f, 0L, null, Strings.EMPTY_ARRAY);
+    }
+
     public void testFilteringAliases() throws Exception {
         IndexMetaData indexMetaData = baseMetaData;
         indexMetaData = add(indexMetaData, "cats", filter(termQuery("animal", "cat")));
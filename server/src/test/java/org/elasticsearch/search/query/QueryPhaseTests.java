@@ -21,7 +21,9 @@ package org.elasticsearch.search.query;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
@@ -46,23 +48,30 @@ import org.apache.lucene.search.MatchNoDocsQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.SortedNumericSortField;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.search.TotalHitCountCollector;
+import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
 import org.elasticsearch.action.search.SearchTask;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.engine.Engine;
 import org.elasticsearch.index.query.ParsedQuery;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardTestCase;
 import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.internal.ContextIndexSearcher;
 import org.elasticsearch.search.internal.ScrollContext;
 import org.elasticsearch.search.internal.SearchContext;
 import org.elasticsearch.search.sort.SortAndFormats;
 import org.elasticsearch.test.TestSearchContext;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -70,6 +79,7 @@ import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
 
 public class QueryPhaseTests extends IndexShardTestCase {
 
@@ -539,6 +549,212 @@ public class QueryPhaseTests extends IndexShardTestCase {
         dir.close();
     }
 
+    public void testConcurrentSegmentSearch() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+        final int numSegments = randomIntBetween(10, 20);
+        for (int i = 0; i < numSegments; i++) {
+            final int numDocs = randomIntBetween(1, 20);
+            for (int j = 0; j < numDocs; j++) {
+                Document doc = new Document();
+                doc.add(new StringField("foo", randomBoolean() ? "bar" : "baz", Store.NO));
+                doc.add(new NumericDocValuesField("rank", randomIntBetween(0, 10)));
+                w.addDocument(doc);
+            }
+            w.commit();
+        }
+        w.close();
+
+        IndexReader reader = DirectoryReader.open(dir);
+        Engine.Searcher engineSearcher = new Engine.Searcher("test", new IndexSearcher(reader), null);
+        ContextIndexSearcher concurrentSearcher = new ContextIndexSearcher(engineSearcher, null,
+            IndexSearcher.getDefaultQueryCachingPolicy(), indexShard.getThreadPool().executor(ThreadPool.Names.SEARCH_WORKER));
+        assertTrue(concurrentSearcher.isConcurrentSearchEnabled());
+
+        final Query query = new TermQuery(new Term("foo", "bar"));
+        final List<SortAndFormats> sorts = Arrays.asList(null,
+            new SortAndFormats(new Sort(new SortField("rank", SortField.Type.INT)), new DocValueFormat[] {DocValueFormat.RAW}));
+        for (SortAndFormats sort : sorts) {
+            for (int size : new int[] {0, 1, 10, 1000}) {
+                TestSearchContext expectedContext = new TestSearchContext(null, indexShard);
+                TestSearchContext context = new TestSearchContext(null, indexShard);
+                for (TestSearchContext ctx : Arrays.asList(expectedContext, context)) {
+                    ctx.parsedQuery(new ParsedQuery(query));
+                    ctx.setTask(new SearchTask(123L, "", "", "", null, Collections.emptyMap()));
+                    ctx.setSize(size);
+                    ctx.sort(sort);
+                    ctx.trackTotalHitsUpTo(SearchContext.TRACK_TOTAL_HITS_ACCURATE);
+                }
+                QueryPhase.execute(expectedContext, new IndexSearcher(reader), checkCancelled -> {});
+                QueryPhase.execute(context, concurrentSearcher, checkCancelled -> {});
+
+                TopDocs expected = expectedContext.queryResult().topDocs().topDocs;
+                TopDocs topDocs = context.queryResult().topDocs().topDocs;
+                assertEquals(expected.totalHits, topDocs.totalHits);
+                assertEquals(expected.scoreDocs.length, topDocs.scoreDocs.length);
+                for (int i = 0; i < expected.scoreDocs.length; i++) {
+                    assertEquals(expected.scoreDocs[i].doc, topDocs.scoreDocs[i].doc);
+                }
+            }
+        }
+        reader.close();
+        dir.close();
+    }
+
+    public void testNumericSortPruning() throws Exception {
+        Directory dir = newDirectory();
+        IndexWriterConfig iwc = newIndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        RandomIndexWriter w = new RandomIndexWriter(random(), dir, iwc);
+        final int numSegments = randomIntBetween(10, 20);
+        for (int i = 0; i < numSegments; i++) {
+            // segments hold increasing ranges of timestamps, like time-based data
+            final int numDocs = randomIntBetween(50, 100);
+            for (int j = 0; j < numDocs; j++) {
+                Document doc = new Document();
+                doc.add(new StringField("foo", randomBoolean() ? "bar" : "baz", Store.NO));
+                if (rarely() == false) {
+                    final long timestamp = i * 1000L + randomIntBetween(0, 1000);
+                    doc.add(new LongPoint("ts", timestamp));
+                    doc.add(new SortedNumericDocValuesField("ts", timestamp));
+                }
+                w.addDocument(doc);
+            }
+            w.commit();
+        }
+        w.close();
+
+        IndexReader reader = DirectoryReader.open(dir);
+        final long[] collected = new long[1];
+        Engine.Searcher engineSearcher = new Engine.Searcher("test", new IndexSearcher(reader), null);
+        ContextIndexSearcher contextSearcher = new ContextIndexSearcher(engineSearcher, null,
+            IndexSearcher.getDefaultQueryCachingPolicy()) {
+            @Override
+            protected void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
+                super.search(leaves, weight, new FilterCollector(collector) {
+                    @Override
+                    public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+                        return new FilterLeafCollector(super.getLeafCollector(context)) {
+                            @Override
+                            public void collect(int doc) throws IOException {
+                                collected[0]++;
+                                super.collect(doc);
+                            }
+                        };
+                    }
+                });
+            }
+        };
+
+        final IndexSearcher expectedSearcher = new IndexSearcher(reader);
+        // a query whose total hits cannot be computed without collecting the matching documents
+        final Query query = new BooleanQuery.Builder()
+            .add(new TermQuery(new Term("foo", "bar")), Occur.SHOULD)
+            .add(new TermQuery(new Term("foo", "qux")), Occur.SHOULD)
+            .build();
+        final int totalHits = expectedSearcher.count(query);
+        for (boolean reverse : new boolean[] {true, false}) {
+            final SortedNumericSortField sortField = new SortedNumericSortField("ts", SortField.Type.LONG, reverse);
+            sortField.setMissingValue(reverse ? Long.MIN_VALUE : Long.MAX_VALUE);
+            final Sort sort = new Sort(sortField);
+            final int size = randomIntBetween(1, 20);
+            FieldDoc after = null;
+            for (int page = 0; page < 3; page++) {
+                TestSearchContext context = new TestSearchContext(null, indexShard);
+                context.parsedQuery(new ParsedQuery(query));
+                context.setTask(new SearchTask(123L, "", "", "", null, Collections.emptyMap()));
+                context.setSize(size);
+                context.sort(new SortAndFormats(sort, new DocValueFormat[] {DocValueFormat.RAW}));
+                context.searchAfter(after);
+                context.trackTotalHitsUpTo(SearchContext.TRACK_TOTAL_HITS_DISABLED);
+                collected[0] = 0;
+                QueryPhase.execute(context, contextSearcher, checkCancelled -> {});
+                assertThat(collected[0], lessThan((long) totalHits));
+
+                TopDocs expected = after == null ? expectedSearcher.search(query, size, sort)
+                    : expectedSearcher.searchAfter(after, query, size, sort);
+                TopDocs topDocs = context.queryResult().topDocs().topDocs;
+                assertEquals(expected.scoreDocs.length, topDocs.scoreDocs.length);
+                for (int i = 0; i < expected.scoreDocs.length; i++) {
+                    assertEquals(expected.scoreDocs[i].doc, topDocs.scoreDocs[i].doc);
+                    assertArrayEquals(((FieldDoc) expected.scoreDocs[i]).fields, ((FieldDoc) topDocs.scoreDocs[i]).fields);
+                }
+                FieldDoc last = (FieldDoc) topDocs.scoreDocs[topDocs.scoreDocs.length - 1];
+                after = new FieldDoc(Integer.MAX_VALUE, 0, last.fields);
+            }
+
+            // no value can follow a search after value at the end of the range of longs
+            for (long extreme : new long[] {Long.MIN_VALUE, Long.MAX_VALUE}) {
+                after = new FieldDoc(Integer.MAX_VALUE, 0, new Object[] {extreme});
+                TestSearchContext context = new TestSearchContext(null, indexShard);
+                context.parsedQuery(new ParsedQuery(query));
+                context.setTask(new SearchTask(123L, "", "", "", null, Collections.emptyMap()));
+                context.setSize(size);
+                context.sort(new SortAndFormats(sort, new DocValueFormat[] {DocValueFormat.RAW}));
+                context.searchAfter(after);
+                context.trackTotalHitsUpTo(SearchContext.TRACK_TOTAL_HITS_DISABLED);
+                QueryPhase.execute(context, contextSearcher, checkCancelled -> {});
+                TopDocs expected = expectedSearcher.searchAfter(after, query, size, sort);
+                TopDocs topDocs = context.queryResult().topDocs().topDocs;
+                assertEquals(expected.scoreDocs.length, topDocs.scoreDocs.length);
+                for (int i = 0; i < expected.scoreDocs.length; i++) {
+                    assertEquals(expected.scoreDocs[i].doc, topDocs.scoreDocs[i].doc);
+                }
+            }
+
+            // documents are only skipped once the hits to track were counted
+            TestSearchContext context = new TestSearchContext(null, indexShard);
+            context.parsedQuery(new ParsedQuery(query));
+            context.setTask(new SearchTask(123L, "", "", "", null, Collections.emptyMap()));
+            context.setSize(size);
+            context.sort(new SortAndFormats(sort, new DocValueFormat[] {DocValueFormat.RAW}));
+            context.trackTotalHitsUpTo(size);
+            QueryPhase.execute(context, contextSearcher, checkCancelled -> {});
+            TopDocs topDocs = context.queryResult().topDocs().topDocs;
+            assertThat(topDocs.totalHits.value, greaterThanOrEqualTo((long) size));
+            assertThat(topDocs.totalHits.value, lessThan((long) totalHits));
+            assertEquals(TotalHits.Relation.GREATER_THAN_OR_EQUAL_TO, topDocs.totalHits.relation);
+
+            // all hits are counted when the total hits must be accurate
+            context.trackTotalHitsUpTo(SearchContext.TRACK_TOTAL_HITS_ACCURATE);
+            collected[0] = 0;
+            QueryPhase.execute(context, contextSearcher, checkCancelled -> {});
+            topDocs = context.queryResult().topDocs().topDocs;
+            assertEquals(new TotalHits(totalHits, TotalHits.Relation.EQUAL_TO), topDocs.totalHits);
+            assertEquals(totalHits, collected[0]);
+
+            // unless they can be computed without collecting the documents
+            context.parsedQuery(new ParsedQuery(new TermQuery(new Term("foo", "bar"))));
+            collected[0] = 0;
+            QueryPhase.execute(context, contextSearcher, checkCancelled -> {});
+            topDocs = context.queryResult().topDocs().topDocs;
+            assertEquals(new TotalHits(totalHits, TotalHits.Relation.EQUAL_TO), topDocs.totalHits);
+            assertThat(collected[0], lessThan((long) totalHits));
+
+            // the max score must be computed over all the matching documents, so tracking scores disables pruning
+            context = new TestSearchContext(null, indexShard);
+            context.parsedQuery(new ParsedQuery(query));
+            context.setTask(new SearchTask(123L, "", "", "", null, Collections.emptyMap()));
+            context.setSize(size);
+            context.sort(new SortAndFormats(sort, new DocValueFormat[] {DocValueFormat.RAW}));
+            context.trackTotalHitsUpTo(SearchContext.TRACK_TOTAL_HITS_DISABLED);
+            context.trackScores(true);
+            collected[0] = 0;
+            QueryPhase.execute(context, contextSearcher, checkCancelled -> {});
+            assertEquals(totalHits, collected[0]);
+            final float maxScore = expectedSearcher.search(query, 1).getMaxScore();
+            assertEquals(maxScore, context.queryResult().topDocs().maxScore, 0f);
+            TopDocs expected = expectedSearcher.search(query, size, sort);
+            topDocs = context.queryResult().topDocs().topDocs;
+            assertEquals(expected.scoreDocs.length, topDocs.scoreDocs.length);
+            for (int i = 0; i < expected.scoreDocs.length; i++) {
+                assertEquals(expected.scoreDocs[i].doc, topDocs.scoreDocs[i].doc);
+            }
+        }
+        reader.close();
+        dir.close();
+    }
+
     private static IndexSearcher getAssertingEarlyTerminationSearcher(IndexReader reader, int size) {
         return new IndexSearcher(reader) {
             protected void search(List<LeafReaderContext> leaves, Weight weight, Collector collector) throws IOException {
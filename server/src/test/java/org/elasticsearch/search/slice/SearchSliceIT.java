@@ -21,7 +21,13 @@ package org.elasticsearch.search.slice;
 
 import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
 import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.action.search.ClosePointInTimeAction;
+import org.elasticsearch.action.search.ClosePointInTimeRequest;
+import org.elasticsearch.action.search.OpenPointInTimeAction;
+import org.elasticsearch.action.search.OpenPointInTimeRequest;
+import org.elasticsearch.action.search.OpenPointInTimeResponse;
 import org.elasticsearch.action.search.SearchPhaseExecutionException;
+import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.common.Strings;
@@ -33,6 +39,8 @@ import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.search.Scroll;
 import org.elasticsearch.search.SearchContextException;
 import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.PointInTimeBuilder;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.sort.SortBuilders;
 import org.elasticsearch.test.ESIntegTestCase;
 
@@ -113,6 +121,25 @@ public class SearchSliceIT extends ESIntegTestCase {
         }
     }
 
+    public void testPointInTime() throws Exception {
+        int numShards = randomIntBetween(1, 7);
+        int numDocs = randomIntBetween(100, 1000);
+        setupIndex(numDocs, numShards);
+        int max = randomIntBetween(2, numShards * 3);
+        OpenPointInTimeResponse openResponse = client().execute(OpenPointInTimeAction.INSTANCE,
+            new OpenPointInTimeRequest("test").keepAlive(TimeValue.timeValueMinutes(1))).actionGet();
+        try {
+            // documents indexed after the point in time was opened must not be returned
+            indexRandom(true, client().prepareIndex("test", "type").setSource("random_int", randomInt(), "static_int", 0));
+            for (String field : new String[]{"_id", "random_int", "static_int"}) {
+                int fetchSize = randomIntBetween(10, 100);
+                assertSearchSlicesWithPointInTime(openResponse.getId(), field, max, fetchSize, numDocs);
+            }
+        } finally {
+            client().execute(ClosePointInTimeAction.INSTANCE, new ClosePointInTimeRequest(openResponse.getId())).actionGet();
+        }
+    }
+
     public void testWithPreferenceAndRoutings() throws Exception {
         int numShards = 10;
         int totalDocs = randomIntBetween(100, 1000);
@@ -207,7 +234,7 @@ public class SearchSliceIT extends ESIntegTestCase {
         Throwable rootCause = findRootCause(exc);
         assertThat(rootCause.getClass(), equalTo(SearchContextException.class));
         assertThat(rootCause.getMessage(),
-            equalTo("`slice` cannot be used outside of a scroll context"));
+            equalTo("`slice` cannot be used outside of a scroll context or a point in time"));
     }
 
     private void assertSearchSlicesWithScroll(SearchRequestBuilder request, String field, int numSlice, int numDocs) {
@@ -243,6 +270,48 @@ public class SearchSliceIT extends ESIntegTestCase {
         assertThat(new HashSet(keys).size(), equalTo(numDocs));
     }
 
+    private void assertSearchSlicesWithPointInTime(String pointInTimeId, String field, int numSlice, int fetchSize, int numDocs) {
+        int totalResults = 0;
+        List<String> keys = new ArrayList<>();
+        for (int id = 0; id < numSlice; id++) {
+            int numSliceResults = 0;
+            long expectedSliceResults = -1;
+            Object[] searchAfter = null;
+            while (true) {
+                SearchSourceBuilder source = new SearchSourceBuilder()
+                    .query(matchAllQuery())
+                    .size(fetchSize)
+                    .sort(SortBuilders.fieldSort("random_int"))
+                    .slice(new SliceBuilder(field, id, numSlice))
+                    .pointInTimeBuilder(new PointInTimeBuilder(pointInTimeId));
+                if (searchAfter != null) {
+                    source.searchAfter(searchAfter);
+                }
+                SearchResponse searchResponse = client().search(new SearchRequest().source(source)).actionGet();
+                if (expectedSliceResults == -1) {
+                    expectedSliceResults = searchResponse.getHits().getTotalHits().value;
+                } else {
+                    // every page is computed on the same point in time
+                    assertThat(searchResponse.getHits().getTotalHits().value, equalTo(expectedSliceResults));
+                }
+                SearchHit[] hits = searchResponse.getHits().getHits();
+                if (hits.length == 0) {
+                    break;
+                }
+                totalResults += hits.length;
+                numSliceResults += hits.length;
+                for (SearchHit hit : hits) {
+                    assertTrue(keys.add(hit.getId()));
+                }
+                searchAfter = hits[hits.length - 1].getSortValues();
+            }
+            assertThat((long) numSliceResults, equalTo(expectedSliceResults));
+        }
+        assertThat(totalResults, equalTo(numDocs));
+        assertThat(keys.size(), equalTo(numDocs));
+        assertThat(new HashSet<>(keys).size(), equalTo(numDocs));
+    }
+
     private Throwable findRootCause(Exception e) {
         Throwable ret = e;
         while (ret.getCause() != null) {
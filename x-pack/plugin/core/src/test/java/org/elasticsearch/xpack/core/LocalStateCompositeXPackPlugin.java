@@ -7,6 +7,7 @@ package org.elasticsearch.xpack.core;
 
 import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.search.async.AsyncSearchSecurity;
 import org.elasticsearch.action.support.ActionFilter;
 import org.elasticsearch.bootstrap.BootstrapCheck;
 import org.elasticsearch.client.Client;
@@ -325,6 +326,21 @@ public class LocalStateCompositeXPackPlugin extends XPackPlugin implements Scrip
         }
     }
 
+    @Override
+    public AsyncSearchSecurity getAsyncSearchSecurity() {
+        // There can be only one.
+        List<AsyncSearchSecurity> items = filterPlugins(ActionPlugin.class).stream().map(ActionPlugin::getAsyncSearchSecurity)
+                .filter(Objects::nonNull).collect(Collectors.toList());
+
+        if (items.size() > 1) {
+            throw new UnsupportedOperationException("Only the security ActionPlugin should override this");
+        } else if (items.size() == 1) {
+            return items.get(0);
+        } else {
+            return null;
+        }
+    }
+
     @Override
     public List<ExecutorBuilder<?>> getExecutorBuilders(final Settings settings) {
         List<ExecutorBuilder<?>> builders = new ArrayList<>();
@@ -12,6 +12,8 @@ import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.search.TransportMultiSearchAction;
+import org.elasticsearch.action.search.async.AsyncSearchSecurity;
 import org.elasticsearch.action.support.ActionFilter;
 import org.elasticsearch.action.support.DestructiveOperations;
 import org.elasticsearch.bootstrap.BootstrapCheck;
@@ -182,6 +184,7 @@ import org.elasticsearch.xpack.security.authc.esnative.NativeUsersStore;
 import org.elasticsearch.xpack.security.authc.esnative.ReservedRealm;
 import org.elasticsearch.xpack.security.authc.support.mapper.NativeRoleMappingStore;
 import org.elasticsearch.xpack.security.authz.AuthorizationService;
+import org.elasticsearch.xpack.security.authz.SecurityAsyncSearchOwnership;
 import org.elasticsearch.xpack.security.authz.SecuritySearchOperationListener;
 import org.elasticsearch.xpack.security.authz.accesscontrol.OptOutQueryCache;
 import org.elasticsearch.xpack.security.authz.store.CompositeRolesStore;
@@ -376,6 +379,10 @@ public class Security extends Plugin implements ActionPlugin, IngestPlugin, Netw
     protected SSLService getSslService() { return XPackPlugin.getSharedSslService(); }
     protected XPackLicenseState getLicenseState() { return XPackPlugin.getSharedLicenseState(); }
 
+    private static String batchedShardQueriesNotSupported() {
+        return "[" + TransportMultiSearchAction.BATCHED_SHARD_QUERIES_SETTING.getKey() + "] cannot be enabled when security is enabled";
+    }
+
     @Override
     public Collection<Object> createComponents(Client client, ClusterService clusterService, ThreadPool threadPool,
                                                ResourceWatcherService resourceWatcherService, ScriptService scriptService,
@@ -395,6 +402,17 @@ public class Security extends Plugin implements ActionPlugin, IngestPlugin, Netw
             return Collections.emptyList();
         }
 
+        // the batched shard query requests of multi search are not authorized per shard, see AuthorizationService
+        if (TransportMultiSearchAction.BATCHED_SHARD_QUERIES_SETTING.get(settings)) {
+            throw new IllegalArgumentException(batchedShardQueriesNotSupported());
+        }
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(TransportMultiSearchAction.BATCHED_SHARD_QUERIES_SETTING,
+            batchedShardQueries -> {}, batchedShardQueries -> {
+                if (batchedShardQueries) {
+                    throw new IllegalArgumentException(batchedShardQueriesNotSupported());
+                }
+            });
+
         threadContext.set(threadPool.getThreadContext());
         List<Object> components = new ArrayList<>();
         securityContext.set(new SecurityContext(settings, threadPool.getThreadContext()));
@@ -983,6 +1001,14 @@ public class Security extends Plugin implements ActionPlugin, IngestPlugin, Netw
         return handler -> new SecurityRestFilter(getLicenseState(), threadContext, authcService.get(), handler, extractClientCertificate);
     }
 
+    @Override
+    public AsyncSearchSecurity getAsyncSearchSecurity() {
+        if (enabled == false || transportClientMode) {
+            return null;
+        }
+        return new SecurityAsyncSearchOwnership(getLicenseState());
+    }
+
     @Override
     public List<ExecutorBuilder<?>> getExecutorBuilders(final Settings settings) {
         if (enabled && transportClientMode == false) {
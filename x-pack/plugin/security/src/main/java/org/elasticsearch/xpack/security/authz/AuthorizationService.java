@@ -23,9 +23,12 @@ import org.elasticsearch.action.delete.DeleteAction;
 import org.elasticsearch.action.get.MultiGetAction;
 import org.elasticsearch.action.index.IndexAction;
 import org.elasticsearch.action.search.ClearScrollAction;
+import org.elasticsearch.action.search.ClosePointInTimeAction;
 import org.elasticsearch.action.search.MultiSearchAction;
 import org.elasticsearch.action.search.SearchScrollAction;
 import org.elasticsearch.action.search.SearchTransportService;
+import org.elasticsearch.action.search.async.DeleteAsyncSearchAction;
+import org.elasticsearch.action.search.async.GetAsyncSearchAction;
 import org.elasticsearch.action.support.replication.TransportReplicationAction.ConcreteShardRequest;
 import org.elasticsearch.action.termvectors.MultiTermVectorsAction;
 import org.elasticsearch.action.update.UpdateAction;
@@ -211,6 +214,12 @@ public class AuthorizationService {
             throw denial(auditId, authentication, action, request, permission.names());
         }
 
+        // the shard query requests of a batch are executed without being authorized one by one, which would skip document and field
+        // level security. Security refuses to enable batching, so such a request can only come from a misconfigured node.
+        if (SearchTransportService.QUERY_BATCH_ACTION_NAME.equals(action)) {
+            throw denial(auditId, authentication, action, request, permission.names());
+        }
+
         //composite actions are explicitly listed and will be authorized at the sub-request / shard level
         if (isCompositeAction(action)) {
             if (request instanceof CompositeIndicesRequest == false) {
@@ -263,8 +272,10 @@ public class AuthorizationService {
             if (isScrollRelatedAction(action)) {
                 // if the action is a search scroll action, we first authorize that the user can execute the action for some
                 // index and if they cannot, we can fail the request early before we allow the execution of the action and in
-                // turn the shard actions
-                if (SearchScrollAction.NAME.equals(action) && permission.indices().check(action) == false) {
+                // turn the shard actions. Async searches can only be retrieved by the user that submitted them, which is
+                // checked when the search is looked up.
+                if ((SearchScrollAction.NAME.equals(action) || GetAsyncSearchAction.NAME.equals(action)
+                        || DeleteAsyncSearchAction.NAME.equals(action)) && permission.indices().check(action) == false) {
                     throw denial(auditId, authentication, action, request, permission.names());
                 } else {
                     // we store the request as a transient in the ThreadContext in case of a authorization failure at the shard
@@ -523,7 +534,11 @@ public class AuthorizationService {
             action.equals(SearchTransportService.FREE_CONTEXT_SCROLL_ACTION_NAME) ||
             action.equals(ClearScrollAction.NAME) ||
             action.equals("indices:data/read/sql/close_cursor") ||
-            action.equals(SearchTransportService.CLEAR_SCROLL_CONTEXTS_ACTION_NAME);
+            action.equals(SearchTransportService.CLEAR_SCROLL_CONTEXTS_ACTION_NAME) ||
+            action.equals(ClosePointInTimeAction.NAME) ||
+            action.equals(SearchTransportService.FREE_READER_CONTEXT_ACTION_NAME) ||
+            action.equals(GetAsyncSearchAction.NAME) ||
+            action.equals(DeleteAsyncSearchAction.NAME);
     }
 
     static boolean checkSameUserPermissions(String action, TransportRequest request, Authentication authentication) {
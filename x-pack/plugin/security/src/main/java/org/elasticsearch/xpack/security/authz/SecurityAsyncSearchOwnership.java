@@ -0,0 +1,63 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.security.authz;
+
+import org.elasticsearch.action.search.async.AsyncSearchSecurity;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.license.XPackLicenseState;
+import org.elasticsearch.xpack.core.security.authc.Authentication;
+import org.elasticsearch.xpack.core.security.authc.AuthenticationField;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An {@link AsyncSearchSecurity} that stores the {@link Authentication} of the user that submits an async search, which
+ * is compared to the current authentication when the search is retrieved or deleted, the same way as for scroll requests.
+ */
+public final class SecurityAsyncSearchOwnership implements AsyncSearchSecurity {
+
+    private final XPackLicenseState licenseState;
+
+    public SecurityAsyncSearchOwnership(XPackLicenseState licenseState) {
+        this.licenseState = licenseState;
+    }
+
+    @Override
+    public Map<String, String> getUserHeaders(ThreadContext threadContext) {
+        final Authentication authentication = Authentication.getAuthentication(threadContext);
+        if (licenseState.isAuthAllowed() == false || authentication == null) {
+            return Collections.emptyMap();
+        }
+        try {
+            return Collections.singletonMap(AuthenticationField.AUTHENTICATION_KEY, authentication.encode());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean isSameUser(Map<String, String> userHeaders, ThreadContext threadContext) {
+        final String header = userHeaders.get(AuthenticationField.AUTHENTICATION_KEY);
+        if (licenseState.isAuthAllowed() == false || header == null) {
+            // the search was submitted without authentication
+            return true;
+        }
+        final Authentication current = Authentication.getAuthentication(threadContext);
+        if (current == null) {
+            return false;
+        }
+        final Authentication original;
+        try {
+            original = Authentication.decode(header);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return SecuritySearchOperationListener.isSameUser(original, current);
+    }
+}
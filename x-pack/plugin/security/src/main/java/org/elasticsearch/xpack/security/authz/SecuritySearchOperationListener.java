@@ -77,6 +77,16 @@ public final class SecuritySearchOperationListener implements SearchOperationLis
      */
     static void ensureAuthenticatedUserIsSame(Authentication original, Authentication current, AuditTrailService auditTrailService,
                                               long id, String action, TransportRequest request, String requestId, String[] roleNames) {
+        if (isSameUser(original, current) == false) {
+            auditTrailService.accessDenied(requestId, current, action, request, roleNames);
+            throw new SearchContextMissingException(id);
+        }
+    }
+
+    /**
+     * Returns whether both authentications belong to the same user, comparing the username and the originating realm type.
+     */
+    static boolean isSameUser(Authentication original, Authentication current) {
         // this is really a best effort attempt since we cannot guarantee principal uniqueness
         // and realm names can change between nodes.
         final boolean samePrincipal = original.getUser().principal().equals(current.getUser().principal());
@@ -92,11 +102,6 @@ public final class SecuritySearchOperationListener implements SearchOperationLis
         } else {
             sameRealmType = original.getAuthenticatedBy().getType().equals(current.getAuthenticatedBy().getType());
         }
-
-        final boolean sameUser = samePrincipal && sameRealmType;
-        if (sameUser == false) {
-            auditTrailService.accessDenied(requestId, current, action, request, roleNames);
-            throw new SearchContextMissingException(id);
-        }
+        return samePrincipal && sameRealmType;
     }
 }
@@ -14,6 +14,7 @@ import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.get.MultiGetResponse;
 import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.TransportMultiSearchAction;
 import org.elasticsearch.action.termvectors.MultiTermVectorsResponse;
 import org.elasticsearch.action.termvectors.TermVectorsRequest;
 import org.elasticsearch.action.termvectors.TermVectorsResponse;
@@ -71,6 +72,7 @@ import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFa
 import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertSearchHits;
 import static org.elasticsearch.xpack.core.security.authc.support.UsernamePasswordToken.BASIC_AUTH_HEADER;
 import static org.elasticsearch.xpack.core.security.authc.support.UsernamePasswordToken.basicAuthHeaderValue;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -410,6 +412,38 @@ public class DocumentLevelSecurityTests extends SecurityIntegTestCase {
         assertThat(response.getResponses()[1].getResponse().getHits().getAt(1).getSourceAsMap().get("id"), is(2));
     }
 
+    public void testMSearchWithBatchedShardQueries() throws Exception {
+        // batched shard queries would skip the per shard authorization, so security refuses to enable them
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> client().admin().cluster().prepareUpdateSettings()
+                .setTransientSettings(Settings.builder().put(TransportMultiSearchAction.BATCHED_SHARD_QUERIES_SETTING.getKey(), true))
+                .get());
+        assertThat(e.getMessage(), containsString("[search.msearch.batched_shard_queries] cannot be enabled when security is enabled"));
+
+        assertAcked(client().admin().indices().prepareCreate("test")
+                .addMapping("type1", "field1", "type=text", "field2", "type=text", "id", "type=integer")
+        );
+        client().prepareIndex("test", "type1", "1").setSource("field1", "value1", "id", 1).get();
+        client().prepareIndex("test", "type1", "2").setSource("field2", "value2", "id", 2).get();
+        client().admin().indices().prepareRefresh("test").get();
+
+        // several search requests on the same index are what batching would have merged into a single request per node
+        MultiSearchResponse response = client()
+                .filterWithHeader(Collections.singletonMap(BASIC_AUTH_HEADER, basicAuthHeaderValue("user1", USERS_PASSWD)))
+                .prepareMultiSearch()
+                .add(client().prepareSearch("test").setQuery(QueryBuilders.matchAllQuery()))
+                .add(client().prepareSearch("test").setQuery(QueryBuilders.termQuery("id", 2)))
+                .add(client().prepareSearch("test").setQuery(QueryBuilders.matchAllQuery()))
+                .get();
+        for (int i = 0; i < 3; i++) {
+            assertFalse(response.getResponses()[i].isFailure());
+        }
+        assertThat(response.getResponses()[0].getResponse().getHits().getTotalHits().value, is(1L));
+        assertThat(response.getResponses()[0].getResponse().getHits().getAt(0).getId(), equalTo("1"));
+        assertThat(response.getResponses()[1].getResponse().getHits().getTotalHits().value, is(0L));
+        assertThat(response.getResponses()[2].getResponse().getHits().getTotalHits().value, is(1L));
+        assertThat(response.getResponses()[2].getResponse().getHits().getAt(0).getId(), equalTo("1"));
+    }
+
     public void testTVApi() throws Exception {
         assertAcked(client().admin().indices().prepareCreate("test")
                         .addMapping("type1", "field1", "type=text,term_vector=with_positions_offsets_payloads",
@@ -6,6 +6,7 @@
 package org.elasticsearch.xpack.security;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.action.search.TransportMultiSearchAction;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
@@ -211,6 +212,19 @@ public class SecurityTests extends ESTestCase {
         assertEquals("Unknown audit trail output [foo]", e.getMessage());
     }
 
+    public void testBatchedShardQueries() throws Exception {
+        Settings settings = Settings.builder().put(TransportMultiSearchAction.BATCHED_SHARD_QUERIES_SETTING.getKey(), true).build();
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> createComponents(settings));
+        assertEquals("[search.msearch.batched_shard_queries] cannot be enabled when security is enabled", e.getMessage());
+    }
+
+    public void testBatchedShardQueriesOnDisabledSecurity() throws Exception {
+        Settings settings = Settings.builder()
+            .put("xpack.security.enabled", false)
+            .put(TransportMultiSearchAction.BATCHED_SHARD_QUERIES_SETTING.getKey(), true).build();
+        assertThat(createComponents(settings), empty());
+    }
+
     public void testHttpSettingDefaults() throws Exception {
         final Settings defaultSettings = Security.additionalSettings(Settings.EMPTY, true, false);
         assertThat(SecurityField.NAME4, equalTo(NetworkModule.TRANSPORT_TYPE_SETTING.get(defaultSettings)));
@@ -55,6 +55,8 @@ import org.elasticsearch.action.index.IndexAction;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.ClearScrollAction;
 import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.ClosePointInTimeAction;
+import org.elasticsearch.action.search.ClosePointInTimeRequest;
 import org.elasticsearch.action.search.MultiSearchAction;
 import org.elasticsearch.action.search.MultiSearchRequest;
 import org.elasticsearch.action.search.SearchAction;
@@ -62,6 +64,10 @@ import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchScrollAction;
 import org.elasticsearch.action.search.SearchScrollRequest;
 import org.elasticsearch.action.search.SearchTransportService;
+import org.elasticsearch.action.search.async.DeleteAsyncSearchAction;
+import org.elasticsearch.action.search.async.DeleteAsyncSearchRequest;
+import org.elasticsearch.action.search.async.GetAsyncSearchAction;
+import org.elasticsearch.action.search.async.GetAsyncSearchRequest;
 import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.action.support.PlainActionFuture;
 import org.elasticsearch.action.support.WriteRequest;
@@ -557,6 +563,48 @@ public class AuthorizationServiceTests extends ESTestCase {
         authorize(authentication, SearchTransportService.FREE_CONTEXT_SCROLL_ACTION_NAME, request);
         verify(auditTrail).accessGranted(requestId, authentication, SearchTransportService.FREE_CONTEXT_SCROLL_ACTION_NAME, request,
             new String[]{role.getName()});
+
+        final ClosePointInTimeRequest closePointInTimeRequest = new ClosePointInTimeRequest("id");
+        authorize(authentication, ClosePointInTimeAction.NAME, closePointInTimeRequest);
+        verify(auditTrail).accessGranted(requestId, authentication, ClosePointInTimeAction.NAME, closePointInTimeRequest,
+            new String[]{role.getName()});
+
+        authorize(authentication, SearchTransportService.FREE_READER_CONTEXT_ACTION_NAME, request);
+        verify(auditTrail).accessGranted(requestId, authentication, SearchTransportService.FREE_READER_CONTEXT_ACTION_NAME, request,
+            new String[]{role.getName()});
+
+        final GetAsyncSearchRequest getAsyncSearchRequest = new GetAsyncSearchRequest("id");
+        authorize(authentication, GetAsyncSearchAction.NAME, getAsyncSearchRequest);
+        verify(auditTrail).accessGranted(requestId, authentication, GetAsyncSearchAction.NAME, getAsyncSearchRequest,
+            new String[]{role.getName()});
+
+        final DeleteAsyncSearchRequest deleteAsyncSearchRequest = new DeleteAsyncSearchRequest("id");
+        authorize(authentication, DeleteAsyncSearchAction.NAME, deleteAsyncSearchRequest);
+        verify(auditTrail).accessGranted(requestId, authentication, DeleteAsyncSearchAction.NAME, deleteAsyncSearchRequest,
+            new String[]{role.getName()});
+        verifyNoMoreInteractions(auditTrail);
+    }
+
+    public void testAsyncSearchRequestsDeniedWithoutIndicesPrivileges() {
+        RoleDescriptor role = new RoleDescriptor("a_role", new String[]{"monitor"}, null, null);
+        final Authentication authentication = createAuthentication(new User("test user", "a_all"));
+        roleMap.put("a_all", role);
+        mockEmptyMetaData();
+        final String requestId = AuditUtil.getOrGenerateRequestId(threadContext);
+
+        final GetAsyncSearchRequest getAsyncSearchRequest = new GetAsyncSearchRequest("id");
+        assertThrowsAuthorizationException(
+            () -> authorize(authentication, GetAsyncSearchAction.NAME, getAsyncSearchRequest),
+            GetAsyncSearchAction.NAME, "test user");
+        verify(auditTrail).accessDenied(requestId, authentication, GetAsyncSearchAction.NAME, getAsyncSearchRequest,
+            new String[]{role.getName()});
+
+        final DeleteAsyncSearchRequest deleteAsyncSearchRequest = new DeleteAsyncSearchRequest("id");
+        assertThrowsAuthorizationException(
+            () -> authorize(authentication, DeleteAsyncSearchAction.NAME, deleteAsyncSearchRequest),
+            DeleteAsyncSearchAction.NAME, "test user");
+        verify(auditTrail).accessDenied(requestId, authentication, DeleteAsyncSearchAction.NAME, deleteAsyncSearchRequest,
+            new String[]{role.getName()});
         verifyNoMoreInteractions(auditTrail);
     }
 
@@ -1027,6 +1075,22 @@ public class AuthorizationServiceTests extends ESTestCase {
         verifyNoMoreInteractions(auditTrail);
     }
 
+    public void testBatchedShardQueriesAreRejected() {
+        //the shard requests of a batch cannot be authorized one by one, so the batch is rejected even for a user that can read everything
+        final String action = SearchTransportService.QUERY_BATCH_ACTION_NAME;
+        final TransportRequest request = new MockCompositeIndicesRequest();
+        final Authentication authentication = createAuthentication(new User("test user", "role"));
+        final RoleDescriptor role = new RoleDescriptor("role", null,
+            new IndicesPrivileges[]{IndicesPrivileges.builder().indices("*").privileges("all").build()}, null);
+        roleMap.put("role", role);
+        final String requestId = AuditUtil.getOrGenerateRequestId(threadContext);
+
+        assertThrowsAuthorizationException(
+            () -> authorize(authentication, action, request), action, "test user");
+        verify(auditTrail).accessDenied(requestId, authentication, action, request, new String[]{role.getName()});
+        verifyNoMoreInteractions(auditTrail);
+    }
+
     public void testCompositeActionsMustImplementCompositeIndicesRequest() {
         String action = randomCompositeRequest().v1();
         TransportRequest request = mock(TransportRequest.class);
@@ -0,0 +1,74 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License;
+ * you may not use this file except in compliance with the Elastic License.
+ */
+package org.elasticsearch.xpack.security.authz;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.common.util.concurrent.ThreadContext.StoredContext;
+import org.elasticsearch.license.XPackLicenseState;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.core.security.authc.Authentication;
+import org.elasticsearch.xpack.core.security.authc.Authentication.RealmRef;
+import org.elasticsearch.xpack.core.security.authc.AuthenticationField;
+import org.elasticsearch.xpack.core.security.user.User;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasKey;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SecurityAsyncSearchOwnershipTests extends ESTestCase {
+
+    public void testUnlicensed() throws Exception {
+        XPackLicenseState licenseState = mock(XPackLicenseState.class);
+        when(licenseState.isAuthAllowed()).thenReturn(false);
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        new Authentication(new User("test", "role"), new RealmRef("realm", "file", "node"), null).writeToContext(threadContext);
+
+        SecurityAsyncSearchOwnership ownership = new SecurityAsyncSearchOwnership(licenseState);
+        assertEquals(Collections.emptyMap(), ownership.getUserHeaders(threadContext));
+        assertTrue(ownership.isSameUser(Collections.emptyMap(), threadContext));
+    }
+
+    public void testIsSameUser() throws Exception {
+        XPackLicenseState licenseState = mock(XPackLicenseState.class);
+        when(licenseState.isAuthAllowed()).thenReturn(true);
+        ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+        SecurityAsyncSearchOwnership ownership = new SecurityAsyncSearchOwnership(licenseState);
+
+        final Map<String, String> userHeaders;
+        try (StoredContext ignore = threadContext.newStoredContext(false)) {
+            new Authentication(new User("test", "role"), new RealmRef("realm", "file", "node"), null).writeToContext(threadContext);
+            userHeaders = ownership.getUserHeaders(threadContext);
+            assertThat(userHeaders, hasKey(AuthenticationField.AUTHENTICATION_KEY));
+            assertTrue(ownership.isSameUser(userHeaders, threadContext));
+        }
+
+        try (StoredContext ignore = threadContext.newStoredContext(false)) {
+            // the realm name and the node can differ when the search is retrieved from another node
+            new Authentication(new User("test", "role"), new RealmRef(randomAlphaOfLengthBetween(1, 16), "file",
+                randomAlphaOfLengthBetween(1, 8)), null).writeToContext(threadContext);
+            assertTrue(ownership.isSameUser(userHeaders, threadContext));
+        }
+
+        try (StoredContext ignore = threadContext.newStoredContext(false)) {
+            new Authentication(new User("other", "role"), new RealmRef("realm", "file", "node"), null).writeToContext(threadContext);
+            assertFalse(ownership.isSameUser(userHeaders, threadContext));
+        }
+
+        try (StoredContext ignore = threadContext.newStoredContext(false)) {
+            new Authentication(new User("test", "role"), new RealmRef("realm", "native", "node"), null).writeToContext(threadContext);
+            assertFalse(ownership.isSameUser(userHeaders, threadContext));
+        }
+
+        // the current request is not authenticated
+        assertFalse(ownership.isSameUser(userHeaders, threadContext));
+        // the search was submitted without authentication
+        assertTrue(ownership.isSameUser(Collections.emptyMap(), threadContext));
+    }
+}